@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pool behaviour when a burst of concurrent callers, larger than the pool, compete for connections.
+ * Each invocation submits {@code concurrency} borrow/query/return tasks and waits for all of them, so the
+ * score is the latency of the whole burst. Callers run either on a fixed pool of platform threads or on one
+ * virtual thread per task. Virtual threads require a Java 21+ runtime; on older runtimes the {@code virtual}
+ * parameter fails during setup.
+ *
+ * @since 6.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentAcquireBenchmark {
+
+    /**
+     * The number of concurrent callers.
+     */
+    @Param({"1", "16", "128", "1024"})
+    public int concurrency;
+
+    /**
+     * The kind of threads the callers run on, either {@code platform} or {@code virtual}.
+     */
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ExecutorService executor;
+    private Callable<String> task;
+
+    /**
+     * Creates the executor for the callers.
+     *
+     * @param state The data source state
+     */
+    @Setup(Level.Trial)
+    public void setUp(DataSourceState state) {
+        executor = switch (threads) {
+            case "platform" -> Executors.newFixedThreadPool(concurrency);
+            case "virtual" -> newVirtualThreadPerTaskExecutor();
+            default -> throw new IllegalArgumentException("Unknown thread type: " + threads);
+        };
+        DataSource dataSource = state.dataSource;
+        task = () -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT name FROM " + DataSourceState.TABLE + " WHERE id = ?")) {
+                statement.setLong(1, 1L);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getString(1) : null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Shuts down the executor.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Runs a burst of concurrent borrow/query/return tasks.
+     *
+     * @return The number of completed tasks
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if a task fails
+     */
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        Future<?>[] futures = new Future<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            futures[i] = executor.submit(task);
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.length;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or above", e);
+        }
+    }
+}
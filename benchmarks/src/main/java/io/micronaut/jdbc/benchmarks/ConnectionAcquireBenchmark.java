@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of borrowing a connection from the pool and returning it, with and without a statement
+ * round trip. Run with {@code -t N} to measure contention between N benchmark threads.
+ *
+ * @since 6.0.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionAcquireBenchmark {
+
+    /**
+     * Borrows a connection and immediately returns it.
+     *
+     * @param state The data source state
+     * @param blackhole The blackhole
+     * @throws SQLException if a connection cannot be obtained
+     */
+    @Benchmark
+    public void acquireRelease(DataSourceState state, Blackhole blackhole) throws SQLException {
+        try (Connection connection = state.dataSource.getConnection()) {
+            blackhole.consume(connection);
+        }
+    }
+
+    /**
+     * Borrows a connection, executes a primary key lookup and returns the connection.
+     *
+     * @param state The data source state
+     * @return The selected value
+     * @throws SQLException if the statement fails
+     */
+    @Benchmark
+    public String statementRoundTrip(DataSourceState state) throws SQLException {
+        try (Connection connection = state.dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT name FROM " + DataSourceState.TABLE + " WHERE id = ?")) {
+            statement.setLong(1, 1L);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+}
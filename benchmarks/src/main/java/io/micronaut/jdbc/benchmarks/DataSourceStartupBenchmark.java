@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.benchmarks;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.ApplicationContextBuilder;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken to start an application context, create the configured data sources through the
+ * pool factories and obtain a first connection. Catches regressions in the configuration and factory code.
+ *
+ * @since 6.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(3)
+public class DataSourceStartupBenchmark {
+
+    /**
+     * The number of data sources to configure.
+     */
+    @Param({"1", "4"})
+    public int dataSources;
+
+    /**
+     * The pool size of each data source.
+     */
+    @Param({"10"})
+    public int poolSize;
+
+    /**
+     * Starts a context, borrows a connection from every data source and closes the context again.
+     *
+     * @return The number of data sources started
+     * @throws SQLException if a connection cannot be obtained
+     */
+    @Benchmark
+    public int startAndConnect() throws SQLException {
+        ApplicationContextBuilder builder = ApplicationContext.builder();
+        for (int i = 0; i < dataSources; i++) {
+            builder.properties(DataSourceState.configuration("startup" + i, poolSize, ""));
+        }
+        try (ApplicationContext context = builder.start()) {
+            for (int i = 0; i < dataSources; i++) {
+                DataSource dataSource = context.getBean(DataSource.class, Qualifiers.byName("startup" + i));
+                try (Connection ignored = dataSource.getConnection()) {
+                    // connection obtained
+                }
+            }
+        }
+        return dataSources;
+    }
+}
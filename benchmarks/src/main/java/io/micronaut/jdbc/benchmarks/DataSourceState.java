@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.benchmarks;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts an application context with a single data source configured against an in-memory H2 database.
+ * The data source is created by whichever pool integration is on the classpath, so it goes through the
+ * same {@code DatasourceConfiguration} and {@code DatasourceFactory} wiring as a production application.
+ *
+ * @since 6.0.0
+ */
+@State(Scope.Benchmark)
+public class DataSourceState {
+
+    static final String DATASOURCE_NAME = "benchmark";
+    static final String TABLE = "bench_item";
+
+    /**
+     * The maximum (and minimum) number of connections in the pool.
+     */
+    @Param({"10"})
+    public int poolSize;
+
+    /**
+     * Additional data source properties as a comma separated list of {@code key=value} pairs.
+     */
+    @Param({""})
+    public String properties;
+
+    ApplicationContext context;
+    DataSource dataSource;
+
+    /**
+     * Starts the application context and fills the pool.
+     *
+     * @throws SQLException if the schema cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = ApplicationContext.run(configuration(DATASOURCE_NAME, poolSize, properties));
+        dataSource = context.getBean(DataSource.class, Qualifiers.byName(DATASOURCE_NAME));
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+            statement.execute("MERGE INTO " + TABLE + " KEY (id) VALUES (1, 'one')");
+        }
+        warmUp();
+    }
+
+    /**
+     * Stops the application context, closing the pool.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * Builds the configuration for a pooled H2 data source. The pool specific size properties are all set so
+     * that whichever integration is on the classpath ends up with a fixed size pool.
+     *
+     * @param name       The data source name
+     * @param poolSize   The pool size
+     * @param properties Additional data source properties
+     * @return The configuration
+     */
+    static Map<String, Object> configuration(String name, int poolSize, String properties) {
+        String prefix = "datasources." + name + ".";
+        Map<String, Object> config = new HashMap<>();
+        config.put(prefix + "url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        config.put(prefix + "username", "sa");
+        config.put(prefix + "password", "");
+        // Hikari
+        config.put(prefix + "maximum-pool-size", poolSize);
+        config.put(prefix + "minimum-idle", poolSize);
+        // Tomcat
+        config.put(prefix + "max-active", poolSize);
+        config.put(prefix + "initial-size", poolSize);
+        // DBCP and Tomcat
+        config.put(prefix + "max-idle", poolSize);
+        config.put(prefix + "min-idle", poolSize);
+        // DBCP
+        config.put(prefix + "max-total", poolSize);
+        // UCP
+        config.put(prefix + "max-pool-size", poolSize);
+        config.put(prefix + "min-pool-size", poolSize);
+        config.put(prefix + "initial-pool-size", poolSize);
+        if (!properties.isEmpty()) {
+            for (String pair : properties.split(",")) {
+                int idx = pair.indexOf('=');
+                if (idx > 0) {
+                    config.put(prefix + pair.substring(0, idx).trim(), pair.substring(idx + 1).trim());
+                }
+            }
+        }
+        return config;
+    }
+
+    private void warmUp() throws SQLException {
+        List<Connection> connections = new ArrayList<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.benchmarks;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the borrow latency for each {@code validation-strategy}. Validation on borrow is enabled for every
+ * pool, so the difference between the strategies is the cost of the validation itself.
+ *
+ * @since 6.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationStrategyBenchmark {
+
+    /**
+     * The validation strategy.
+     */
+    @Param({"query", "is-valid", "skip-if-recently-used"})
+    public String strategy;
+
+    private ApplicationContext context;
+    private DataSource dataSource;
+
+    /**
+     * Starts a context with a data source that validates connections on borrow.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String properties = "validation-strategy=" + strategy + ",test-on-borrow=true,validate-connection-on-borrow=true";
+        context = ApplicationContext.run(DataSourceState.configuration("validation", 10, properties));
+        dataSource = context.getBean(DataSource.class, Qualifiers.byName("validation"));
+    }
+
+    /**
+     * Stops the application context, closing the pool.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Borrows a connection, which triggers its validation, and returns it.
+     *
+     * @param blackhole The blackhole
+     * @throws SQLException if a connection cannot be obtained
+     */
+    @Benchmark
+    public void borrow(Blackhole blackhole) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            blackhole.consume(connection);
+        }
+    }
+}
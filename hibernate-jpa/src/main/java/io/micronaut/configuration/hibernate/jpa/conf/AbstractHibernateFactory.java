@@ -22,8 +22,10 @@ import io.micronaut.configuration.hibernate.jpa.conf.sessionfactory.configure.Se
 import io.micronaut.context.env.Environment;
 import io.micronaut.context.exceptions.ConfigurationException;
 import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.util.ArrayUtils;
 import io.micronaut.core.util.StringUtils;
+import io.micronaut.jdbc.jfr.StartupPhaseEvent;
 import org.hibernate.MappingException;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
@@ -89,7 +91,12 @@ abstract class AbstractHibernateFactory {
             }
             throw new ConfigurationException("Entities not found for JPA configuration: '" + jpaConfiguration.getName() + "' within packages [" + String.join(",", packages) + "]. Check that you have correctly specified a package containing JPA entities within the \"jpa." + jpaConfiguration.getName() + ".entity-scan.packages\" property in your application configuration and that those entities are either compiled with Micronaut or a build time index produced with @Introspected(packages=\"foo.bar\", includedAnnotations=Entity.class) declared on your Application class");
         }
-        return metadataSources.buildMetadata();
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.HIBERNATE_METADATA, jpaConfiguration.getName());
+        try {
+            return metadataSources.buildMetadata();
+        } finally {
+            event.commit();
+        }
     }
 
     SessionFactoryBuilder buildHibernateSessionFactoryBuilder(Metadata metadata, JpaConfiguration jpaConfiguration) {
@@ -101,6 +108,11 @@ abstract class AbstractHibernateFactory {
     }
 
     SessionFactory buildHibernateSessionFactory(SessionFactoryBuilder builder) {
+        return buildHibernateSessionFactory(builder, null);
+    }
+
+    SessionFactory buildHibernateSessionFactory(SessionFactoryBuilder builder, @Nullable String name) {
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.HIBERNATE_SESSION_FACTORY, name);
         try {
             return builder.build();
         } catch (MappingException e) {
@@ -113,6 +125,8 @@ abstract class AbstractHibernateFactory {
                 LOG.error("Error creating SessionFactory", e);
             }
             throw e;
+        } finally {
+            event.commit();
         }
     }
 
@@ -103,8 +103,8 @@ final class SessionFactoryPerDataSourceFactory extends AbstractHibernateFactory
     @Bean(preDestroy = "close")
     @Context
     @EachBean(SessionFactoryBuilder.class)
-    SessionFactory buildHibernateSessionFactoryBuilder(SessionFactoryBuilder sessionFactoryBuilder) {
-        return super.buildHibernateSessionFactory(sessionFactoryBuilder);
+    SessionFactory buildHibernateSessionFactoryBuilder(SessionFactoryBuilder sessionFactoryBuilder, @Parameter String name) {
+        return super.buildHibernateSessionFactory(sessionFactoryBuilder, name);
     }
 
 }
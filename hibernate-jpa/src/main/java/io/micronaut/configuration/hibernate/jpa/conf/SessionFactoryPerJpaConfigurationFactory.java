@@ -78,8 +78,8 @@ final class SessionFactoryPerJpaConfigurationFactory extends AbstractHibernateFa
     @Bean(preDestroy = "close")
     @Context
     @EachBean(SessionFactoryBuilder.class)
-    SessionFactory buildHibernateSessionFactoryBuilder(SessionFactoryBuilder sessionFactoryBuilder) {
-        return super.buildHibernateSessionFactory(sessionFactoryBuilder);
+    SessionFactory buildHibernateSessionFactoryBuilder(SessionFactoryBuilder sessionFactoryBuilder, @Parameter String name) {
+        return super.buildHibernateSessionFactory(sessionFactoryBuilder, name);
     }
 
 }
@@ -25,13 +25,16 @@ import io.micronaut.core.convert.format.MapFormat;
 import io.micronaut.core.naming.conventions.StringConvention;
 import io.micronaut.jdbc.BasicJdbcConfiguration;
 import io.micronaut.jdbc.CalculatedSettings;
+import io.micronaut.jdbc.ValidationStrategy;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Allows the configuration of Apache DBCP JDBC data sources. All properties on
@@ -52,6 +55,9 @@ public class DatasourceConfiguration extends BasicDataSource implements BasicJdb
     private static final Logger LOG = LoggerFactory.getLogger(DatasourceConfiguration.class);
     private final CalculatedSettings calculatedSettings;
     private final String name;
+    private final Set<String> configuredConnectionProperties = new HashSet<>();
+    private ValidationStrategy validationStrategy;
+    private boolean lazy;
 
     /**
      * Constructor.
@@ -82,9 +88,20 @@ public class DatasourceConfiguration extends BasicDataSource implements BasicJdb
         if (getConfiguredPassword() == null) {
             setPassword(getPassword());
         }
-        if (getConfiguredValidationQuery() == null) {
+        ValidationStrategy strategy = getValidationStrategy();
+        if (strategy != ValidationStrategy.QUERY) {
+            if (strategy == ValidationStrategy.SKIP_IF_RECENTLY_USED && LOG.isDebugEnabled()) {
+                LOG.debug("DBCP has no window to skip validation of recently used connections, data source [{}] validates every connection with Connection.isValid", name);
+            }
+            setValidationQuery(null);
+        } else if (getConfiguredValidationQuery() == null) {
             setValidationQuery(getValidationQuery());
         }
+        calculatedSettings.getDefaultDataSourceProperties().forEach((key, value) -> {
+            if (!configuredConnectionProperties.contains(key)) {
+                addConnectionProperty(key, value);
+            }
+        });
     }
 
     /**
@@ -151,7 +168,42 @@ public class DatasourceConfiguration extends BasicDataSource implements BasicJdb
 
     @Override
     public String getValidationQuery() {
-        return calculatedSettings.getValidationQuery();
+        return getValidationStrategy() == ValidationStrategy.QUERY ? calculatedSettings.getValidationQuery() : null;
+    }
+
+    /**
+     * @return The validation strategy to be used by the data source
+     */
+    public ValidationStrategy getValidationStrategy() {
+        return calculatedSettings.getValidationStrategy();
+    }
+
+    @Override
+    public ValidationStrategy getConfiguredValidationStrategy() {
+        return validationStrategy;
+    }
+
+    /**
+     * Sets how connections are validated. Defaults to the cheapest strategy supported by the database driver.
+     *
+     * @param validationStrategy The validation strategy
+     */
+    public void setValidationStrategy(ValidationStrategy validationStrategy) {
+        this.validationStrategy = validationStrategy;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether the connection pool is only created when the first connection is requested. Defaults to false.
+     *
+     * @param lazy Whether the data source is lazy
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
     }
 
     /**
@@ -161,6 +213,13 @@ public class DatasourceConfiguration extends BasicDataSource implements BasicJdb
      */
     public void setConnectionPropertiesString(@Property(name = "datasources.*.connection-properties") String connectionProperties) {
         setConnectionProperties(connectionProperties);
+        configuredConnectionProperties.clear();
+        if (connectionProperties != null) {
+            for (String entry : connectionProperties.split(";")) {
+                int idx = entry.indexOf('=');
+                configuredConnectionProperties.add(idx > -1 ? entry.substring(0, idx) : entry);
+            }
+        }
     }
 
     @Override
@@ -169,6 +228,7 @@ public class DatasourceConfiguration extends BasicDataSource implements BasicJdb
             dsProperties.forEach((s, o) -> {
                 if (o != null) {
                     addConnectionProperty(s, o.toString());
+                    configuredConnectionProperties.add(s);
                 }
             });
         }
@@ -20,7 +20,9 @@ import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
 import io.micronaut.jdbc.metadata.DataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.TimedDataSource;
 import org.apache.commons.dbcp2.BasicDataSource;
 
 import javax.sql.DataSource;
@@ -56,8 +58,8 @@ public class DatasourceFactory {
         DbcpDataSourcePoolMetadata dbcpDataSourcePoolMetadata = null;
         DataSource resolved = dataSourceResolver.resolve(dataSource);
 
-        if (resolved instanceof BasicDataSource) {
-            dbcpDataSourcePoolMetadata = new DbcpDataSourcePoolMetadata((BasicDataSource) resolved);
+        if (DataSourceWrapper.unwrap(resolved) instanceof BasicDataSource basicDataSource) {
+            dbcpDataSourcePoolMetadata = new DbcpDataSourcePoolMetadata(basicDataSource, TimedDataSource.findConnectionTimings(resolved));
         }
         return dbcpDataSourcePoolMetadata;
     }
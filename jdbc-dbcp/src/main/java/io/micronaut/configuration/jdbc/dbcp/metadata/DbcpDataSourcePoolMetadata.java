@@ -15,13 +15,17 @@
  */
 package io.micronaut.configuration.jdbc.dbcp.metadata;
 
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.jdbc.metadata.AbstractDataSourcePoolMetadata;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -34,9 +38,13 @@ import java.util.Optional;
  * @since 1.0.0
  */
 public class DbcpDataSourcePoolMetadata
-        extends AbstractDataSourcePoolMetadata<BasicDataSource> {
+        extends AbstractDataSourcePoolMetadata<BasicDataSource>
+        implements ResizableDataSourcePoolMetadata<BasicDataSource> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DbcpDataSourcePoolMetadata.class);
+    private static final Field POOL_FIELD = findPoolField();
+
+    private Integer configuredMinIdle;
 
     /**
      * DBCP typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
@@ -47,6 +55,17 @@ public class DbcpDataSourcePoolMetadata
         super(dataSource);
     }
 
+    /**
+     * DBCP typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
+     *
+     * @param dataSource        The datasource
+     * @param connectionTimings The connection timings recorded for the datasource
+     * @since 6.0.0
+     */
+    public DbcpDataSourcePoolMetadata(BasicDataSource dataSource, @Nullable ConnectionTimings connectionTimings) {
+        super(dataSource, connectionTimings);
+    }
+
     @Override
     public Integer getIdle() {
         return getConnectionPool()
@@ -61,6 +80,41 @@ public class DbcpDataSourcePoolMetadata
                 .orElse(0);
     }
 
+    @Override
+    public Integer getPending() {
+        return getConnectionPool()
+                .map(GenericObjectPool::getNumWaiters)
+                .orElse(0);
+    }
+
+    @Override
+    public Long getCreatedCount() {
+        return getConnectionPool()
+                .map(GenericObjectPool::getCreatedCount)
+                .orElse(0L);
+    }
+
+    @Override
+    public Long getDestroyedCount() {
+        return getConnectionPool()
+                .map(GenericObjectPool::getDestroyedCount)
+                .orElse(0L);
+    }
+
+    @Override
+    public Duration getMeanAcquireWait() {
+        return getConnectionPool()
+                .map(GenericObjectPool::getMeanBorrowWaitDuration)
+                .orElse(Duration.ZERO);
+    }
+
+    @Override
+    public Duration getMaxAcquireWait() {
+        return getConnectionPool()
+                .map(GenericObjectPool::getMaxBorrowWaitDuration)
+                .orElse(Duration.ZERO);
+    }
+
     @Override
     public Integer getMax() {
         return getDataSource().getMaxTotal();
@@ -71,6 +125,28 @@ public class DbcpDataSourcePoolMetadata
         return getDataSource().getMinIdle();
     }
 
+    /**
+     * Changes {@code maxTotal}. {@code minIdle} follows the new maximum while it is below the configured
+     * value and {@code maxIdle} follows it when it was equal to the previous maximum, so that connections above
+     * the new {@code maxIdle} are closed as they are returned.
+     *
+     * @param max the new maximum number of connections
+     * @since 6.0.0
+     */
+    @Override
+    public synchronized void setMax(int max) {
+        BasicDataSource dataSource = getDataSource();
+        if (configuredMinIdle == null) {
+            configuredMinIdle = dataSource.getMinIdle();
+        }
+        int previousMax = dataSource.getMaxTotal();
+        dataSource.setMaxTotal(max);
+        dataSource.setMinIdle(Math.min(configuredMinIdle, max));
+        if (dataSource.getMaxIdle() == previousMax || dataSource.getMaxIdle() > max) {
+            dataSource.setMaxIdle(max);
+        }
+    }
+
     @Override
     public String getValidationQuery() {
         return getDataSource().getValidationQuery();
@@ -91,18 +167,25 @@ public class DbcpDataSourcePoolMetadata
      * @return The {@link GenericObjectPool}
      */
     private GenericObjectPool extractPool() {
-        GenericObjectPool pool = null;
-        Field poolField;
+        if (POOL_FIELD == null) {
+            return null;
+        }
         try {
-            poolField = BasicDataSource.class.getDeclaredField("connectionPool");
-            if (poolField != null) {
-                poolField.setAccessible(true);
-                pool = (GenericObjectPool) poolField.get(this.getDataSource());
-            }
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            return (GenericObjectPool) POOL_FIELD.get(this.getDataSource());
+        } catch (IllegalAccessException e) {
             LOGGER.error("Could not get pool from dbcp dataSource", e);
+            return null;
         }
+    }
 
-        return pool;
+    private static Field findPoolField() {
+        try {
+            Field poolField = BasicDataSource.class.getDeclaredField("connectionPool");
+            poolField.setAccessible(true);
+            return poolField;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            LOGGER.error("Could not get pool from dbcp dataSource", e);
+            return null;
+        }
     }
 }
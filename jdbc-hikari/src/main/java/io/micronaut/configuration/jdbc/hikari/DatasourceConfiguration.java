@@ -22,8 +22,12 @@ import io.micronaut.core.convert.format.MapFormat;
 import io.micronaut.core.naming.conventions.StringConvention;
 import io.micronaut.jdbc.BasicJdbcConfiguration;
 import io.micronaut.jdbc.CalculatedSettings;
+import io.micronaut.jdbc.ValidationStrategy;
 
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.Map;
 
 /**
@@ -41,9 +45,13 @@ import java.util.Map;
 @EachProperty(value = BasicJdbcConfiguration.PREFIX, primary = "default")
 public class DatasourceConfiguration extends HikariConfig implements BasicJdbcConfiguration {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DatasourceConfiguration.class);
+
     private CalculatedSettings calculatedSettings;
     private String name;
     private boolean automaticValidationQuery = true;
+    private ValidationStrategy validationStrategy;
+    private boolean lazy;
 
     /**
      * Constructor.
@@ -74,9 +82,22 @@ public class DatasourceConfiguration extends HikariConfig implements BasicJdbcCo
         if (getConfiguredPassword() == null) {
             setPassword(getPassword());
         }
-        if (getConfiguredValidationQuery() == null && isAutomaticValidationQuery()) {
+        if (getValidationStrategy() != ValidationStrategy.QUERY) {
+            // Hikari uses Connection.isValid when no test query is set. It always skips the validation of the
+            // connections used within its alive bypass window, a JVM-wide setting, so IS_VALID cannot validate
+            // every borrow and behaves like SKIP_IF_RECENTLY_USED
+            if (validationStrategy == ValidationStrategy.IS_VALID && LOG.isWarnEnabled()) {
+                LOG.warn("Data source [{}] is configured with validation strategy IS_VALID, but Hikari skips the validation of the connections used within its alive bypass window as with SKIP_IF_RECENTLY_USED", name);
+            }
+            setValidationQuery(null);
+        } else if (getConfiguredValidationQuery() == null && isAutomaticValidationQuery()) {
             setValidationQuery(getValidationQuery());
         }
+        if (getDataSourceClassName() == null) {
+            // Hikari applies data source properties as bean properties of a configured DataSource class,
+            // so the driver defaults are only applied when connections are created through the driver
+            calculatedSettings.getDefaultDataSourceProperties().forEach(getDataSourceProperties()::putIfAbsent);
+        }
     }
 
     @Override
@@ -140,7 +161,7 @@ public class DatasourceConfiguration extends HikariConfig implements BasicJdbcCo
 
     @Override
     public String getValidationQuery() {
-        return calculatedSettings.getValidationQuery();
+        return getValidationStrategy() == ValidationStrategy.QUERY ? calculatedSettings.getValidationQuery() : null;
     }
 
     /**
@@ -152,6 +173,41 @@ public class DatasourceConfiguration extends HikariConfig implements BasicJdbcCo
         setConnectionTestQuery(validationQuery);
     }
 
+    /**
+     * @return The validation strategy to be used by the data source
+     */
+    public ValidationStrategy getValidationStrategy() {
+        return calculatedSettings.getValidationStrategy();
+    }
+
+    @Override
+    public ValidationStrategy getConfiguredValidationStrategy() {
+        return validationStrategy;
+    }
+
+    /**
+     * Sets how connections are validated. Defaults to the cheapest strategy supported by the database driver.
+     *
+     * @param validationStrategy The validation strategy
+     */
+    public void setValidationStrategy(ValidationStrategy validationStrategy) {
+        this.validationStrategy = validationStrategy;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether the connection pool is only created when the first connection is requested. Defaults to false.
+     *
+     * @param lazy Whether the data source is lazy
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
     /**
      * Get Jndi name.
      * @return jndiName
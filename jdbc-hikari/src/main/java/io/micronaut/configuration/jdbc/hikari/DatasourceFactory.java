@@ -15,22 +15,31 @@
  */
 package io.micronaut.configuration.jdbc.hikari;
 
+import com.zaxxer.hikari.HikariDataSource;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.configuration.jdbc.hikari.metadata.HikariDataSourcePoolMetadata;
 import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Context;
 import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.DisabledBeanException;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
 import io.micronaut.jdbc.JdbcDataSourceEnabled;
+import io.micronaut.jdbc.LazyDataSource;
+import io.micronaut.jdbc.jfr.StartupPhaseEvent;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.sizing.AdaptivePoolSizingEnabled;
+import io.micronaut.jdbc.timing.TimedDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.annotation.PreDestroy;
 import javax.sql.DataSource;
-import java.util.ArrayList;
 import java.util.List;
-
-import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Creates a Hikari data source for each configuration bean.
@@ -43,9 +52,10 @@ import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory
 public class DatasourceFactory implements AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(DatasourceFactory.class);
-    private List<HikariUrlDataSource> dataSources = new ArrayList<>(2);
+    private List<HikariUrlDataSource> dataSources = new CopyOnWriteArrayList<>();
 
     private ApplicationContext applicationContext;
+    private volatile MeterRegistry meterRegistry;
 
     /**
      * Default constructor.
@@ -57,38 +67,83 @@ public class DatasourceFactory implements AutoCloseable {
 
     /**
      * Method to wire up all the HikariCP connections based on the {@link DatasourceConfiguration}.
-     * If a {@link MeterRegistry} bean exists then the registry will be added to the datasource.
+     * The {@link MeterRegistry} is added to the datasource once it has been created.
      *
      * @param datasourceConfiguration A {@link DatasourceConfiguration}
-     * @return A {@link HikariUrlDataSource}
+     * @return A {@link HikariUrlDataSource}, or a {@link LazyDataSource} creating it if the data source is lazy
      */
     @Context
     @EachBean(DatasourceConfiguration.class)
     @Requires(condition = JdbcDataSourceEnabled.class)
     public DataSource dataSource(DatasourceConfiguration datasourceConfiguration) {
-        HikariUrlDataSource ds = new HikariUrlDataSource(datasourceConfiguration);
-        addMeterRegistry(ds);
-        dataSources.add(ds);
-        return ds;
+        if (datasourceConfiguration.isLazy()) {
+            return new LazyDataSource(datasourceConfiguration.getName(), () -> createDataSource(datasourceConfiguration));
+        }
+        return createDataSource(datasourceConfiguration);
     }
 
-    private void addMeterRegistry(HikariUrlDataSource ds) {
+    private HikariUrlDataSource createDataSource(DatasourceConfiguration datasourceConfiguration) {
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.POOL_CREATION, datasourceConfiguration.getName());
         try {
-            MeterRegistry meterRegistry = getMeterRegistry();
-            if (ds != null && meterRegistry != null &&
-                    this.applicationContext
-                            .getProperty(MICRONAUT_METRICS_BINDERS + ".jdbc.enabled",
-                                    boolean.class).orElse(true)) {
-                ds.setMetricRegistry(meterRegistry);
-            }
-        } catch (NoClassDefFoundError ignore) {
-            LOG.debug("Could not wire metrics to HikariCP as there is no class of type MeterRegistry on the classpath, io.micronaut.micrometer:micrometer-core library missing.");
+            HikariUrlDataSource ds = new HikariUrlDataSource(datasourceConfiguration);
+            dataSources.add(ds);
+            addMeterRegistry(ds);
+            return ds;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Method to create a metadata object that allows pool value lookup and resizing for each datasource
+     * object that has adaptive pool sizing enabled. The metadata is not exposed as a
+     * {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} because Hikari publishes its own metrics. It is
+     * disabled for a lazy data source whose pool has not been created yet.
+     *
+     * @param dataSource The datasource
+     * @return a {@link HikariDataSourcePoolMetadata}
+     * @since 6.0.0
+     */
+    @EachBean(DataSource.class)
+    @Bean(typed = {HikariDataSourcePoolMetadata.class, ResizableDataSourcePoolMetadata.class})
+    @Requires(beans = DatasourceConfiguration.class)
+    @Requires(condition = AdaptivePoolSizingEnabled.class)
+    public HikariDataSourcePoolMetadata hikariDataSourcePoolMetadata(DataSource dataSource) {
+        DataSourceResolver dataSourceResolver = applicationContext.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT);
+        DataSource resolved = dataSourceResolver.resolve(dataSource);
+        DataSource target = DataSourceWrapper.unwrap(resolved);
+        if (target instanceof LazyDataSource lazy) {
+            throw new DisabledBeanException("Lazy data source [" + lazy.getName() + "] has not been started");
+        }
+        if (target instanceof HikariDataSource pool) {
+            return new HikariDataSourcePoolMetadata(pool, TimedDataSource.findConnectionTimings(resolved));
         }
+        return null;
     }
 
-    private MeterRegistry getMeterRegistry() {
-        return this.applicationContext.containsBean(MeterRegistry.class) ?
-                this.applicationContext.getBean(MeterRegistry.class) : null;
+    /**
+     * Adds the meter registry to the data sources created so far and to the ones created from now on.
+     *
+     * @param meterRegistry The meter registry
+     */
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (HikariUrlDataSource dataSource : dataSources) {
+            addMeterRegistry(dataSource);
+        }
+    }
+
+    private void addMeterRegistry(HikariUrlDataSource ds) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        // the data source and the registry may be created concurrently and the registry can only be set once
+        synchronized (ds) {
+            if (ds.getMetricRegistry() == null) {
+                ds.setMetricRegistry(registry);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.hikari;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.util.StringUtils;
+import jakarta.inject.Singleton;
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+
+/**
+ * Adds the meter registry to the Hikari data sources once it has been created. The registry is not looked up while
+ * a data source is created because the JDBC meter binders of the registry depend on the data sources.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+@RequiresMetrics
+@Requires(classes = CompositeMeterRegistry.class)
+@Requires(property = MICRONAUT_METRICS_BINDERS + ".jdbc.enabled", notEquals = StringUtils.FALSE)
+final class HikariMeterRegistryListener implements BeanCreatedEventListener<CompositeMeterRegistry> {
+
+    private final DatasourceFactory datasourceFactory;
+
+    HikariMeterRegistryListener(DatasourceFactory datasourceFactory) {
+        this.datasourceFactory = datasourceFactory;
+    }
+
+    @Override
+    public CompositeMeterRegistry onCreated(BeanCreatedEvent<CompositeMeterRegistry> event) {
+        datasourceFactory.setMeterRegistry(event.getBean());
+        return event.getBean();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.hikari.metadata;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.metadata.AbstractDataSourcePoolMetadata;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} for a {@link HikariDataSource}. Hikari publishes its
+ * own metrics, so this metadata is only registered as a {@link ResizableDataSourcePoolMetadata} for the data
+ * sources that have {@code adaptive-sizing} enabled. Until the pool is started all counts are reported as {@code 0}.
+ *
+ * @since 6.0.0
+ */
+public class HikariDataSourcePoolMetadata extends AbstractDataSourcePoolMetadata<HikariDataSource>
+        implements ResizableDataSourcePoolMetadata<HikariDataSource> {
+
+    private Integer configuredMinimumIdle;
+
+    /**
+     * Hikari typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
+     *
+     * @param dataSource The datasource
+     */
+    public HikariDataSourcePoolMetadata(HikariDataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    /**
+     * Hikari typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
+     *
+     * @param dataSource        The datasource
+     * @param connectionTimings The connection timings recorded for the datasource
+     */
+    public HikariDataSourcePoolMetadata(HikariDataSource dataSource, @Nullable ConnectionTimings connectionTimings) {
+        super(dataSource, connectionTimings);
+    }
+
+    @Override
+    public Integer getIdle() {
+        return pool(HikariPoolMXBean::getIdleConnections);
+    }
+
+    @Override
+    public Integer getActive() {
+        return pool(HikariPoolMXBean::getActiveConnections);
+    }
+
+    @Override
+    public Integer getPending() {
+        return pool(HikariPoolMXBean::getThreadsAwaitingConnection);
+    }
+
+    @Override
+    public Integer getMax() {
+        return getDataSource().getMaximumPoolSize();
+    }
+
+    @Override
+    public Integer getMin() {
+        return getDataSource().getMinimumIdle();
+    }
+
+    @Override
+    public String getValidationQuery() {
+        return getDataSource().getConnectionTestQuery();
+    }
+
+    @Override
+    public Boolean getDefaultAutoCommit() {
+        return getDataSource().isAutoCommit();
+    }
+
+    /**
+     * Changes {@code maximumPoolSize} through the {@link HikariConfigMXBean}. {@code minimumIdle} follows the new
+     * maximum while it is below the configured value. Hikari retires connections above the new maximum as they
+     * reach their idle timeout or maximum lifetime.
+     *
+     * @param max the new maximum number of connections
+     */
+    @Override
+    public synchronized void setMax(int max) {
+        HikariConfigMXBean config = getDataSource().getHikariConfigMXBean();
+        if (configuredMinimumIdle == null) {
+            configuredMinimumIdle = config.getMinimumIdle();
+        }
+        config.setMaximumPoolSize(max);
+        config.setMinimumIdle(Math.min(configuredMinimumIdle, max));
+    }
+
+    private int pool(ToIntFunction<HikariPoolMXBean> value) {
+        HikariPoolMXBean pool = getDataSource().getHikariPoolMXBean();
+        return pool == null ? 0 : value.applyAsInt(pool);
+    }
+}
@@ -70,7 +70,7 @@ class DatasourceConfigurationSpec extends Specification {
         dataSource.username == 'sa'
         dataSource.password == ''
         dataSource.driverClassName == 'org.h2.Driver'
-        dataSource.connectionTestQuery == "SELECT 1"
+        dataSource.connectionTestQuery == null
 
         cleanup:
         applicationContext.close()
@@ -138,7 +138,7 @@ class DatasourceConfigurationSpec extends Specification {
         dataSource.username == 'sa'
         dataSource.password == ''
         dataSource.driverClassName == 'org.h2.Driver'
-        dataSource.connectionTestQuery == "SELECT 1"
+        dataSource.connectionTestQuery == null
 
         cleanup:
         applicationContext.close()
@@ -378,4 +378,63 @@ class DatasourceConfigurationSpec extends Specification {
         applicationContext.close()
     }
 
+    void "test default data source properties of the database are applied"() {
+        given:
+        ApplicationContext applicationContext = new DefaultApplicationContext("test")
+        applicationContext.environment.addPropertySource(MapPropertySource.of(
+                'test',
+                [
+                        'datasources.default.url'                    : 'jdbc:mysql://localhost/test?rewriteBatchedStatements=false',
+                        'datasources.default.driver-class-name'      : 'org.h2.Driver',
+                        'datasources.default.enabled'                : false,
+                        'datasources.default.data-source-properties' : ['useServerPrepStmts': false]
+                ]
+        ))
+        applicationContext.start()
+
+        when:
+        DatasourceConfiguration configuration = applicationContext.getBean(DatasourceConfiguration)
+        Map<Object, Object> properties = configuration.dataSourceProperties
+
+        then: "defaults are applied unless configured or set in the URL"
+        properties.get('cachePrepStmts') == 'true'
+        properties.get('prepStmtCacheSize') == '250'
+        properties.get('useServerPrepStmts') == false
+        !properties.containsKey('rewriteBatchedStatements')
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test validation strategy #strategy with validation query #query"() {
+        given:
+        ApplicationContext applicationContext = new DefaultApplicationContext("test")
+        Map<String, Object> config = ['datasources.default': [:]]
+        if (strategy) {
+            config['datasources.default.validation-strategy'] = strategy
+        }
+        if (query) {
+            config['datasources.default.validation-query'] = query
+        }
+        applicationContext.environment.addPropertySource(MapPropertySource.of('test', config))
+        applicationContext.start()
+        DataSourceResolver dataSourceResolver =  applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+
+        when:
+        def dataSource = dataSourceResolver.resolve(applicationContext.getBean(DataSource))
+
+        then: "H2 supports Connection.isValid so no query is used by default"
+        dataSource.connectionTestQuery == expectedQuery
+
+        cleanup:
+        applicationContext.close()
+
+        where:
+        strategy                | query      | expectedQuery
+        null                    | null       | null         
+        'query'                 | null       | 'SELECT 1'   
+        null                    | 'select 2' | 'select 2'   
+        'is-valid'              | 'select 2' | null         
+        'skip-if-recently-used' | null       | null         
+    }
 }
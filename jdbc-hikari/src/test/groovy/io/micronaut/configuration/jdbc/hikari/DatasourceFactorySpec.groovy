@@ -15,13 +15,71 @@
  */
 package io.micronaut.configuration.jdbc.hikari
 
+import io.micrometer.core.instrument.MeterRegistry
 import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.DataSourceWrapper
+import io.micronaut.jdbc.LazyDataSource
+import io.micronaut.jdbc.metrics.StatementProfilerMeterBinder
 import spock.lang.Specification
 
+import javax.sql.DataSource
+
 class DatasourceFactorySpec extends Specification {
 
     def "wire class with constructor"() {
         expect:
         new DatasourceFactory(Mock(ApplicationContext))
     }
+
+    def "a lazy data source starts the pool on the first connection"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:lazyHikari;DB_CLOSE_DELAY=-1',
+                'datasources.default.lazy': true)
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+
+        expect:
+        dataSource instanceof LazyDataSource
+        context.getBean(DatasourceFactory).dataSources.isEmpty()
+
+        when:
+        dataSource.getConnection().close()
+        HikariUrlDataSource pool = (HikariUrlDataSource) DataSourceWrapper.unwrap(dataSource)
+
+        then:
+        pool.running
+        context.getBean(DatasourceFactory).dataSources == [pool]
+
+        when:
+        context.close()
+
+        then:
+        pool.closed
+    }
+
+    def "the meter registry is added to data sources whose meter binders depend on them"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:meteredHikari;DB_CLOSE_DELAY=-1',
+                'datasources.default.statement-profiling.enabled': true)
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry)
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+
+        when:
+        dataSource.getConnection().withCloseable { connection ->
+            connection.createStatement().withCloseable { it.execute("select 1") }
+        }
+
+        then:
+        context.getBean(DatasourceFactory).dataSources[0].metricRegistry.is(meterRegistry)
+        meterRegistry.find("hikaricp.connections").gauge() != null
+        meterRegistry.find(StatementProfilerMeterBinder.METRIC_PREFIX).functionTimer() != null
+
+        cleanup:
+        context.close()
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.hikari.metadata
+
+import com.zaxxer.hikari.HikariDataSource
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata
+import io.micronaut.jdbc.sizing.AdaptivePoolSizer
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+
+class HikariDataSourcePoolMetadataSpec extends Specification {
+
+    def "test metadata is only registered for data sources with adaptive sizing enabled"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.maximum-pool-size'       : 4,
+                'datasources.default.minimum-idle'            : 4,
+                'datasources.default.adaptive-sizing.enabled' : true,
+                'datasources.default.adaptive-sizing.interval': '1h',
+                'datasources.foo'                             : [:]
+        )
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+        ResizableDataSourcePoolMetadata metadata = context.getBean(ResizableDataSourcePoolMetadata, Qualifiers.byName("default"))
+
+        expect:
+        metadata instanceof HikariDataSourcePoolMetadata
+        !context.findBean(ResizableDataSourcePoolMetadata, Qualifiers.byName("foo")).present
+        !context.containsBean(DataSourcePoolMetadata)
+        context.getBean(AdaptivePoolSizer).upperBound == 4
+
+        when:
+        Connection connection = dataSource.getConnection()
+
+        then:
+        metadata.active == 1
+        metadata.pending == 0
+        metadata.max == 4
+        metadata.min == 4
+
+        when:
+        metadata.setMax(2)
+
+        then:
+        ((HikariDataSource) dataSource).maximumPoolSize == 2
+        metadata.min == 2
+
+        when:
+        metadata.setMax(6)
+
+        then:
+        metadata.max == 6
+        metadata.min == 4
+
+        cleanup:
+        connection?.close()
+        context.close()
+    }
+}
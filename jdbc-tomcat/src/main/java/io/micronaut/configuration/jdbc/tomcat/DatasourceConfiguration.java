@@ -21,6 +21,7 @@ import io.micronaut.core.convert.format.MapFormat;
 import io.micronaut.core.naming.conventions.StringConvention;
 import io.micronaut.jdbc.BasicJdbcConfiguration;
 import io.micronaut.jdbc.CalculatedSettings;
+import io.micronaut.jdbc.ValidationStrategy;
 import org.apache.tomcat.jdbc.pool.PoolProperties;
 
 import jakarta.annotation.PostConstruct;
@@ -43,6 +44,9 @@ import java.util.Properties;
 public class DatasourceConfiguration extends PoolProperties implements BasicJdbcConfiguration {
 
     private CalculatedSettings calculatedSettings;
+    private ValidationStrategy validationStrategy;
+    private boolean validationIntervalConfigured;
+    private boolean lazy;
 
     /**
      * Constructor.
@@ -64,6 +68,31 @@ public class DatasourceConfiguration extends PoolProperties implements BasicJdbc
         getUsername();
         getPassword();
         getValidationQuery();
+        if (getValidationStrategy() != ValidationStrategy.SKIP_IF_RECENTLY_USED && !validationIntervalConfigured) {
+            // validate every time, the validation interval only applies to SKIP_IF_RECENTLY_USED
+            super.setValidationInterval(0);
+        }
+        Map<String, String> defaultDataSourceProperties = calculatedSettings.getDefaultDataSourceProperties();
+        if (!defaultDataSourceProperties.isEmpty()) {
+            Properties properties = getDbProperties();
+            if (properties == null) {
+                properties = new Properties();
+                super.setDbProperties(properties);
+            }
+            defaultDataSourceProperties.forEach(properties::putIfAbsent);
+        }
+    }
+
+    /**
+     * Sets the interval within which a validated connection is not validated again. When it is not set, it is
+     * {@code 0} for the validation strategies other than {@link ValidationStrategy#SKIP_IF_RECENTLY_USED}.
+     *
+     * @param validationInterval The validation interval, in milliseconds
+     */
+    @Override
+    public void setValidationInterval(long validationInterval) {
+        super.setValidationInterval(validationInterval);
+        validationIntervalConfigured = true;
     }
 
     @Override
@@ -140,7 +169,42 @@ public class DatasourceConfiguration extends PoolProperties implements BasicJdbc
      */
     @Override
     public String getValidationQuery() {
-        return calculatedSettings.getValidationQuery();
+        return getValidationStrategy() == ValidationStrategy.QUERY ? calculatedSettings.getValidationQuery() : null;
+    }
+
+    /**
+     * @return The validation strategy to be used by the data source
+     */
+    public ValidationStrategy getValidationStrategy() {
+        return calculatedSettings.getValidationStrategy();
+    }
+
+    @Override
+    public ValidationStrategy getConfiguredValidationStrategy() {
+        return validationStrategy;
+    }
+
+    /**
+     * Sets how connections are validated. Defaults to the cheapest strategy supported by the database driver.
+     *
+     * @param validationStrategy The validation strategy
+     */
+    public void setValidationStrategy(ValidationStrategy validationStrategy) {
+        this.validationStrategy = validationStrategy;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether the connection pool is only created when the first connection is requested. Defaults to false.
+     *
+     * @param lazy Whether the data source is lazy
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
     }
 
     @Override
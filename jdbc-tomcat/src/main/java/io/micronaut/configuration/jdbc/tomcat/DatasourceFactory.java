@@ -20,16 +20,21 @@ import io.micronaut.context.annotation.Context;
 import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.DisabledBeanException;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
 import io.micronaut.jdbc.JdbcDataSourceEnabled;
+import io.micronaut.jdbc.LazyDataSource;
+import io.micronaut.jdbc.jfr.StartupPhaseEvent;
+import io.micronaut.jdbc.timing.TimedDataSource;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Creates a tomcat data source for each configuration bean.
@@ -42,7 +47,7 @@ import java.util.List;
 public class DatasourceFactory implements AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(DatasourceFactory.class);
-    private List<org.apache.tomcat.jdbc.pool.DataSource> dataSources = new ArrayList<>(2);
+    private List<org.apache.tomcat.jdbc.pool.DataSource> dataSources = new CopyOnWriteArrayList<>();
 
     private final DataSourceResolver dataSourceResolver;
 
@@ -56,19 +61,32 @@ public class DatasourceFactory implements AutoCloseable {
 
     /**
      * @param datasourceConfiguration A {@link DatasourceConfiguration}
-     * @return An Apache Tomcat {@link DataSource}
+     * @return An Apache Tomcat {@link DataSource}, or a {@link LazyDataSource} creating it if the data source is lazy
      */
     @Context
     @EachBean(DatasourceConfiguration.class)
     @Requires(condition = JdbcDataSourceEnabled.class)
     public DataSource dataSource(DatasourceConfiguration datasourceConfiguration) {
-        org.apache.tomcat.jdbc.pool.DataSource ds = new org.apache.tomcat.jdbc.pool.DataSource(datasourceConfiguration);
-        dataSources.add(ds);
-        return ds;
+        if (datasourceConfiguration.isLazy()) {
+            return new LazyDataSource(datasourceConfiguration.getName(), () -> createDataSource(datasourceConfiguration));
+        }
+        return createDataSource(datasourceConfiguration);
+    }
+
+    private org.apache.tomcat.jdbc.pool.DataSource createDataSource(DatasourceConfiguration datasourceConfiguration) {
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.POOL_CREATION, datasourceConfiguration.getName());
+        try {
+            org.apache.tomcat.jdbc.pool.DataSource ds = new org.apache.tomcat.jdbc.pool.DataSource(datasourceConfiguration);
+            dataSources.add(ds);
+            return ds;
+        } finally {
+            event.commit();
+        }
     }
 
     /**
-     * Method to create a metadata object that allows pool value lookup for each datasource object.
+     * Method to create a metadata object that allows pool value lookup for each datasource object. The metadata
+     * is disabled for a lazy data source whose pool has not been created yet.
      *
      * @param dataSource     The datasource
      * @return a {@link TomcatDataSourcePoolMetadata}
@@ -80,8 +98,13 @@ public class DatasourceFactory implements AutoCloseable {
 
         TomcatDataSourcePoolMetadata dataSourcePoolMetadata = null;
 
-        if (dataSourceResolver.resolve(dataSource) instanceof org.apache.tomcat.jdbc.pool.DataSource resolved) {
-            dataSourcePoolMetadata = new TomcatDataSourcePoolMetadata(resolved);
+        DataSource resolved = dataSourceResolver.resolve(dataSource);
+        DataSource target = DataSourceWrapper.unwrap(resolved);
+        if (target instanceof LazyDataSource lazy) {
+            throw new DisabledBeanException("Lazy data source [" + lazy.getName() + "] has not been started");
+        }
+        if (target instanceof org.apache.tomcat.jdbc.pool.DataSource pool) {
+            dataSourcePoolMetadata = new TomcatDataSourcePoolMetadata(pool, TimedDataSource.findConnectionTimings(resolved));
         }
         return dataSourcePoolMetadata;
     }
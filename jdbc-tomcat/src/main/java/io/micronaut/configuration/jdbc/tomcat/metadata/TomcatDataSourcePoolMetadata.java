@@ -15,7 +15,10 @@
  */
 package io.micronaut.configuration.jdbc.tomcat.metadata;
 
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.jdbc.metadata.AbstractDataSourcePoolMetadata;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
 import org.apache.tomcat.jdbc.pool.ConnectionPool;
 import org.apache.tomcat.jdbc.pool.DataSource;
 
@@ -29,9 +32,11 @@ import java.util.Optional;
  * @since 1.0.0
  */
 public class TomcatDataSourcePoolMetadata
-        extends AbstractDataSourcePoolMetadata<DataSource> {
+        extends AbstractDataSourcePoolMetadata<DataSource>
+        implements ResizableDataSourcePoolMetadata<DataSource> {
 
     private final ConnectionPool connectionPool;
+    private Integer configuredMinIdle;
 
     /**
      * Tomcat typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
@@ -39,7 +44,18 @@ public class TomcatDataSourcePoolMetadata
      * @param dataSource The datasource
      */
     public TomcatDataSourcePoolMetadata(DataSource dataSource) {
-        super(dataSource);
+        this(dataSource, null);
+    }
+
+    /**
+     * Tomcat typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
+     *
+     * @param dataSource        The datasource
+     * @param connectionTimings The connection timings recorded for the datasource
+     * @since 6.0.0
+     */
+    public TomcatDataSourcePoolMetadata(DataSource dataSource, @Nullable ConnectionTimings connectionTimings) {
+        super(dataSource, connectionTimings);
         this.connectionPool = dataSource.getPool();
     }
 
@@ -73,6 +89,21 @@ public class TomcatDataSourcePoolMetadata
         return Optional.ofNullable(connectionPool).map(ConnectionPool::getReleasedCount).orElse(0L);
     }
 
+    @Override
+    public Integer getPending() {
+        return Optional.ofNullable(connectionPool).map(ConnectionPool::getWaitCount).orElse(0);
+    }
+
+    @Override
+    public Long getCreatedCount() {
+        return Optional.ofNullable(connectionPool).map(ConnectionPool::getCreatedCount).orElse(0L);
+    }
+
+    @Override
+    public Long getDestroyedCount() {
+        return getReleasedCount();
+    }
+
     @Override
     public Integer getMax() {
         return getDataSource().getMaxActive();
@@ -83,6 +114,28 @@ public class TomcatDataSourcePoolMetadata
         return getDataSource().getMinIdle();
     }
 
+    /**
+     * Changes {@code maxActive}. {@code minIdle} follows the new maximum while it is below the configured
+     * value and {@code maxIdle} follows it when it was equal to the previous maximum. Idle connections above the
+     * new maximum are closed by the pool cleaner once they reach {@code minEvictableIdleTimeMillis}.
+     *
+     * @param max the new maximum number of connections
+     * @since 6.0.0
+     */
+    @Override
+    public synchronized void setMax(int max) {
+        DataSource dataSource = getDataSource();
+        if (configuredMinIdle == null) {
+            configuredMinIdle = dataSource.getMinIdle();
+        }
+        int previousMax = dataSource.getMaxActive();
+        dataSource.setMaxActive(max);
+        dataSource.setMinIdle(Math.min(configuredMinIdle, max));
+        if (dataSource.getMaxIdle() == previousMax || dataSource.getMaxIdle() > max) {
+            dataSource.setMaxIdle(max);
+        }
+    }
+
     @Override
     public String getValidationQuery() {
         return getDataSource().getValidationQuery();
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata
+import io.micronaut.jdbc.sizing.AdaptivePoolSizer
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.SQLException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class AdaptivePoolSizerSpec extends Specification {
+
+    def "test the pool grows under load and shrinks when idle"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url'                          : 'jdbc:h2:mem:adaptive;DB_CLOSE_DELAY=-1',
+                'datasources.default.max-active'                   : 2,
+                'datasources.default.max-idle'                     : 2,
+                'datasources.default.min-idle'                     : 2,
+                'datasources.default.initial-size'                 : 2,
+                'datasources.default.max-wait'                     : 50,
+                'datasources.default.min-evictable-idle-time-millis'    : 100,
+                'datasources.default.time-between-eviction-runs-millis' : 100,
+                'datasources.default.adaptive-sizing.enabled'      : true,
+                'datasources.default.adaptive-sizing.min-pool-size': 2,
+                'datasources.default.adaptive-sizing.max-pool-size': 10,
+                'datasources.default.adaptive-sizing.interval'     : '50ms',
+                'datasources.foo.url'                              : 'jdbc:h2:mem:adaptiveFoo;DB_CLOSE_DELAY=-1'
+        )
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+        DataSourcePoolMetadata metadata = context.getBean(DataSourcePoolMetadata, Qualifiers.byName("default"))
+        PollingConditions conditions = new PollingConditions(timeout: 10)
+        CountDownLatch release = new CountDownLatch(1)
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        expect:
+        context.getBean(AdaptivePoolSizer).upperBound == 10
+        !context.findBean(AdaptivePoolSizer, Qualifiers.byName("foo")).present
+
+        when: "more callers than connections hold a connection each"
+        8.times {
+            executor.submit {
+                Connection connection = null
+                while (connection == null) {
+                    try {
+                        connection = dataSource.getConnection()
+                    } catch (SQLException ignored) {
+                        // the pool is exhausted, retry until it grows
+                    }
+                }
+                try {
+                    connection.createStatement().execute("SELECT 1")
+                    release.await()
+                } finally {
+                    connection.close()
+                }
+            }
+        }
+
+        then: "the pool grows until every caller holds a connection"
+        conditions.eventually {
+            assert metadata.active == 8
+            assert metadata.max >= 8
+        }
+        conditions.eventually {
+            assert metadata.max == 10
+        }
+
+        when: "the callers return their connections"
+        release.countDown()
+
+        then: "the pool shrinks back to the lower bound and evicts the idle connections above it"
+        conditions.eventually {
+            assert metadata.active == 0
+            assert metadata.max == 2
+            assert metadata.idle <= 2
+        }
+
+        cleanup:
+        release.countDown()
+        executor.shutdownNow()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+        context.close()
+    }
+}
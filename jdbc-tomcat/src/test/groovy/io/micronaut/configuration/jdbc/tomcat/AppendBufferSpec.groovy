@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.append.JdbcAppendBuffer
+import io.micronaut.jdbc.append.JdbcAppendBuffers
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.ResultSet
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class AppendBufferSpec extends Specification {
+
+    void "test the rows appended by many threads are inserted in a few transactions"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:appendDefault;DB_CLOSE_DELAY=-1',
+                'datasources.audit.url': 'jdbc:h2:mem:appendAudit;DB_CLOSE_DELAY=-1',
+                'jdbc.append-buffers.events.datasource': 'audit',
+                'jdbc.append-buffers.events.capacity': 1000,
+                'jdbc.append-buffers.events.batch-size': 100,
+                'jdbc.append-buffers.events.flush-interval': '10ms')
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(context.getBean(DataSource, Qualifiers.byName("audit")))
+        dataSource.connection.withCloseable { it.createStatement().execute("create table events (id int primary key, thread varchar(64))") }
+        JdbcAppendBuffer<Integer> buffer = context.getBean(JdbcAppendBuffers).create("events", "insert into events (id, thread) values (?, ?)", { statement, Integer row ->
+            statement.setInt(1, row)
+            statement.setString(2, Thread.currentThread().name)
+        })
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        when:
+        List<CompletableFuture<Void>> futures = Collections.synchronizedList([])
+        (0..<8).collect { thread ->
+            executor.submit { (0..<1000).each { futures.add(buffer.append(thread * 1000 + it)) } }
+        }*.get(30, TimeUnit.SECONDS)
+        CompletableFuture.allOf(futures as CompletableFuture[]).get(30, TimeUnit.SECONDS)
+
+        then:
+        buffer.dataSourceName == "audit"
+        buffer.capacity == 1024
+        buffer.writtenCount == 8000
+        buffer.transactionCount < 8000
+        query(dataSource, "select count(*), count(distinct thread) from events") == [8000, 1]
+        context.getBean(JdbcAppendBuffers).buffers == [events: buffer]
+
+        when:
+        buffer.append(8000)
+        context.close()
+
+        then:
+        query(dataSource, "select count(*) from events") == [8001]
+
+        cleanup:
+        executor.shutdownNow()
+        context.close()
+    }
+
+    private static List<Integer> query(DataSource dataSource, String sql) {
+        Connection connection = dataSource.getConnection()
+        try {
+            ResultSet resultSet = connection.createStatement().executeQuery(sql)
+            resultSet.next()
+            return (1..resultSet.metaData.columnCount).collect { resultSet.getInt(it) }
+        } finally {
+            connection.close()
+        }
+    }
+}
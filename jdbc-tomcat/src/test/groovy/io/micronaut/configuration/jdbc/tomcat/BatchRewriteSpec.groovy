@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.batch.BatchRewriter
+import io.micronaut.jdbc.batch.BatchRewritingDataSource
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+
+class BatchRewriteSpec extends Specification {
+
+    void "test the batches of single-row inserts are executed as multi-row inserts"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:batchRewrite;DB_CLOSE_DELAY=-1',
+                'datasources.default.batch-rewrite.enabled': true,
+                'datasources.default.batch-rewrite.max-parameters': 200)
+        DataSource dataSource = resolve(context, "default")
+        BatchRewriter rewriter = BatchRewritingDataSource.findBatchRewriter(dataSource)
+        Connection connection = dataSource.getConnection()
+        connection.createStatement().execute("create table book (id int primary key, title varchar(64))")
+
+        expect:
+        rewriter.maxRows == 100
+
+        when:
+        connection.autoCommit = false
+        PreparedStatement statement = connection.prepareStatement("insert into book (id, title) values (?, ?)")
+        (1..250).each {
+            statement.setInt(1, it)
+            statement.setString(2, it % 2 ? "title " + it : null)
+            statement.addBatch()
+        }
+        int[] counts = statement.executeBatch()
+        connection.commit()
+        ResultSet resultSet = connection.createStatement().executeQuery("select count(*), count(title), sum(id) from book")
+        resultSet.next()
+
+        then:
+        counts.length == 250
+        counts.every { it == 1 }
+        resultSet.getInt(1) == 250
+        resultSet.getInt(2) == 125
+        resultSet.getInt(3) == 31375
+        rewriter.batchCount == 1
+        rewriter.rowCount == 250
+        rewriter.executionCount == 3
+
+        cleanup:
+        connection?.close()
+        context.close()
+    }
+
+    void "test the batches of other statements are executed unchanged"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:batchNotRewritten;DB_CLOSE_DELAY=-1',
+                'datasources.default.batch-rewrite.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        BatchRewriter rewriter = BatchRewritingDataSource.findBatchRewriter(dataSource)
+        Connection connection = dataSource.getConnection()
+        connection.createStatement().execute("create table book (id int primary key, title varchar(64))")
+        connection.createStatement().execute("insert into book select x, 'title' from system_range(1, 10)")
+
+        when:
+        PreparedStatement statement = connection.prepareStatement("update book set title = ? where id <= ?")
+        [3, 6].each {
+            statement.setString(1, "updated " + it)
+            statement.setInt(2, it)
+            statement.addBatch()
+        }
+        int[] counts = statement.executeBatch()
+
+        then:
+        counts == [3, 6] as int[]
+        rewriter.batchCount == 0
+        rewriter.executionCount == 0
+
+        cleanup:
+        connection?.close()
+        context.close()
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.bulk.BulkLoadResult
+import io.micronaut.jdbc.bulk.BulkLoaders
+import io.micronaut.jdbc.bulk.BulkTable
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.ResultSet
+import java.sql.SQLException
+
+class BulkLoadSpec extends Specification {
+
+    void "test the rows are loaded with multi-row inserts into H2"() {
+        given:
+        ApplicationContext context = ApplicationContext.run('datasources.default.url': 'jdbc:h2:mem:bulkLoad;DB_CLOSE_DELAY=-1')
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+        dataSource.connection.withCloseable { it.createStatement().execute("create table items (id int primary key, name varchar(64), price decimal(10, 2))") }
+        BulkLoaders loaders = context.getBean(BulkLoaders)
+        BulkTable table = BulkTable.of("items", "id", "name", "price")
+
+        when:
+        BulkLoadResult result = loaders.load("default", table, (1..2500).iterator(), { Integer row, Object[] values ->
+            values[0] = row
+            values[1] = row % 10 == 0 ? null : "item " + row
+            values[2] = new BigDecimal(row).movePointLeft(2)
+        })
+
+        then:
+        result.loader == "multi-row-insert"
+        result.rows == 2500
+        result.rowsPerSecond > 0
+        query(dataSource, "select count(*), count(name), sum(price) from items") == [2500, 2250, 31263]
+
+        when:
+        loaders.load("default", table, publisher(2501..2600, new IllegalStateException("broken")), { Integer row, Object[] values ->
+            values[0] = row
+        })
+
+        then:
+        SQLException e = thrown()
+        e.cause instanceof IllegalStateException
+        query(dataSource, "select count(*) from items") == [2500]
+
+        when:
+        result = loaders.load("default", table, publisher(2501..2600, null), { Integer row, Object[] values ->
+            values[0] = row
+        })
+
+        then:
+        result.rows == 100
+        query(dataSource, "select count(*) from items") == [2600]
+
+        cleanup:
+        context.close()
+    }
+
+    private static Publisher<Integer> publisher(IntRange range, Throwable error) {
+        return { Subscriber<Integer> subscriber ->
+            Iterator<Integer> iterator = range.iterator()
+            subscriber.onSubscribe(new Subscription() {
+                boolean done
+
+                void request(long n) {
+                    for (long i = 0; i < n && iterator.hasNext(); i++) {
+                        subscriber.onNext(iterator.next())
+                    }
+                    if (!iterator.hasNext() && !done) {
+                        done = true
+                        error == null ? subscriber.onComplete() : subscriber.onError(error)
+                    }
+                }
+
+                void cancel() {
+                }
+            })
+        } as Publisher<Integer>
+    }
+
+    private static List<Integer> query(DataSource dataSource, String sql) {
+        Connection connection = dataSource.getConnection()
+        try {
+            ResultSet resultSet = connection.createStatement().executeQuery(sql)
+            resultSet.next()
+            return (1..resultSet.metaData.columnCount).collect { resultSet.getInt(it) }
+        } finally {
+            connection.close()
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.loader.DataLoader
+import io.micronaut.jdbc.loader.DataLoaders
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class DataLoaderSpec extends Specification {
+
+    void "test the lookups of many threads are coalesced into a few queries"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:loaderDefault;DB_CLOSE_DELAY=-1',
+                'datasources.catalog.url': 'jdbc:h2:mem:loaderCatalog;DB_CLOSE_DELAY=-1',
+                'jdbc.data-loaders.books.datasource': 'catalog',
+                'jdbc.data-loaders.books.max-batch-size': 50,
+                'jdbc.data-loaders.books.batch-window': '5ms')
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(context.getBean(DataSource, Qualifiers.byName("catalog")))
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("create table book (id bigint primary key, title varchar(64))")
+            it.createStatement().execute("insert into book select x, 'Book ' || x from system_range(1, 400)")
+        }
+        DataLoader<Long, String> loader = context.getBean(DataLoaders).create("books", "select id, title from book where id in (?)",
+                { resultSet -> resultSet.getLong(1) + ":" + resultSet.getString(2) }, { String value -> Long.valueOf(value.substring(0, value.indexOf(':'))) })
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        when:
+        List<CompletableFuture<List<String>>> results = (0..<8).collect { thread ->
+            CompletableFuture.supplyAsync({
+                (1..<60).collect { loader.load(thread * 60L + it) }*.get(30, TimeUnit.SECONDS)
+            }, executor)
+        }
+
+        then:
+        results.withIndex().every { result, thread ->
+            result.get(30, TimeUnit.SECONDS) == (1..<60).collect { long id = thread * 60L + it; id <= 400 ? id + ":Book " + id : null }
+        }
+        loader.maxBatchSize == 50
+        loader.loadCount == 8 * 59
+        loader.batchCount < loader.loadCount
+        loader.failedBatchCount == 0
+        context.getBean(DataLoaders).loaders == [books: loader]
+
+        cleanup:
+        executor.shutdownNow()
+        context.close()
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Singleton
+@Requires(property = "spec.name", value = "ParallelDataSourceInitializerSpec")
+public class DataSourceThreadRecorder implements BeanCreatedEventListener<DataSource> {
+
+    final Map<String, String> threads = new ConcurrentHashMap<>();
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        threads.put(event.getBeanIdentifier().getName(), Thread.currentThread().getName());
+        return event.getBean();
+    }
+}
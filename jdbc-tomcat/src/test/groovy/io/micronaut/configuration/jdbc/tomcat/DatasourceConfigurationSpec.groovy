@@ -366,14 +366,14 @@ class DatasourceConfigurationSpec extends Specification {
             applicationContext.getBeansOfType(DataSource).size() == 2
             applicationContext.getBeansOfType(DatasourceConfiguration).size() == 2
 
-            tomcatDataSourcePoolMetadataDefault.validationQuery == 'SELECT 1'
+            tomcatDataSourcePoolMetadataDefault.validationQuery == null
             tomcatDataSourcePoolMetadataDefault.max == 100
             tomcatDataSourcePoolMetadataDefault.min == 10
             tomcatDataSourcePoolMetadataDefault.defaultAutoCommit
             tomcatDataSourcePoolMetadataDefault.active == 0
             tomcatDataSourcePoolMetadataDefault.idle >= 0
 
-            tomcatDataSourcePoolMetadataPerson.validationQuery == 'SELECT 1'
+            tomcatDataSourcePoolMetadataPerson.validationQuery == null
             tomcatDataSourcePoolMetadataPerson.max == 100
             tomcatDataSourcePoolMetadataPerson.min == 10
             tomcatDataSourcePoolMetadataPerson.defaultAutoCommit
@@ -455,4 +455,79 @@ class DatasourceConfigurationSpec extends Specification {
         then:
         dataSource.getPool()
     }
+
+    void "test default data source properties of the database are applied"() {
+        given:
+        ApplicationContext applicationContext = new DefaultApplicationContext("test")
+        applicationContext.environment.addPropertySource(MapPropertySource.of(
+                'test',
+                [
+                        'datasources.default.url'                    : 'jdbc:mysql://localhost/test?rewriteBatchedStatements=false',
+                        'datasources.default.driver-class-name'      : 'org.h2.Driver',
+                        'datasources.default.enabled'                : false,
+                        'datasources.default.data-source-properties' : ['useServerPrepStmts': false]
+                ]
+        ))
+        applicationContext.start()
+
+        when:
+        DatasourceConfiguration configuration = applicationContext.getBean(DatasourceConfiguration)
+        Map<Object, Object> properties = configuration.dbProperties
+
+        then: "defaults are applied unless configured or set in the URL"
+        properties.get('cachePrepStmts') == 'true'
+        properties.get('prepStmtCacheSize') == '250'
+        properties.get('useServerPrepStmts') == false
+        !properties.containsKey('rewriteBatchedStatements')
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test validation strategy #strategy with validation query #query"() {
+        given:
+        ApplicationContext applicationContext = new DefaultApplicationContext("test")
+        Map<String, Object> config = ['datasources.default': [:]]
+        if (strategy) {
+            config['datasources.default.validation-strategy'] = strategy
+        }
+        if (query) {
+            config['datasources.default.validation-query'] = query
+        }
+        applicationContext.environment.addPropertySource(MapPropertySource.of('test', config))
+        applicationContext.start()
+        DataSourceResolver dataSourceResolver =  applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+
+        when:
+        def dataSource = dataSourceResolver.resolve(applicationContext.getBean(DataSource))
+
+        then: "H2 supports Connection.isValid so no query is used by default"
+        dataSource.validationQuery == expectedQuery
+        dataSource.validationInterval == validationInterval
+
+        cleanup:
+        applicationContext.close()
+
+        where:
+        strategy                | query      | expectedQuery | validationInterval
+        null                    | null       | null          | 0
+        'query'                 | null       | 'SELECT 1'    | 0
+        null                    | 'select 2' | 'select 2'    | 0
+        'is-valid'              | 'select 2' | null          | 0
+        'skip-if-recently-used' | null       | null          | 3000
+    }
+
+    void "test a configured validation interval is kept whatever the validation strategy"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run(
+                'datasources.default.validation-strategy': 'is-valid',
+                'datasources.default.validation-interval': 5000)
+        DataSourceResolver dataSourceResolver = applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+
+        expect:
+        dataSourceResolver.resolve(applicationContext.getBean(DataSource)).validationInterval == 5000
+
+        cleanup:
+        applicationContext.close()
+    }
 }
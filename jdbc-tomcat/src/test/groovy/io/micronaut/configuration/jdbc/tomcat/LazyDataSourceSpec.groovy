@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceWrapper
+import io.micronaut.jdbc.LazyDataSource
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata
+import org.apache.tomcat.jdbc.pool.ConnectionPool
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+
+class LazyDataSourceSpec extends Specification {
+
+    def "test a lazy data source creates the pool on the first connection"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:lazy;DB_CLOSE_DELAY=-1',
+                'datasources.default.lazy': true,
+                'datasources.default.initial-size': 3)
+        DataSource dataSource = resolve(context, "default")
+
+        expect:
+        dataSource instanceof LazyDataSource
+        !((LazyDataSource) dataSource).initialized
+        DataSourceWrapper.unwrap(dataSource).is(dataSource)
+        !context.findBean(DataSourcePoolMetadata, Qualifiers.byName("default")).present
+        context.getBean(DatasourceFactory).dataSources.isEmpty()
+
+        when:
+        Connection connection = dataSource.getConnection()
+        ConnectionPool pool = ((org.apache.tomcat.jdbc.pool.DataSource) DataSourceWrapper.unwrap(dataSource)).pool
+
+        then:
+        connection.metaData.URL == 'jdbc:h2:mem:lazy'
+        ((LazyDataSource) dataSource).initialized
+        pool.size == 3
+        pool.active == 1
+        context.getBean(DatasourceFactory).dataSources.size() == 1
+
+        when:
+        connection.close()
+        context.close()
+
+        then:
+        pool.closed
+    }
+
+    def "test the first connections of a lazy data source share one pool"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:lazyConcurrent;DB_CLOSE_DELAY=-1',
+                'datasources.default.lazy': true)
+        DataSource dataSource = resolve(context, "default")
+        CountDownLatch start = new CountDownLatch(1)
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        when:
+        List<Future<Connection>> connections = (1..8).collect {
+            executor.submit({
+                start.await()
+                dataSource.getConnection()
+            } as Callable<Connection>)
+        }
+        start.countDown()
+        connections*.get()*.close()
+
+        then:
+        context.getBean(DatasourceFactory).dataSources.size() == 1
+        ((org.apache.tomcat.jdbc.pool.DataSource) DataSourceWrapper.unwrap(dataSource)).pool.active == 0
+
+        cleanup:
+        executor.shutdownNow()
+        context.close()
+    }
+
+    def "test a data source is not lazy by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run('datasources.default.url': 'jdbc:h2:mem:notLazy;DB_CLOSE_DELAY=-1')
+
+        expect:
+        !context.getBean(DatasourceConfiguration).lazy
+        !(resolve(context, "default") instanceof LazyDataSource)
+        context.getBean(DatasourceFactory).dataSources.size() == 1
+        context.findBean(DataSourcePoolMetadata, Qualifiers.byName("default")).present
+
+        cleanup:
+        context.close()
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.configuration.jdbc.tomcat.metadata.TomcatDataSourcePoolMetadata
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.exceptions.BeanInstantiationException
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.startup.ParallelDataSourceInitializer
+import spock.lang.Specification
+
+class ParallelDataSourceInitializerSpec extends Specification {
+
+    def "test data sources are started concurrently when enabled"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'spec.name'                      : 'ParallelDataSourceInitializerSpec',
+                'jdbc.parallel-startup.enabled'  : true,
+                'jdbc.parallel-startup.bean-types': [TomcatDataSourcePoolMetadata.name],
+                'datasources.default.url'        : 'jdbc:h2:mem:parallelDefault;DB_CLOSE_DELAY=-1',
+                'datasources.one.url'            : 'jdbc:h2:mem:parallelOne;DB_CLOSE_DELAY=-1',
+                'datasources.two.url'            : 'jdbc:h2:mem:parallelTwo;DB_CLOSE_DELAY=-1'
+        )
+        Map<String, String> threads = context.getBean(DataSourceThreadRecorder).threads
+
+        expect:
+        context.getBean(ParallelDataSourceInitializer).startupTimes.keySet() == ['default', 'one', 'two'] as Set
+        threads.keySet() == ['default', 'one', 'two'] as Set
+        threads.values().every { it.startsWith('jdbc-startup-') }
+        threads.values().toSet().size() > 1
+        ['default', 'one', 'two'].every { context.getBean(TomcatDataSourcePoolMetadata, Qualifiers.byName(it)).borrowed >= 1 }
+
+        cleanup:
+        context.close()
+    }
+
+    def "test data sources are started serially by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'spec.name'              : 'ParallelDataSourceInitializerSpec',
+                'datasources.default.url': 'jdbc:h2:mem:serialDefault;DB_CLOSE_DELAY=-1',
+                'datasources.one.url'    : 'jdbc:h2:mem:serialOne;DB_CLOSE_DELAY=-1'
+        )
+
+        expect:
+        !context.containsBean(ParallelDataSourceInitializer)
+        context.getBean(DataSourceThreadRecorder).threads.values().every { !it.startsWith('jdbc-startup-') }
+
+        cleanup:
+        context.close()
+    }
+
+    def "test a failing data source fails the start"() {
+        when:
+        ApplicationContext.run(
+                'jdbc.parallel-startup.enabled': true,
+                'datasources.default.url'      : 'jdbc:h2:mem:failingDefault;DB_CLOSE_DELAY=-1',
+                'datasources.broken.url'       : 'jdbc:h2:mem:failingBroken;IFEXISTS=TRUE'
+        )
+
+        then:
+        def e = thrown(BeanInstantiationException)
+        e.message.contains('broken')
+        causes(e).any { it.message?.startsWith('Failed to start data source [broken]') }
+    }
+
+    private static List<Throwable> causes(Throwable e) {
+        List<Throwable> causes = []
+        for (Throwable cause = e; cause != null; cause = cause.cause) {
+            causes << cause
+        }
+        return causes
+    }
+}
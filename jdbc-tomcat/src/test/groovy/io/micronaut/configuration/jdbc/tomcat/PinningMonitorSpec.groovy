@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.jfr.PinningMonitor
+import spock.lang.Specification
+
+class PinningMonitorSpec extends Specification {
+
+    void "test the data sources are resolved with their pool and driver packages"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:pinningDefault;DB_CLOSE_DELAY=-1',
+                'datasources.other.url': 'jdbc:h2:mem:pinningOther;DB_CLOSE_DELAY=-1',
+                'jdbc.jfr.pinning-monitor.enabled': true)
+        PinningMonitor monitor = context.getBean(PinningMonitor)
+
+        expect:
+        monitor.targets*.name as Set == ['default', 'other'] as Set
+        monitor.targets.every { it.poolPackages == ['org.apache.tomcat.jdbc.'] && it.driverPackage == 'org.h2.' }
+        monitor.running == Runtime.version().feature() >= 21
+
+        cleanup:
+        context.close()
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Requires(property = "spec.name", value = "QueryBudgetSpec")
+@Controller("/budget")
+@ExecuteOn(TaskExecutors.BLOCKING)
+public class QueryBudgetController {
+
+    private final DataSource dataSource;
+
+    public QueryBudgetController(DataSource dataSource, @Nullable DataSourceResolver dataSourceResolver) {
+        this.dataSource = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+    }
+
+    @Get("/authors")
+    public String authors(@QueryValue int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (int id = 0; id < count; id++) {
+                try (PreparedStatement statement = connection.prepareStatement("select " + id + " from dual");
+                     ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                }
+            }
+        }
+        return "ok";
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.client.HttpClient
+import io.micronaut.http.client.exceptions.HttpClientResponseException
+import io.micronaut.runtime.server.EmbeddedServer
+import spock.lang.Specification
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class QueryBudgetSpec extends Specification {
+
+    def "test an N+1 select fails the request in the test environment"() {
+        given:
+        EmbeddedServer server = ApplicationContext.run(EmbeddedServer, properties())
+        HttpClient client = server.applicationContext.createBean(HttpClient, server.URL)
+
+        expect:
+        client.toBlocking().retrieve("/budget/authors?count=3") == "ok"
+
+        when:
+        client.toBlocking().retrieve("/budget/authors?count=4")
+
+        then:
+        HttpClientResponseException e = thrown()
+        e.status == HttpStatus.INTERNAL_SERVER_ERROR
+
+        cleanup:
+        client.close()
+        server.close()
+    }
+
+    def "test the requests exceeding their budget are published as meters"() {
+        given:
+        EmbeddedServer server = ApplicationContext.run(EmbeddedServer, properties() + [
+                'jdbc.query-budget.action'                   : 'log',
+                (MICRONAUT_METRICS_ENABLED)                  : true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): true
+        ])
+        HttpClient client = server.applicationContext.createBean(HttpClient, server.URL)
+        MeterRegistry registry = server.applicationContext.getBean(MeterRegistry)
+
+        when:
+        String first = client.toBlocking().retrieve("/budget/authors?count=2")
+        String second = client.toBlocking().retrieve("/budget/authors?count=5")
+
+        then:
+        first == "ok"
+        second == "ok"
+        registry.get("jdbc.requests.statements").summary().count() == 2
+        registry.get("jdbc.requests.statements").summary().totalAmount() == 7
+        registry.get("jdbc.requests.time").timer().count() == 2
+        registry.get("jdbc.requests.budget.exceeded").tag("limit", "statements").counter().count() == 1
+        registry.get("jdbc.requests.budget.exceeded").tag("limit", "repeats").counter().count() == 1
+        registry.find("jdbc.requests.budget.exceeded").tag("limit", "time").counter() == null
+
+        cleanup:
+        client.close()
+        server.close()
+    }
+
+    private static Map<String, Object> properties() {
+        [
+                'spec.name'                                      : 'QueryBudgetSpec',
+                'datasources.default.url'                        : 'jdbc:h2:mem:budget;DB_CLOSE_DELAY=-1',
+                'datasources.default.statement-profiling.enabled': true,
+                'jdbc.query-budget.enabled'                      : true,
+                'jdbc.query-budget.max-statements'               : 4,
+                'jdbc.query-budget.max-repeats'                  : 3
+        ]
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.cache.QueryResultCache
+import io.micronaut.jdbc.cache.ResultCachingDataSource
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class QueryResultCacheSpec extends Specification {
+
+    void "test the results are cached until their table changes"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:resultCache;DB_CLOSE_DELAY=-1',
+                'datasources.default.result-cache.enabled': true,
+                'datasources.default.result-cache.statements.authors.fingerprint': 'select name from author where id = ?',
+                'datasources.default.result-cache.statements.authors.enabled': false,
+                (MICRONAUT_METRICS_ENABLED): true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): true)
+        DataSource dataSource = resolve(context, "default")
+        QueryResultCache resultCache = ResultCachingDataSource.findResultCache(dataSource)
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("create table book (id int primary key, title varchar(64))")
+            it.createStatement().execute("create table author (id int primary key, name varchar(64))")
+            it.createStatement().execute("insert into book values (1, 'The Hobbit'), (2, 'Mort')")
+            it.createStatement().execute("insert into author values (1, 'Tolkien')")
+        }
+
+        expect:
+        resultCache != null
+
+        when:
+        List<String> first = query(dataSource, "select title from book where id <= ? order by id", 2)
+        List<String> second = query(dataSource, "select title from book where id <= ? order by id", 2)
+
+        then:
+        first == ["The Hobbit", "Mort"]
+        second == first
+        resultCache.missCount == 1
+        resultCache.hitCount == 1
+
+        when:
+        dataSource.connection.withCloseable {
+            PreparedStatement statement = it.prepareStatement("update book set title = ? where id = ?")
+            statement.setString(1, "Guards! Guards!")
+            statement.setInt(2, 2)
+            statement.executeUpdate()
+        }
+
+        then:
+        query(dataSource, "select title from book where id <= ? order by id", 2) == ["The Hobbit", "Guards! Guards!"]
+        resultCache.missCount == 2
+        resultCache.invalidationCount == 1
+
+        when: "a transaction commits a change"
+        dataSource.connection.withCloseable {
+            it.autoCommit = false
+            it.createStatement().executeUpdate("delete from book where id = 1")
+            it.commit()
+            it.autoCommit = true
+        }
+
+        then:
+        query(dataSource, "select title from book where id <= ? order by id", 2) == ["Guards! Guards!"]
+        resultCache.missCount == 3
+
+        when: "the statement left out by its fingerprint"
+        query(dataSource, "select name from author where id = ?", 1)
+        query(dataSource, "select name from author where id = ?", 1)
+
+        then:
+        resultCache.missCount == 3
+        resultCache.hitCount == 1
+        context.getBean(MeterRegistry).get("jdbc.result-cache.hits").tag("pool", "default").functionCounter().count() == resultCache.hitCount
+
+        cleanup:
+        context.close()
+    }
+
+    void "test a result cached while a transaction changes its table is invalidated when the transaction commits"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:resultCacheCommit;DB_CLOSE_DELAY=-1',
+                'datasources.default.result-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        QueryResultCache resultCache = ResultCachingDataSource.findResultCache(dataSource)
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("create table book (id int primary key, title varchar(64))")
+            it.createStatement().execute("insert into book values (1, 'The Hobbit')")
+        }
+
+        when: "another borrower reads the table while a transaction changes it"
+        Connection transaction = dataSource.getConnection()
+        transaction.autoCommit = false
+        transaction.createStatement().executeUpdate("update book set title = 'Mort' where id = 1")
+        List<String> during = query(dataSource, "select title from book where id <= ? order by id", 1)
+        List<String> cached = query(dataSource, "select title from book where id <= ? order by id", 1)
+
+        then:
+        during == ["The Hobbit"]
+        cached == during
+        resultCache.hitCount == 1
+
+        when:
+        transaction.commit()
+
+        then:
+        query(dataSource, "select title from book where id <= ? order by id", 1) == ["Mort"]
+        resultCache.hitCount == 1
+
+        cleanup:
+        transaction?.close()
+        context.close()
+    }
+
+    void "test the results of one schema are not read by the connections of another schema"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:resultCacheSchemas;DB_CLOSE_DELAY=-1',
+                'datasources.default.result-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        QueryResultCache resultCache = ResultCachingDataSource.findResultCache(dataSource)
+        dataSource.connection.withCloseable {
+            ['TENANT_A', 'TENANT_B'].each { String schema ->
+                it.createStatement().execute("create schema ${schema}")
+                it.createStatement().execute("create table ${schema}.book (id int primary key, title varchar(64))")
+            }
+            it.createStatement().execute("insert into TENANT_A.book values (1, 'The Hobbit')")
+            it.createStatement().execute("insert into TENANT_B.book values (1, 'Mort')")
+        }
+
+        expect:
+        query(dataSource, "select title from book where id <= ? order by id", 1, 'TENANT_A') == ["The Hobbit"]
+        query(dataSource, "select title from book where id <= ? order by id", 1, 'TENANT_B') == ["Mort"]
+        query(dataSource, "select title from book where id <= ? order by id", 1, 'TENANT_A') == ["The Hobbit"]
+        resultCache.missCount == 2
+        resultCache.hitCount == 1
+
+        when: "a borrower switches its schema between two queries"
+        List<String> titles = dataSource.connection.withCloseable { Connection connection ->
+            connection.schema = 'TENANT_A'
+            List<String> first = read(connection, "select title from book where id <= ? order by id", 1)
+            connection.schema = 'TENANT_B'
+            first + read(connection, "select title from book where id <= ? order by id", 1)
+        }
+
+        then:
+        titles == ["The Hobbit", "Mort"]
+        resultCache.hitCount == 3
+
+        cleanup:
+        context.close()
+    }
+
+    private static List<String> query(DataSource dataSource, String sql, int value, String schema = null) {
+        Connection connection = dataSource.getConnection()
+        try {
+            if (schema != null) {
+                connection.schema = schema
+            }
+            return read(connection, sql, value)
+        } finally {
+            connection.close()
+        }
+    }
+
+    private static List<String> read(Connection connection, String sql, int value) {
+        PreparedStatement statement = connection.prepareStatement(sql)
+        statement.setInt(1, value)
+        ResultSet resultSet = statement.executeQuery()
+        List<String> values = []
+        while (resultSet.next()) {
+            values.add(resultSet.getString(1))
+        }
+        return values
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.configuration.jdbc.tomcat.metadata.TomcatDataSourcePoolMetadata
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.routing.ReadWriteRoutingDataSource
+import io.micronaut.jdbc.routing.ReplicaSelection
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.SQLException
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+
+class ReadWriteRoutingDataSourceSpec extends Specification {
+
+    def "test read-only connections are sent to the replicas in turn"() {
+        given:
+        ApplicationContext context = run('rr')
+        DataSource dataSource = resolve(context, "default")
+
+        expect:
+        dataSource instanceof ReadWriteRoutingDataSource
+        ((ReadWriteRoutingDataSource) dataSource).replicaSelection == ReplicaSelection.ROUND_ROBIN
+        database(dataSource, false) == "primary"
+        (1..4).collect { database(dataSource, true) } == ["replica1", "replica2", "replica1", "replica2"]
+
+        cleanup:
+        context.close()
+    }
+
+    def "test a read-only connection is borrowed from the pool of its replica"() {
+        given:
+        ApplicationContext context = run('pool')
+        DataSource dataSource = resolve(context, "default")
+
+        when:
+        Connection connection = dataSource.getConnection()
+        connection.setReadOnly(true)
+        String replica = query(connection)
+
+        then:
+        active(context, "default") == 0
+        active(context, replica) == 1
+
+        when:
+        connection.close()
+
+        then:
+        active(context, replica) == 0
+
+        cleanup:
+        context.close()
+    }
+
+    def "test a read-only transaction is sent to a replica and other connections to the primary"() {
+        given:
+        ApplicationContext context = run('tx')
+        DataSource dataSource = resolve(context, "default")
+
+        when: "a transaction manager opens a read-only transaction"
+        Connection connection = dataSource.getConnection()
+        connection.setReadOnly(true)
+        boolean autoCommit = connection.getAutoCommit()
+        connection.setAutoCommit(false)
+        String read = query(connection)
+        connection.commit()
+        connection.setAutoCommit(autoCommit)
+        connection.close()
+
+        then:
+        autoCommit
+        read == "replica1"
+        connection.isClosed()
+
+        when: "a connection is borrowed and closed without being used"
+        connection = dataSource.getConnection()
+        connection.close()
+
+        then:
+        active(context, "default") == 0
+
+        when: "a read-write transaction"
+        connection = dataSource.getConnection()
+        connection.setAutoCommit(false)
+        connection.createStatement().execute("UPDATE marker SET name = 'updated'")
+        connection.commit()
+        connection.close()
+
+        then:
+        database(dataSource, false) == "updated"
+        database(dataSource, true) != "updated"
+
+        cleanup:
+        context.close()
+    }
+
+    def "test the least active replica is chosen"() {
+        given:
+        ApplicationContext context = run('la', ['datasources.default.replica-selection': 'least-active'])
+        DataSource dataSource = resolve(context, "default")
+
+        when:
+        Connection held = dataSource.getConnection()
+        held.setReadOnly(true)
+        String first = query(held)
+
+        then:
+        ((ReadWriteRoutingDataSource) dataSource).replicaSelection == ReplicaSelection.LEAST_ACTIVE
+        (1..3).every { database(dataSource, true) != first }
+
+        cleanup:
+        held?.close()
+        context.close()
+    }
+
+    def "test an aborted connection is closed"() {
+        given:
+        ApplicationContext context = run('ab')
+        DataSource dataSource = resolve(context, "default")
+
+        when:
+        Connection connection = dataSource.getConnection()
+        connection.setReadOnly(true)
+        query(connection)
+        connection.abort(Runnable::run)
+
+        then:
+        connection.isClosed()
+
+        when:
+        connection.createStatement()
+
+        then:
+        thrown(SQLException)
+
+        when:
+        connection.close()
+
+        then:
+        noExceptionThrown()
+
+        cleanup:
+        context.close()
+    }
+
+    def "test the primary is used when the replica fails"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url'     : 'jdbc:h2:mem:fallbackPrimary;DB_CLOSE_DELAY=-1',
+                'datasources.default.replicas': ['broken'],
+                'datasources.broken.url'      : 'jdbc:h2:mem:broken;IFEXISTS=TRUE',
+                'datasources.broken.initial-size': 0,
+                'datasources.broken.min-idle'    : 0
+        )
+        DataSource dataSource = resolve(context, "default")
+        init(dataSource, "primary")
+
+        expect:
+        database(dataSource, true) == "primary"
+
+        cleanup:
+        context.close()
+    }
+
+    private static ApplicationContext run(String prefix, Map<String, Object> properties = [:]) {
+        ApplicationContext context = ApplicationContext.run([
+                'datasources.default.url'    : "jdbc:h2:mem:${prefix}Primary;DB_CLOSE_DELAY=-1",
+                'datasources.default.replicas': ['replica1', 'replica2'],
+                'datasources.replica1.url'   : "jdbc:h2:mem:${prefix}Replica1;DB_CLOSE_DELAY=-1",
+                'datasources.replica2.url'   : "jdbc:h2:mem:${prefix}Replica2;DB_CLOSE_DELAY=-1"
+        ] + properties)
+        init(resolve(context, "default"), "primary")
+        init(resolve(context, "replica1"), "replica1")
+        init(resolve(context, "replica2"), "replica2")
+        return context
+    }
+
+    private static int active(ApplicationContext context, String name) {
+        context.getBean(TomcatDataSourcePoolMetadata, Qualifiers.byName(name)).active
+    }
+
+    private static void init(DataSource dataSource, String name) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE marker(name VARCHAR(20))")
+            connection.createStatement().execute("INSERT INTO marker VALUES ('$name')")
+        }
+    }
+
+    private static String database(DataSource dataSource, boolean readOnly) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(readOnly)
+            return query(connection)
+        }
+    }
+
+    private static String query(Connection connection) {
+        def resultSet = connection.createStatement().executeQuery("SELECT name FROM marker")
+        resultSet.next()
+        return resultSet.getString(1)
+    }
+}
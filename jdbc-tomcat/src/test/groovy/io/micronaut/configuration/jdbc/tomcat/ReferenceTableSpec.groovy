@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.snapshot.ReferenceTable
+import io.micronaut.jdbc.snapshot.ReferenceTables
+import io.micronaut.jdbc.snapshot.TableSnapshot
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.ResultSet
+
+class ReferenceTableSpec extends Specification {
+
+    static class Currency {
+        final long id
+        final String code
+
+        Currency(long id, String code) {
+            this.id = id
+            this.code = code
+        }
+    }
+
+    void "test a reference table is loaded from its data source and refreshed"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:referenceDefault;DB_CLOSE_DELAY=-1',
+                'datasources.reference.url': 'jdbc:h2:mem:referenceTables;DB_CLOSE_DELAY=-1',
+                'jdbc.reference-tables.currencies.datasource': 'reference')
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(context.getBean(DataSource, Qualifiers.byName("reference")))
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("create table currency (id bigint primary key, code varchar(3))")
+            it.createStatement().execute("insert into currency values (1, 'EUR'), (2, 'USD'), (3, 'JPY')")
+        }
+
+        when:
+        ReferenceTable<Currency> currencies = context.getBean(ReferenceTables).create("currencies", "select id, code from currency",
+                { ResultSet resultSet -> new Currency(resultSet.getLong(1), resultSet.getString(2)) }, { Currency currency -> currency.id })
+        TableSnapshot<Currency> first = currencies.snapshot
+
+        then:
+        currencies.get(1).code == "EUR"
+        currencies.get(3).code == "JPY"
+        currencies.get(4) == null
+        first.size() == 3
+        first.estimatedSize > 0
+
+        when:
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("insert into currency values (4, 'GBP')")
+        }
+        currencies.refresh()
+
+        then:
+        currencies.get(4).code == "GBP"
+        first.get(4) == null
+        currencies.refreshCount == 2
+
+        cleanup:
+        context.close()
+    }
+}
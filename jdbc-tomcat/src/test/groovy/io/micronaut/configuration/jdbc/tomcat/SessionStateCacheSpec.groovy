@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.DataSourceWrapper
+import io.micronaut.jdbc.session.SessionProperty
+import io.micronaut.jdbc.session.SessionStateCache
+import io.micronaut.jdbc.session.SessionStateCachingDataSource
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+
+class SessionStateCacheSpec extends Specification {
+
+    void "test the session state of the pooled connections is cached and restored"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:sessionState;DB_CLOSE_DELAY=-1',
+                'datasources.default.maxActive': 1,
+                'datasources.default.session-state-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        SessionStateCache cache = SessionStateCachingDataSource.findSessionStateCache(dataSource)
+
+        expect:
+        cache != null
+
+        when:
+        Connection connection = dataSource.getConnection()
+        connection.setAutoCommit(true)
+        connection.setReadOnly(true)
+        connection.setAutoCommit(false)
+        connection.createStatement().execute("select 1")
+        connection.close()
+        connection = dataSource.getConnection()
+        connection.setAutoCommit(true)
+        connection.setReadOnly(false)
+
+        then:
+        connection.autoCommit
+        !connection.readOnly
+        DataSourceWrapper.unwrap(dataSource).pool.active == 1
+        cache.savedCount == 3
+        cache.restoredCount == 1
+
+        cleanup:
+        connection?.close()
+        context.close()
+    }
+
+    void "test the schema and isolation set on a connection are restored before it returns to the pool"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:sessionStateRestored;DB_CLOSE_DELAY=-1',
+                'datasources.default.maxActive': 1,
+                'datasources.default.session-state-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        SessionStateCache cache = SessionStateCachingDataSource.findSessionStateCache(dataSource)
+        Connection connection = dataSource.getConnection()
+        connection.createStatement().execute("create schema reporting")
+        String schema = connection.schema
+        int isolation = connection.transactionIsolation
+
+        when:
+        connection.schema = "REPORTING"
+        connection.transactionIsolation = Connection.TRANSACTION_SERIALIZABLE
+        connection.close()
+        connection = dataSource.getConnection()
+
+        then:
+        connection.schema == schema
+        connection.transactionIsolation == isolation
+        cache.restoredCount == 1
+        cache.trusted
+
+        when:
+        connection.schema = schema
+        connection.transactionIsolation = isolation
+
+        then:
+        cache.getSavedCount(SessionProperty.SCHEMA) == 1
+        cache.getSavedCount(SessionProperty.TRANSACTION_ISOLATION) == 1
+
+        cleanup:
+        connection?.close()
+        context.close()
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.singleflight.SingleFlight
+import io.micronaut.jdbc.singleflight.SingleFlightDataSource
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class SingleFlightSpec extends Specification {
+
+    static volatile CountDownLatch started
+    static volatile CountDownLatch released
+
+    static int slow(int value) {
+        started.countDown()
+        released.await(30, TimeUnit.SECONDS)
+        return value
+    }
+
+    void setup() {
+        started = new CountDownLatch(1)
+        released = new CountDownLatch(1)
+    }
+
+    void cleanup() {
+        released.countDown()
+    }
+
+    void "test identical concurrent queries are executed once"() {
+        given:
+        ApplicationContext context = run('singleFlight')
+        DataSource dataSource = resolve(context, "default")
+        SingleFlight singleFlight = SingleFlightDataSource.findSingleFlight(dataSource)
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+        String sql = "select title from book where id <= slow(?) order by id"
+
+        when: "a query is in flight"
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync({ query(dataSource, sql, 2) }, executor)
+        started.await(10, TimeUnit.SECONDS)
+
+        and: "the same query is executed while it is in flight"
+        List<CompletableFuture<List<String>>> followers = (1..7).collect {
+            CompletableFuture.supplyAsync({ query(dataSource, sql, 2) }, executor)
+        }
+
+        then:
+        new PollingConditions(timeout: 10).eventually {
+            assert singleFlight.coalescedCount == 7
+        }
+        singleFlight.inFlightCount == 1
+
+        when:
+        released.countDown()
+
+        then:
+        ([leader] + followers).every { it.get(30, TimeUnit.SECONDS) == ["The Hobbit", "Mort"] }
+        singleFlight.executionCount == 1
+        singleFlight.inFlightCount == 0
+        context.getBean(MeterRegistry).get("jdbc.single-flight.coalesced").tag("pool", "default").functionCounter().count() == 7
+
+        when:
+        query(dataSource, "select title from book where id <= ? order by id", 3)
+        query(dataSource, "select title from book where id <= ? order by id", 3)
+
+        then:
+        singleFlight.executionCount == 3
+        singleFlight.coalescedCount == 7
+
+        cleanup:
+        executor.shutdownNow()
+        context.close()
+    }
+
+    void "test the queries of a transaction are not coalesced with the query in flight"() {
+        given:
+        ApplicationContext context = run('singleFlightTx')
+        DataSource dataSource = resolve(context, "default")
+        SingleFlight singleFlight = SingleFlightDataSource.findSingleFlight(dataSource)
+        ExecutorService executor = Executors.newFixedThreadPool(2)
+        String sql = "select title from book where id <= slow(?) order by id"
+        started = new CountDownLatch(2)
+
+        when: "a query is in flight and a transaction executes the same query"
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync({ query(dataSource, sql, 2) }, executor)
+        CompletableFuture<List<String>> transactional = CompletableFuture.supplyAsync({
+            Connection connection = dataSource.getConnection()
+            try {
+                connection.autoCommit = false
+                List<String> titles = query(connection, sql, 1)
+                connection.commit()
+                return titles
+            } finally {
+                connection.close()
+            }
+        }, executor)
+
+        then: "both are executed by the database at the same time"
+        started.await(10, TimeUnit.SECONDS)
+
+        when:
+        released.countDown()
+
+        then:
+        leader.get(30, TimeUnit.SECONDS) == ["The Hobbit", "Mort"]
+        transactional.get(30, TimeUnit.SECONDS) == ["The Hobbit"]
+        singleFlight.coalescedCount == 0
+
+        cleanup:
+        executor.shutdownNow()
+        context.close()
+    }
+
+    private static ApplicationContext run(String database) {
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': "jdbc:h2:mem:${database};DB_CLOSE_DELAY=-1",
+                'datasources.default.maxActive': 8,
+                'datasources.default.single-flight.enabled': true,
+                (MICRONAUT_METRICS_ENABLED): true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): true)
+        resolve(context, "default").connection.withCloseable {
+            it.createStatement().execute("create table book (id int primary key, title varchar(64))")
+            it.createStatement().execute("insert into book values (1, 'The Hobbit'), (2, 'Mort'), (3, 'Dune')")
+            it.createStatement().execute("create alias slow for '" + SingleFlightSpec.name + ".slow'")
+        }
+        return context
+    }
+
+    private static List<String> query(DataSource dataSource, String sql, int value) {
+        Connection connection = dataSource.getConnection()
+        try {
+            return query(connection, sql, value)
+        } finally {
+            connection.close()
+        }
+    }
+
+    private static List<String> query(Connection connection, String sql, int value) {
+        PreparedStatement statement = connection.prepareStatement(sql)
+        statement.setInt(1, value)
+        ResultSet resultSet = statement.executeQuery()
+        List<String> titles = []
+        while (resultSet.next()) {
+            titles.add(resultSet.getString("TITLE"))
+        }
+        return titles
+    }
+}
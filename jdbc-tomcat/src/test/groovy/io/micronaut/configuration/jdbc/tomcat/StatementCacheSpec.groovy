@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.DataSourceWrapper
+import io.micronaut.jdbc.statement.StatementCache
+import io.micronaut.jdbc.statement.StatementCachingDataSource
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class StatementCacheSpec extends Specification {
+
+    void "test the statements are reused by the following borrows of a pooled connection"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:statementCache;DB_CLOSE_DELAY=-1',
+                'datasources.default.maxActive': 1,
+                'datasources.default.statement-cache.enabled': true,
+                'datasources.default.statement-cache.max-statements': 2,
+                (MICRONAUT_METRICS_ENABLED): true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): true)
+        DataSource dataSource = resolve(context, "default")
+        StatementCache cache = StatementCachingDataSource.findStatementCache(dataSource)
+        MeterRegistry registry = context.getBean(MeterRegistry)
+
+        expect:
+        cache != null
+        cache.maxStatements == 2
+
+        when:
+        PreparedStatement first = null
+        3.times { i ->
+            Connection borrowed = dataSource.getConnection()
+            PreparedStatement statement = borrowed.prepareStatement("select ? + 1")
+            statement.setInt(1, i)
+            ResultSet resultSet = statement.executeQuery()
+            resultSet.next()
+            assert resultSet.getInt(1) == i + 1
+            first = first ?: statement.targetStatement
+            assert statement.targetStatement.is(first)
+            borrowed.close()
+        }
+
+        then:
+        cache.hitCount == 2
+        cache.missCount == 1
+        cache.size == 1
+        cache.connectionCount == 1
+        !first.closed
+        DataSourceWrapper.unwrap(dataSource).pool.active == 0
+
+        when:
+        Connection connection = dataSource.getConnection()
+        ['select 1', 'select 2', 'select 3'].each { connection.prepareStatement(it).close() }
+        connection.close()
+
+        then:
+        cache.evictionCount == 2
+        cache.size == 2
+        first.closed
+        registry.get("jdbc.statement-cache.hits").tag("pool", "default").functionCounter().count() == 2
+        registry.get("jdbc.statement-cache.evictions").tag("pool", "default").functionCounter().count() == 2
+        registry.get("jdbc.statement-cache.size").tag("pool", "default").gauge().value() == 2
+
+        cleanup:
+        context.close()
+    }
+
+    void "test each pooled connection has its own statements"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:statementCachePerConnection;DB_CLOSE_DELAY=-1',
+                'datasources.default.maxActive': 2,
+                'datasources.default.statement-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        StatementCache cache = StatementCachingDataSource.findStatementCache(dataSource)
+
+        when:
+        Connection first = dataSource.getConnection()
+        Connection second = dataSource.getConnection()
+        PreparedStatement firstStatement = first.prepareStatement("select 1")
+        PreparedStatement secondStatement = second.prepareStatement("select 1")
+
+        then:
+        !firstStatement.targetStatement.is(secondStatement.targetStatement)
+        cache.connectionCount == 2
+        cache.missCount == 2
+
+        when:
+        firstStatement.close()
+        secondStatement.close()
+        first.close()
+        second.close()
+        Connection again = dataSource.getConnection()
+        again.prepareStatement("select 1").close()
+
+        then:
+        cache.hitCount == 1
+        cache.size == 2
+
+        cleanup:
+        again?.close()
+        context.close()
+    }
+
+    void "test the writes of closed cached statements are rolled back when the connection is returned"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:statementCacheRollback;DB_CLOSE_DELAY=-1',
+                'datasources.default.maxActive': 1,
+                'datasources.default.statement-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("create table book (id int primary key)")
+        }
+
+        when:
+        Connection connection = dataSource.getConnection()
+        connection.autoCommit = false
+        PreparedStatement statement = connection.prepareStatement("insert into book values (?)")
+        statement.setInt(1, 1)
+        statement.executeUpdate()
+        statement.close()
+        connection.close()
+        Connection next = dataSource.getConnection()
+        next.autoCommit = true
+        ResultSet resultSet = next.createStatement().executeQuery("select count(*) from book")
+        resultSet.next()
+
+        then:
+        resultSet.getInt(1) == 0
+
+        cleanup:
+        next?.close()
+        context.close()
+    }
+
+    void "test the statements of a broken connection are closed and the pool discards the connection"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:statementCacheBroken;DB_CLOSE_DELAY=-1',
+                'datasources.default.maxActive': 1,
+                'datasources.default.testOnBorrow': true,
+                'datasources.default.validationQuery': 'select 1',
+                'datasources.default.validationInterval': 0,
+                'datasources.default.statement-cache.enabled': true)
+        DataSource dataSource = resolve(context, "default")
+        StatementCache cache = StatementCachingDataSource.findStatementCache(dataSource)
+        dataSource.connection.withCloseable {
+            it.createStatement().execute("create alias break_link for '${StatementCacheSpec.name}.breakLink'")
+        }
+
+        when:
+        Connection connection = dataSource.getConnection()
+        PreparedStatement select = connection.prepareStatement("select 1")
+        select.executeQuery().close()
+        select.close()
+        PreparedStatement cached = select.targetStatement
+        Connection physical = cached.connection
+        connection.prepareStatement("select break_link()").executeQuery()
+
+        then:
+        SQLException e = thrown()
+        e.SQLState == '08S01'
+        cached.closed
+        physical.closed
+        cache.size == 0
+        cache.connectionCount == 0
+
+        when:
+        connection.close()
+        Connection next = dataSource.getConnection()
+        PreparedStatement statement = next.prepareStatement("select 1")
+        ResultSet resultSet = statement.executeQuery()
+        resultSet.next()
+
+        then:
+        resultSet.getInt(1) == 1
+        !statement.targetStatement.connection.is(physical)
+        cache.missCount == 3
+
+        cleanup:
+        next?.close()
+        context.close()
+    }
+
+    static int breakLink() {
+        throw new SQLException('Communication link failure', '08S01')
+    }
+}
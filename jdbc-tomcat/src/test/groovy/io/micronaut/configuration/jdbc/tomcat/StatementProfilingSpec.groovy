@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.profiling.ProfilingDataSource
+import io.micronaut.jdbc.profiling.StatementProfiler
+import io.micronaut.jdbc.profiling.StatementProfilerEndpoint
+import io.micronaut.jdbc.profiling.StatementStatistics
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+import java.sql.Statement
+import java.util.concurrent.TimeUnit
+
+import static io.micronaut.configuration.jdbc.tomcat.TestDataSources.resolve
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class StatementProfilingSpec extends Specification {
+
+    def "test the statements are profiled by fingerprint"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url'                          : 'jdbc:h2:mem:profiled;DB_CLOSE_DELAY=-1',
+                'datasources.default.statement-profiling.enabled'  : true,
+                'datasources.default.statement-profiling.capacity' : 10
+        )
+        DataSource dataSource = resolve(context, "default")
+        StatementProfiler profiler = ProfilingDataSource.findStatementProfiler(dataSource)
+
+        expect:
+        profiler.capacity == 10
+
+        when:
+        Connection connection = dataSource.getConnection()
+        Statement statement = connection.createStatement()
+        statement.execute("create table book (id int primary key, title varchar(100))")
+        [1, 2, 3].each { id ->
+            PreparedStatement prepared = connection.prepareStatement("insert into book values (?, 'Title " + id + "')")
+            prepared.setInt(1, id)
+            prepared.executeUpdate()
+            prepared.close()
+        }
+        ResultSet resultSet = statement.executeQuery("select * from book where id > 1")
+        while (resultSet.next()) {
+        }
+        resultSet.close()
+        statement.executeQuery("select * from missing where id = 1")
+
+        then:
+        thrown(SQLException)
+
+        when:
+        statement.close()
+        connection.close()
+        StatementStatistics insert = profiler.findStatistics("insert into book values (?, ?)")
+        StatementStatistics select = profiler.findStatistics("select * from book where id > ?")
+        StatementStatistics missing = profiler.findStatistics("select * from missing where id = ?")
+
+        then:
+        profiler.statements.size() == 4
+        insert.executionCount == 3
+        insert.rowCount == 3
+        select.executionCount == 1
+        select.rowCount == 2
+        missing.errorCount == 1
+        resultSet.statement.is(statement)
+        statement.connection.is(connection)
+
+        cleanup:
+        context.close()
+    }
+
+    def "test the least executed statement is replaced when the profiler is full"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url'                          : 'jdbc:h2:mem:profiledFull;DB_CLOSE_DELAY=-1',
+                'datasources.default.statement-profiling.enabled'  : true,
+                'datasources.default.statement-profiling.capacity' : 2
+        )
+        DataSource dataSource = resolve(context, "default")
+        StatementProfiler profiler = ProfilingDataSource.findStatementProfiler(dataSource)
+
+        when:
+        Connection connection = dataSource.getConnection()
+        Statement statement = connection.createStatement()
+        3.times { statement.execute("select 1 from dual where 1 = 1") }
+        statement.execute("select 2 from dual where 2 = 2 and 3 = 3")
+        statement.execute("select 1 from dual where 1 = 1 and 2 = 2 and 3 = 3")
+        statement.close()
+        connection.close()
+
+        then:
+        profiler.statements*.fingerprint as Set == ["select ? from dual where ? = ?", "select ? from dual where ? = ? and ? = ? and ? = ?"] as Set
+        profiler.findStatistics("select ? from dual where ? = ?").executionCount == 3
+        profiler.findStatistics("select ? from dual where ? = ? and ? = ?") == null
+        profiler.findStatistics("select ? from dual where ? = ? and ? = ? and ? = ?").estimatedCount == 2
+
+        cleanup:
+        context.close()
+    }
+
+    def "test the statements are published as meters and by the endpoint"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url'                        : 'jdbc:h2:mem:metered;DB_CLOSE_DELAY=-1',
+                'datasources.default.statement-profiling.enabled': true,
+                (MICRONAUT_METRICS_ENABLED)                      : true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled")    : true
+        )
+        MeterRegistry registry = context.getBean(MeterRegistry)
+        StatementProfilerEndpoint endpoint = context.getBean(StatementProfilerEndpoint)
+        DataSource dataSource = resolve(context, "default")
+
+        when:
+        Connection connection = dataSource.getConnection()
+        2.times {
+            PreparedStatement statement = connection.prepareStatement("select 1 from dual where 1 = ?")
+            statement.setInt(1, 1)
+            ResultSet resultSet = statement.executeQuery()
+            while (resultSet.next()) {
+            }
+            resultSet.close()
+            statement.close()
+        }
+        connection.close()
+        List<Map<String, Object>> statements = endpoint.statements("default")
+
+        then:
+        registry.get("jdbc.statements").tag("pool", "default").tag("statement", "select ? from dual where ? = ?").functionTimer().count() == 2
+        registry.get("jdbc.statements").tag("statement", "select ? from dual where ? = ?").functionTimer().totalTime(TimeUnit.NANOSECONDS) > 0
+        registry.get("jdbc.statements.rows").tag("statement", "select ? from dual where ? = ?").functionCounter().count() == 2
+        registry.get("jdbc.statements.errors").tag("statement", "select ? from dual where ? = ?").functionCounter().count() == 0
+        endpoint.statements().keySet() == ["default"] as Set
+        statements.size() == 1
+        statements[0].fingerprint == "select ? from dual where ? = ?"
+        statements[0].executions == 2
+        statements[0].rows == 2
+        endpoint.statements("missing") == null
+
+        when:
+        endpoint.reset()
+
+        then:
+        endpoint.statements("default").isEmpty()
+        registry.find("jdbc.statements").functionTimer() == null
+
+        cleanup:
+        context.close()
+    }
+}
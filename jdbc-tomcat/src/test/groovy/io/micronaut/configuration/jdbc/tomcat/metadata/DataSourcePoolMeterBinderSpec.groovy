@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.tomcat.metadata
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata
+import io.micronaut.jdbc.timing.TimedDataSource
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class DataSourcePoolMeterBinderSpec extends Specification {
+
+    def "test pool meters are bound for each data source"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default'                        : [:],
+                'datasources.foo'                            : [:],
+                (MICRONAUT_METRICS_ENABLED)                  : true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): true
+        )
+        MeterRegistry registry = context.getBean(MeterRegistry)
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+
+        when:
+        Connection connection = dataSource.getConnection()
+
+        then:
+        registry.get("jdbc.pool.connections.active").tag("pool", "default").gauge().value() == 1
+        registry.get("jdbc.pool.connections.active").tag("pool", "foo").gauge().value() == 0
+        registry.get("jdbc.pool.connections.idle").tag("pool", "default").gauge()
+        registry.get("jdbc.pool.connections.pending").tag("pool", "default").gauge().value() == 0
+        registry.get("jdbc.pool.connections.max").tag("pool", "default").gauge().value() > 0
+        registry.get("jdbc.pool.connections.min").tag("pool", "default").gauge()
+        registry.get("jdbc.pool.connections.created").tag("pool", "default").functionCounter().count() >= 1
+        registry.get("jdbc.pool.connections.destroyed").tag("pool", "default").functionCounter()
+        registry.find("jdbc.pool.connections.timeout").functionCounter() == null
+        registry.find("jdbc.pool.connections.acquire.mean").timeGauge() == null
+
+        when:
+        connection.close()
+
+        then:
+        registry.get("jdbc.pool.connections.active").tag("pool", "default").gauge().value() == 0
+
+        cleanup:
+        context.close()
+    }
+
+    def "test pool meters are not bound when the jdbc binders are disabled"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default'                        : [:],
+                (MICRONAUT_METRICS_ENABLED)                  : true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): false
+        )
+
+        expect:
+        context.getBean(MeterRegistry).find("jdbc.pool.connections.active").gauge() == null
+
+        cleanup:
+        context.close()
+    }
+
+    def "test connection timings are recorded and bound when enabled"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default'                                 : [:],
+                'datasources.default.connection-timings.enabled'      : true,
+                'datasources.default.connection-timings.sample-rate'  : 1,
+                'datasources.foo'                                     : [:],
+                (MICRONAUT_METRICS_ENABLED)                           : true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled")         : true
+        )
+        MeterRegistry registry = context.getBean(MeterRegistry)
+        DataSource dataSource = context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(context.getBean(DataSource, Qualifiers.byName("default")))
+
+        when:
+        Connection connection = dataSource.getConnection()
+        connection.createStatement().execute("SELECT 1")
+        connection.close()
+        def timings = context.getBean(DataSourcePoolMetadata, Qualifiers.byName("default")).connectionTimings
+
+        then:
+        dataSource instanceof TimedDataSource
+        context.getBean(DataSourcePoolMetadata, Qualifiers.byName("default")).dataSource instanceof org.apache.tomcat.jdbc.pool.DataSource
+        context.getBean(DataSourcePoolMetadata, Qualifiers.byName("foo")).connectionTimings == null
+        timings.acquireTime.count == 1
+        timings.holdTime.count == 1
+        timings.longestHolds.size() == 1
+        registry.get("jdbc.pool.connections.acquire").tag("pool", "default").functionTimer().count() == 1
+        registry.get("jdbc.pool.connections.usage").tag("pool", "default").functionTimer().count() == 1
+        registry.get("jdbc.pool.connections.usage.percentile").tags("pool", "default", "phi", "0.99").timeGauge()
+        registry.find("jdbc.pool.connections.usage").tag("pool", "foo").functionTimer() == null
+
+        cleanup:
+        context.close()
+    }
+}
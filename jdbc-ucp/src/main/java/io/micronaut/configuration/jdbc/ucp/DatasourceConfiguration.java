@@ -20,9 +20,12 @@ import io.micronaut.context.annotation.Context;
 import io.micronaut.context.annotation.EachProperty;
 import io.micronaut.context.annotation.Parameter;
 import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.convert.format.MapFormat;
+import io.micronaut.core.naming.conventions.StringConvention;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.jdbc.BasicJdbcConfiguration;
 import io.micronaut.jdbc.CalculatedSettings;
+import io.micronaut.jdbc.ValidationStrategy;
 import jakarta.annotation.PostConstruct;
 import oracle.ucp.jdbc.PoolDataSource;
 import oracle.ucp.jdbc.PoolDataSourceFactory;
@@ -50,6 +53,7 @@ import java.util.Properties;
 @Context
 public class DatasourceConfiguration implements BasicJdbcConfiguration {
     private static final Logger LOG = LoggerFactory.getLogger(DatasourceConfiguration.class);
+    private static final int DEFAULT_SECONDS_TO_TRUST_IDLE_CONNECTION = 1;
 
     @ConfigurationBuilder(allowZeroArgs = true, excludes = {"connectionFactoryProperties"})
     PoolDataSourceImpl delegate = (PoolDataSourceImpl) PoolDataSourceFactory.getPoolDataSource();
@@ -57,6 +61,9 @@ public class DatasourceConfiguration implements BasicJdbcConfiguration {
     private String name;
     private String username;
     private String password;
+    private Properties dataSourceProperties;
+    private ValidationStrategy validationStrategy;
+    private boolean lazy;
 
     /**
      * Constructor.
@@ -175,7 +182,42 @@ public class DatasourceConfiguration implements BasicJdbcConfiguration {
 
     @Override
     public String getValidationQuery() {
-        return calculatedSettings.getValidationQuery();
+        return getValidationStrategy() == ValidationStrategy.QUERY ? calculatedSettings.getValidationQuery() : null;
+    }
+
+    /**
+     * @return The validation strategy to be used by the data source
+     */
+    public ValidationStrategy getValidationStrategy() {
+        return calculatedSettings.getValidationStrategy();
+    }
+
+    @Override
+    public ValidationStrategy getConfiguredValidationStrategy() {
+        return validationStrategy;
+    }
+
+    /**
+     * Sets how connections are validated. Defaults to the cheapest strategy supported by the database driver.
+     *
+     * @param validationStrategy The validation strategy
+     */
+    public void setValidationStrategy(ValidationStrategy validationStrategy) {
+        this.validationStrategy = validationStrategy;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether the connection pool is only created when the first connection is requested. Defaults to false.
+     *
+     * @param lazy Whether the data source is lazy
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
     }
 
     public void setValidationQuery(String validationQuery) {
@@ -186,8 +228,16 @@ public class DatasourceConfiguration implements BasicJdbcConfiguration {
         }
     }
 
+    private void setSecondsToTrustIdleConnection(int seconds) {
+        try {
+            delegate.setSecondsToTrustIdleConnection(seconds);
+        } catch (SQLException e) {
+            throw new ConfigurationException("Unable to set datasource seconds to trust idle connection: " + e.getMessage(), e);
+        }
+    }
+
     @Override
-    public void setDataSourceProperties(Map<String, ?> dsProperties) {
+    public void setDataSourceProperties(@MapFormat(transformation = MapFormat.MapTransformation.FLAT, keyFormat = StringConvention.RAW) Map<String, ?> dsProperties) {
         if (dsProperties != null) {
             Properties properties = new Properties();
             dsProperties.forEach((key, value) -> {
@@ -195,12 +245,16 @@ public class DatasourceConfiguration implements BasicJdbcConfiguration {
                     properties.put(key, value.toString());
                 }
             });
+            this.dataSourceProperties = properties;
+            setConnectionProperties(properties);
+        }
+    }
 
-            try {
-                this.delegate.setConnectionProperties(properties);
-            } catch (SQLException e) {
-                throw new ConfigurationException("Unable to set datasource properties: " + e.getMessage(), e);
-            }
+    private void setConnectionProperties(Properties properties) {
+        try {
+            this.delegate.setConnectionProperties(properties);
+        } catch (SQLException e) {
+            throw new ConfigurationException("Unable to set datasource properties: " + e.getMessage(), e);
         }
     }
 
@@ -242,7 +296,16 @@ public class DatasourceConfiguration implements BasicJdbcConfiguration {
             }
         }
 
-        if (StringUtils.isEmpty(getConfiguredValidationQuery())) {
+        ValidationStrategy strategy = getValidationStrategy();
+        if (strategy != ValidationStrategy.QUERY) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Configuring validation strategy: {}", strategy);
+            }
+            setValidationQuery(null);
+            if (strategy == ValidationStrategy.SKIP_IF_RECENTLY_USED && delegate.getSecondsToTrustIdleConnection() == 0) {
+                setSecondsToTrustIdleConnection(DEFAULT_SECONDS_TO_TRUST_IDLE_CONNECTION);
+            }
+        } else if (StringUtils.isEmpty(getConfiguredValidationQuery())) {
             String validationQuery = null;
             try {
                 validationQuery = getValidationQuery();
@@ -273,5 +336,23 @@ public class DatasourceConfiguration implements BasicJdbcConfiguration {
             }
             setPassword(getPassword());
         }
+
+        // setting the connection factory class name resets the connection properties of the pool
+        Map<String, String> defaultDataSourceProperties = calculatedSettings.getDefaultDataSourceProperties();
+        if (dataSourceProperties != null || !defaultDataSourceProperties.isEmpty()) {
+            Properties properties = new Properties();
+            Properties configured = delegate.getConnectionProperties();
+            if (configured != null) {
+                properties.putAll(configured);
+            }
+            if (dataSourceProperties != null) {
+                properties.putAll(dataSourceProperties);
+            }
+            if (LOG.isDebugEnabled() && !defaultDataSourceProperties.isEmpty()) {
+                LOG.debug("Configuring default connection properties: {}", defaultDataSourceProperties);
+            }
+            defaultDataSourceProperties.forEach(properties::putIfAbsent);
+            setConnectionProperties(properties);
+        }
     }
 }
@@ -15,13 +15,18 @@
  */
 package io.micronaut.configuration.jdbc.ucp;
 
+import io.micronaut.configuration.jdbc.ucp.metadata.UcpDataSourcePoolMetadata;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.context.annotation.Context;
 import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.context.exceptions.NoSuchBeanException;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
 import io.micronaut.jdbc.JdbcDataSourceEnabled;
+import io.micronaut.jdbc.jfr.StartupPhaseEvent;
+import io.micronaut.jdbc.timing.TimedDataSource;
 import oracle.ucp.UniversalConnectionPoolException;
 import oracle.ucp.admin.UniversalConnectionPoolManager;
 import oracle.ucp.jdbc.PoolDataSource;
@@ -29,8 +34,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.annotation.PreDestroy;
-import java.util.ArrayList;
+import javax.sql.DataSource;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Creates an ucp data source for each configuration bean.
@@ -44,7 +50,7 @@ public class DatasourceFactory implements AutoCloseable {
     private final ApplicationContext applicationContext;
     private final UniversalConnectionPoolManagerConfiguration configuration;
 
-    private List<PoolDataSource> dataSources = new ArrayList<>(2);
+    private List<PoolDataSource> dataSources = new CopyOnWriteArrayList<>();
     private UniversalConnectionPoolManager connectionPoolManager;
 
     /**
@@ -72,10 +78,34 @@ public class DatasourceFactory implements AutoCloseable {
     @EachBean(DatasourceConfiguration.class)
     @Requires(condition = JdbcDataSourceEnabled.class)
     public PoolDataSource dataSource(DatasourceConfiguration datasourceConfiguration) throws UniversalConnectionPoolException {
-        PoolDataSource ds = datasourceConfiguration.getPoolDataSource();
-        dataSources.add(ds);
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.POOL_CREATION, datasourceConfiguration.getName());
+        try {
+            PoolDataSource ds = datasourceConfiguration.getPoolDataSource();
+            dataSources.add(ds);
+
+            return ds;
+        } finally {
+            event.commit();
+        }
+    }
 
-        return ds;
+    /**
+     * Method to create a metadata object that allows pool value lookup for each datasource object.
+     *
+     * @param dataSource The datasource
+     * @return a {@link UcpDataSourcePoolMetadata}
+     */
+    @EachBean(DataSource.class)
+    @Requires(beans = {DatasourceConfiguration.class})
+    public UcpDataSourcePoolMetadata ucpDataSourcePoolMetadata(DataSource dataSource) {
+        DataSourceResolver dataSourceResolver = applicationContext.findBean(DataSourceResolver.class)
+                .orElse(DataSourceResolver.DEFAULT);
+        UcpDataSourcePoolMetadata dataSourcePoolMetadata = null;
+        DataSource resolved = dataSourceResolver.resolve(dataSource);
+        if (DataSourceWrapper.unwrap(resolved) instanceof PoolDataSource pool) {
+            dataSourcePoolMetadata = new UcpDataSourcePoolMetadata(pool, TimedDataSource.findConnectionTimings(resolved));
+        }
+        return dataSourcePoolMetadata;
     }
 
     @Override
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.ucp.metadata;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.metadata.AbstractDataSourcePoolMetadata;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
+import oracle.ucp.jdbc.JDBCConnectionPoolStatistics;
+import oracle.ucp.jdbc.PoolDataSource;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} for a UCP {@link PoolDataSource}. UCP only starts
+ * the pool on the first borrow, until then all statistics are reported as {@code 0}.
+ *
+ * @since 6.0.0
+ */
+public class UcpDataSourcePoolMetadata extends AbstractDataSourcePoolMetadata<PoolDataSource>
+        implements ResizableDataSourcePoolMetadata<PoolDataSource> {
+
+    private Integer configuredMinPoolSize;
+
+    /**
+     * UCP typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
+     *
+     * @param dataSource The datasource
+     */
+    public UcpDataSourcePoolMetadata(PoolDataSource dataSource) {
+        super(dataSource);
+    }
+
+    /**
+     * UCP typed {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} object.
+     *
+     * @param dataSource        The datasource
+     * @param connectionTimings The connection timings recorded for the datasource
+     */
+    public UcpDataSourcePoolMetadata(PoolDataSource dataSource, @Nullable ConnectionTimings connectionTimings) {
+        super(dataSource, connectionTimings);
+    }
+
+    @Override
+    public Integer getIdle() {
+        return (int) statistic(JDBCConnectionPoolStatistics::getAvailableConnectionsCount);
+    }
+
+    @Override
+    public Integer getActive() {
+        return (int) statistic(JDBCConnectionPoolStatistics::getBorrowedConnectionsCount);
+    }
+
+    @Override
+    public Integer getPending() {
+        return (int) statistic(JDBCConnectionPoolStatistics::getPendingRequestsCount);
+    }
+
+    @Override
+    public Long getCreatedCount() {
+        return statistic(JDBCConnectionPoolStatistics::getConnectionsCreatedCount);
+    }
+
+    @Override
+    public Long getDestroyedCount() {
+        return statistic(JDBCConnectionPoolStatistics::getConnectionsClosedCount);
+    }
+
+    @Override
+    public Long getTimeoutCount() {
+        return statistic(JDBCConnectionPoolStatistics::getCumulativeFailedConnectionWaitCount);
+    }
+
+    @Override
+    public Duration getMeanAcquireWait() {
+        return Duration.ofMillis(statistic(JDBCConnectionPoolStatistics::getAverageConnectionWaitTime));
+    }
+
+    @Override
+    public Long getAcquireCount() {
+        return statistic(JDBCConnectionPoolStatistics::getCumulativeConnectionBorrowedCount);
+    }
+
+    @Override
+    public Duration getTotalAcquireWait() {
+        return Duration.ofMillis(statistic(JDBCConnectionPoolStatistics::getCumulativeConnectionWaitTime));
+    }
+
+    @Override
+    public Duration getMaxAcquireWait() {
+        return Duration.ofMillis(statistic(JDBCConnectionPoolStatistics::getPeakConnectionWaitTime));
+    }
+
+    @Override
+    public Integer getMax() {
+        return getDataSource().getMaxPoolSize();
+    }
+
+    @Override
+    public Integer getMin() {
+        return getDataSource().getMinPoolSize();
+    }
+
+    /**
+     * Changes {@code maxPoolSize}. {@code minPoolSize} follows the new maximum while it is below the
+     * configured value.
+     *
+     * @param max the new maximum number of connections
+     */
+    @Override
+    public synchronized void setMax(int max) {
+        PoolDataSource dataSource = getDataSource();
+        if (configuredMinPoolSize == null) {
+            configuredMinPoolSize = dataSource.getMinPoolSize();
+        }
+        int minPoolSize = Math.min(configuredMinPoolSize, max);
+        try {
+            // UCP rejects a maximum below the minimum, so the order depends on the direction of the change
+            if (max < dataSource.getMaxPoolSize()) {
+                dataSource.setMinPoolSize(minPoolSize);
+                dataSource.setMaxPoolSize(max);
+            } else {
+                dataSource.setMaxPoolSize(max);
+                dataSource.setMinPoolSize(minPoolSize);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to resize the UCP pool to " + max + " connections: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getValidationQuery() {
+        return getDataSource().getSQLForValidateConnection();
+    }
+
+    @Override
+    public Boolean getDefaultAutoCommit() {
+        return null;
+    }
+
+    private long statistic(ToLongFunction<JDBCConnectionPoolStatistics> statistic) {
+        JDBCConnectionPoolStatistics statistics = getDataSource().getStatistics();
+        return statistics == null ? 0L : statistic.applyAsLong(statistics);
+    }
+}
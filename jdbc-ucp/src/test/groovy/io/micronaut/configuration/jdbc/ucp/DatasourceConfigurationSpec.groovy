@@ -21,6 +21,7 @@ import io.micronaut.context.env.MapPropertySource
 import io.micronaut.context.exceptions.NoSuchBeanException
 import io.micronaut.inject.qualifiers.Qualifiers
 import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.timing.TimedDataSource
 import oracle.ucp.jdbc.PoolDataSource
 import spock.lang.Specification
 
@@ -103,6 +104,23 @@ class DatasourceConfigurationSpec extends Specification {
         applicationContext.close()
     }
 
+    void "test the pool data source is not replaced by a wrapper"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run(
+                "datasources.default.url": "jdbc:h2:mem:unwrapped;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "datasources.default.connection-timings.enabled": true,
+                "datasources.default.statement-cache.enabled": true)
+        DataSourceResolver dataSourceResolver = applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+        DataSource dataSource = dataSourceResolver.resolve(applicationContext.getBean(DataSource, Qualifiers.byName('default')))
+
+        expect: "the listeners leave the bean declared as a pool data source as it is"
+        dataSource instanceof PoolDataSource
+        TimedDataSource.findConnectionTimings(dataSource) == null
+
+        cleanup:
+        applicationContext.close()
+    }
+
     void "test datasource can be disabled"() {
         given:
         ApplicationContext applicationContext = new DefaultApplicationContext("test")
@@ -405,7 +423,7 @@ class DatasourceConfigurationSpec extends Specification {
         PoolDataSource dataSource = dataSourceResolver.resolve(applicationContext.getBean(DataSource))
 
         then: //The default configuration is supplied because H2 is on the classpath
-        dataSource.getSQLForValidateConnection()== 'SELECT 1'
+        dataSource.getSQLForValidateConnection() == null
         dataSource.getConnectionFactoryClassName() == 'org.h2.Driver'
         dataSource.getURL() == 'jdbc:h2:mem:default;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE'
         dataSource.getUser() == "sa"
@@ -413,4 +431,65 @@ class DatasourceConfigurationSpec extends Specification {
         cleanup:
         applicationContext.close()
     }
+
+    void "test default data source properties of the database are applied"() {
+        given:
+        ApplicationContext applicationContext = new DefaultApplicationContext("test")
+        applicationContext.environment.addPropertySource(MapPropertySource.of(
+                'test',
+                [
+                        'datasources.default.url'                    : 'jdbc:mysql://localhost/test?rewriteBatchedStatements=false',
+                        'datasources.default.driver-class-name'      : 'org.h2.Driver',
+                        'datasources.default.enabled'                : false,
+                        'datasources.default.data-source-properties' : ['useServerPrepStmts': false]
+                ]
+        ))
+        applicationContext.start()
+
+        when:
+        DatasourceConfiguration configuration = applicationContext.getBean(DatasourceConfiguration)
+        Map<Object, Object> properties = configuration.poolDataSource.connectionProperties
+
+        then: "defaults are applied unless configured or set in the URL"
+        properties.get('cachePrepStmts') == 'true'
+        properties.get('prepStmtCacheSize') == '250'
+        properties.get('useServerPrepStmts') == 'false'
+        !properties.containsKey('rewriteBatchedStatements')
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test validation strategy #strategy with validation query #query"() {
+        given:
+        ApplicationContext applicationContext = new DefaultApplicationContext("test")
+        Map<String, Object> config = ['datasources.default': [:]]
+        if (strategy) {
+            config['datasources.default.validation-strategy'] = strategy
+        }
+        if (query) {
+            config['datasources.default.validation-query'] = query
+        }
+        applicationContext.environment.addPropertySource(MapPropertySource.of('test', config))
+        applicationContext.start()
+        DataSourceResolver dataSourceResolver =  applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+
+        when:
+        def dataSource = dataSourceResolver.resolve(applicationContext.getBean(DataSource))
+
+        then: "H2 supports Connection.isValid so no query is used by default"
+        dataSource.SQLForValidateConnection == expectedQuery
+        dataSource.secondsToTrustIdleConnection == secondsToTrust
+
+        cleanup:
+        applicationContext.close()
+
+        where:
+        strategy                | query      | expectedQuery | secondsToTrust
+        null                    | null       | null          | 0
+        'query'                 | null       | 'SELECT 1'    | 0
+        null                    | 'select 2' | 'select 2'    | 0
+        'is-valid'              | 'select 2' | null          | 0
+        'skip-if-recently-used' | null       | null          | 1
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.ucp.metadata
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata
+import spock.lang.Specification
+
+class UcpDataSourcePoolMetadataSpec extends Specification {
+
+    def "test the pool can be resized below and above its minimum size"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.min-pool-size': 4,
+                'datasources.default.max-pool-size': 8
+        )
+        DataSourcePoolMetadata metadata = context.getBean(DataSourcePoolMetadata, Qualifiers.byName("default"))
+
+        expect:
+        metadata instanceof ResizableDataSourcePoolMetadata
+
+        when:
+        metadata.setMax(2)
+
+        then:
+        metadata.max == 2
+        metadata.min == 2
+
+        when:
+        metadata.setMax(10)
+
+        then:
+        metadata.max == 10
+        metadata.min == 4
+
+        cleanup:
+        context.close()
+    }
+}
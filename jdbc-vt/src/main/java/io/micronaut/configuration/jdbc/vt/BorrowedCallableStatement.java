@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.jdbc.CallableStatementWrapper;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A {@link CallableStatement} of a {@link BorrowedConnection}, which is closed when the connection is
+ * returned and whose connection exceptions mark the connection as broken.
+ *
+ * @since 6.0.0
+ */
+final class BorrowedCallableStatement extends CallableStatementWrapper {
+
+    private final BorrowedConnection connection;
+
+    BorrowedCallableStatement(BorrowedConnection connection, CallableStatement statement) {
+        super(statement);
+        this.connection = connection;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return connection.execute(super::executeQuery);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return connection.execute(super::executeUpdate);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return connection.execute(super::executeLargeUpdate);
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return connection.execute(super::execute);
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return connection.execute(super::executeBatch);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return connection.execute(super::executeLargeBatch);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.closed(this);
+        connection.execute(() -> {
+            super.close();
+            return null;
+        });
+    }
+}
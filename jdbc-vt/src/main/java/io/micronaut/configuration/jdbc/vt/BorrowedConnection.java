@@ -0,0 +1,321 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.CallableStatement;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The connection handed out by a {@link VirtualThreadDataSource} for one borrow. Closing it closes the statements
+ * that are still open and returns the physical connection to the pool, and the session state changes made through
+ * it are recorded so that the pool only resets the state that was changed. A connection that fails with an SQL state
+ * of the connection exception class {@code 08} is marked as broken and closed instead of being returned.
+ *
+ * @since 6.0.0
+ */
+final class BorrowedConnection extends ConnectionWrapper {
+
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+
+    private final VirtualThreadDataSource pool;
+    private final PooledConnection pooled;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param pool   The pool
+     * @param pooled The pooled connection
+     */
+    BorrowedConnection(VirtualThreadDataSource pool, PooledConnection pooled) {
+        super(pooled.connection);
+        this.pool = pool;
+        this.pooled = pooled;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        checkOpen();
+        return track(new BorrowedStatement(this, execute(super::createStatement)));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new BorrowedStatement(this, execute(() -> super.createStatement(resultSetType, resultSetConcurrency))));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new BorrowedStatement(this, execute(() -> super.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability))));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        checkOpen();
+        return track(new BorrowedPreparedStatement(this, execute(() -> super.prepareStatement(sql))));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new BorrowedPreparedStatement(this, execute(() -> super.prepareStatement(sql, resultSetType, resultSetConcurrency))));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new BorrowedPreparedStatement(this, execute(() -> super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability))));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        return track(new BorrowedPreparedStatement(this, execute(() -> super.prepareStatement(sql, autoGeneratedKeys))));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        return track(new BorrowedPreparedStatement(this, execute(() -> super.prepareStatement(sql, columnIndexes))));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        return track(new BorrowedPreparedStatement(this, execute(() -> super.prepareStatement(sql, columnNames))));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        checkOpen();
+        return track(new BorrowedCallableStatement(this, execute(() -> super.prepareCall(sql))));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(new BorrowedCallableStatement(this, execute(() -> super.prepareCall(sql, resultSetType, resultSetConcurrency))));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(new BorrowedCallableStatement(this, execute(() -> super.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability))));
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return super.getMetaData();
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        execute(() -> {
+            super.setAutoCommit(autoCommit);
+            return null;
+        });
+        pooled.autoCommit = autoCommit;
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return super.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        execute(() -> {
+            super.commit();
+            return null;
+        });
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        execute(() -> {
+            super.rollback();
+            return null;
+        });
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        execute(() -> {
+            super.rollback(savepoint);
+            return null;
+        });
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        checkOpen();
+        super.setReadOnly(readOnly);
+        pooled.readOnly = readOnly;
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        super.setTransactionIsolation(level);
+        pooled.transactionIsolation = level;
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        checkOpen();
+        if (!pooled.catalogChanged) {
+            pooled.initialCatalog = super.getCatalog();
+            pooled.catalogChanged = true;
+        }
+        super.setCatalog(catalog);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        checkOpen();
+        if (!pooled.schemaChanged) {
+            pooled.initialSchema = super.getSchema();
+            pooled.schemaChanged = true;
+        }
+        super.setSchema(schema);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed.get() || super.isClosed();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return !closed.get() && super.isValid(timeout);
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            closeStatements();
+            pool.release(pooled);
+        }
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        if (closed.compareAndSet(false, true)) {
+            pooled.broken = true;
+            statements.clear();
+            try {
+                super.abort(executor);
+            } finally {
+                pool.release(pooled);
+            }
+        }
+    }
+
+    /**
+     * Runs a call on the physical connection or one of its statements, and marks the connection as broken when
+     * the call fails with a connection exception.
+     *
+     * @param call The call
+     * @param <T>  The type of the result of the call
+     * @return The result of the call
+     * @throws SQLException If the call fails
+     */
+    <T> T execute(SqlCall<T> call) throws SQLException {
+        try {
+            return call.call();
+        } catch (SQLException e) {
+            if (isConnectionException(e)) {
+                pooled.broken = true;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops tracking a statement that was closed by the borrower.
+     *
+     * @param statement The statement
+     */
+    void closed(Statement statement) {
+        statements.remove(statement);
+    }
+
+    private <S extends Statement> S track(S statement) {
+        statements.add(statement);
+        return statement;
+    }
+
+    private void closeStatements() {
+        for (Statement statement : statements) {
+            try {
+                statement.close();
+            } catch (SQLException | RuntimeException e) {
+                // a connection exception has marked the connection as broken
+            }
+        }
+        statements.clear();
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection is closed", "08003");
+        }
+    }
+
+    private static boolean isConnectionException(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                String sqlState = sqlException.getSQLState();
+                if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A call on the physical connection or one of its statements.
+     *
+     * @param <T> The type of the result of the call
+     */
+    @FunctionalInterface
+    interface SqlCall<T> {
+
+        /**
+         * @return The result of the call
+         * @throws SQLException If the call fails
+         */
+        T call() throws SQLException;
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.convert.format.MapFormat;
+import io.micronaut.core.naming.conventions.StringConvention;
+import io.micronaut.jdbc.BasicJdbcConfiguration;
+import io.micronaut.jdbc.CalculatedSettings;
+import io.micronaut.jdbc.ValidationStrategy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Allows the configuration of the data sources of the {@link VirtualThreadDataSource} pool.
+ *
+ * If the url, driver class, username, or password are missing, sensible defaults
+ * will be provided when possible. If no configuration beyond the datasource name
+ * is provided, an in memory datastore will be configured based on the available
+ * drivers on the classpath.
+ *
+ * @since 6.0.0
+ */
+@EachProperty(value = BasicJdbcConfiguration.PREFIX, primary = "default")
+public class DatasourceConfiguration implements BasicJdbcConfiguration {
+
+    private final CalculatedSettings calculatedSettings;
+    private final String name;
+    private String url;
+    private String driverClassName;
+    private String username;
+    private String password;
+    private String validationQuery;
+    private ValidationStrategy validationStrategy;
+    private boolean lazy;
+    private final Properties dataSourceProperties = new Properties();
+    private int maximumPoolSize = 10;
+    private int minimumIdle;
+    private Duration connectionTimeout = Duration.ofSeconds(30);
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Duration maxLifetime = Duration.ofMinutes(30);
+    private Duration validationTimeout = Duration.ofSeconds(5);
+    private Duration validationInterval = Duration.ofMillis(500);
+    private Duration housekeepingInterval = Duration.ofSeconds(30);
+    private boolean autoCommit = true;
+    private boolean readOnly;
+    private Integer transactionIsolation;
+
+    /**
+     * Constructor.
+     * @param name name that comes from properties
+     */
+    public DatasourceConfiguration(@Parameter String name) {
+        this.name = name;
+        this.calculatedSettings = new CalculatedSettings(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getConfiguredUrl() {
+        return url;
+    }
+
+    @Override
+    public String getUrl() {
+        return calculatedSettings.getUrl();
+    }
+
+    @Override
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public String getConfiguredDriverClassName() {
+        return driverClassName;
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return calculatedSettings.getDriverClassName();
+    }
+
+    @Override
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    @Override
+    public String getConfiguredUsername() {
+        return username;
+    }
+
+    @Override
+    public String getUsername() {
+        return calculatedSettings.getUsername();
+    }
+
+    @Override
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public String getConfiguredPassword() {
+        return password;
+    }
+
+    @Override
+    public String getPassword() {
+        return calculatedSettings.getPassword();
+    }
+
+    @Override
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    @Override
+    public String getConfiguredValidationQuery() {
+        return validationQuery;
+    }
+
+    @Override
+    public String getValidationQuery() {
+        return getValidationStrategy() == ValidationStrategy.QUERY ? calculatedSettings.getValidationQuery() : null;
+    }
+
+    /**
+     * @param validationQuery The query used to validate connections with the {@link ValidationStrategy#QUERY} strategy
+     */
+    public void setValidationQuery(String validationQuery) {
+        this.validationQuery = validationQuery;
+    }
+
+    /**
+     * @return The validation strategy to be used by the data source
+     */
+    public ValidationStrategy getValidationStrategy() {
+        return calculatedSettings.getValidationStrategy();
+    }
+
+    @Override
+    public ValidationStrategy getConfiguredValidationStrategy() {
+        return validationStrategy;
+    }
+
+    /**
+     * Sets how connections are validated when they are borrowed. Defaults to the cheapest strategy supported by
+     * the database driver.
+     *
+     * @param validationStrategy The validation strategy
+     */
+    public void setValidationStrategy(ValidationStrategy validationStrategy) {
+        this.validationStrategy = validationStrategy;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Sets whether the data source is lazy. The pool only opens connections when they are requested, so this only
+     * keeps the integrations, such as jOOQ, from opening a connection at startup. Defaults to false.
+     *
+     * @param lazy Whether the data source is lazy
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * @return The properties passed to the driver when a connection is opened, with the database defaults applied
+     */
+    public Properties getDataSourceProperties() {
+        Properties properties = new Properties();
+        calculatedSettings.getDefaultDataSourceProperties().forEach(properties::setProperty);
+        properties.putAll(dataSourceProperties);
+        return properties;
+    }
+
+    @Override
+    public void setDataSourceProperties(@MapFormat(transformation = MapFormat.MapTransformation.FLAT, keyFormat = StringConvention.RAW) Map<String, ?> dsProperties) {
+        if (dsProperties != null) {
+            dsProperties.forEach((key, value) -> {
+                if (value != null) {
+                    dataSourceProperties.setProperty(key, value.toString());
+                }
+            });
+        }
+    }
+
+    /**
+     * @return The maximum number of connections
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * @param maximumPoolSize The maximum number of connections. Defaults to 10.
+     */
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    /**
+     * @return The number of idle connections that are kept when idle connections time out
+     */
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    /**
+     * @param minimumIdle The number of idle connections that are kept when idle connections time out, and that the
+     *                    housekeeping opens in advance. Defaults to 0.
+     */
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    /**
+     * @return The maximum time to wait for a connection
+     */
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    /**
+     * @param connectionTimeout The maximum time to wait for a connection. Defaults to 30 seconds.
+     */
+    public void setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    /**
+     * @return The time after which an idle connection is closed
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout The time after which an idle connection is closed. Defaults to 10 minutes.
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @return The time after which a connection is closed instead of being reused
+     */
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    /**
+     * @param maxLifetime The time after which a connection is closed instead of being reused. Defaults to 30 minutes.
+     */
+    public void setMaxLifetime(Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * @return The maximum time to wait for a connection to be validated
+     */
+    public Duration getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    /**
+     * @param validationTimeout The maximum time to wait for a connection to be validated. Defaults to 5 seconds.
+     */
+    public void setValidationTimeout(Duration validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * @return The time during which a returned connection is trusted without validation
+     */
+    public Duration getValidationInterval() {
+        return validationInterval;
+    }
+
+    /**
+     * Sets the time during which a returned connection is trusted without validation, when the validation strategy
+     * is {@link ValidationStrategy#SKIP_IF_RECENTLY_USED}. Defaults to 500 milliseconds.
+     *
+     * @param validationInterval The validation interval
+     */
+    public void setValidationInterval(Duration validationInterval) {
+        this.validationInterval = validationInterval;
+    }
+
+    /**
+     * @return The interval of the housekeeping of the pool
+     */
+    public Duration getHousekeepingInterval() {
+        return housekeepingInterval;
+    }
+
+    /**
+     * Sets the interval at which the pool closes the idle connections that exceeded their idle timeout or maximum
+     * lifetime, and opens connections until {@link #getMinimumIdle() minimum-idle} connections are idle. A zero
+     * interval disables the housekeeping. Defaults to 30 seconds.
+     *
+     * @param housekeepingInterval The housekeeping interval
+     */
+    public void setHousekeepingInterval(Duration housekeepingInterval) {
+        this.housekeepingInterval = housekeepingInterval == null || housekeepingInterval.isNegative() ? Duration.ZERO : housekeepingInterval;
+    }
+
+    /**
+     * @return The auto-commit state of the connections when they are borrowed
+     */
+    public boolean isAutoCommit() {
+        return autoCommit;
+    }
+
+    /**
+     * @param autoCommit The auto-commit state of the connections when they are borrowed. Defaults to true.
+     */
+    public void setAutoCommit(boolean autoCommit) {
+        this.autoCommit = autoCommit;
+    }
+
+    /**
+     * @return The read-only state of the connections when they are borrowed
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @param readOnly The read-only state of the connections when they are borrowed. Defaults to false.
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @return The transaction isolation of the connections when they are borrowed, or {@code null} for the driver default
+     */
+    @Nullable
+    public Integer getTransactionIsolation() {
+        return transactionIsolation;
+    }
+
+    /**
+     * @param transactionIsolation The transaction isolation of the connections when they are borrowed, one of the
+     *                             {@code java.sql.Connection.TRANSACTION_*} levels. Defaults to the driver default.
+     */
+    public void setTransactionIsolation(@Nullable Integer transactionIsolation) {
+        this.transactionIsolation = transactionIsolation;
+    }
+}
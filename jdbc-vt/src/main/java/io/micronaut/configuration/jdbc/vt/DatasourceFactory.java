@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.configuration.jdbc.vt.metadata.VirtualThreadDataSourcePoolMetadata;
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.DisabledBeanException;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
+import io.micronaut.jdbc.JdbcDataSourceEnabled;
+import io.micronaut.jdbc.jfr.StartupPhaseEvent;
+import io.micronaut.jdbc.timing.TimedDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates a {@link VirtualThreadDataSource} for each configuration bean.
+ *
+ * @since 6.0.0
+ */
+@Factory
+public class DatasourceFactory implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatasourceFactory.class);
+    private final List<VirtualThreadDataSource> dataSources = new CopyOnWriteArrayList<>();
+
+    private final DataSourceResolver dataSourceResolver;
+
+    /**
+     * Default constructor.
+     * @param dataSourceResolver The data source resolver
+     */
+    public DatasourceFactory(@Nullable DataSourceResolver dataSourceResolver) {
+        this.dataSourceResolver = dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver;
+    }
+
+    /**
+     * The pool opens no connection until one is requested, so a {@link DatasourceConfiguration#isLazy() lazy} data
+     * source needs no proxy.
+     *
+     * @param datasourceConfiguration A {@link DatasourceConfiguration}
+     * @return A {@link VirtualThreadDataSource}
+     */
+    @Context
+    @EachBean(DatasourceConfiguration.class)
+    @Requires(condition = JdbcDataSourceEnabled.class)
+    public DataSource dataSource(DatasourceConfiguration datasourceConfiguration) {
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.POOL_CREATION, datasourceConfiguration.getName());
+        try {
+            VirtualThreadDataSource dataSource = new VirtualThreadDataSource(datasourceConfiguration);
+            dataSources.add(dataSource);
+            return dataSource;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Method to create a metadata object that allows pool value lookup and resizing for each datasource object.
+     *
+     * @param dataSource The datasource
+     * @return a {@link VirtualThreadDataSourcePoolMetadata}
+     */
+    @EachBean(DataSource.class)
+    @Requires(beans = DatasourceConfiguration.class)
+    public VirtualThreadDataSourcePoolMetadata virtualThreadDataSourcePoolMetadata(DataSource dataSource) {
+        DataSource resolved = dataSourceResolver.resolve(dataSource);
+        if (DataSourceWrapper.unwrap(resolved) instanceof VirtualThreadDataSource pool) {
+            return new VirtualThreadDataSourcePoolMetadata(pool, TimedDataSource.findConnectionTimings(resolved));
+        }
+        throw new DisabledBeanException("Data source [" + dataSource + "] is not a virtual thread pool");
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        for (VirtualThreadDataSource dataSource : dataSources) {
+            try {
+                dataSource.close();
+            } catch (Exception e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Error closing data source [" + dataSource + "]: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
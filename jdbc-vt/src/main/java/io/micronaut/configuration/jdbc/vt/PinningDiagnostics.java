@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the virtual threads that pin their carrier thread while they wait for a connection of a
+ * {@link VirtualThreadDataSource}. The pool itself holds no monitors, but a virtual thread that waits for a
+ * connection inside a {@code synchronized} block of its caller cannot unmount, and blocks its carrier thread for as
+ * long as it waits.
+ *
+ * <p>The diagnostics stream the {@code jdk.VirtualThreadPinned} JFR events in process, which requires Java 21. Each
+ * pinning is attributed to the first frame of the waiting thread outside the
+ * pool and the JDK or language runtime, and a warning is
+ * logged the first time a caller is seen.</p>
+ *
+ * @since 6.0.0
+ */
+@Context
+@Requires(beans = PinningDiagnosticsConfiguration.class)
+public final class PinningDiagnostics implements AutoCloseable {
+
+    static final String OTHER_CALLERS = "<other>";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PinningDiagnostics.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String[] RUNTIME_PACKAGES = {"java.", "jdk.", "sun.", "groovy.", "org.codehaus.groovy.", "kotlin."};
+    private static final String POOL_CLASS = VirtualThreadDataSource.class.getName();
+
+    private final int maxCallers;
+    private final Map<String, LongAdder> callers = new ConcurrentHashMap<>();
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final RecordingStream recordingStream;
+
+    /**
+     * @param configuration The configuration
+     */
+    PinningDiagnostics(PinningDiagnosticsConfiguration configuration) {
+        this.maxCallers = configuration.getMaxCallers();
+        this.recordingStream = start(configuration.getThreshold());
+    }
+
+    /**
+     * @return Whether the JFR events are streamed. They are not before Java 21.
+     */
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    /**
+     * @return The number of times a virtual thread pinned its carrier while waiting for a connection
+     */
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    /**
+     * @return The total time virtual threads pinned their carrier while waiting for a connection
+     */
+    @NonNull
+    public Duration getPinnedTime() {
+        return Duration.ofNanos(pinnedNanos.sum());
+    }
+
+    /**
+     * @return The number of pinnings by caller, the caller being the first frame outside the pool and the runtime
+     */
+    @NonNull
+    public Map<String, Long> getPinnedCallers() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        callers.forEach((caller, count) -> counts.put(caller, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    /**
+     * Records a pinning if the pinned thread was waiting inside the pool.
+     *
+     * @param frames   The stack of the pinned thread, top frame first
+     * @param duration The time the thread was pinned
+     * @return Whether the pinning was recorded
+     */
+    boolean record(List<StackTraceElement> frames, Duration duration) {
+        String caller = null;
+        boolean inPool = false;
+        for (StackTraceElement frame : frames) {
+            String className = frame.getClassName();
+            if (className.equals(POOL_CLASS)) {
+                inPool = true;
+            } else if (inPool && !isRuntime(className)) {
+                caller = className + "." + frame.getMethodName() + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+                break;
+            }
+        }
+        if (!inPool) {
+            return false;
+        }
+        if (caller == null) {
+            caller = OTHER_CALLERS;
+        } else if (callers.size() >= maxCallers && !callers.containsKey(caller)) {
+            caller = OTHER_CALLERS;
+        }
+        pinnedCount.increment();
+        pinnedNanos.add(duration.toNanos());
+        LongAdder count = callers.computeIfAbsent(caller, k -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1 && LOG.isWarnEnabled()) {
+            LOG.warn("Virtual thread pinned its carrier for {}ms while waiting for a connection, called from {}. "
+                + "Avoid borrowing connections inside synchronized blocks", duration.toMillis(), caller);
+        }
+        return true;
+    }
+
+    private RecordingStream start(Duration threshold) {
+        if (Runtime.version().feature() < 21) {
+            LOG.warn("Virtual thread pinning diagnostics require Java 21, running on Java {}", Runtime.version().feature());
+            return null;
+        }
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onEvent);
+        stream.startAsync();
+        return stream;
+    }
+
+    private void onEvent(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        List<StackTraceElement> frames = new ArrayList<>(stackTrace.getFrames().size());
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                frames.add(new StackTraceElement(frame.getMethod().getType().getName(), frame.getMethod().getName(), null, frame.getLineNumber()));
+            }
+        }
+        record(frames, event.getDuration());
+    }
+
+    private static boolean isRuntime(String className) {
+        for (String runtimePackage : RUNTIME_PACKAGES) {
+            if (className.startsWith(runtimePackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.DisabledBeanException;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.inject.Named;
+
+import javax.sql.DataSource;
+
+/**
+ * Schedules the {@link VirtualThreadDataSource#housekeep() housekeeping} of each pool. The data sources do not
+ * depend on the scheduler themselves, since the meters of its executor may be bound to the data sources.
+ *
+ * @since 6.0.0
+ */
+@Context
+@Internal
+@EachBean(DataSource.class)
+@Requires(beans = DatasourceConfiguration.class)
+final class PoolHousekeeping {
+
+    /**
+     * @param dataSource         The data source
+     * @param dataSourceResolver The data source resolver
+     * @param taskScheduler      The scheduler running the housekeeping
+     */
+    PoolHousekeeping(DataSource dataSource,
+                     @Nullable DataSourceResolver dataSourceResolver,
+                     @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler) {
+        DataSource resolved = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+        if (!(DataSourceWrapper.unwrap(resolved) instanceof VirtualThreadDataSource pool)) {
+            throw new DisabledBeanException("Data source [" + dataSource + "] is not a virtual thread pool");
+        }
+        if (pool.getHousekeepingInterval().isZero()) {
+            throw new DisabledBeanException("The housekeeping of data source [" + pool.getName() + "] is disabled");
+        }
+        pool.schedule(taskScheduler, pool.getHousekeepingInterval());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * The fair semaphore that admits the callers of a {@link VirtualThreadDataSource}, one permit per connection that
+ * can be borrowed. Waiting callers are parked with {@link java.util.concurrent.locks.LockSupport}, which unmounts a
+ * virtual thread from its carrier instead of blocking it, and are woken up in arrival order.
+ *
+ * @since 6.0.0
+ */
+final class PoolPermits extends Semaphore {
+
+    /**
+     * @param permits The initial number of permits
+     */
+    PoolPermits(int permits) {
+        super(permits, true);
+    }
+
+    /**
+     * Removes permits without waiting for them. The available permits become negative when connections that
+     * are borrowed are removed, so that the next callers wait until enough of them are returned.
+     *
+     * @param reduction The number of permits to remove
+     */
+    @Override
+    public void reducePermits(int reduction) {
+        super.reducePermits(reduction);
+    }
+}
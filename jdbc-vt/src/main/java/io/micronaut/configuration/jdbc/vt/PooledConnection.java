@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import java.sql.Connection;
+
+/**
+ * A physical connection of a {@link VirtualThreadDataSource} with the session state that was changed while it was
+ * borrowed. The state is only accessed by the borrowing thread, the idle deque of the pool hands the connection
+ * over between threads.
+ *
+ * @since 6.0.0
+ */
+final class PooledConnection {
+
+    final Connection connection;
+    final long createdAt;
+    final int defaultTransactionIsolation;
+    volatile long lastUsed;
+    boolean autoCommit;
+    boolean readOnly;
+    int transactionIsolation;
+    boolean catalogChanged;
+    String initialCatalog;
+    boolean schemaChanged;
+    String initialSchema;
+    boolean broken;
+
+    /**
+     * @param connection           The physical connection
+     * @param createdAt            The creation time in nanoseconds
+     * @param autoCommit           The auto-commit state
+     * @param readOnly             The read-only state
+     * @param transactionIsolation The transaction isolation
+     */
+    PooledConnection(Connection connection, long createdAt, boolean autoCommit, boolean readOnly, int transactionIsolation) {
+        this.connection = connection;
+        this.createdAt = createdAt;
+        this.lastUsed = createdAt;
+        this.autoCommit = autoCommit;
+        this.readOnly = readOnly;
+        this.transactionIsolation = transactionIsolation;
+        this.defaultTransactionIsolation = transactionIsolation;
+    }
+}
@@ -0,0 +1,646 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt;
+
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.jdbc.ValidationStrategy;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A connection pool designed for many concurrent callers running on virtual threads.
+ *
+ * <p>Callers are admitted by a fair semaphore with one permit per connection, so that they are served in arrival
+ * order and a waiting virtual thread is parked and unmounted from its carrier instead of blocking it. The pool uses
+ * no {@code synchronized} monitors, which would pin the carrier of a virtual thread that waits for them. Idle
+ * connections are kept in a LIFO deque so that the most recently used connections are reused first and the least
+ * recently used ones time out.</p>
+ *
+ * <p>Connections are opened by the callers when no idle connection is available. Connections that exceed their
+ * idle timeout or maximum lifetime are closed when connections are borrowed and returned, and by the
+ * {@link #housekeep() housekeeping}, which also opens connections until the minimum number of idle connections is
+ * reached. The housekeeping runs on the scheduler of the application rather than on a thread of the pool.</p>
+ *
+ * @since 6.0.0
+ */
+public final class VirtualThreadDataSource implements DataSource, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadDataSource.class);
+
+    private final String name;
+    private final String url;
+    private final Driver driver;
+    private final Properties connectionProperties;
+    private final LongSupplier ticker;
+    private final int minimumIdle;
+    private final long connectionTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final long validationIntervalNanos;
+    private final Duration housekeepingInterval;
+    private final int validationTimeoutSeconds;
+    private final ValidationStrategy validationStrategy;
+    private final String validationQuery;
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final Integer transactionIsolation;
+
+    private final PoolPermits permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder virtualThreadWaitCount = new LongAdder();
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private volatile int maximumPoolSize;
+    private volatile boolean closed;
+    private volatile ScheduledFuture<?> housekeeping;
+    private volatile PrintWriter logWriter;
+    private volatile int loginTimeout;
+
+    /**
+     * Creates the pool. No connection is opened until one is requested.
+     *
+     * @param configuration The configuration
+     */
+    public VirtualThreadDataSource(@NonNull DatasourceConfiguration configuration) {
+        this(configuration, System::nanoTime);
+    }
+
+    /**
+     * @param configuration The configuration
+     * @param ticker        The source of the current time in nanoseconds
+     */
+    VirtualThreadDataSource(DatasourceConfiguration configuration, LongSupplier ticker) {
+        if (configuration.getMaximumPoolSize() < 1) {
+            throw new ConfigurationException("The maximum-pool-size of data source [" + configuration.getName() + "] must be at least 1");
+        }
+        this.name = configuration.getName();
+        this.url = configuration.getUrl();
+        this.driver = loadDriver(configuration.getDriverClassName());
+        this.ticker = ticker;
+        this.connectionProperties = configuration.getDataSourceProperties();
+        if (configuration.getUsername() != null) {
+            connectionProperties.setProperty("user", configuration.getUsername());
+        }
+        if (configuration.getPassword() != null) {
+            connectionProperties.setProperty("password", configuration.getPassword());
+        }
+        this.maximumPoolSize = configuration.getMaximumPoolSize();
+        this.minimumIdle = Math.max(0, configuration.getMinimumIdle());
+        this.connectionTimeoutNanos = configuration.getConnectionTimeout().toNanos();
+        this.idleTimeoutNanos = configuration.getIdleTimeout().toNanos();
+        this.maxLifetimeNanos = configuration.getMaxLifetime().toNanos();
+        this.validationIntervalNanos = configuration.getValidationInterval().toNanos();
+        this.housekeepingInterval = configuration.getHousekeepingInterval();
+        this.validationTimeoutSeconds = (int) Math.max(1, configuration.getValidationTimeout().toSeconds());
+        this.validationStrategy = configuration.getValidationStrategy();
+        this.validationQuery = configuration.getValidationQuery();
+        this.autoCommit = configuration.isAutoCommit();
+        this.readOnly = configuration.isReadOnly();
+        this.transactionIsolation = configuration.getTransactionIsolation();
+        this.permits = new PoolPermits(maximumPoolSize);
+    }
+
+    /**
+     * @return The data source name
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The JDBC URL
+     */
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return The maximum number of connections
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * Changes the maximum number of connections. When the pool shrinks, callers wait until enough borrowed
+     * connections are returned, and the returned connections above the new maximum are closed.
+     *
+     * @param maximumPoolSize The maximum number of connections
+     */
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("The maximum pool size must be at least 1");
+        }
+        resizeLock.lock();
+        try {
+            int difference = maximumPoolSize - this.maximumPoolSize;
+            this.maximumPoolSize = maximumPoolSize;
+            if (difference > 0) {
+                permits.release(difference);
+            } else if (difference < 0) {
+                permits.reducePermits(-difference);
+                PooledConnection connection;
+                while (totalCount.get() > maximumPoolSize && (connection = idle.pollLast()) != null) {
+                    idleCount.decrementAndGet();
+                    destroy(connection);
+                }
+            }
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of idle connections that are kept when idle connections time out, and that the
+     * housekeeping opens in advance
+     */
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    /**
+     * @return The interval of the housekeeping, which is disabled when zero
+     */
+    @NonNull
+    public Duration getHousekeepingInterval() {
+        return housekeepingInterval;
+    }
+
+    /**
+     * @return The number of borrowed connections
+     */
+    public int getActiveConnections() {
+        return activeCount.get();
+    }
+
+    /**
+     * @return The number of idle connections
+     */
+    public int getIdleConnections() {
+        return idleCount.get();
+    }
+
+    /**
+     * @return The number of open connections
+     */
+    public int getTotalConnections() {
+        return totalCount.get();
+    }
+
+    /**
+     * @return An estimate of the number of callers waiting for a connection
+     */
+    public int getPendingThreads() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * @return The number of connections opened since the pool was created
+     */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /**
+     * @return The number of connections closed since the pool was created
+     */
+    public long getDestroyedCount() {
+        return destroyedCount.sum();
+    }
+
+    /**
+     * @return The number of callers that timed out waiting for a connection
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /**
+     * @return The number of callers that had to wait for a connection
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * @return The number of callers running on a virtual thread that had to wait for a connection
+     */
+    public long getVirtualThreadWaitCount() {
+        return virtualThreadWaitCount.sum();
+    }
+
+    /**
+     * @return The validation query, or {@code null} if connections are validated with {@link Connection#isValid(int)}
+     */
+    @Nullable
+    public String getValidationQuery() {
+        return validationQuery;
+    }
+
+    /**
+     * @return The auto-commit state of the connections when they are borrowed
+     */
+    public boolean isAutoCommit() {
+        return autoCommit;
+    }
+
+    /**
+     * @return Whether the pool has been closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquirePermit();
+        try {
+            PooledConnection connection = pollIdle();
+            if (connection == null) {
+                connection = createConnection();
+            }
+            activeCount.incrementAndGet();
+            return new BorrowedConnection(this, connection);
+        } catch (SQLException | RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Data source [" + name + "] does not support connections with other credentials");
+    }
+
+    /**
+     * Closes the idle connections and the borrowed connections when they are returned. Callers waiting for a
+     * connection fail.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ScheduledFuture<?> scheduledHousekeeping = housekeeping;
+        if (scheduledHousekeeping != null) {
+            scheduledHousekeeping.cancel(false);
+        }
+        // wakes up the first waiting caller, which sees that the pool is closed and passes the permit on
+        permits.release();
+        closeIdle();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Data source [" + name + "] is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualThreadDataSource[" + name + ", active=" + activeCount.get() + ", idle=" + idleCount.get()
+            + ", max=" + maximumPoolSize + ", waiting=" + permits.getQueueLength() + "]";
+    }
+
+    /**
+     * Closes the idle connections that exceeded their idle timeout or maximum lifetime, then opens connections until
+     * the minimum number of idle connections is reached, without exceeding the maximum pool size.
+     */
+    public void housekeep() {
+        if (closed) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        for (PooledConnection connection : idle) {
+            if (isExpired(connection, now) && idle.removeFirstOccurrence(connection)) {
+                idleCount.decrementAndGet();
+                destroy(connection);
+            }
+        }
+        evictIdle(now);
+        fillIdle();
+    }
+
+    /**
+     * Runs the {@link #housekeep() housekeeping} every interval until the pool is closed.
+     *
+     * @param taskScheduler The scheduler
+     * @param interval      The interval
+     */
+    void schedule(TaskScheduler taskScheduler, Duration interval) {
+        housekeeping = taskScheduler.scheduleWithFixedDelay(interval, interval, () -> {
+            try {
+                housekeep();
+            } catch (RuntimeException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Error in the housekeeping of data source [{}]: {}", name, e.getMessage(), e);
+                }
+            }
+        });
+        if (closed) {
+            housekeeping.cancel(false);
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool.
+     *
+     * @param connection The connection
+     */
+    void release(PooledConnection connection) {
+        activeCount.decrementAndGet();
+        try {
+            long now = ticker.getAsLong();
+            if (closed || connection.broken || isExpired(connection, now) || totalCount.get() > maximumPoolSize || !reset(connection)) {
+                destroy(connection);
+            } else {
+                connection.lastUsed = now;
+                idle.offerFirst(connection);
+                idleCount.incrementAndGet();
+                if (closed) {
+                    closeIdle();
+                } else {
+                    evictIdle(now);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        checkOpen();
+        try {
+            // a timed tryAcquire honours the fairness of the semaphore, unlike tryAcquire()
+            if (!permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                waitCount.increment();
+                if (VirtualThreads.isVirtual(Thread.currentThread())) {
+                    virtualThreadWaitCount.increment();
+                }
+                if (!permits.tryAcquire(connectionTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    timeoutCount.increment();
+                    throw new SQLTransientConnectionException("Data source [" + name + "] timed out after "
+                        + TimeUnit.NANOSECONDS.toMillis(connectionTimeoutNanos) + "ms waiting for a connection, "
+                        + activeCount.get() + " active and " + permits.getQueueLength() + " waiting", "08001");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection from data source [" + name + "]", "08001", e);
+        }
+        if (closed) {
+            permits.release();
+            checkOpen();
+        }
+    }
+
+    private PooledConnection pollIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            long now = ticker.getAsLong();
+            if (!isExpired(connection, now) && isUsable(connection, now)) {
+                return connection;
+            }
+            destroy(connection);
+        }
+        return null;
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection connection = driver.connect(url, connectionProperties);
+        if (connection == null) {
+            throw new SQLException("Driver [" + driver.getClass().getName() + "] of data source [" + name + "] does not accept its URL", "08001");
+        }
+        try {
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (readOnly) {
+                connection.setReadOnly(true);
+            }
+            if (transactionIsolation != null) {
+                connection.setTransactionIsolation(transactionIsolation);
+            }
+            PooledConnection pooled = new PooledConnection(connection, ticker.getAsLong(), autoCommit, readOnly,
+                transactionIsolation != null ? transactionIsolation : connection.getTransactionIsolation());
+            totalCount.incrementAndGet();
+            createdCount.increment();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    private boolean isExpired(PooledConnection connection, long now) {
+        return maxLifetimeNanos > 0 && now - connection.createdAt > maxLifetimeNanos;
+    }
+
+    private boolean isUsable(PooledConnection connection, long now) {
+        if (validationStrategy == ValidationStrategy.SKIP_IF_RECENTLY_USED && now - connection.lastUsed < validationIntervalNanos) {
+            return true;
+        }
+        try {
+            if (validationStrategy == ValidationStrategy.QUERY && StringUtils.hasText(validationQuery)) {
+                try (Statement statement = connection.connection.createStatement()) {
+                    statement.setQueryTimeout(validationTimeoutSeconds);
+                    statement.execute(validationQuery);
+                }
+                return true;
+            }
+            return connection.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Connection of data source [{}] failed validation: {}", name, e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private boolean reset(PooledConnection pooled) {
+        Connection connection = pooled.connection;
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!pooled.autoCommit) {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+                pooled.autoCommit = autoCommit;
+            } else if (!autoCommit) {
+                connection.setAutoCommit(false);
+                pooled.autoCommit = false;
+            }
+            if (pooled.readOnly != readOnly) {
+                connection.setReadOnly(readOnly);
+                pooled.readOnly = readOnly;
+            }
+            if (pooled.transactionIsolation != pooled.defaultTransactionIsolation) {
+                connection.setTransactionIsolation(pooled.defaultTransactionIsolation);
+                pooled.transactionIsolation = pooled.defaultTransactionIsolation;
+            }
+            if (pooled.catalogChanged) {
+                connection.setCatalog(pooled.initialCatalog);
+                pooled.catalogChanged = false;
+            }
+            if (pooled.schemaChanged) {
+                connection.setSchema(pooled.initialSchema);
+                pooled.schemaChanged = false;
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Failed to reset a connection of data source [{}], closing it: {}", name, e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private void evictIdle(long now) {
+        PooledConnection eldest;
+        while (idleCount.get() > minimumIdle && (eldest = idle.peekLast()) != null && now - eldest.lastUsed > idleTimeoutNanos) {
+            if (idle.removeLastOccurrence(eldest)) {
+                idleCount.decrementAndGet();
+                destroy(eldest);
+            }
+        }
+    }
+
+    private void fillIdle() {
+        while (!closed && idleCount.get() < minimumIdle && totalCount.get() < maximumPoolSize) {
+            PooledConnection connection;
+            try {
+                connection = createConnection();
+            } catch (SQLException | RuntimeException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Failed to open an idle connection of data source [{}]: {}", name, e.getMessage());
+                }
+                return;
+            }
+            idle.offerFirst(connection);
+            idleCount.incrementAndGet();
+        }
+        if (closed) {
+            closeIdle();
+        }
+    }
+
+    private void closeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            destroy(connection);
+        }
+    }
+
+    private void destroy(PooledConnection connection) {
+        totalCount.decrementAndGet();
+        destroyedCount.increment();
+        closeQuietly(connection.connection);
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException | RuntimeException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Error closing a connection of data source [{}]: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Data source [" + name + "] is closed", "08003");
+        }
+    }
+
+    private static Driver loadDriver(String driverClassName) {
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            Class<?> driverClass = Class.forName(driverClassName, true,
+                classLoader != null ? classLoader : VirtualThreadDataSource.class.getClassLoader());
+            return (Driver) driverClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new ConfigurationException("Unable to load JDBC driver [" + driverClassName + "]: " + e.getMessage(), e);
+        }
+    }
+}
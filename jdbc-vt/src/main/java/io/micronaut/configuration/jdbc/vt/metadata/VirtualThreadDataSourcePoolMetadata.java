@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt.metadata;
+
+import io.micronaut.configuration.jdbc.vt.VirtualThreadDataSource;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.metadata.AbstractDataSourcePoolMetadata;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
+
+/**
+ * {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata} for a {@link VirtualThreadDataSource}.
+ *
+ * @since 6.0.0
+ */
+public class VirtualThreadDataSourcePoolMetadata extends AbstractDataSourcePoolMetadata<VirtualThreadDataSource>
+        implements ResizableDataSourcePoolMetadata<VirtualThreadDataSource> {
+
+    /**
+     * @param dataSource        The datasource
+     * @param connectionTimings The connection timings recorded for the datasource
+     */
+    public VirtualThreadDataSourcePoolMetadata(VirtualThreadDataSource dataSource, @Nullable ConnectionTimings connectionTimings) {
+        super(dataSource, connectionTimings);
+    }
+
+    @Override
+    public Integer getIdle() {
+        return getDataSource().getIdleConnections();
+    }
+
+    @Override
+    public Integer getActive() {
+        return getDataSource().getActiveConnections();
+    }
+
+    @Override
+    public Integer getPending() {
+        return getDataSource().getPendingThreads();
+    }
+
+    @Override
+    public Long getCreatedCount() {
+        return getDataSource().getCreatedCount();
+    }
+
+    @Override
+    public Long getDestroyedCount() {
+        return getDataSource().getDestroyedCount();
+    }
+
+    @Override
+    public Long getTimeoutCount() {
+        return getDataSource().getTimeoutCount();
+    }
+
+    @Override
+    public Integer getMax() {
+        return getDataSource().getMaximumPoolSize();
+    }
+
+    @Override
+    public Integer getMin() {
+        return getDataSource().getMinimumIdle();
+    }
+
+    @Override
+    public String getValidationQuery() {
+        return getDataSource().getValidationQuery();
+    }
+
+    @Override
+    public Boolean getDefaultAutoCommit() {
+        return getDataSource().isAutoCommit();
+    }
+
+    /**
+     * Changes the maximum number of connections. The pool has no minimum number of connections to lower, as it
+     * only keeps idle connections that are returned.
+     *
+     * @param max the new maximum number of connections
+     */
+    @Override
+    public void setMax(int max) {
+        getDataSource().setMaximumPoolSize(max);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.configuration.jdbc.vt.metadata.VirtualThreadDataSourcePoolMetadata
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceWrapper
+import io.micronaut.jdbc.ValidationStrategy
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.SQLTransientConnectionException
+import java.time.Duration
+
+import static io.micronaut.configuration.jdbc.vt.TestDataSources.resolve
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_ENABLED
+
+class DatasourceFactorySpec extends Specification {
+
+    def "test a pool is created from the configuration of the data source"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:vtDefault;DB_CLOSE_DELAY=-1',
+                'datasources.default.maximum-pool-size': 50,
+                'datasources.default.minimum-idle': 2,
+                'datasources.default.connection-timeout': '2s',
+                'datasources.default.idle-timeout': '1m',
+                'datasources.default.max-lifetime': '10m',
+                'datasources.default.validation-strategy': 'QUERY',
+                'datasources.default.auto-commit': false,
+                'datasources.default.transaction-isolation': Connection.TRANSACTION_SERIALIZABLE)
+        VirtualThreadDataSource dataSource = (VirtualThreadDataSource) DataSourceWrapper.unwrap(resolve(context, "default"))
+        DatasourceConfiguration configuration = context.getBean(DatasourceConfiguration)
+
+        expect:
+        dataSource.name == 'default'
+        dataSource.url == 'jdbc:h2:mem:vtDefault;DB_CLOSE_DELAY=-1'
+        dataSource.maximumPoolSize == 50
+        dataSource.minimumIdle == 2
+        dataSource.totalConnections == 0
+        configuration.connectionTimeout == Duration.ofSeconds(2)
+        configuration.idleTimeout == Duration.ofMinutes(1)
+        configuration.maxLifetime == Duration.ofMinutes(10)
+        configuration.validationStrategy == ValidationStrategy.QUERY
+        configuration.validationQuery == 'SELECT 1'
+
+        when:
+        Connection connection = dataSource.getConnection()
+
+        then:
+        !connection.autoCommit
+        connection.transactionIsolation == Connection.TRANSACTION_SERIALIZABLE
+
+        when:
+        connection.close()
+        context.close()
+
+        then:
+        dataSource.closed
+        dataSource.totalConnections == 0
+    }
+
+    def "test the callers of an exhausted pool wait for the configured connection timeout"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:vtTimeout;DB_CLOSE_DELAY=-1',
+                'datasources.default.maximum-pool-size': 1,
+                'datasources.default.connection-timeout': '100ms')
+        VirtualThreadDataSource dataSource = (VirtualThreadDataSource) DataSourceWrapper.unwrap(resolve(context, "default"))
+        Connection held = dataSource.getConnection()
+
+        when:
+        dataSource.getConnection()
+
+        then:
+        SQLTransientConnectionException e = thrown()
+        e.message.contains("100ms")
+        dataSource.timeoutCount == 1
+
+        cleanup:
+        held?.close()
+        context.close()
+    }
+
+    def "test the housekeeping opens the minimum idle connections"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:vtHousekeeping;DB_CLOSE_DELAY=-1',
+                'datasources.default.minimum-idle': 2,
+                'datasources.default.housekeeping-interval': '10ms')
+        VirtualThreadDataSource dataSource = (VirtualThreadDataSource) DataSourceWrapper.unwrap(resolve(context, "default"))
+
+        expect:
+        dataSource.housekeepingInterval == Duration.ofMillis(10)
+        new PollingConditions(timeout: 5).eventually {
+            assert dataSource.idleConnections == 2
+        }
+
+        when:
+        context.close()
+
+        then:
+        dataSource.totalConnections == 0
+    }
+
+    def "test the parallel startup only fills the pools that are not lazy"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:vtLazy;DB_CLOSE_DELAY=-1',
+                'datasources.default.lazy': true,
+                'datasources.eager.url': 'jdbc:h2:mem:vtEager;DB_CLOSE_DELAY=-1',
+                'jdbc.parallel-startup.enabled': true)
+
+        expect:
+        DataSourceWrapper.unwrap(resolve(context, "default")).createdCount == 0
+        DataSourceWrapper.unwrap(resolve(context, "eager")).createdCount == 1
+
+        cleanup:
+        context.close()
+    }
+
+    def "test the pool metadata"() {
+        given:
+        ApplicationContext context = ApplicationContext.run('datasources.default.url': 'jdbc:h2:mem:vtMetadata;DB_CLOSE_DELAY=-1')
+        DataSource dataSource = resolve(context, "default")
+        DataSourcePoolMetadata metadata = context.getBean(DataSourcePoolMetadata, Qualifiers.byName("default"))
+
+        expect:
+        metadata instanceof VirtualThreadDataSourcePoolMetadata
+        context.getBean(ResizableDataSourcePoolMetadata, Qualifiers.byName("default")).is(metadata)
+        metadata.max == 10
+        metadata.min == 0
+        metadata.defaultAutoCommit
+
+        when:
+        Connection connection = dataSource.getConnection()
+
+        then:
+        metadata.active == 1
+        metadata.idle == 0
+        metadata.usage == 0.1f
+        metadata.createdCount == 1
+
+        when:
+        connection.close()
+        ((ResizableDataSourcePoolMetadata) metadata).setMax(20)
+
+        then:
+        metadata.active == 0
+        metadata.idle == 1
+        metadata.max == 20
+        DataSourceWrapper.unwrap(dataSource).maximumPoolSize == 20
+
+        cleanup:
+        context.close()
+    }
+
+    def "test the pool meters are bound"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url'                    : 'jdbc:h2:mem:vtMeters;DB_CLOSE_DELAY=-1',
+                (MICRONAUT_METRICS_ENABLED)                  : true,
+                (MICRONAUT_METRICS_BINDERS + ".jdbc.enabled"): true)
+        MeterRegistry registry = context.getBean(MeterRegistry)
+
+        when:
+        Connection connection = resolve(context, "default").getConnection()
+
+        then:
+        registry.get("jdbc.pool.connections.active").tag("pool", "default").gauge().value() == 1
+        registry.get("jdbc.pool.connections.max").tag("pool", "default").gauge().value() == 10
+        registry.get("jdbc.pool.connections.created").tag("pool", "default").functionCounter().count() == 1
+        registry.get("jdbc.pool.connections.timeout").tag("pool", "default").functionCounter().count() == 0
+
+        cleanup:
+        connection?.close()
+        context.close()
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.time.Duration
+
+import static io.micronaut.configuration.jdbc.vt.TestDataSources.resolve
+
+class PinningDiagnosticsSpec extends Specification {
+
+    def "test the diagnostics are disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run('datasources.default.url': 'jdbc:h2:mem:vtNoPinning;DB_CLOSE_DELAY=-1')
+
+        expect:
+        !context.containsBean(PinningDiagnostics)
+
+        cleanup:
+        context.close()
+    }
+
+    def "test pinnings are attributed to the caller waiting in the pool"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'jdbc.vt.pinning-diagnostics.enabled': true,
+                'jdbc.vt.pinning-diagnostics.max-callers': 1)
+        PinningDiagnostics diagnostics = context.getBean(PinningDiagnostics)
+        List<StackTraceElement> waiting = [
+                frame('java.util.concurrent.Semaphore', 'tryAcquire'),
+                frame(VirtualThreadDataSource.name, 'getConnection'),
+                frame('com.example.Repository', 'find'),
+                frame('com.example.Controller', 'show')]
+
+        expect:
+        diagnostics.record(waiting, Duration.ofMillis(30))
+        diagnostics.record(waiting, Duration.ofMillis(20))
+        !diagnostics.record([frame('org.h2.jdbc.JdbcConnection', 'close'), frame('com.example.Repository', 'find')], Duration.ofMillis(30))
+        diagnostics.record([frame(VirtualThreadDataSource.name, 'getConnection'), frame('com.example.Other', 'run')], Duration.ofMillis(50))
+        diagnostics.pinnedCount == 3
+        diagnostics.pinnedTime == Duration.ofMillis(100)
+        diagnostics.pinnedCallers == ['com.example.Repository.find:10': 2L, (PinningDiagnostics.OTHER_CALLERS): 1L]
+
+        cleanup:
+        context.close()
+    }
+
+    @Requires({ Runtime.version().feature() >= 21 })
+    def "test a virtual thread waiting for a connection in a synchronized block is recorded"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:vtPinning;DB_CLOSE_DELAY=-1',
+                'datasources.default.maximum-pool-size': 1,
+                'jdbc.vt.pinning-diagnostics.enabled': true,
+                'jdbc.vt.pinning-diagnostics.threshold': '0ms')
+        PinningDiagnostics diagnostics = context.getBean(PinningDiagnostics)
+        DataSource dataSource = resolve(context, "default")
+        PollingConditions conditions = new PollingConditions(timeout: 10)
+        Connection connection = dataSource.getConnection()
+        Object lock = new Object()
+        Thread waiter = Thread.ofVirtual().start {
+            synchronized (lock) {
+                dataSource.getConnection().close()
+            }
+        }
+
+        when: "the virtual thread waits for the connection in the pool"
+        conditions.eventually {
+            assert DataSourceWrapper.unwrap(dataSource).pendingThreads == 1
+        }
+        connection.close()
+        waiter.join()
+
+        then:
+        diagnostics.running
+        conditions.eventually {
+            assert diagnostics.pinnedCount == 1
+        }
+        diagnostics.pinnedTime > Duration.ZERO
+        diagnostics.pinnedCallers.keySet().every { it.startsWith(PinningDiagnosticsSpec.name) }
+
+        cleanup:
+        context.close()
+    }
+
+    private static StackTraceElement frame(String className, String methodName) {
+        return new StackTraceElement(className, methodName, null, 10)
+    }
+}
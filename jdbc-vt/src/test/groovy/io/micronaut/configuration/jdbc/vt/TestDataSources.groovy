@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+
+import javax.sql.DataSource
+
+/**
+ * Looks up the data sources of the specs as the applications see them.
+ */
+class TestDataSources {
+
+    /**
+     * @param context The application context
+     * @param name    The name of the data source
+     * @return The data source bean, resolved through the {@link DataSourceResolver} of the context
+     */
+    static DataSource resolve(ApplicationContext context, String name) {
+        DataSource dataSource = context.getBean(DataSource, Qualifiers.byName(name))
+        return context.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(dataSource)
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbc.vt
+
+import io.micronaut.jdbc.ValidationStrategy
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.sql.CallableStatement
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.SQLException
+import java.sql.SQLTransientConnectionException
+import java.sql.Statement
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.LongSupplier
+
+class VirtualThreadDataSourceSpec extends Specification {
+
+    @AutoCleanup
+    VirtualThreadDataSource dataSource
+
+    @AutoCleanup('shutdownNow')
+    ExecutorService executor = Executors.newCachedThreadPool()
+
+    AtomicLong time = new AtomicLong()
+
+    def "test connections are reused most recently returned first"() {
+        given:
+        dataSource = pool(maximumPoolSize: 3)
+        Connection first = dataSource.getConnection()
+        Connection second = dataSource.getConnection()
+        Connection firstTarget = first.targetConnection
+        Connection secondTarget = second.targetConnection
+
+        when:
+        first.close()
+        second.close()
+
+        then:
+        dataSource.idleConnections == 2
+        dataSource.activeConnections == 0
+        dataSource.createdCount == 2
+
+        when:
+        Connection next = dataSource.getConnection()
+
+        then:
+        next.targetConnection.is(secondTarget)
+        !next.targetConnection.is(firstTarget)
+        dataSource.activeConnections == 1
+        dataSource.idleConnections == 1
+
+        cleanup:
+        next?.close()
+    }
+
+    def "test a returned connection is reset"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        Connection connection = dataSource.getConnection()
+        connection.createStatement().execute('CREATE TABLE IF NOT EXISTS reset_test (id INT)')
+
+        when:
+        connection.autoCommit = false
+        connection.readOnly = true
+        connection.transactionIsolation = Connection.TRANSACTION_SERIALIZABLE
+        connection.createStatement().execute('INSERT INTO reset_test VALUES (1)')
+        connection.close()
+        connection = dataSource.getConnection()
+
+        then:
+        connection.autoCommit
+        !connection.readOnly
+        connection.transactionIsolation == Connection.TRANSACTION_READ_COMMITTED
+        !connection.createStatement().executeQuery('SELECT * FROM reset_test').next()
+        dataSource.createdCount == 1
+
+        cleanup:
+        connection?.close()
+    }
+
+    def "test a closed connection cannot be used and is only returned once"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        Connection connection = dataSource.getConnection()
+
+        when:
+        connection.close()
+        connection.close()
+
+        then:
+        connection.closed
+        !connection.isValid(1)
+        dataSource.idleConnections == 1
+        dataSource.activeConnections == 0
+
+        when:
+        connection.createStatement()
+
+        then:
+        SQLException e = thrown()
+        e.SQLState == '08003'
+    }
+
+    def "test an aborted connection is not reused"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        Connection connection = dataSource.getConnection()
+        Connection target = connection.targetConnection
+
+        when:
+        connection.abort(Runnable::run)
+        Connection next = dataSource.getConnection()
+
+        then:
+        target.closed
+        !next.targetConnection.is(target)
+        dataSource.destroyedCount == 1
+
+        cleanup:
+        next?.close()
+    }
+
+    def "test callers time out when the pool is exhausted"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1, connectionTimeout: Duration.ofMillis(50))
+        Connection connection = dataSource.getConnection()
+
+        when:
+        dataSource.getConnection()
+
+        then:
+        SQLTransientConnectionException e = thrown()
+        e.message.contains('timed out')
+        dataSource.timeoutCount == 1
+        dataSource.waitCount == 1
+        dataSource.activeConnections == 1
+
+        cleanup:
+        connection?.close()
+    }
+
+    def "test waiting callers are served in arrival order"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        Connection connection = dataSource.getConnection()
+        List<Integer> order = Collections.synchronizedList([])
+        List<Future<?>> waiters = []
+
+        when:
+        for (int i = 0; i < 5; i++) {
+            int index = i
+            waiters << executor.submit {
+                try (Connection c = dataSource.getConnection()) {
+                    order << index
+                }
+            }
+            waitUntil { dataSource.pendingThreads == index + 1 }
+        }
+        connection.close()
+        waiters*.get(5, TimeUnit.SECONDS)
+
+        then:
+        order == [0, 1, 2, 3, 4]
+        dataSource.waitCount == 5
+        dataSource.createdCount == 1
+    }
+
+    def "test many concurrent callers share the connections"() {
+        given:
+        dataSource = pool(maximumPoolSize: 4)
+        AtomicInteger concurrent = new AtomicInteger()
+        AtomicInteger maxConcurrent = new AtomicInteger()
+        CountDownLatch start = new CountDownLatch(1)
+
+        when:
+        List<Future<?>> callers = (1..200).collect {
+            executor.submit {
+                start.await()
+                try (Connection c = dataSource.getConnection()) {
+                    maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max)
+                    c.createStatement().executeQuery('SELECT 1').next()
+                    concurrent.decrementAndGet()
+                }
+            }
+        }
+        start.countDown()
+        callers*.get(30, TimeUnit.SECONDS)
+
+        then:
+        maxConcurrent.get() <= 4
+        dataSource.createdCount <= 4
+        dataSource.activeConnections == 0
+        dataSource.totalConnections == dataSource.idleConnections
+    }
+
+    def "test the pool can be resized"() {
+        given:
+        dataSource = pool(maximumPoolSize: 2, connectionTimeout: Duration.ofMillis(50))
+        Connection first = dataSource.getConnection()
+        Connection second = dataSource.getConnection()
+
+        when:
+        dataSource.maximumPoolSize = 1
+        first.close()
+
+        then:
+        dataSource.totalConnections == 1
+        dataSource.idleConnections == 0
+
+        when:
+        dataSource.getConnection()
+
+        then:
+        thrown(SQLTransientConnectionException)
+
+        when:
+        dataSource.maximumPoolSize = 3
+        Connection third = dataSource.getConnection()
+        Connection fourth = dataSource.getConnection()
+
+        then:
+        dataSource.activeConnections == 3
+
+        cleanup:
+        [second, third, fourth]*.close()
+    }
+
+    def "test closing the pool fails the waiting callers and closes the returned connections"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        Connection connection = dataSource.getConnection()
+        Connection target = connection.targetConnection
+        Future<?> waiter = executor.submit { dataSource.getConnection() }
+        waitUntil { dataSource.pendingThreads == 1 }
+
+        when:
+        dataSource.close()
+        waiter.get(5, TimeUnit.SECONDS)
+
+        then:
+        Exception e = thrown()
+        e.cause instanceof SQLException
+        e.cause.message.contains('is closed')
+
+        when:
+        connection.close()
+
+        then:
+        target.closed
+        dataSource.totalConnections == 0
+
+        when:
+        dataSource.getConnection()
+
+        then:
+        thrown(SQLException)
+    }
+
+    def "test idle connections above the minimum time out"() {
+        given:
+        dataSource = pool(maximumPoolSize: 3, minimumIdle: 1, idleTimeout: Duration.ofMillis(20))
+        List<Connection> connections = (1..3).collect { dataSource.getConnection() }
+
+        when:
+        connections[0].close()
+        connections[1].close()
+        time.addAndGet(TimeUnit.MILLISECONDS.toNanos(50))
+        connections[2].close()
+
+        then:
+        dataSource.idleConnections == 1
+        dataSource.destroyedCount == 2
+    }
+
+    def "test the housekeeping closes the expired idle connections and opens the minimum idle connections"() {
+        given:
+        dataSource = pool(maximumPoolSize: 2, minimumIdle: 3, maxLifetime: Duration.ofMinutes(1))
+
+        when:
+        dataSource.housekeep()
+
+        then: "the maximum pool size is not exceeded"
+        dataSource.idleConnections == 2
+        dataSource.totalConnections == 2
+        dataSource.createdCount == 2
+
+        when:
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2))
+        dataSource.housekeep()
+
+        then:
+        dataSource.destroyedCount == 2
+        dataSource.createdCount == 4
+        dataSource.idleConnections == 2
+    }
+
+    def "test the statements left open are closed when the connection is returned"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        Connection connection = dataSource.getConnection()
+        Statement statement = connection.createStatement()
+        PreparedStatement prepared = connection.prepareStatement('SELECT 1')
+        CallableStatement callable = connection.prepareCall('CALL 1')
+        Statement closedByBorrower = connection.createStatement()
+
+        expect:
+        statement.connection.is(connection)
+        prepared.connection.is(connection)
+        callable.connection.is(connection)
+
+        when:
+        closedByBorrower.close()
+        connection.close()
+
+        then:
+        statement.closed
+        prepared.closed
+        callable.closed
+        dataSource.idleConnections == 1
+        dataSource.destroyedCount == 0
+    }
+
+    def "test a connection that failed with a connection exception is not reused"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1)
+        BorrowedConnection connection = dataSource.getConnection() as BorrowedConnection
+        Connection target = connection.targetConnection
+
+        when:
+        connection.execute { throw new SQLException('Communication link failure', '08S01') }
+
+        then:
+        thrown(SQLException)
+
+        when:
+        connection.execute { throw new SQLException('Syntax error', '42000') }
+
+        then:
+        thrown(SQLException)
+
+        when:
+        connection.close()
+
+        then:
+        target.closed
+        dataSource.idleConnections == 0
+        dataSource.destroyedCount == 1
+    }
+
+    def "test connections are validated when borrowed"() {
+        given:
+        dataSource = pool(maximumPoolSize: 1, validationStrategy: ValidationStrategy.QUERY)
+        Connection connection = dataSource.getConnection()
+        Connection target = connection.targetConnection
+        connection.close()
+
+        when:
+        target.close()
+        connection = dataSource.getConnection()
+
+        then:
+        !connection.targetConnection.is(target)
+        dataSource.destroyedCount == 1
+        dataSource.validationQuery == 'SELECT 1'
+
+        cleanup:
+        connection?.close()
+    }
+
+    private VirtualThreadDataSource pool(Map<String, Object> settings) {
+        DatasourceConfiguration configuration = new DatasourceConfiguration('test')
+        configuration.url = 'jdbc:h2:mem:vtPool;DB_CLOSE_DELAY=-1'
+        settings.each { key, value -> configuration[key] = value }
+        return new VirtualThreadDataSource(configuration, { time.get() } as LongSupplier)
+    }
+
+    private static void waitUntil(Closure<Boolean> condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+        while (!condition()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError('Condition not met')
+            }
+            Thread.sleep(1)
+        }
+    }
+}
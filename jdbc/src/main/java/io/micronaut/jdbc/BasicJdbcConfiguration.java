@@ -110,6 +110,22 @@ public interface BasicJdbcConfiguration {
      */
     String getValidationQuery();
 
+    /**
+     * @return The validation strategy supplied via configuration
+     * @since 6.0.0
+     */
+    default ValidationStrategy getConfiguredValidationStrategy() {
+        return null;
+    }
+
+    /**
+     * @return Whether the connection pool is only created when the first connection is requested
+     * @since 6.0.0
+     */
+    default boolean isLazy() {
+        return false;
+    }
+
     /**
      * Sets the datasource properties.
      * @param dsProperties The properties
@@ -19,6 +19,10 @@ import io.micronaut.context.exceptions.ConfigurationException;
 import io.micronaut.core.reflect.ClassUtils;
 import io.micronaut.core.util.StringUtils;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -35,15 +39,17 @@ public class CalculatedSettings {
     private String calculatedUsername;
     private String calculatedPassword;
     private String calculatedValidationQuery;
+    private ValidationStrategy calculatedValidationStrategy;
     private Optional<JdbcDatabaseManager.EmbeddedJdbcDatabase> embeddedDatabaseConnection;
     private BasicJdbcConfiguration basicJdbcConfiguration;
+    private final ClassLoader classLoader;
 
     /**
      * @param basicJdbcConfiguration The basic jdbc configuration
      */
     public CalculatedSettings(BasicJdbcConfiguration basicJdbcConfiguration) {
         this.basicJdbcConfiguration = basicJdbcConfiguration;
-        embeddedDatabaseConnection = JdbcDatabaseManager.get(this.getClass().getClassLoader());
+        this.classLoader = this.getClass().getClassLoader();
     }
 
     /**
@@ -52,7 +58,7 @@ public class CalculatedSettings {
      */
     public CalculatedSettings(BasicJdbcConfiguration basicJdbcConfiguration, ClassLoader classLoader) {
         this.basicJdbcConfiguration = basicJdbcConfiguration;
-        embeddedDatabaseConnection = JdbcDatabaseManager.get(classLoader);
+        this.classLoader = classLoader;
     }
 
     /**
@@ -67,6 +73,9 @@ public class CalculatedSettings {
         final String driverClassName = basicJdbcConfiguration.getConfiguredDriverClassName();
         if (calculatedDriverClassName == null || StringUtils.hasText(driverClassName)) {
             if (StringUtils.hasText(driverClassName)) {
+                if (driverClassName.equals(calculatedDriverClassName)) {
+                    return calculatedDriverClassName;
+                }
                 if (!driverClassIsPresent(driverClassName)) {
                     throw new ConfigurationException(String.format("Error configuring data source '%s'. The driver class '%s' was not found on the classpath", basicJdbcConfiguration.getName(), driverClassName));
                 }
@@ -78,8 +87,9 @@ public class CalculatedSettings {
                         calculatedDriverClassName = db.getDriverClassName());
                 }
 
-                if (!StringUtils.hasText(calculatedDriverClassName) && embeddedDatabaseConnection.isPresent()) {
-                    calculatedDriverClassName = this.embeddedDatabaseConnection.get().getDriverClassName();
+                if (!StringUtils.hasText(calculatedDriverClassName)) {
+                    getEmbeddedDatabase().ifPresent(db ->
+                        calculatedDriverClassName = db.getDriverClassName());
                 }
 
                 if (!StringUtils.hasText(calculatedDriverClassName)) {
@@ -102,8 +112,9 @@ public class CalculatedSettings {
         final String url = basicJdbcConfiguration.getConfiguredUrl();
         if (calculatedUrl == null || StringUtils.hasText(url)) {
             calculatedUrl = url;
-            if (!StringUtils.hasText(calculatedUrl) && embeddedDatabaseConnection.isPresent()) {
-                calculatedUrl = embeddedDatabaseConnection.get().getUrl(basicJdbcConfiguration.getName());
+            if (!StringUtils.hasText(calculatedUrl)) {
+                getEmbeddedDatabase().ifPresent(db ->
+                    calculatedUrl = db.getUrl(basicJdbcConfiguration.getName()));
             }
             if (!StringUtils.hasText(calculatedUrl)) {
                 throw new ConfigurationException(String.format("Error configuring data source '%s'. No URL specified", basicJdbcConfiguration.getName()));
@@ -172,6 +183,81 @@ public class CalculatedSettings {
         return calculatedValidationQuery;
     }
 
+    /**
+     * Determines the validation strategy based on the configured value. If the
+     * strategy is not configured but a validation query is, the query is used.
+     * Otherwise search pre-defined databases for a match based on the URL and
+     * use the default strategy for that database. Unknown databases fall back
+     * to {@link ValidationStrategy#QUERY}.
+     *
+     * @return The calculated validation strategy
+     * @since 6.0.0
+     */
+    public ValidationStrategy getValidationStrategy() {
+        final ValidationStrategy validationStrategy = basicJdbcConfiguration.getConfiguredValidationStrategy();
+        if (validationStrategy != null) {
+            return validationStrategy;
+        }
+        if (StringUtils.hasText(basicJdbcConfiguration.getConfiguredValidationQuery())) {
+            return ValidationStrategy.QUERY;
+        }
+        if (calculatedValidationStrategy == null) {
+            ValidationStrategy strategy = ValidationStrategy.QUERY;
+            try {
+                strategy = JdbcDatabaseManager.findDatabase(getUrl())
+                    .map(JdbcDatabaseManager.JdbcDatabase::getValidationStrategy)
+                    .orElse(ValidationStrategy.QUERY);
+            } catch (ConfigurationException e) {
+                // no URL, keep the validation query
+            }
+            calculatedValidationStrategy = strategy;
+        }
+        return calculatedValidationStrategy;
+    }
+
+    /**
+     * Determines the default data source properties of the database matching the URL. Properties that
+     * are already set as parameters of the URL are left out, so that the URL takes precedence.
+     *
+     * @return The default data source properties, empty if the database is unknown
+     * @since 6.0.0
+     */
+    public Map<String, String> getDefaultDataSourceProperties() {
+        final String url;
+        try {
+            url = getUrl();
+        } catch (ConfigurationException e) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> defaults = JdbcDatabaseManager.findDatabase(url)
+            .map(JdbcDatabaseManager.JdbcDatabase::getDefaultDataSourceProperties)
+            .orElse(Collections.emptyMap());
+        if (defaults.isEmpty()) {
+            return defaults;
+        }
+        String lowerCaseUrl = url.toLowerCase(Locale.ENGLISH);
+        Map<String, String> properties = new LinkedHashMap<>(defaults.size());
+        defaults.forEach((key, value) -> {
+            if (!lowerCaseUrl.contains(key.toLowerCase(Locale.ENGLISH) + "=")) {
+                properties.put(key, value);
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * The embedded database is only looked up when neither a driver nor a URL is configured, which avoids
+     * probing the classpath for embedded drivers in the common case.
+     *
+     * @return The embedded database found on the classpath
+     */
+    private Optional<JdbcDatabaseManager.EmbeddedJdbcDatabase> getEmbeddedDatabase() {
+        if (embeddedDatabaseConnection == null) {
+            embeddedDatabaseConnection = JdbcDatabaseManager.get(classLoader);
+        }
+        return embeddedDatabaseConnection;
+    }
+
     private boolean driverClassIsPresent(String className) {
         return ClassUtils.isPresent(className, this.getClass().getClassLoader());
     }
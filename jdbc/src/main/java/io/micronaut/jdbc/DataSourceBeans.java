@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+
+/**
+ * Decides whether the data source listeners of Micronaut SQL may replace a data source bean with a
+ * {@link DataSourceWrapper}. A wrapper is only a {@link DataSource}, so a bean declared with the type of its pool,
+ * such as the {@code PoolDataSource} of Oracle UCP, is left as it is and can still be injected by that type.
+ *
+ * @since 6.0.0
+ */
+@Internal
+public final class DataSourceBeans {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataSourceBeans.class);
+
+    private DataSourceBeans() {
+    }
+
+    /**
+     * Tells whether a created data source bean can be wrapped, and logs a warning that the feature is not applied
+     * when it cannot.
+     *
+     * @param event   The bean created event of the data source
+     * @param feature The feature that wraps the data source, for the warning
+     * @return Whether the bean can be replaced by a {@link DataSourceWrapper}
+     */
+    public static boolean isWrappable(@NonNull BeanCreatedEvent<DataSource> event, @NonNull String feature) {
+        Class<?> beanType = event.getBeanDefinition().getBeanType();
+        if (beanType.isAssignableFrom(DataSourceWrapper.class)) {
+            return true;
+        }
+        if (LOG.isWarnEnabled()) {
+            LOG.warn("Skipping the {} of data source [{}]: the bean is declared as a {}, which a wrapper cannot replace",
+                feature, event.getBeanIdentifier().getName(), beanType.getName());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+
+/**
+ * The orders of the listeners wrapping the {@link javax.sql.DataSource data sources}. A listener with a lower order
+ * runs first, so its wrapper sits closer to the pool, and each listener has its own order so that the wrapping does
+ * not depend on the order the beans are found in. From the pool outward:
+ *
+ * <ol>
+ *     <li>the connection timings, which time every connection borrowed from the pool</li>
+ *     <li>the session state cache, which caches the state of the connections of the pool</li>
+ *     <li>the statement cache, which caches the statements of the connections of the pool</li>
+ *     <li>the read/write routing, which borrows the connections from the primary or a replica</li>
+ *     <li>the batch rewriting, which turns the batches of single-row inserts into multi-row inserts</li>
+ *     <li>the single-flight execution, which coalesces the identical queries in flight</li>
+ *     <li>the result cache, which executes its misses through the single-flight execution</li>
+ *     <li>the statement profiling, which sees the statements as the application executes them</li>
+ *     <li>the flight recorder, so that the acquire events include the time spent in the other wrappers</li>
+ * </ol>
+ *
+ * @since 6.0.0
+ */
+@Internal
+public final class DataSourceListenerOrder {
+
+    /**
+     * The order of the connection timings listener.
+     */
+    public static final int CONNECTION_TIMINGS = Ordered.HIGHEST_PRECEDENCE;
+
+    /**
+     * The order of the session state cache listener.
+     */
+    public static final int SESSION_STATE_CACHE = CONNECTION_TIMINGS + 1;
+
+    /**
+     * The order of the statement cache listener.
+     */
+    public static final int STATEMENT_CACHE = SESSION_STATE_CACHE + 1;
+
+    /**
+     * The order of the read/write routing listener.
+     */
+    public static final int READ_WRITE_ROUTING = STATEMENT_CACHE + 1;
+
+    /**
+     * The order of the batch rewriting listener.
+     */
+    public static final int BATCH_REWRITE = READ_WRITE_ROUTING + 1;
+
+    /**
+     * The order of the single-flight execution listener.
+     */
+    public static final int SINGLE_FLIGHT = BATCH_REWRITE + 1;
+
+    /**
+     * The order of the result cache listener.
+     */
+    public static final int RESULT_CACHE = SINGLE_FLIGHT + 1;
+
+    /**
+     * The order of the statement profiling listener.
+     */
+    public static final int STATEMENT_PROFILING = RESULT_CACHE + 1;
+
+    /**
+     * The order of the flight recorder listener.
+     */
+    public static final int FLIGHT_RECORDER = STATEMENT_PROFILING + 1;
+
+    private DataSourceListenerOrder() {
+    }
+}
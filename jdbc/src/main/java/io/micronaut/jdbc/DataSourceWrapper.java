@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc;
+
+import io.micronaut.core.annotation.NonNull;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * A {@link DataSource} that delegates every call to a target data source. The data sources that Micronaut SQL
+ * wraps around a connection pool extend this class, so that the pool can be found again with
+ * {@link #unwrap(DataSource)}.
+ *
+ * @since 6.0.0
+ */
+public abstract class DataSourceWrapper implements DataSource {
+
+    private final DataSource targetDataSource;
+
+    /**
+     * @param targetDataSource The target data source
+     */
+    protected DataSourceWrapper(@NonNull DataSource targetDataSource) {
+        this.targetDataSource = targetDataSource;
+    }
+
+    /**
+     * @return The target data source
+     */
+    @NonNull
+    public final DataSource getTargetDataSource() {
+        return targetDataSource;
+    }
+
+    /**
+     * Removes all {@link DataSourceWrapper} layers, and the {@link LazyDataSource} layers whose target has been
+     * created, from a data source.
+     *
+     * @param dataSource The data source
+     * @return The innermost data source that is not a {@link DataSourceWrapper}
+     */
+    @NonNull
+    public static DataSource unwrap(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (true) {
+            if (target instanceof DataSourceWrapper wrapper) {
+                target = wrapper.getTargetDataSource();
+            } else if (target instanceof LazyDataSource lazy && lazy.isInitialized()) {
+                target = lazy.getTargetDataSource();
+            } else {
+                return target;
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return targetDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return targetDataSource.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targetDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targetDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targetDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targetDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return targetDataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targetDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targetDataSource.isWrapperFor(iface);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + targetDataSource + "]";
+    }
+}
@@ -15,17 +15,25 @@
  */
 package io.micronaut.jdbc;
 
+import io.micronaut.core.io.service.SoftServiceLoader;
 import io.micronaut.core.reflect.ClassUtils;
 import io.micronaut.core.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
- * Stores information on popular JDBC drivers.
+ * Stores information on popular JDBC drivers. Additional databases can be registered with a
+ * {@link JdbcDatabaseProvider} service.
  *
  * @author James Kleeh
  * @since 1.0
@@ -33,25 +41,52 @@ import java.util.Optional;
 public class JdbcDatabaseManager {
 
     private static List<JdbcDatabase> databases = new ArrayList<>(16);
+    private static final Map<String, JdbcDatabase> DATABASES_BY_PREFIX = new HashMap<>(32);
+    private static final Set<String> EMBEDDED_DRIVERS = new HashSet<>(8);
+    private static final Map<ClassLoader, Optional<EmbeddedJdbcDatabase>> EMBEDDED_BY_CLASS_LOADER = Collections.synchronizedMap(new WeakHashMap<>(4));
 
     static {
+        for (JdbcDatabaseProvider provider : SoftServiceLoader.load(JdbcDatabaseProvider.class, JdbcDatabaseManager.class.getClassLoader()).disableFork().collectAll()) {
+            databases.addAll(provider.getDatabases());
+        }
+
         databases.add(new EmbeddedJdbcDatabase("org.h2.Driver", "h2", "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"));
         databases.add(new EmbeddedJdbcDatabase("org.apache.derby.jdbc.EmbeddedDriver", "SELECT 1 FROM SYSIBM.SYSDUMMY1", new String[]{"derby"}, "jdbc:derby:memory:%s;create=true"));
         databases.add(new EmbeddedJdbcDatabase("org.hsqldb.jdbc.JDBCDriver", "select 1 from INFORMATION_SCHEMA.SYSTEM_USERS", new String[]{"hsqldb"}, "jdbc:hsqldb:mem:%s"));
 
-        databases.add(new JdbcDatabase("com.mysql.cj.jdbc.Driver", "mysql"));
-        databases.add(new JdbcDatabase("oracle.jdbc.OracleDriver", "SELECT 1 FROM DUAL", new String[]{"oracle"}));
-        databases.add(new JdbcDatabase("org.postgresql.Driver", "postgresql"));
+        databases.add(new JdbcDatabase("com.mysql.cj.jdbc.Driver", "SELECT 1", ValidationStrategy.IS_VALID, new String[]{"mysql"}, Map.of(
+            "cachePrepStmts", "true",
+            "prepStmtCacheSize", "250",
+            "prepStmtCacheSqlLimit", "2048",
+            "useServerPrepStmts", "true",
+            "rewriteBatchedStatements", "true"
+        )));
+        databases.add(new JdbcDatabase("oracle.jdbc.OracleDriver", "SELECT 1 FROM DUAL", ValidationStrategy.IS_VALID, new String[]{"oracle"}, Map.of(
+            "oracle.jdbc.implicitStatementCacheSize", "50",
+            "defaultRowPrefetch", "100"
+        )));
+        databases.add(new JdbcDatabase("org.postgresql.Driver", "SELECT 1", ValidationStrategy.IS_VALID, new String[]{"postgresql"}, Map.of(
+            "reWriteBatchedInserts", "true"
+        )));
         databases.add(new JdbcDatabase("com.microsoft.sqlserver.jdbc.SQLServerDriver", "sqlserver"));
         databases.add(new JdbcDatabase("org.sqlite.JDBC", "sqlite"));
         databases.add(new JdbcDatabase("org.mariadb.jdbc.Driver", "mariadb"));
-        databases.add(new JdbcDatabase("com.google.appengine.api.rdbms.AppEngineDriver", "gae"));
-        databases.add(new JdbcDatabase("net.sourceforge.jtds.jdbc.Driver", "jtds"));
+        databases.add(new JdbcDatabase("com.google.appengine.api.rdbms.AppEngineDriver", "SELECT 1", ValidationStrategy.QUERY, new String[]{"gae"}, null));
+        databases.add(new JdbcDatabase("net.sourceforge.jtds.jdbc.Driver", "SELECT 1", ValidationStrategy.QUERY, new String[]{"jtds"}, null));
         databases.add(new JdbcDatabase("org.firebirdsql.jdbc.FBDriver", "SELECT 1 FROM RDB$DATABASE", new String[]{"firebirdsql"}));
         databases.add(new JdbcDatabase("com.ibm.db2.jcc.DB2Driver", "SELECT 1 FROM SYSIBM.SYSDUMMY1", new String[]{"db2"}));
         databases.add(new JdbcDatabase("com.ibm.as400.access.AS400JDBCDriver", "SELECT 1 FROM SYSIBM.SYSDUMMY1", new String[]{"as400"}));
         databases.add(new JdbcDatabase("com.teradata.jdbc.TeraDriver", "teradata"));
         databases.add(new JdbcDatabase("com.informix.jdbc.IfxDriver", "select count(*) from systables", new String[]{"informix"}));
+
+        for (JdbcDatabase database : databases) {
+            for (String prefix : database.urlPrefixes) {
+                DATABASES_BY_PREFIX.putIfAbsent(prefix, database);
+            }
+            if (database.isEmbedded()) {
+                EMBEDDED_DRIVERS.add(database.driverClassName);
+            }
+        }
     }
 
     /**
@@ -72,24 +107,23 @@ public class JdbcDatabaseManager {
             String partialUrl = jdbcUrl.substring(5);
             String prefix = partialUrl.substring(0, partialUrl.indexOf(':')).toLowerCase();
 
-            return databases.stream().filter(db -> db.containsPrefix(prefix)).findFirst();
+            return Optional.ofNullable(DATABASES_BY_PREFIX.get(prefix));
         }
         return Optional.empty();
     }
 
     /**
-     * Searches the provided classloader for an embedded database driver.
+     * Searches the provided classloader for an embedded database driver. The result is cached per classloader,
+     * so the classpath is only probed once no matter how many data sources are configured.
      *
      * @param classLoader The classloader to search
      * @return An optional {@link EmbeddedJdbcDatabase}
      */
     public static Optional<EmbeddedJdbcDatabase> get(ClassLoader classLoader) {
-        return databases
-            .stream()
-            .filter(JdbcDatabase::isEmbedded)
-            .map(EmbeddedJdbcDatabase.class::cast)
-            .filter(embeddedDatabase -> ClassUtils.isPresent(embeddedDatabase.getDriverClassName(), classLoader))
-            .findFirst();
+        if (classLoader == null) {
+            return findEmbedded(null);
+        }
+        return EMBEDDED_BY_CLASS_LOADER.computeIfAbsent(classLoader, JdbcDatabaseManager::findEmbedded);
     }
 
     /**
@@ -99,10 +133,16 @@ public class JdbcDatabaseManager {
      * @return True if the driver matches an embedded database type
      */
     public static boolean isEmbedded(String driverClassName) {
-        return databases
-            .stream()
-            .filter(JdbcDatabase::isEmbedded)
-            .anyMatch(db -> db.driverClassName.equals(driverClassName));
+        return driverClassName != null && EMBEDDED_DRIVERS.contains(driverClassName);
+    }
+
+    private static Optional<EmbeddedJdbcDatabase> findEmbedded(ClassLoader classLoader) {
+        for (JdbcDatabase database : databases) {
+            if (database.isEmbedded() && ClassUtils.isPresent(database.getDriverClassName(), classLoader)) {
+                return Optional.of((EmbeddedJdbcDatabase) database);
+            }
+        }
+        return Optional.empty();
     }
 
     /**
@@ -114,6 +154,24 @@ public class JdbcDatabaseManager {
         private String driverClassName;
         private String validationQuery;
         private Collection<String> urlPrefixes;
+        private ValidationStrategy validationStrategy;
+        private Map<String, String> defaultDataSourceProperties;
+
+        /**
+         * @param driverClassName             The jdbc driver class name
+         * @param validationQuery             The validation query
+         * @param validationStrategy          The default validation strategy
+         * @param urlPrefixes                 The url prefixes
+         * @param defaultDataSourceProperties The driver properties applied to data sources unless configured
+         * @since 6.0.0
+         */
+        public JdbcDatabase(String driverClassName, String validationQuery, ValidationStrategy validationStrategy, String[] urlPrefixes, Map<String, String> defaultDataSourceProperties) {
+            this.driverClassName = driverClassName;
+            this.urlPrefixes = Arrays.asList(urlPrefixes);
+            this.validationQuery = validationQuery;
+            this.validationStrategy = validationStrategy == null ? ValidationStrategy.IS_VALID : validationStrategy;
+            this.defaultDataSourceProperties = defaultDataSourceProperties == null ? Collections.emptyMap() : Collections.unmodifiableMap(defaultDataSourceProperties);
+        }
 
         /**
          * @param driverClassName The jdbc driver class name
@@ -121,9 +179,7 @@ public class JdbcDatabaseManager {
          * @param urlPrefixes     The url prefixes
          */
         JdbcDatabase(String driverClassName, String validationQuery, String[] urlPrefixes) {
-            this.driverClassName = driverClassName;
-            this.urlPrefixes = Arrays.asList(urlPrefixes);
-            this.validationQuery = validationQuery;
+            this(driverClassName, validationQuery, ValidationStrategy.IS_VALID, urlPrefixes, null);
         }
 
         /**
@@ -164,6 +220,30 @@ public class JdbcDatabaseManager {
             return validationQuery;
         }
 
+        /**
+         * The validation strategy used unless one is configured. Databases whose drivers implement
+         * {@link java.sql.Connection#isValid(int)} default to {@link ValidationStrategy#IS_VALID}, older
+         * drivers to {@link ValidationStrategy#QUERY}.
+         *
+         * @return The default validation strategy
+         * @since 6.0.0
+         */
+        public ValidationStrategy getValidationStrategy() {
+            return validationStrategy;
+        }
+
+        /**
+         * Driver properties tuned for the database, for example enabling statement caching or batch rewriting.
+         * The pool integrations apply them to every data source of this database unless the same property is
+         * configured explicitly or in the URL.
+         *
+         * @return The default data source properties
+         * @since 6.0.0
+         */
+        public Map<String, String> getDefaultDataSourceProperties() {
+            return defaultDataSourceProperties;
+        }
+
         /**
          * @param prefix The prefix to check
          * @return Whether the url prefixes contain the prefix
@@ -181,6 +261,20 @@ public class JdbcDatabaseManager {
         private String defaultUrl;
         private String defaultName = "devDb";
 
+        /**
+         * @param driverClassName             The jdbc driver class name
+         * @param validationQuery             The validation query
+         * @param validationStrategy          The default validation strategy
+         * @param urlPrefixes                 The url prefixes
+         * @param defaultDataSourceProperties The driver properties applied to data sources unless configured
+         * @param defaultUrl                  The default url
+         * @since 6.0.0
+         */
+        public EmbeddedJdbcDatabase(String driverClassName, String validationQuery, ValidationStrategy validationStrategy, String[] urlPrefixes, Map<String, String> defaultDataSourceProperties, String defaultUrl) {
+            super(driverClassName, validationQuery, validationStrategy, urlPrefixes, defaultDataSourceProperties);
+            this.defaultUrl = defaultUrl;
+        }
+
         /**
          * @param driverClassName The jdbc driver class name
          * @param validationQuery The validation query
@@ -188,8 +282,7 @@ public class JdbcDatabaseManager {
          * @param defaultUrl      The default url
          */
         EmbeddedJdbcDatabase(String driverClassName, String validationQuery, String[] urlPrefixes, String defaultUrl) {
-            super(driverClassName, validationQuery, urlPrefixes);
-            this.defaultUrl = defaultUrl;
+            this(driverClassName, validationQuery, ValidationStrategy.IS_VALID, urlPrefixes, null, defaultUrl);
         }
 
         /**
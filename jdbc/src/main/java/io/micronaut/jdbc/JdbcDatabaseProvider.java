@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc;
+
+import java.util.Collection;
+
+/**
+ * Service provider interface that registers additional databases with the {@link JdbcDatabaseManager}.
+ * Implementations are registered in {@code META-INF/services/io.micronaut.jdbc.JdbcDatabaseProvider}.
+ * <p>
+ * Provided databases take precedence over the built-in ones, so a provider can also replace the driver,
+ * validation query or default data source properties of a built-in database by using the same URL prefix.
+ * Providers are loaded once when the {@link JdbcDatabaseManager} is initialized, which happens at build time
+ * for native images.
+ *
+ * @since 6.0.0
+ */
+public interface JdbcDatabaseProvider {
+
+    /**
+     * @return The databases to register
+     */
+    Collection<JdbcDatabaseManager.JdbcDatabase> getDatabases();
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc;
+
+import io.micronaut.core.annotation.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+
+/**
+ * A {@link DataSource} that only creates its target data source, usually a connection pool, when it is first used.
+ * Used for the data sources configured with {@link BasicJdbcConfiguration#isLazy() lazy}, so that a data source
+ * that is never used does not open connections at startup.
+ *
+ * <p>Until the target is created, {@link DataSourceWrapper#unwrap(DataSource)} stops at this data source, so
+ * looking up the pool does not create it.</p>
+ *
+ * @since 6.0.0
+ */
+public final class LazyDataSource implements DataSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LazyDataSource.class);
+
+    private final String name;
+    private final Supplier<? extends DataSource> targetSupplier;
+    private volatile DataSource targetDataSource;
+
+    /**
+     * @param name           The data source name
+     * @param targetSupplier Creates the target data source
+     */
+    public LazyDataSource(@NonNull String name, @NonNull Supplier<? extends DataSource> targetSupplier) {
+        this.name = name;
+        this.targetSupplier = targetSupplier;
+    }
+
+    /**
+     * @return The data source name
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Whether the target data source has been created
+     */
+    public boolean isInitialized() {
+        return targetDataSource != null;
+    }
+
+    /**
+     * Returns the target data source, creating it if this is the first use.
+     *
+     * @return The target data source
+     */
+    @NonNull
+    public DataSource getTargetDataSource() {
+        DataSource target = targetDataSource;
+        if (target == null) {
+            synchronized (this) {
+                target = targetDataSource;
+                if (target == null) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Creating lazy data source [{}]", name);
+                    }
+                    target = targetSupplier.get();
+                    targetDataSource = target;
+                }
+            }
+        }
+        return target;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getTargetDataSource().getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return getTargetDataSource().getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        getTargetDataSource().setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        getTargetDataSource().setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return getTargetDataSource().getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return getTargetDataSource().getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return getTargetDataSource().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || getTargetDataSource().isWrapperFor(iface);
+    }
+
+    @Override
+    public String toString() {
+        DataSource target = targetDataSource;
+        return "LazyDataSource[" + (target == null ? name : target) + "]";
+    }
+}
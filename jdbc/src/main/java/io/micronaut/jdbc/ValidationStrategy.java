@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc;
+
+/**
+ * The way a connection pool checks that a connection is still usable when it validates it.
+ *
+ * @since 6.0.0
+ */
+public enum ValidationStrategy {
+
+    /**
+     * Validate with {@link java.sql.Connection#isValid(int)}, which JDBC 4 drivers usually implement with a
+     * lightweight ping instead of a full statement round trip. Hikari cannot validate the connections used within
+     * its alive bypass window, so for Hikari this strategy behaves like {@link #SKIP_IF_RECENTLY_USED}.
+     */
+    IS_VALID,
+
+    /**
+     * Validate by executing the validation query.
+     */
+    QUERY,
+
+    /**
+     * Validate with {@link java.sql.Connection#isValid(int)}, but trust connections that were used or validated
+     * within the pool's time window and skip their validation. The window is the {@code validation-interval}
+     * of Tomcat, the {@code seconds-to-trust-idle-connection} of UCP and the fixed alive bypass window of Hikari.
+     * DBCP has no such window and validates like {@link #IS_VALID}.
+     */
+    SKIP_IF_RECENTLY_USED
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.append;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded ring of elements offered by many producers and polled by a single consumer. A producer claims a slot
+ * with a permit of the free slots and an increment of the tail, without a lock, and only waits when the ring is full.
+ *
+ * @param <E> The type of the elements
+ * @since 6.0.0
+ */
+final class AppendRing<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final Semaphore free;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity The minimum capacity, rounded up to a power of two
+     */
+    AppendRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.free = new Semaphore(size);
+    }
+
+    /**
+     * @return The number of slots
+     */
+    int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Adds an element, waiting for a free slot when the ring is full.
+     *
+     * @param element The element
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return Whether the element was added
+     * @throws InterruptedException If the thread is interrupted while it waits
+     */
+    boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!free.tryAcquire() && !free.tryAcquire(timeout, unit)) {
+            return false;
+        }
+        long sequence = tail.getAndIncrement();
+        slots.set((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element. Must only be called by the consumer.
+     *
+     * @return The element or {@code null} if the ring is empty, or the oldest slot claimed is not yet filled
+     */
+    E poll() {
+        long sequence = head;
+        int index = (int) sequence & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.set(index, null);
+        head = sequence + 1;
+        free.release();
+        return element;
+    }
+
+    /**
+     * @return The number of slots claimed by the producers
+     */
+    long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * @return The number of elements polled by the consumer
+     */
+    long polled() {
+        return head;
+    }
+
+    /**
+     * @return The number of elements in the ring
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
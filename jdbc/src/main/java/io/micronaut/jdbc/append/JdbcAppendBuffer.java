@@ -0,0 +1,432 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.append;
+
+import io.micronaut.core.annotation.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffers the rows appended by many threads and inserts them from a single flusher task, in one transaction per
+ * flush with an {@link PreparedStatement#executeBatch()} every {@code batch-size} rows, instead of borrowing a
+ * connection and committing for each row.
+ *
+ * <p>The rows are flushed when {@code batch-size} rows are waiting, or {@code flush-interval} after the previous
+ * flush. An appending thread waits while the buffer is full, up to {@code append-timeout}. The future returned for a
+ * row completes once its transaction is committed, or completes exceptionally with the error of its transaction,
+ * which is rolled back.</p>
+ *
+ * @param <T> The type of the rows
+ * @since 6.0.0
+ */
+public final class JdbcAppendBuffer<T> implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcAppendBuffer.class);
+    private static final long CLOSE_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final String dataSourceName;
+    private final DataSource dataSource;
+    private final String sql;
+    private final RowBinder<T> binder;
+    private final AppendRing<Row<T>> ring;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long appendTimeoutNanos;
+    private final Queue<FlushRequest> flushRequests = new ConcurrentLinkedQueue<>();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final AtomicInteger appending = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile Thread flusher;
+    private volatile boolean closed;
+
+    /**
+     * @param name           The name of the buffer
+     * @param dataSourceName The name of the data source
+     * @param dataSource     The data source the rows are inserted into
+     * @param sql            The insert statement
+     * @param binder         The binder of the rows
+     * @param capacity       The number of rows the buffer holds, rounded up to a power of two
+     * @param batchSize      The number of rows of each batch
+     * @param flushInterval  The maximum time between two flushes
+     * @param appendTimeout  The maximum time an appending thread waits while the buffer is full
+     * @param executor       The executor running the flusher task until the buffer is closed
+     */
+    JdbcAppendBuffer(String name,
+                     String dataSourceName,
+                     DataSource dataSource,
+                     String sql,
+                     RowBinder<T> binder,
+                     int capacity,
+                     int batchSize,
+                     Duration flushInterval,
+                     Duration appendTimeout,
+                     Executor executor) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + flushInterval);
+        }
+        this.name = name;
+        this.dataSourceName = dataSourceName;
+        this.dataSource = dataSource;
+        this.sql = sql;
+        this.binder = binder;
+        this.ring = new AppendRing<>(capacity);
+        this.batchSize = Math.min(batchSize, ring.capacity());
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.appendTimeoutNanos = Math.max(0, appendTimeout.toNanos());
+        executor.execute(this::run);
+    }
+
+    /**
+     * @return The name of the buffer
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The name of the data source the rows are inserted into
+     */
+    @NonNull
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    /**
+     * @return The insert statement
+     */
+    @NonNull
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return The number of rows the buffer holds
+     */
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    /**
+     * @return The number of rows of each batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return The number of rows waiting to be flushed
+     */
+    public int getSize() {
+        return ring.size();
+    }
+
+    /**
+     * @return The number of rows appended
+     */
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    /**
+     * @return The number of rows inserted and committed
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * @return The number of rows whose insert failed
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return The number of rows rejected because the buffer was full or closed
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return The number of transactions committed
+     */
+    public long getTransactionCount() {
+        return transactions.sum();
+    }
+
+    /**
+     * Appends a row, waiting up to {@code append-timeout} while the buffer is full.
+     *
+     * @param row The row
+     * @return A future completed once the row is committed, or completed exceptionally with the error of its
+     * transaction, or with a {@link RejectedExecutionException} if the buffer stayed full or is closed
+     * @throws InterruptedException If the thread is interrupted while it waits for the buffer
+     */
+    @NonNull
+    public CompletableFuture<Void> append(@NonNull T row) throws InterruptedException {
+        // close waits for the appends in flight, so that a row offered while it runs is flushed before it returns
+        appending.incrementAndGet();
+        try {
+            if (closed) {
+                return reject("Append buffer [" + name + "] is closed");
+            }
+            Row<T> entry = new Row<>(row);
+            if (!ring.offer(entry, appendTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return reject("Append buffer [" + name + "] is full");
+            }
+            appended.increment();
+            if (ring.size() >= batchSize) {
+                wakeFlusher();
+            }
+            return entry.future;
+        } finally {
+            appending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Flushes the rows appended so far without waiting for {@code flush-interval}.
+     *
+     * @return A future completed once the rows appended before the call are flushed
+     */
+    @NonNull
+    public CompletableFuture<Void> flush() {
+        FlushRequest request = new FlushRequest(ring.claimed());
+        flushRequests.add(request);
+        wakeFlusher();
+        if (stopped.getCount() == 0) {
+            completeFlushRequests();
+        }
+        return request.future;
+    }
+
+    /**
+     * Stops accepting rows, flushes the rows appended so far and stops the flusher task.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        while (appending.get() > 0) {
+            // the flusher keeps draining the buffer, so that an append waiting for a free slot gets one
+            wakeFlusher();
+            LockSupport.parkNanos(this, CLOSE_POLL_NANOS);
+        }
+        wakeFlusher();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // the rows appended concurrently with the last flush
+        Row<T> row;
+        while ((row = ring.poll()) != null) {
+            rejected.increment();
+            row.future.completeExceptionally(new RejectedExecutionException("Append buffer [" + name + "] is closed"));
+        }
+        completeFlushRequests();
+    }
+
+    private CompletableFuture<Void> reject(String message) {
+        rejected.increment();
+        return CompletableFuture.failedFuture(new RejectedExecutionException(message));
+    }
+
+    private void wakeFlusher() {
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName();
+        thread.setName("jdbc-append-" + name);
+        flusher = thread;
+        try {
+            flushUntilClosed();
+        } finally {
+            flusher = null;
+            thread.setName(threadName);
+            stopped.countDown();
+        }
+    }
+
+    private void flushUntilClosed() {
+        List<Row<T>> rows = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        while (true) {
+            boolean closing = closed;
+            long wait = flushIntervalNanos - (System.nanoTime() - lastFlush);
+            if (!closing && wait > 0 && ring.size() < batchSize && flushRequests.isEmpty()) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            lastFlush = System.nanoTime();
+            // one transaction holds what is in the buffer, so that the rows appended while it runs wait for the next
+            long end = ring.claimed();
+            Row<T> row;
+            while (ring.polled() < end && (row = ring.poll()) != null) {
+                rows.add(row);
+            }
+            if (!rows.isEmpty()) {
+                write(rows);
+                rows.clear();
+            }
+            completeFlushRequests();
+            if (closing && ring.size() == 0) {
+                return;
+            }
+            if (!flushRequests.isEmpty()) {
+                // a slot claimed before the flush request is not filled yet
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void write(List<Row<T>> rows) {
+        List<Row<T>> bound = new ArrayList<>(rows.size());
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    int batched = 0;
+                    for (Row<T> row : rows) {
+                        try {
+                            binder.bind(statement, row.value);
+                        } catch (SQLException | RuntimeException e) {
+                            statement.clearParameters();
+                            failed.increment();
+                            row.future.completeExceptionally(e);
+                            continue;
+                        }
+                        statement.addBatch();
+                        bound.add(row);
+                        if (++batched == batchSize) {
+                            statement.executeBatch();
+                            batched = 0;
+                        }
+                    }
+                    if (batched > 0) {
+                        statement.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                throw e;
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Error inserting {} rows of append buffer [{}] into data source [{}]: {}", rows.size(), name, dataSourceName, e.getMessage(), e);
+            }
+            for (Row<T> row : rows) {
+                if (!row.future.isDone()) {
+                    failed.increment();
+                    row.future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        transactions.increment();
+        written.add(bound.size());
+        for (Row<T> row : bound) {
+            row.future.complete(null);
+        }
+    }
+
+    private void completeFlushRequests() {
+        long polled = ring.polled();
+        boolean done = closed && stopped.getCount() == 0;
+        flushRequests.removeIf(request -> {
+            if (request.end <= polled || done) {
+                request.future.complete(null);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * A row and its future.
+     *
+     * @param <T> The type of the rows
+     */
+    private static final class Row<T> {
+
+        private final T value;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Row(T value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * A flush waiting for the rows appended before it.
+     */
+    private static final class FlushRequest {
+
+        private final long end;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private FlushRequest(long end) {
+            this.end = end;
+        }
+    }
+}
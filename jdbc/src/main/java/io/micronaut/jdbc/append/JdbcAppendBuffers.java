@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.append;
+
+import io.micronaut.context.BeanLocator;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates the {@link JdbcAppendBuffer append buffers}, configured under {@code jdbc.append-buffers.<name>}, and
+ * closes them, flushing their rows, when the context stops. The buffers are usually exposed as beans by a
+ * {@code @Singleton} method of a factory of the application:
+ *
+ * <pre>{@code
+ * JdbcAppendBuffer<AuditEvent> auditBuffer(JdbcAppendBuffers buffers) {
+ *     return buffers.create("audit", "insert into audit (type, at) values (?, ?)", (statement, event) -> {
+ *         statement.setString(1, event.type());
+ *         statement.setTimestamp(2, Timestamp.from(event.at()));
+ *     });
+ * }
+ * }</pre>
+ *
+ * @since 6.0.0
+ */
+@Singleton
+public final class JdbcAppendBuffers implements AutoCloseable {
+
+    /**
+     * The prefix of the configuration of the buffers.
+     */
+    public static final String PREFIX = "jdbc.append-buffers";
+
+    /**
+     * The default number of rows a buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * The default number of rows of each batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * The default maximum time between two flushes.
+     */
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(50);
+
+    /**
+     * The default maximum time an appending thread waits while a buffer is full.
+     */
+    public static final Duration DEFAULT_APPEND_TIMEOUT = Duration.ofSeconds(30);
+
+    private final BeanLocator beanLocator;
+    private final PropertyResolver propertyResolver;
+    private final ExecutorService executor;
+    private final Map<String, JdbcAppendBuffer<?>> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * @param beanLocator      The bean locator used to find the data sources
+     * @param propertyResolver The property resolver
+     * @param executor         The executor running the flusher task of each buffer
+     */
+    JdbcAppendBuffers(BeanLocator beanLocator,
+                      PropertyResolver propertyResolver,
+                      @Named(TaskExecutors.BLOCKING) ExecutorService executor) {
+        this.beanLocator = beanLocator;
+        this.propertyResolver = propertyResolver;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an append buffer with the configuration {@code jdbc.append-buffers.<name>}: the {@code datasource} the
+     * rows are inserted into, the {@code capacity} of the buffer, the {@code batch-size}, the
+     * {@code flush-interval} and the {@code append-timeout}.
+     *
+     * @param name   The name of the buffer
+     * @param sql    The insert statement
+     * @param binder The binder of the rows
+     * @param <T>    The type of the rows
+     * @return The buffer
+     */
+    @NonNull
+    public <T> JdbcAppendBuffer<T> create(@NonNull String name, @NonNull String sql, @NonNull RowBinder<T> binder) {
+        String prefix = PREFIX + "." + name + ".";
+        String dataSourceName = propertyResolver.getProperty(prefix + "datasource", String.class, "default");
+        DataSource dataSource = beanLocator.getBean(DataSource.class, Qualifiers.byName(dataSourceName));
+        DataSource resolved = beanLocator.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT).resolve(dataSource);
+        JdbcAppendBuffer<T> buffer = new JdbcAppendBuffer<>(
+            name,
+            dataSourceName,
+            resolved,
+            sql,
+            binder,
+            propertyResolver.getProperty(prefix + "capacity", Integer.class, DEFAULT_CAPACITY),
+            propertyResolver.getProperty(prefix + "batch-size", Integer.class, DEFAULT_BATCH_SIZE),
+            propertyResolver.getProperty(prefix + "flush-interval", Duration.class, DEFAULT_FLUSH_INTERVAL),
+            propertyResolver.getProperty(prefix + "append-timeout", Duration.class, DEFAULT_APPEND_TIMEOUT),
+            executor
+        );
+        if (buffers.putIfAbsent(name, buffer) != null) {
+            buffer.close();
+            throw new IllegalStateException("An append buffer named [" + name + "] already exists");
+        }
+        return buffer;
+    }
+
+    /**
+     * @return The buffers created, by name
+     */
+    @NonNull
+    public Map<String, JdbcAppendBuffer<?>> getBuffers() {
+        return Collections.unmodifiableMap(buffers);
+    }
+
+    /**
+     * Closes the buffers, after flushing their rows.
+     */
+    @Override
+    @PreDestroy
+    public void close() {
+        List<JdbcAppendBuffer<?>> open = new ArrayList<>(buffers.values());
+        open.forEach(JdbcAppendBuffer::close);
+    }
+}
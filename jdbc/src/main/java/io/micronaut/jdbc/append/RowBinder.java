@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.append;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds a row appended to a {@link JdbcAppendBuffer} to the parameters of its insert statement.
+ *
+ * @param <T> The type of the rows
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface RowBinder<T> {
+
+    /**
+     * Sets the parameters of the statement for a row. The statement is added to the batch afterwards.
+     *
+     * @param statement The insert statement
+     * @param row       The row
+     * @throws SQLException If a parameter cannot be set
+     */
+    void bind(PreparedStatement statement, T row) throws SQLException;
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch;
+
+import io.micronaut.core.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rewrites the batches of the plain single-row inserts of a data source into multi-row inserts of at most
+ * {@code max-rows} rows and {@code max-parameters} parameters, and counts the batches and rows rewritten.
+ *
+ * @since 6.0.0
+ */
+public final class BatchRewriter {
+
+    /**
+     * The default maximum number of rows of a multi-row insert.
+     */
+    public static final int DEFAULT_MAX_ROWS = 100;
+
+    /**
+     * The default maximum number of parameters of a multi-row insert, below the limits of the common databases.
+     */
+    public static final int DEFAULT_MAX_PARAMETERS = 2000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchRewriter.class);
+    private static final int MAX_PARSED_STATEMENTS = 1000;
+
+    private final String name;
+    private final int maxRows;
+    private final int maxParameters;
+    private final Map<String, Optional<InsertStatement>> statements = new ConcurrentHashMap<>();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private volatile Boolean supported;
+
+    /**
+     * @param name          The name of the data source
+     * @param maxRows       The maximum number of rows of a multi-row insert
+     * @param maxParameters The maximum number of parameters of a multi-row insert
+     */
+    public BatchRewriter(String name, int maxRows, int maxParameters) {
+        if (maxRows < 2) {
+            throw new IllegalArgumentException("The maximum number of rows must be at least 2: " + maxRows);
+        }
+        this.name = name;
+        this.maxRows = maxRows;
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * @return The maximum number of rows of a multi-row insert
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * @return The maximum number of parameters of a multi-row insert
+     */
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * @return The number of batches rewritten
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return The number of rows of the batches rewritten
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    /**
+     * @return The number of statements executed for the batches rewritten
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * @param insert The insert statement
+     * @return The number of rows of each multi-row insert
+     */
+    int rowsPerStatement(InsertStatement insert) {
+        return Math.min(maxRows, maxParameters / insert.getParameterCount());
+    }
+
+    /**
+     * @param sql        The SQL of a statement
+     * @param connection The connection preparing it
+     * @return The insert statement or {@code null} if the statement cannot be rewritten
+     * @throws SQLException If the database cannot be detected
+     */
+    @Nullable
+    InsertStatement parse(String sql, Connection connection) throws SQLException {
+        if (!isSupported(connection)) {
+            return null;
+        }
+        Optional<InsertStatement> insert = statements.get(sql);
+        if (insert == null) {
+            if (statements.size() >= MAX_PARSED_STATEMENTS) {
+                statements.clear();
+            }
+            insert = Optional.ofNullable(InsertStatement.parse(sql)).filter(i -> rowsPerStatement(i) > 1);
+            statements.put(sql, insert);
+        }
+        return insert.orElse(null);
+    }
+
+    void rewritten(int batchRows, int statementCount) {
+        batches.increment();
+        rows.add(batchRows);
+        executions.add(statementCount);
+    }
+
+    private boolean isSupported(Connection connection) throws SQLException {
+        Boolean result = supported;
+        if (result == null) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String product = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT);
+            // these databases do not support several rows in the values of an insert
+            result = !(product.contains("oracle") && metaData.getDatabaseMajorVersion() < 23
+                || product.contains("firebird") || product.contains("informix"));
+            if (!result && LOG.isWarnEnabled()) {
+                LOG.warn("Batch rewriting is disabled for data source [{}]: {} does not support multi-row inserts", name, metaData.getDatabaseProductName());
+            }
+            supported = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch;
+
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A connection whose plain single-row inserts, prepared without generated keys, execute their batches as
+ * multi-row inserts.
+ *
+ * @since 6.0.0
+ */
+final class BatchRewritingConnection extends ConnectionWrapper {
+
+    private final BatchRewriter rewriter;
+
+    BatchRewritingConnection(Connection connection, BatchRewriter rewriter) {
+        super(connection);
+        this.rewriter = rewriter;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement statement = super.prepareStatement(sql);
+        InsertStatement insert = rewriter.parse(sql, getTargetConnection());
+        return insert == null ? statement : new BatchRewritingStatement(statement, this, rewriter, insert);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        if (autoGeneratedKeys != Statement.NO_GENERATED_KEYS) {
+            return super.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return prepareStatement(sql);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} whose connections execute the batches of plain single-row inserts, such as the batches of
+ * Hibernate, jOOQ or Jdbi, as multi-row inserts, for the drivers that send each row of a batch on its own.
+ *
+ * <p>Only the statements prepared with {@link Connection#prepareStatement(String)}, or without generated keys, whose
+ * SQL is an {@code INSERT INTO ... VALUES (...)} with parameters, no string literal or comment, and nothing after the
+ * values are rewritten. The other statements, and the batches of a single row, are executed as they are.</p>
+ *
+ * @since 6.0.0
+ */
+public final class BatchRewritingDataSource extends DataSourceWrapper {
+
+    private final BatchRewriter batchRewriter;
+
+    /**
+     * @param targetDataSource The data source whose batches are rewritten
+     * @param batchRewriter    The batch rewriter of the data source
+     */
+    public BatchRewritingDataSource(@NonNull DataSource targetDataSource, @NonNull BatchRewriter batchRewriter) {
+        super(targetDataSource);
+        this.batchRewriter = batchRewriter;
+    }
+
+    /**
+     * @return The batch rewriter of the data source
+     */
+    @NonNull
+    public BatchRewriter getBatchRewriter() {
+        return batchRewriter;
+    }
+
+    /**
+     * Finds the batch rewriter of a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The rewriter or {@code null} if the data source does not rewrite batches
+     */
+    @Nullable
+    public static BatchRewriter findBatchRewriter(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof BatchRewritingDataSource rewriting) {
+                return rewriting.batchRewriter;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new BatchRewritingConnection(super.getConnection(), batchRewriter);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new BatchRewritingConnection(super.getConnection(username, password), batchRewriter);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.batch-rewrite.enabled} set in a
+ * {@link BatchRewritingDataSource}, limited by {@code max-rows} and {@code max-parameters}. The listener runs after
+ * the read/write routing and the statement cache, so the multi-row inserts are cached, and before the profiling,
+ * which sees the statements as the application executes them.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class BatchRewritingDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    BatchRewritingDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String name = event.getBeanIdentifier().getName();
+        String prefix = "datasources." + name + ".batch-rewrite.";
+        if (dataSource instanceof BatchRewritingDataSource || !propertyResolver.getProperty(prefix + "enabled", Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "batch rewriting")) {
+            return dataSource;
+        }
+        BatchRewriter rewriter = new BatchRewriter(
+            name,
+            propertyResolver.getProperty(prefix + "max-rows", Integer.class, BatchRewriter.DEFAULT_MAX_ROWS),
+            propertyResolver.getProperty(prefix + "max-parameters", Integer.class, BatchRewriter.DEFAULT_MAX_PARAMETERS)
+        );
+        return new BatchRewritingDataSource(dataSource, rewriter);
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.BATCH_REWRITE;
+    }
+}
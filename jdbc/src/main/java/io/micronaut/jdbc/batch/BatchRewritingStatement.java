@@ -0,0 +1,490 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch;
+
+import io.micronaut.jdbc.PreparedStatementWrapper;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.BatchUpdateException;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single-row insert whose batches are executed as multi-row inserts. The parameters are recorded, and only set
+ * on the single-row statement when it is executed on its own, or on the multi-row statements when the batch is
+ * executed. The update count of each row is {@link Statement#SUCCESS_NO_INFO} unless the multi-row insert inserted
+ * exactly its rows.
+ *
+ * @since 6.0.0
+ */
+final class BatchRewritingStatement extends PreparedStatementWrapper {
+
+    private final BatchRewritingConnection connection;
+    private final BatchRewriter rewriter;
+    private final InsertStatement insert;
+    private final int rowsPerStatement;
+    private final Parameter[] parameters;
+    private final List<Parameter[]> batch = new ArrayList<>();
+    private final Map<Integer, PreparedStatement> statements = new HashMap<>(4);
+
+    BatchRewritingStatement(PreparedStatement statement, BatchRewritingConnection connection, BatchRewriter rewriter, InsertStatement insert) {
+        super(statement);
+        this.connection = connection;
+        this.rewriter = rewriter;
+        this.insert = insert;
+        this.rowsPerStatement = rewriter.rowsPerStatement(insert);
+        this.parameters = new Parameter[insert.getParameterCount()];
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNull(i, sqlType));
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBoolean(i, x));
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setByte(i, x));
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setShort(i, x));
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setInt(i, x));
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setLong(i, x));
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setFloat(i, x));
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setDouble(i, x));
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBigDecimal(i, x));
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setString(i, x));
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBytes(i, x));
+    }
+
+    @Override
+    public void setDate(int parameterIndex, java.sql.Date x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setDate(i, x));
+    }
+
+    @Override
+    public void setTime(int parameterIndex, java.sql.Time x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setTime(i, x));
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, java.sql.Timestamp x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setTimestamp(i, x));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setAsciiStream(i, x, length));
+    }
+
+    @Override
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setUnicodeStream(i, x, length));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBinaryStream(i, x, length));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setObject(i, x, targetSqlType));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setObject(i, x));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setCharacterStream(i, reader, length));
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setRef(i, x));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBlob(i, x));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setClob(i, x));
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setArray(i, x));
+    }
+
+    @Override
+    public void setDate(int parameterIndex, java.sql.Date x, Calendar cal) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setDate(i, x, cal));
+    }
+
+    @Override
+    public void setTime(int parameterIndex, java.sql.Time x, Calendar cal) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setTime(i, x, cal));
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, java.sql.Timestamp x, Calendar cal) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setTimestamp(i, x, cal));
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNull(i, sqlType, typeName));
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setURL(i, x));
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setRowId(i, x));
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNString(i, value));
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNCharacterStream(i, value, length));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNClob(i, value));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setClob(i, reader, length));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBlob(i, inputStream, length));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNClob(i, reader, length));
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setSQLXML(i, xmlObject));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setObject(i, x, targetSqlType, scaleOrLength));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setAsciiStream(i, x, length));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBinaryStream(i, x, length));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setCharacterStream(i, reader, length));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setAsciiStream(i, x));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBinaryStream(i, x));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setCharacterStream(i, reader));
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNCharacterStream(i, value));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setClob(i, reader));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setBlob(i, inputStream));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setNClob(i, reader));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setObject(i, x, targetSqlType, scaleOrLength));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        set(parameterIndex, (s, i) -> s.setObject(i, x, targetSqlType));
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        Arrays.fill(parameters, null);
+        super.clearParameters();
+    }
+
+    @Override
+    public void addBatch() {
+        batch.add(parameters.clone());
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        batch.clear();
+        super.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        List<Parameter[]> rows = takeBatch();
+        if (rows == null) {
+            return super.executeBatch();
+        }
+        long[] counts = execute(rows);
+        int[] result = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = (int) counts[i];
+        }
+        return result;
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        List<Parameter[]> rows = takeBatch();
+        if (rows == null) {
+            return super.executeLargeBatch();
+        }
+        return execute(rows);
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        bind(getTargetStatement(), parameters, 0);
+        return super.executeQuery();
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        bind(getTargetStatement(), parameters, 0);
+        return super.executeUpdate();
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        bind(getTargetStatement(), parameters, 0);
+        return super.executeLargeUpdate();
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        bind(getTargetStatement(), parameters, 0);
+        return super.execute();
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        statements.clear();
+        super.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return The rows of the batch, or {@code null} if a single row was added to the batch of the target statement
+     */
+    private List<Parameter[]> takeBatch() throws SQLException {
+        List<Parameter[]> rows = new ArrayList<>(batch);
+        batch.clear();
+        if (rows.size() < 2) {
+            for (Parameter[] row : rows) {
+                getTargetStatement().clearParameters();
+                bind(getTargetStatement(), row, 0);
+                super.addBatch();
+            }
+            return null;
+        }
+        return rows;
+    }
+
+    private long[] execute(List<Parameter[]> rows) throws SQLException {
+        long[] counts = new long[rows.size()];
+        int done = 0;
+        int executions = 0;
+        try {
+            while (done < rows.size()) {
+                int size = Math.min(rowsPerStatement, rows.size() - done);
+                PreparedStatement statement = statement(size);
+                // the statements are reused, so a parameter missing from a row must not keep the value of a previous batch
+                statement.clearParameters();
+                for (int i = 0; i < size; i++) {
+                    bind(statement, rows.get(done + i), i * parameters.length);
+                }
+                int updated = statement.executeUpdate();
+                Arrays.fill(counts, done, done + size, updated == size ? 1 : SUCCESS_NO_INFO);
+                done += size;
+                executions++;
+            }
+        } catch (SQLException e) {
+            throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(counts, done), e);
+        }
+        rewriter.rewritten(rows.size(), executions);
+        return counts;
+    }
+
+    private void set(int parameterIndex, Parameter parameter) throws SQLException {
+        if (parameterIndex < 1 || parameterIndex > parameters.length) {
+            // let the driver report the invalid index
+            parameter.set(getTargetStatement(), parameterIndex);
+            return;
+        }
+        parameters[parameterIndex - 1] = parameter;
+    }
+
+    private PreparedStatement statement(int rows) throws SQLException {
+        if (rows == 1) {
+            return getTargetStatement();
+        }
+        PreparedStatement statement = statements.get(rows);
+        if (statement == null) {
+            statement = connection.getTargetConnection().prepareStatement(insert.toSql(rows));
+            statements.put(rows, statement);
+        }
+        return statement;
+    }
+
+    private static void bind(PreparedStatement statement, Parameter[] row, int offset) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] != null) {
+                row[i].set(statement, offset + i + 1);
+            }
+        }
+    }
+
+    /**
+     * A recorded parameter.
+     */
+    @FunctionalInterface
+    private interface Parameter {
+
+        void set(PreparedStatement statement, int index) throws SQLException;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch;
+
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * A plain single-row {@code INSERT INTO ... VALUES (...)} statement with parameters, which can be repeated for
+ * several rows. Statements with string literals, comments, several statements, a query as source, or anything after
+ * the values, such as {@code RETURNING} or {@code ON CONFLICT}, are not rewritable.
+ *
+ * @since 6.0.0
+ */
+final class InsertStatement {
+
+    private final String head;
+    private final String row;
+    private final int parameterCount;
+
+    private InsertStatement(String head, String row, int parameterCount) {
+        this.head = head;
+        this.row = row;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return The insert statement or {@code null} if the statement cannot be rewritten
+     */
+    @Nullable
+    static InsertStatement parse(String sql) {
+        String trimmed = sql.strip();
+        if (!trimmed.regionMatches(true, 0, "insert", 0, 6)
+            || trimmed.indexOf('\'') >= 0 || trimmed.indexOf(';') >= 0 || trimmed.indexOf('$') >= 0
+            || trimmed.contains("--") || trimmed.contains("/*")) {
+            return null;
+        }
+        String lower = trimmed.toLowerCase(Locale.ROOT);
+        if (!lower.matches("(?s)insert\\s+into\\s.*")) {
+            return null;
+        }
+        int values = -1;
+        char quote = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?' || c == '(' && lower.startsWith("select", skipWhitespace(lower, i + 1))) {
+                // a parameter before the values, or a query as source
+                return null;
+            } else if (lower.startsWith("values", i) && isBoundary(lower, i - 1) && isBoundary(lower, i + 6)) {
+                values = i;
+                break;
+            }
+        }
+        if (values < 0) {
+            return null;
+        }
+        int open = skipWhitespace(lower, values + 6);
+        if (open >= lower.length() || lower.charAt(open) != '(') {
+            return null;
+        }
+        int depth = 0;
+        int parameters = 0;
+        int close = -1;
+        quote = 0;
+        for (int i = open; i < lower.length() && close < 0; i++) {
+            char c = lower.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                parameters++;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                close = i;
+            }
+        }
+        if (close < 0 || parameters == 0 || skipWhitespace(lower, close + 1) != lower.length()) {
+            return null;
+        }
+        return new InsertStatement(trimmed.substring(0, open), trimmed.substring(open, close + 1), parameters);
+    }
+
+    /**
+     * @return The number of parameters of a row
+     */
+    int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * @param rows The number of rows
+     * @return The SQL inserting the rows
+     */
+    String toSql(int rows) {
+        StringBuilder sql = new StringBuilder(head.length() + rows * (row.length() + 2)).append(head).append(row);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(row);
+        }
+        return sql.toString();
+    }
+
+    private static int skipWhitespace(String sql, int index) {
+        int i = index;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isBoundary(String sql, int index) {
+        if (index < 0 || index >= sql.length()) {
+            return true;
+        }
+        char c = sql.charAt(index);
+        return !Character.isLetterOrDigit(c) && c != '_' && c != '$' && c != '"' && c != '`';
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a bulk load: the loader used, the number of rows loaded and the time it took.
+ *
+ * @since 6.0.0
+ */
+public final class BulkLoadResult {
+
+    private final String loader;
+    private final BulkTable table;
+    private final long rows;
+    private final Duration duration;
+
+    /**
+     * @param loader   The name of the loader
+     * @param table    The table
+     * @param rows     The number of rows loaded
+     * @param duration The time the load took
+     */
+    public BulkLoadResult(@NonNull String loader, @NonNull BulkTable table, long rows, @NonNull Duration duration) {
+        this.loader = loader;
+        this.table = table;
+        this.rows = rows;
+        this.duration = duration;
+    }
+
+    /**
+     * @return The name of the loader
+     */
+    @NonNull
+    public String getLoader() {
+        return loader;
+    }
+
+    /**
+     * @return The table
+     */
+    @NonNull
+    public BulkTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return The number of rows loaded
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The time the load took, including the commit
+     */
+    @NonNull
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return The number of rows loaded per second
+     */
+    public double getRowsPerSecond() {
+        long nanos = duration.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkLoadResult{"
+            + "loader=" + loader
+            + ", table=" + table.getName()
+            + ", rows=" + rows
+            + ", duration=" + duration.toMillis() + "ms"
+            + ", rowsPerSecond=" + Math.round(getRowsPerSecond())
+            + '}';
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.jdbc.JdbcDatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+/**
+ * Loads rows into a table with an ingestion path of a database. {@link BulkLoaders} uses the first loader, in
+ * {@link Ordered order}, that supports the database of the data source and the connection, so a bean implementing
+ * this interface can add or replace the path of a database.
+ *
+ * @since 6.0.0
+ */
+public interface BulkLoader extends Ordered {
+
+    /**
+     * @return The name of the loader, reported in the {@link BulkLoadResult}
+     */
+    @NonNull
+    String getName();
+
+    /**
+     * @param database The database detected from the URL of the connection, or {@code null} if it is not known
+     * @return Whether the loader supports the database
+     */
+    boolean supports(@Nullable JdbcDatabaseManager.JdbcDatabase database);
+
+    /**
+     * Checks the settings of a connection to a database the loader {@link #supports(JdbcDatabaseManager.JdbcDatabase) supports},
+     * so that a loader whose path is disabled on the connection lets the next loader load the rows.
+     *
+     * @param connection The connection the rows are loaded with
+     * @return Whether the loader can load rows with the connection
+     * @throws SQLException If the settings of the connection cannot be read
+     */
+    default boolean supports(@NonNull Connection connection) throws SQLException {
+        return true;
+    }
+
+    /**
+     * Loads the rows. The loader runs in a transaction that is committed, or rolled back, by the caller.
+     *
+     * @param connection The connection
+     * @param table      The table
+     * @param rows       The values of the rows, read lazily. The array returned is only valid until the next row is read.
+     * @return The number of rows loaded
+     * @throws SQLException If the rows cannot be loaded
+     * @throws IllegalArgumentException If a row does not have one value per column of the table
+     */
+    long load(@NonNull Connection connection, @NonNull BulkTable table, @NonNull Iterator<Object[]> rows) throws SQLException;
+}
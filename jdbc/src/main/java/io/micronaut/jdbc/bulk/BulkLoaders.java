@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.context.BeanLocator;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.order.OrderUtil;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.JdbcDatabaseManager;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads large numbers of rows into a table of a data source with the fastest path of its database, detected with
+ * {@link JdbcDatabaseManager#findDatabase(String)} from the URL of a connection: {@code COPY} for PostgreSQL,
+ * {@code LOAD DATA LOCAL INFILE} for MySQL, array binding for Oracle, and multi-row inserts for the other
+ * databases. The rows are read lazily from an {@link Iterator} or a {@link Publisher}, so the memory used does not
+ * depend on the number of rows, and are loaded in one transaction.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+public final class BulkLoaders {
+
+    /**
+     * The number of items requested ahead of the database from a {@link Publisher}.
+     */
+    public static final int PUBLISHER_PREFETCH = 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkLoaders.class);
+
+    private final BeanLocator beanLocator;
+    private final List<BulkLoader> loaders;
+
+    /**
+     * @param beanLocator The bean locator used to find the data sources
+     * @param loaders     The loaders
+     */
+    BulkLoaders(BeanLocator beanLocator, List<BulkLoader> loaders) {
+        this.beanLocator = beanLocator;
+        List<BulkLoader> sorted = new ArrayList<>(loaders);
+        OrderUtil.sort(sorted);
+        this.loaders = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @return The loaders, in order
+     */
+    @NonNull
+    public List<BulkLoader> getLoaders() {
+        return loaders;
+    }
+
+    /**
+     * @param database The database, or {@code null} if it is not known
+     * @return The first loader supporting the database
+     */
+    @NonNull
+    public BulkLoader findLoader(@Nullable JdbcDatabaseManager.JdbcDatabase database) {
+        for (BulkLoader loader : loaders) {
+            if (loader.supports(database)) {
+                return loader;
+            }
+        }
+        throw new IllegalStateException("No bulk loader supports database " + (database == null ? "[unknown]" : "[" + database.getDriverClassName() + "]"));
+    }
+
+    private BulkLoader findLoader(@Nullable JdbcDatabaseManager.JdbcDatabase database, Connection connection) throws SQLException {
+        for (BulkLoader loader : loaders) {
+            if (loader.supports(database)) {
+                if (loader.supports(connection)) {
+                    return loader;
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Bulk loader {} is disabled on the connection, trying the next one", loader.getName());
+                }
+            }
+        }
+        throw new IllegalStateException("No bulk loader supports the connection to database " + (database == null ? "[unknown]" : "[" + database.getDriverClassName() + "]"));
+    }
+
+    /**
+     * Loads the rows of an iterator into a table of the data source with the given name.
+     *
+     * @param dataSourceName The name of the data source
+     * @param table          The table
+     * @param rows           The rows
+     * @param mapper         The mapper of the rows to the values of the columns
+     * @param <T>            The type of the rows
+     * @return The result of the load
+     * @throws SQLException If the rows cannot be loaded, in which case none is
+     */
+    @NonNull
+    public <T> BulkLoadResult load(@NonNull String dataSourceName,
+                                   @NonNull BulkTable table,
+                                   @NonNull Iterator<T> rows,
+                                   @NonNull BulkRowMapper<T> mapper) throws SQLException {
+        return load(beanLocator.getBean(DataSource.class, Qualifiers.byName(dataSourceName)), table, rows, mapper);
+    }
+
+    /**
+     * Loads the rows of a publisher into a table of the data source with the given name, requesting at most
+     * {@link #PUBLISHER_PREFETCH} rows ahead of the database.
+     *
+     * @param dataSourceName The name of the data source
+     * @param table          The table
+     * @param rows           The rows
+     * @param mapper         The mapper of the rows to the values of the columns
+     * @param <T>            The type of the rows
+     * @return The result of the load
+     * @throws SQLException If the rows cannot be loaded, or the publisher fails, in which case none is loaded
+     */
+    @NonNull
+    public <T> BulkLoadResult load(@NonNull String dataSourceName,
+                                   @NonNull BulkTable table,
+                                   @NonNull Publisher<T> rows,
+                                   @NonNull BulkRowMapper<T> mapper) throws SQLException {
+        DataSource dataSource = beanLocator.getBean(DataSource.class, Qualifiers.byName(dataSourceName));
+        try (PublisherIterator<T> iterator = new PublisherIterator<>(rows, PUBLISHER_PREFETCH)) {
+            return load(dataSource, table, iterator, mapper);
+        } catch (PublisherIterator.Failure e) {
+            throw new SQLException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Loads the rows of an iterator into a table of a data source.
+     *
+     * @param dataSource The data source
+     * @param table      The table
+     * @param rows       The rows
+     * @param mapper     The mapper of the rows to the values of the columns
+     * @param <T>        The type of the rows
+     * @return The result of the load
+     * @throws SQLException If the rows cannot be loaded, in which case none is
+     */
+    @NonNull
+    public <T> BulkLoadResult load(@NonNull DataSource dataSource,
+                                   @NonNull BulkTable table,
+                                   @NonNull Iterator<T> rows,
+                                   @NonNull BulkRowMapper<T> mapper) throws SQLException {
+        DataSource resolved = beanLocator.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT).resolve(dataSource);
+        long start = System.nanoTime();
+        BulkLoader loader;
+        long count;
+        try (Connection connection = resolved.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            loader = findLoader(url == null ? null : JdbcDatabaseManager.findDatabase(url).orElse(null), connection);
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                count = loader.load(connection, table, new MappingIterator<>(rows, mapper, table.getColumns().size()));
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    e.addSuppressed(rollbackException);
+                }
+                throw e;
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
+        BulkLoadResult result = new BulkLoadResult(loader.getName(), table, count, Duration.ofNanos(System.nanoTime() - start));
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Loaded {} rows into {} with {} in {}ms ({} rows/s)", count, table.getName(), loader.getName(),
+                result.getDuration().toMillis(), Math.round(result.getRowsPerSecond()));
+        }
+        return result;
+    }
+
+    /**
+     * Maps the rows to a reused array of values.
+     *
+     * @param <T> The type of the rows
+     */
+    private static final class MappingIterator<T> implements Iterator<Object[]> {
+
+        private final Iterator<T> rows;
+        private final BulkRowMapper<T> mapper;
+        private final Object[] values;
+
+        private MappingIterator(Iterator<T> rows, BulkRowMapper<T> mapper, int columns) {
+            this.rows = rows;
+            this.mapper = mapper;
+            this.values = new Object[columns];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            T row = rows.next();
+            Arrays.fill(values, null);
+            mapper.map(row, values);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+/**
+ * Maps a row loaded by {@link BulkLoaders} to the values of the columns of its {@link BulkTable}.
+ *
+ * @param <T> The type of the rows
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface BulkRowMapper<T> {
+
+    /**
+     * Sets the values of a row. The array is reused for every row, with all its values reset to {@code null}.
+     *
+     * @param row    The row
+     * @param values The values, in the order of the columns of the table
+     */
+    void map(T row, Object[] values);
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * The table rows are loaded into and its columns, in the order of the values of each row. The names are used in
+ * the SQL as they are, so they must be quoted by the caller when the database requires it.
+ *
+ * @since 6.0.0
+ */
+public final class BulkTable {
+
+    private final String name;
+    private final List<String> columns;
+
+    private BulkTable(String name, List<String> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("Table [" + name + "] must have at least one column");
+        }
+        this.name = name;
+        this.columns = columns;
+    }
+
+    /**
+     * @param name    The name of the table
+     * @param columns The columns
+     * @return The table
+     */
+    @NonNull
+    public static BulkTable of(@NonNull String name, @NonNull String... columns) {
+        return new BulkTable(name, List.of(columns));
+    }
+
+    /**
+     * @param name    The name of the table
+     * @param columns The columns
+     * @return The table
+     */
+    @NonNull
+    public static BulkTable of(@NonNull String name, @NonNull List<String> columns) {
+        return new BulkTable(name, List.copyOf(columns));
+    }
+
+    /**
+     * @return The name of the table
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The columns
+     */
+    @NonNull
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The columns separated by commas
+     */
+    @NonNull
+    public String getColumnList() {
+        return String.join(", ", columns);
+    }
+
+    /**
+     * @param index The index of the row, from {@code 0}
+     * @param row   The values of the row
+     * @return The values of the row
+     * @throws IllegalArgumentException If the row does not have one value per column
+     */
+    Object[] checkRow(long index, Object[] row) {
+        if (row.length != columns.size()) {
+            throw new IllegalArgumentException("Row " + index + " has " + row.length + " values but table [" + name
+                + "] has " + columns.size() + " columns");
+        }
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + getColumnList() + ")";
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.JdbcDatabaseManager;
+import jakarta.inject.Singleton;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Iterator;
+
+/**
+ * Loads rows into any database with multi-row {@code INSERT ... VALUES (...), (...)} statements, holding at most
+ * one statement worth of rows in memory. It is used for the databases without a faster path, such as H2.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class MultiRowInsertBulkLoader implements BulkLoader {
+
+    /**
+     * The maximum number of rows of a statement.
+     */
+    static final int MAX_ROWS = 1000;
+
+    /**
+     * The maximum number of parameters of a statement, below the limits of the common databases.
+     */
+    static final int MAX_PARAMETERS = 2000;
+
+    @Override
+    public String getName() {
+        return "multi-row-insert";
+    }
+
+    @Override
+    public boolean supports(JdbcDatabaseManager.JdbcDatabase database) {
+        return true;
+    }
+
+    @Override
+    public long load(Connection connection, BulkTable table, Iterator<Object[]> rows) throws SQLException {
+        int columns = table.getColumns().size();
+        int rowsPerStatement = Math.max(1, Math.min(MAX_ROWS, MAX_PARAMETERS / columns));
+        Object[][] chunk = new Object[rowsPerStatement][];
+        int size = 0;
+        long count = 0;
+        long index = 0;
+        PreparedStatement full = null;
+        try {
+            while (rows.hasNext()) {
+                chunk[size++] = table.checkRow(index++, rows.next()).clone();
+                if (size == rowsPerStatement) {
+                    if (full == null) {
+                        full = connection.prepareStatement(sql(table, rowsPerStatement));
+                    }
+                    count += execute(full, chunk, size);
+                    size = 0;
+                }
+            }
+        } finally {
+            if (full != null) {
+                full.close();
+            }
+        }
+        if (size > 0) {
+            try (PreparedStatement remainder = connection.prepareStatement(sql(table, size))) {
+                count += execute(remainder, chunk, size);
+            }
+        }
+        return count;
+    }
+
+    private static long execute(PreparedStatement statement, Object[][] chunk, int size) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < size; i++) {
+            for (Object value : chunk[i]) {
+                if (value == null) {
+                    statement.setNull(index++, Types.NULL);
+                } else {
+                    statement.setObject(index++, value);
+                }
+            }
+            chunk[i] = null;
+        }
+        statement.executeUpdate();
+        return size;
+    }
+
+    private static String sql(BulkTable table, int rows) {
+        String row = "(?" + ", ?".repeat(table.getColumns().size() - 1) + ")";
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.getName())
+            .append(" (").append(table.getColumnList()).append(") VALUES ").append(row);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(row);
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+}
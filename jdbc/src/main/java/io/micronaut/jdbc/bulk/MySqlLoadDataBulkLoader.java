@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcStatement;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.JdbcDatabaseManager;
+import jakarta.inject.Singleton;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+
+/**
+ * Loads rows into MySQL with {@code LOAD DATA LOCAL INFILE}, streaming the rows in text format as the local file of
+ * the statement. The connections must have {@code allowLoadLocalInfile} enabled, and the server
+ * {@code local_infile}: the rows are loaded with multi-row inserts on the connections without
+ * {@code allowLoadLocalInfile}.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+@Requires(classes = JdbcStatement.class)
+final class MySqlLoadDataBulkLoader implements BulkLoader {
+
+    @Override
+    public String getName() {
+        return "mysql-load-data";
+    }
+
+    @Override
+    public boolean supports(JdbcDatabaseManager.JdbcDatabase database) {
+        return database != null && "com.mysql.cj.jdbc.Driver".equals(database.getDriverClassName());
+    }
+
+    @Override
+    public boolean supports(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(JdbcConnection.class)) {
+            return false;
+        }
+        Boolean allowed = connection.unwrap(JdbcConnection.class).getPropertySet()
+            .getBooleanProperty(PropertyKey.allowLoadLocalInfile).getValue();
+        return Boolean.TRUE.equals(allowed);
+    }
+
+    @Override
+    public long load(Connection connection, BulkTable table, Iterator<Object[]> rows) throws SQLException {
+        TextRowInputStream input = new TextRowInputStream(rows, false);
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(input);
+            return statement.executeLargeUpdate("LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + table.getName()
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+                + " (" + table.getColumnList() + ")");
+        }
+    }
+}
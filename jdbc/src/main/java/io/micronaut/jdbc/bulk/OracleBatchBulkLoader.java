@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.JdbcDatabaseManager;
+import jakarta.inject.Singleton;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Iterator;
+
+/**
+ * Loads rows into Oracle with array binding: the Oracle driver sends a batch of executions of a single-row insert
+ * as one array of values per parameter, in a single round trip, so the rows are bound in large batches.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class OracleBatchBulkLoader implements BulkLoader {
+
+    /**
+     * The number of rows of each array.
+     */
+    static final int BATCH_SIZE = 5000;
+
+    @Override
+    public String getName() {
+        return "oracle-array-binding";
+    }
+
+    @Override
+    public boolean supports(JdbcDatabaseManager.JdbcDatabase database) {
+        return database != null && "oracle.jdbc.OracleDriver".equals(database.getDriverClassName());
+    }
+
+    @Override
+    public long load(Connection connection, BulkTable table, Iterator<Object[]> rows) throws SQLException {
+        String sql = "INSERT INTO " + table.getName() + " (" + table.getColumnList() + ") VALUES (?"
+            + ", ?".repeat(table.getColumns().size() - 1) + ")";
+        long count = 0;
+        int batched = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            while (rows.hasNext()) {
+                Object[] values = table.checkRow(count, rows.next());
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == null) {
+                        // the driver does not accept a null of an unknown type
+                        statement.setNull(i + 1, Types.VARCHAR);
+                    } else {
+                        statement.setObject(i + 1, values[i]);
+                    }
+                }
+                statement.addBatch();
+                count++;
+                if (++batched == BATCH_SIZE) {
+                    statement.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                statement.executeBatch();
+            }
+        }
+        return count;
+    }
+}
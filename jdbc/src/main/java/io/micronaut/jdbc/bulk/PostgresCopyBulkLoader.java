@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.JdbcDatabaseManager;
+import jakarta.inject.Singleton;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+/**
+ * Loads rows into PostgreSQL with {@code COPY ... FROM STDIN}, streaming the rows in text format through the
+ * {@link CopyManager} of the driver.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+@Requires(classes = CopyManager.class)
+final class PostgresCopyBulkLoader implements BulkLoader {
+
+    @Override
+    public String getName() {
+        return "postgres-copy";
+    }
+
+    @Override
+    public boolean supports(JdbcDatabaseManager.JdbcDatabase database) {
+        return database != null && "org.postgresql.Driver".equals(database.getDriverClassName());
+    }
+
+    @Override
+    public long load(Connection connection, BulkTable table, Iterator<Object[]> rows) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        TextRowInputStream input = new TextRowInputStream(rows, true);
+        try {
+            return copyManager.copyIn("COPY " + table.getName() + " (" + table.getColumnList() + ") FROM STDIN", input);
+        } catch (IOException e) {
+            throw new SQLException("Error copying rows into " + table.getName() + ": " + e.getMessage(), e);
+        }
+    }
+}
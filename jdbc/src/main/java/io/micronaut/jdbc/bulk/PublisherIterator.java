@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the items of a {@link Publisher} as an {@link Iterator}, requesting at most {@code prefetch} items ahead of
+ * the reader so that a fast publisher is held back by the database.
+ *
+ * @param <T> The type of the items
+ * @since 6.0.0
+ */
+final class PublisherIterator<T> implements Iterator<T>, Subscriber<T>, AutoCloseable {
+
+    private static final Object COMPLETE = new Object();
+
+    private final int prefetch;
+    private final int replenish;
+    private final BlockingQueue<Object> queue;
+    private volatile Subscription subscription;
+    private int consumed;
+    private Object next;
+
+    /**
+     * @param publisher The publisher
+     * @param prefetch  The number of items requested ahead of the reader
+     */
+    PublisherIterator(Publisher<T> publisher, int prefetch) {
+        this.prefetch = prefetch;
+        this.replenish = Math.max(1, prefetch / 2);
+        // the completion or the error is queued after at most prefetch items
+        this.queue = new ArrayBlockingQueue<>(prefetch + 1);
+        publisher.subscribe(this);
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        subscription = s;
+        s.request(prefetch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (!queue.offer(item)) {
+            subscription.cancel();
+            queue.clear();
+            queue.offer(new Failure(new IllegalStateException("The publisher sent more items than requested")));
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        queue.offer(new Failure(t));
+    }
+
+    @Override
+    public void onComplete() {
+        queue.offer(COMPLETE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while reading the publisher", e);
+            }
+            if (next instanceof Failure failure) {
+                // keep failing on the following calls
+                next = null;
+                queue.offer(failure);
+                throw failure;
+            }
+        }
+        return next != COMPLETE;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = (T) next;
+        next = null;
+        if (++consumed == replenish) {
+            consumed = 0;
+            subscription.request(replenish);
+        }
+        return item;
+    }
+
+    /**
+     * Cancels the subscription.
+     */
+    @Override
+    public void close() {
+        Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    /**
+     * The error of the publisher.
+     */
+    static final class Failure extends RuntimeException {
+
+        Failure(Throwable cause) {
+            super("Error reading the publisher: " + cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Encodes rows, as they are read, in the tab separated text format shared by the PostgreSQL {@code COPY} and the
+ * MySQL {@code LOAD DATA} commands: the values are separated by tabs and the rows by new lines, {@code \N} is
+ * {@code null}, and backslashes, tabs, new lines and carriage returns are escaped with a backslash. Only one encoded
+ * row is held in memory.
+ *
+ * @since 6.0.0
+ */
+final class TextRowInputStream extends InputStream {
+
+    private static final byte[] NULL = {'\\', 'N'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final Iterator<Object[]> rows;
+    private final boolean postgres;
+    private byte[] buffer = new byte[1024];
+    private int position;
+    private int limit;
+    private long count;
+
+    /**
+     * @param rows     The rows
+     * @param postgres Whether the rows are encoded for PostgreSQL, otherwise for MySQL
+     */
+    TextRowInputStream(Iterator<Object[]> rows, boolean postgres) {
+        this.rows = rows;
+        this.postgres = postgres;
+    }
+
+    /**
+     * @return The number of rows encoded
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < len && (position < limit || fill())) {
+            int n = Math.min(len - read, limit - position);
+            System.arraycopy(buffer, position, b, off + read, n);
+            position += n;
+            read += n;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    private boolean fill() {
+        if (!rows.hasNext()) {
+            return false;
+        }
+        position = 0;
+        limit = 0;
+        Object[] values = rows.next();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                append((byte) '\t');
+            }
+            encode(values[i]);
+        }
+        append((byte) '\n');
+        count++;
+        return true;
+    }
+
+    private void encode(Object value) {
+        if (value == null) {
+            append(NULL, 0, NULL.length);
+        } else if (value instanceof Boolean bool) {
+            append((byte) (postgres ? (bool ? 't' : 'f') : (bool ? '1' : '0')));
+        } else if (value instanceof byte[] bytes) {
+            if (postgres) {
+                // bytea in hex format, whose leading backslash is escaped
+                append((byte) '\\');
+                append((byte) '\\');
+                append((byte) 'x');
+                for (byte b : bytes) {
+                    append(HEX[(b >> 4) & 0xf]);
+                    append(HEX[b & 0xf]);
+                }
+            } else {
+                appendEscaped(bytes);
+            }
+        } else if (value instanceof BigDecimal decimal) {
+            appendEscaped(decimal.toPlainString().getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof Enum<?> constant) {
+            appendEscaped(constant.name().getBytes(StandardCharsets.UTF_8));
+        } else {
+            appendEscaped(value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void appendEscaped(byte[] bytes) {
+        // the bytes of a multibyte UTF-8 character are never ASCII, so the text can be escaped byte by byte
+        for (byte b : bytes) {
+            switch (b) {
+                case '\\' -> {
+                    append((byte) '\\');
+                    append((byte) '\\');
+                }
+                case '\t' -> {
+                    append((byte) '\\');
+                    append((byte) 't');
+                }
+                case '\n' -> {
+                    append((byte) '\\');
+                    append((byte) 'n');
+                }
+                case '\r' -> {
+                    append((byte) '\\');
+                    append((byte) 'r');
+                }
+                case 0 -> {
+                    append((byte) '\\');
+                    append((byte) '0');
+                }
+                default -> append(b);
+            }
+        }
+    }
+
+    private void append(byte b) {
+        if (limit == buffer.length) {
+            grow(1);
+        }
+        buffer[limit++] = b;
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        if (limit + length > buffer.length) {
+            grow(length);
+        }
+        System.arraycopy(bytes, offset, buffer, limit, length);
+        limit += length;
+    }
+
+    private void grow(int extra) {
+        byte[] grown = new byte[Math.max(buffer.length * 2, limit + extra)];
+        System.arraycopy(buffer, 0, grown, 0, limit);
+        buffer = grown;
+    }
+}
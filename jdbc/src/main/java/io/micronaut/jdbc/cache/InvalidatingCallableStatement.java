@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import io.micronaut.jdbc.CallableStatementWrapper;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * A {@link CallableStatement} whose executions drop the cached results of the tables that it may change, all of
+ * them for a procedure call.
+ *
+ * @since 6.0.0
+ */
+final class InvalidatingCallableStatement extends CallableStatementWrapper {
+
+    private final ResultCachingConnection connection;
+    private final Set<String> tables;
+
+    InvalidatingCallableStatement(ResultCachingConnection connection, CallableStatement statement, Set<String> tables) {
+        super(statement);
+        this.connection = connection;
+        this.tables = tables;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return connection.execute(tables, super::executeQuery);
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return connection.execute(tables, super::executeUpdate);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return connection.execute(tables, super::executeLargeUpdate);
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return connection.execute(tables, super::execute);
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return connection.execute(tables, super::executeBatch);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return connection.execute(tables, super::executeLargeBatch);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import io.micronaut.jdbc.StatementWrapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link Statement} whose executions drop the cached results of the tables that their SQL may change. A batch
+ * drops the results of the tables of all its statements.
+ *
+ * @since 6.0.0
+ */
+final class InvalidatingStatement extends StatementWrapper {
+
+    private final ResultCachingConnection connection;
+    private Set<String> batchTables = new HashSet<>();
+
+    InvalidatingStatement(ResultCachingConnection connection, Statement statement) {
+        super(statement);
+        this.connection = connection;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeUpdate(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeLargeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeLargeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.executeLargeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.execute(sql));
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return connection.execute(connection.written(sql), () -> super.execute(sql, columnNames));
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        super.addBatch(sql);
+        Set<String> tables = connection.written(sql);
+        if (tables == SqlTables.ALL || batchTables == SqlTables.ALL) {
+            batchTables = SqlTables.ALL;
+        } else {
+            batchTables.addAll(tables);
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        super.clearBatch();
+        batchTables = new HashSet<>();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        Set<String> tables = batchTables;
+        batchTables = new HashSet<>();
+        return connection.execute(tables, super::executeBatch);
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        Set<String> tables = batchTables;
+        batchTables = new HashSet<>();
+        return connection.execute(tables, super::executeLargeBatch);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+}
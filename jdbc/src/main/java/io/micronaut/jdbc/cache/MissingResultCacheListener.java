@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Fails the creation of the data sources that have {@code datasources.<name>.result-cache.enabled} set when Caffeine
+ * is not on the classpath, rather than leaving their results uncached without notice.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+@Requires(missingClasses = "com.github.benmanes.caffeine.cache.Caffeine")
+final class MissingResultCacheListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    MissingResultCacheListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        String name = event.getBeanIdentifier().getName();
+        if (propertyResolver.getProperty("datasources." + name + ".result-cache.enabled", Boolean.class, false)) {
+            throw new ConfigurationException("The result cache of the data source [" + name + "] is enabled, but Caffeine is not on the classpath, add io.micronaut.cache:micronaut-cache-caffeine");
+        }
+        return event.getBean();
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.RESULT_CACHE;
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.profiling.SqlFingerprint;
+import io.micronaut.jdbc.singleflight.MaterializedResult;
+import io.micronaut.jdbc.singleflight.QueryKey;
+import io.micronaut.jdbc.singleflight.SharedQueries;
+import io.micronaut.jdbc.singleflight.SingleFlight;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The rows of the read queries of a data source, kept in memory by SQL and bind values, and bounded by their
+ * estimated size in bytes. A result is dropped when it expires, and as soon as a statement executed through the
+ * data source changes one of the tables that its query reads, or when the transaction of the statement commits.
+ *
+ * <p>Only the queries that look like plain reads, as described by {@link SingleFlight}, are cached, and the
+ * statements can be left out, or given their own expiry, by the {@link SqlFingerprint fingerprint} of their SQL.
+ * The writes of other processes, or of statements that do not go through the data source, are only seen when the
+ * results expire.</p>
+ *
+ * @since 6.0.0
+ */
+public final class QueryResultCache {
+
+    /**
+     * The default maximum estimated size of the results, 32 MiB.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 32L * 1024 * 1024;
+
+    /**
+     * The default time after which a result expires.
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private static final int MAX_PARSED_STATEMENTS = 1000;
+
+    private final String name;
+    private final Duration expireAfterWrite;
+    private final boolean allStatements;
+    private final Map<String, Duration> statementExpiries;
+    private final Set<String> excludedStatements;
+    private final Cache<QueryKey, CachedResult> cache;
+    private final Map<String, Set<QueryKey>> keysByTable = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Policy> statements = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> writes = new ConcurrentHashMap<>();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param name               The name of the data source
+     * @param maximumWeight      The maximum estimated size of the results in bytes
+     * @param expireAfterWrite   The time after which a result expires
+     * @param allStatements      Whether the queries whose fingerprint has no expiry of its own are cached
+     * @param statementExpiries  The expiries of the results, by fingerprint or SQL of their statement
+     * @param excludedStatements The fingerprints or SQL of the statements whose results are not cached
+     */
+    public QueryResultCache(@NonNull String name,
+                            long maximumWeight,
+                            @NonNull Duration expireAfterWrite,
+                            boolean allStatements,
+                            @NonNull Map<String, Duration> statementExpiries,
+                            @NonNull Set<String> excludedStatements) {
+        this.name = name;
+        this.expireAfterWrite = expireAfterWrite;
+        this.allStatements = allStatements;
+        this.statementExpiries = new HashMap<>();
+        statementExpiries.forEach((statement, expiry) -> this.statementExpiries.put(SqlFingerprint.of(statement), expiry));
+        this.excludedStatements = new HashSet<>();
+        excludedStatements.forEach(statement -> this.excludedStatements.add(SqlFingerprint.of(statement)));
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((QueryKey key, CachedResult result) -> result.weight)
+            .expireAfter(new Expiry<QueryKey, CachedResult>() {
+                @Override
+                public long expireAfterCreate(QueryKey key, CachedResult result, long currentTime) {
+                    return result.policy.expiryNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(QueryKey key, CachedResult result, long currentTime, long currentDuration) {
+                    return result.policy.expiryNanos;
+                }
+
+                @Override
+                public long expireAfterRead(QueryKey key, CachedResult result, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            // runs within the eviction, so that the index never loses the key of a result that is cached again
+            .evictionListener((QueryKey key, CachedResult result, RemovalCause cause) -> {
+                if (key != null && result != null) {
+                    unindex(key, result);
+                }
+            })
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * @return The name of the data source
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of queries answered from the cache
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * @return The number of cacheable queries executed by the database
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * @return The number of results dropped because they expired or the cache was full
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @return The number of results dropped because a statement changed one of their tables
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return The approximate number of cached results
+     */
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * @return The estimated size of the cached results in bytes
+     */
+    public long getWeight() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Drops the results of the queries that read a table.
+     *
+     * @param table The name of the table, without schema and ignoring case
+     */
+    public void invalidate(@NonNull String table) {
+        String key = table.toLowerCase(Locale.ROOT);
+        versions.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        Set<QueryKey> keys = keysByTable.remove(key);
+        if (keys != null) {
+            keys.forEach(this::remove);
+        }
+    }
+
+    /**
+     * Drops all the results.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.asMap().keySet().forEach(this::remove);
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return Whether the results of the statement are cached
+     */
+    boolean isCacheable(String sql) {
+        return policy(sql) != Policy.NONE;
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return The tables that the statement may change, or {@link SqlTables#ALL}
+     */
+    Set<String> written(String sql) {
+        Set<String> tables = writes.get(sql);
+        if (tables == null) {
+            if (writes.size() >= MAX_PARSED_STATEMENTS) {
+                writes.clear();
+            }
+            tables = SqlTables.written(sql);
+            writes.put(sql, tables);
+        }
+        return tables;
+    }
+
+    /**
+     * Drops the results of the queries that read the tables written by a statement.
+     *
+     * @param tables The tables, or {@link SqlTables#ALL}
+     */
+    void invalidate(Collection<String> tables) {
+        if (tables == SqlTables.ALL) {
+            invalidateAll();
+        } else {
+            tables.forEach(this::invalidate);
+        }
+    }
+
+    /**
+     * Returns the cached rows of a query, or executes it and caches its rows unless one of its tables is changed
+     * while it runs.
+     *
+     * @param key            The key of the query
+     * @param query          The execution of the query
+     * @param timeoutSeconds Not used, the query is executed by each caller that misses the cache
+     * @return The rows of the query
+     * @throws SQLException If the query fails
+     */
+    MaterializedResult execute(QueryKey key, SharedQueries.Query query, int timeoutSeconds) throws SQLException {
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.result;
+        }
+        Policy policy = policy(key.getSql());
+        long before = version(policy.tables);
+        MaterializedResult result;
+        try (ResultSet resultSet = query.execute()) {
+            result = MaterializedResult.of(resultSet);
+        }
+        if (version(policy.tables) == before) {
+            CachedResult entry = new CachedResult(result, policy, key);
+            cache.asMap().compute(key, (k, previous) -> {
+                if (previous != null) {
+                    unindex(k, previous);
+                }
+                index(k, entry);
+                return entry;
+            });
+            // a table changed after the check drops the result, either here or from the index
+            if (version(policy.tables) != before) {
+                cache.asMap().computeIfPresent(key, (k, current) -> {
+                    if (current != entry) {
+                        return current;
+                    }
+                    unindex(k, current);
+                    return null;
+                });
+            }
+        }
+        return result;
+    }
+
+    private Policy policy(String sql) {
+        Policy policy = statements.get(sql);
+        if (policy == null) {
+            if (statements.size() >= MAX_PARSED_STATEMENTS) {
+                statements.clear();
+            }
+            policy = Policy.NONE;
+            if (SingleFlight.isRead(sql)) {
+                String fingerprint = SqlFingerprint.of(sql);
+                Duration expiry = statementExpiries.get(fingerprint);
+                if (expiry == null && allStatements && !excludedStatements.contains(fingerprint)) {
+                    expiry = expireAfterWrite;
+                }
+                Set<String> tables = SqlTables.read(sql);
+                if (expiry != null && !expiry.isZero() && !expiry.isNegative() && !tables.isEmpty()) {
+                    policy = new Policy(tables, expiry.toNanos());
+                }
+            }
+            statements.put(sql, policy);
+        }
+        return policy;
+    }
+
+    private long version(Set<String> tables) {
+        long sum = version.get();
+        for (String table : tables) {
+            AtomicLong tableVersion = versions.get(table);
+            if (tableVersion != null) {
+                sum += tableVersion.get();
+            }
+        }
+        return sum;
+    }
+
+    private void remove(QueryKey key) {
+        cache.asMap().computeIfPresent(key, (k, result) -> {
+            unindex(k, result);
+            invalidations.increment();
+            return null;
+        });
+    }
+
+    private void index(QueryKey key, CachedResult result) {
+        for (String table : result.policy.tables) {
+            keysByTable.compute(table, (t, keys) -> {
+                Set<QueryKey> tableKeys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                tableKeys.add(key);
+                return tableKeys;
+            });
+        }
+    }
+
+    private void unindex(QueryKey key, CachedResult result) {
+        for (String table : result.policy.tables) {
+            keysByTable.computeIfPresent(table, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * How the results of a statement are cached.
+     */
+    private static final class Policy {
+
+        static final Policy NONE = new Policy(Set.of(), 0);
+
+        final Set<String> tables;
+        final long expiryNanos;
+
+        Policy(Set<String> tables, long expiryNanos) {
+            this.tables = tables;
+            this.expiryNanos = expiryNanos;
+        }
+    }
+
+    /**
+     * A cached result, with its estimated size.
+     */
+    private static final class CachedResult {
+
+        final MaterializedResult result;
+        final Policy policy;
+        final int weight;
+
+        CachedResult(MaterializedResult result, Policy policy, QueryKey key) {
+            this.result = result;
+            this.policy = policy;
+            this.weight = (int) Math.min(Integer.MAX_VALUE, result.estimateSize() + 64 + 2L * key.getSql().length());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.ConnectionWrapper;
+import io.micronaut.jdbc.singleflight.ConnectionScope;
+import io.micronaut.jdbc.singleflight.SharedQueryStatement;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A connection whose cacheable queries, prepared with {@link Connection#prepareStatement(String)} or a
+ * forward-only, read-only result, are answered from the results cached for the same catalog, schema and user, and
+ * whose statements that change tables drop the
+ * results of these tables. The tables changed in a transaction are dropped again when it commits, since the
+ * other connections may have cached their previous rows in the meantime.
+ *
+ * @since 6.0.0
+ */
+final class ResultCachingConnection extends ConnectionWrapper {
+
+    private final QueryResultCache resultCache;
+    private final ConnectionScope scope;
+    private final Set<String> uncommitted = new HashSet<>();
+    private boolean uncommittedAll;
+
+    ResultCachingConnection(Connection connection, QueryResultCache resultCache, @Nullable String user) {
+        super(connection);
+        this.resultCache = resultCache;
+        this.scope = new ConnectionScope(connection, user);
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return new InvalidatingStatement(this, super.createStatement());
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new InvalidatingStatement(this, super.createStatement(resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return new InvalidatingStatement(this, super.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement statement = super.prepareStatement(sql);
+        if (resultCache.isCacheable(sql)) {
+            return new SharedQueryStatement(statement, this, scope, resultCache::execute, sql);
+        }
+        return prepared(statement, sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        if (resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY) {
+            return prepareStatement(sql);
+        }
+        return prepared(super.prepareStatement(sql, resultSetType, resultSetConcurrency), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return prepared(super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return prepared(super.prepareStatement(sql, autoGeneratedKeys), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return prepared(super.prepareStatement(sql, columnIndexes), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return prepared(super.prepareStatement(sql, columnNames), sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return call(super.prepareCall(sql), sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return call(super.prepareCall(sql, resultSetType, resultSetConcurrency), sql);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return call(super.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql);
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        super.setCatalog(catalog);
+        scope.changed();
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        super.setSchema(schema);
+        scope.changed();
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        boolean commits = autoCommit && !super.getAutoCommit();
+        super.setAutoCommit(autoCommit);
+        if (commits) {
+            committed();
+        }
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        super.commit();
+        committed();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        super.rollback();
+        uncommitted.clear();
+        uncommittedAll = false;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // the pool may commit the transaction
+        committed();
+        super.close();
+    }
+
+    /**
+     * Executes a statement, then drops the results of the tables that it may have changed.
+     *
+     * @param tables    The tables that the statement may change, or {@link SqlTables#ALL}
+     * @param execution The execution of the statement
+     * @param <T>       The type of the result of the execution
+     * @return The result of the execution
+     * @throws SQLException If the execution fails
+     */
+    <T> T execute(Set<String> tables, Execution<T> execution) throws SQLException {
+        try {
+            return execution.execute();
+        } finally {
+            written(tables);
+        }
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return The tables that the statement may change, or {@link SqlTables#ALL}
+     */
+    Set<String> written(String sql) {
+        return resultCache.written(sql);
+    }
+
+    private void written(Set<String> tables) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        resultCache.invalidate(tables);
+        boolean autoCommit;
+        try {
+            autoCommit = super.getAutoCommit();
+        } catch (SQLException e) {
+            autoCommit = false;
+        }
+        if (!autoCommit) {
+            if (tables == SqlTables.ALL) {
+                uncommittedAll = true;
+            } else {
+                uncommitted.addAll(tables);
+            }
+        }
+    }
+
+    private void committed() {
+        if (uncommittedAll) {
+            resultCache.invalidateAll();
+        } else {
+            uncommitted.forEach(resultCache::invalidate);
+        }
+        uncommitted.clear();
+        uncommittedAll = false;
+    }
+
+    private PreparedStatement prepared(PreparedStatement statement, String sql) {
+        Set<String> tables = resultCache.written(sql);
+        return tables.isEmpty() ? statement : new InvalidatingPreparedStatement(this, statement, tables);
+    }
+
+    private CallableStatement call(CallableStatement statement, String sql) {
+        Set<String> tables = resultCache.written(sql);
+        return tables.isEmpty() ? statement : new InvalidatingCallableStatement(this, statement, tables);
+    }
+
+    /**
+     * The execution of a statement.
+     *
+     * @param <T> The type of the result of the execution
+     */
+    @FunctionalInterface
+    interface Execution<T> {
+
+        /**
+         * @return The result of the execution
+         * @throws SQLException If the execution fails
+         */
+        T execute() throws SQLException;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} whose read queries are answered from a {@link QueryResultCache} while none of their tables
+ * is changed by a statement executed through the data source. Each caller reads the cached rows through its own
+ * read-only {@link java.sql.ResultSet}.
+ *
+ * <p>Only the prepared statements executed in auto-commit mode, whose bind values are simple values, are answered
+ * from the cache, as with the {@link io.micronaut.jdbc.singleflight.SingleFlightDataSource single-flight} execution.
+ * The statements that change tables, including those executed in a transaction, drop the results of these tables
+ * when they are executed and again when their transaction commits.</p>
+ *
+ * @since 6.0.0
+ */
+public final class ResultCachingDataSource extends DataSourceWrapper {
+
+    private final QueryResultCache resultCache;
+
+    /**
+     * @param targetDataSource The data source whose results are cached
+     * @param resultCache      The result cache of the data source
+     */
+    public ResultCachingDataSource(@NonNull DataSource targetDataSource, @NonNull QueryResultCache resultCache) {
+        super(targetDataSource);
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * @return The result cache of the data source
+     */
+    @NonNull
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Finds the result cache of a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The result cache or {@code null} if the data source does not cache its results
+     */
+    @Nullable
+    public static QueryResultCache findResultCache(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof ResultCachingDataSource resultCachingDataSource) {
+                return resultCachingDataSource.resultCache;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new ResultCachingConnection(super.getConnection(), resultCache, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new ResultCachingConnection(super.getConnection(username, password), resultCache, username);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.result-cache.enabled} set in a
+ * {@link ResultCachingDataSource}, limited by {@code maximum-weight} and {@code expire-after-write}. The statements
+ * listed under {@code statements.<id>} by their {@code fingerprint} are left out when they are not
+ * {@code enabled}, or get their own {@code expire-after-write}, and only these statements are cached when
+ * {@code all-statements} is false. The listener runs after the single-flight execution, which coalesces the misses,
+ * and before the profiling, which sees each caller's execution.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+@Requires(classes = Caffeine.class)
+final class ResultCachingDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    ResultCachingDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String name = event.getBeanIdentifier().getName();
+        String prefix = "datasources." + name + ".result-cache.";
+        if (dataSource instanceof ResultCachingDataSource || !propertyResolver.getProperty(prefix + "enabled", Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "result cache")) {
+            return dataSource;
+        }
+        Duration expireAfterWrite = propertyResolver.getProperty(prefix + "expire-after-write", Duration.class, QueryResultCache.DEFAULT_EXPIRE_AFTER_WRITE);
+        Map<String, Duration> statementExpiries = new HashMap<>();
+        Set<String> excludedStatements = new HashSet<>();
+        for (String id : propertyResolver.getPropertyEntries(prefix + "statements")) {
+            String statementPrefix = prefix + "statements." + id + ".";
+            propertyResolver.getProperty(statementPrefix + "fingerprint", String.class).ifPresent(fingerprint -> {
+                if (propertyResolver.getProperty(statementPrefix + "enabled", Boolean.class, true)) {
+                    statementExpiries.put(fingerprint, propertyResolver.getProperty(statementPrefix + "expire-after-write", Duration.class, expireAfterWrite));
+                } else {
+                    excludedStatements.add(fingerprint);
+                }
+            });
+        }
+        QueryResultCache resultCache = new QueryResultCache(
+            name,
+            propertyResolver.getProperty(prefix + "maximum-weight", Long.class, QueryResultCache.DEFAULT_MAXIMUM_WEIGHT),
+            expireAfterWrite,
+            propertyResolver.getProperty(prefix + "all-statements", Boolean.class, true),
+            statementExpiries,
+            excludedStatements
+        );
+        return new ResultCachingDataSource(dataSource, resultCache);
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.RESULT_CACHE;
+    }
+}
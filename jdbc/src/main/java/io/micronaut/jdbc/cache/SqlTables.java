@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds the tables of a SQL statement: the names that follow {@code FROM}, {@code JOIN}, {@code INTO},
+ * {@code UPDATE}, {@code USING}, {@code TABLE} and {@code TRUNCATE}, and the comma-separated names of the same
+ * clause. The names are compared without their schema, quotes and case, so that the tables of two schemas with the
+ * same name are confused, which only invalidates more results than needed.
+ *
+ * @since 6.0.0
+ */
+final class SqlTables {
+
+    /**
+     * The tables written by a statement whose tables are not known, such as a procedure call or a DDL statement.
+     */
+    static final Set<String> ALL = Collections.singleton("*");
+
+    private static final Set<String> TABLE_KEYWORDS = Set.of("from", "join", "into", "update", "using", "table", "truncate");
+    private static final Set<String> SKIPPED_KEYWORDS = Set.of("only", "lateral", "ignore", "low_priority", "quick", "table");
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of(
+        "where", "join", "inner", "left", "right", "full", "cross", "natural", "straight_join", "on", "using", "group",
+        "order", "having", "limit", "offset", "fetch", "union", "except", "intersect", "minus", "for", "set", "values",
+        "select", "window", "returning", "output", "when", "default", "with", "partition", "start", "connect", "qualify"
+    );
+    private static final Set<String> WRITES = Set.of("insert", "update", "delete", "merge", "replace", "upsert", "truncate");
+    private static final Set<String> QUERIES = Set.of("select", "with", "values", "table", "explain");
+    private static final Set<String> UNCHANGED = Set.of(
+        "set", "show", "describe", "desc", "start", "commit", "end", "rollback", "savepoint", "release", "use", "reset",
+        "fetch", "close", "deallocate"
+    );
+    private static final Set<String> TRANSACTION_START = Set.of("begin", "transaction", "work", "tran", ";");
+    private static final String PUNCTUATION = "(),.;";
+
+    private SqlTables() {
+    }
+
+    /**
+     * @param sql A query
+     * @return The tables read by the query
+     */
+    static Set<String> read(String sql) {
+        return tables(tokenize(sql));
+    }
+
+    /**
+     * @param sql A statement
+     * @return The tables that the statement may change: none for a read or a statement that changes the session or
+     * the transaction, the tables of a data change, and {@link #ALL} for any other statement
+     */
+    static Set<String> written(String sql) {
+        List<String> tokens = tokenize(sql);
+        String first = null;
+        for (String token : tokens) {
+            if (!token.equals("(")) {
+                first = token;
+                break;
+            }
+        }
+        if (first == null || UNCHANGED.contains(first)) {
+            return Collections.emptySet();
+        }
+        if (first.equals("begin")) {
+            // the start of a transaction, or of a block of statements
+            return TRANSACTION_START.containsAll(tokens) ? Collections.emptySet() : ALL;
+        }
+        if (QUERIES.contains(first)) {
+            // a query may lock its rows or write in a common table expression
+            return tables(tokens);
+        }
+        if (WRITES.contains(first)) {
+            Set<String> tables = tables(tokens);
+            return tables.isEmpty() ? ALL : tables;
+        }
+        return ALL;
+    }
+
+    private static Set<String> tables(List<String> tokens) {
+        Set<String> tables = new LinkedHashSet<>();
+        int size = tokens.size();
+        for (int i = 0; i < size; i++) {
+            if (!TABLE_KEYWORDS.contains(tokens.get(i))) {
+                continue;
+            }
+            int j = i + 1;
+            while (j < size && SKIPPED_KEYWORDS.contains(tokens.get(j))) {
+                j++;
+            }
+            while (j < size) {
+                String table = null;
+                // a qualified name keeps its last part
+                while (j < size && isName(tokens.get(j))) {
+                    table = tokens.get(j);
+                    if (j + 2 < size && tokens.get(j + 1).equals(".")) {
+                        j += 2;
+                    } else {
+                        j++;
+                        break;
+                    }
+                }
+                if (table == null) {
+                    break;
+                }
+                tables.add(table);
+                // the alias, then the next table of a list
+                if (j < size && tokens.get(j).equals("as")) {
+                    j += 2;
+                } else if (j < size && isName(tokens.get(j))) {
+                    j++;
+                }
+                if (j < size && tokens.get(j).equals(",")) {
+                    j++;
+                } else {
+                    break;
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static boolean isName(String token) {
+        return !token.isEmpty() && PUNCTUATION.indexOf(token.charAt(0)) < 0 && token.charAt(0) != '\''
+            && token.charAt(0) != '?' && !CLAUSE_KEYWORDS.contains(token) && !TABLE_KEYWORDS.contains(token);
+    }
+
+    /**
+     * Splits SQL into lower case words, unquoted identifiers and punctuation. The literals are replaced by a single
+     * quote, and the comments and the other symbols are dropped.
+     */
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i, c);
+                tokens.add("'");
+            } else if (c == '"' || c == '`' || c == '[') {
+                char end = c == '[' ? ']' : c;
+                int next = skipQuoted(sql, i, end);
+                tokens.add(sql.substring(i + 1, Math.max(i + 1, next - 1)).toLowerCase(Locale.ROOT));
+                i = next;
+            } else if (c == '-' && sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@') {
+                int start = i;
+                while (i < length && isWordPart(sql.charAt(i))) {
+                    i++;
+                }
+                tokens.add(sql.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                if (PUNCTUATION.indexOf(c) >= 0 || c == '?') {
+                    tokens.add(String.valueOf(c));
+                }
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@';
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        int length = sql.length();
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+}
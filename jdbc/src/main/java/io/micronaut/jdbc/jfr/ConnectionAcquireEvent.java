@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a connection is borrowed from a data source. The duration is the time the caller waited for the
+ * connection.
+ *
+ * @since 6.0.0
+ */
+@Name(ConnectionAcquireEvent.NAME)
+@Label("Connection Acquire")
+@Description("A connection borrowed from a data source, the duration is the time waited for it")
+@Category({"Micronaut", "SQL"})
+@StackTrace(false)
+final class ConnectionAcquireEvent extends jdk.jfr.Event {
+
+    static final String NAME = "io.micronaut.jdbc.ConnectionAcquire";
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} that emits a JDK Flight Recorder event each time a connection is borrowed from the target
+ * data source, with the time waited for it. The event is only built when it is enabled in a running recording.
+ *
+ * @since 6.0.0
+ */
+public final class FlightRecorderDataSource extends DataSourceWrapper {
+
+    private final String name;
+
+    /**
+     * @param name             The name of the data source
+     * @param targetDataSource The target data source
+     */
+    public FlightRecorderDataSource(@NonNull String name, @NonNull DataSource targetDataSource) {
+        super(targetDataSource);
+        this.name = name;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        try {
+            return super.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            commit(event);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        try {
+            return super.getConnection(username, password);
+        } catch (SQLException | RuntimeException e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            commit(event);
+        }
+    }
+
+    private void commit(ConnectionAcquireEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.dataSource = name;
+            event.commit();
+        }
+    }
+}
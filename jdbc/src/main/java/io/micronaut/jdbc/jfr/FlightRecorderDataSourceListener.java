@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources in a {@link FlightRecorderDataSource} when {@code jdbc.jfr.enabled} is set. The listener
+ * runs after the other data source listeners, so the acquire events include the time spent in their wrappers.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+@Requires(property = FlightRecorderDataSourceListener.PREFIX + ".enabled", value = StringUtils.TRUE)
+final class FlightRecorderDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    static final String PREFIX = "jdbc.jfr";
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        if (dataSource instanceof FlightRecorderDataSource || !DataSourceBeans.isWrappable(event, "flight recorder")) {
+            return dataSource;
+        }
+        return new FlightRecorderDataSource(event.getBeanIdentifier().getName(), dataSource);
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.FLIGHT_RECORDER;
+    }
+}
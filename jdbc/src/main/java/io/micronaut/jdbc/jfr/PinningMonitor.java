@@ -0,0 +1,569 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.BeanRegistration;
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.naming.Named;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.BasicJdbcConfiguration;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the virtual threads that pin their carrier thread in the pool or the driver of a data source, so that
+ * the data sources that are safe to use from virtual threads can be told apart from those that are not.
+ *
+ * <p>The monitor streams the {@code jdk.VirtualThreadPinned} JFR events in process, which requires Java 21. Each
+ * pinning is attributed to the data source whose pool or driver classes are on the stack of the pinned thread,
+ * and to the top-most of these frames. When several data sources share the same pool and driver, the pinning is
+ * attributed by the {@link StatementEvent statement} or {@link ConnectionAcquireEvent connection acquire} event
+ * the pinned thread was executing at the time, and to {@link #UNATTRIBUTED} when there is none.</p>
+ *
+ * <p>Only the data sources that have been created are monitored, so that a lazy or unused data source is not
+ * created by the monitor. The data sources created after the startup are monitored from their creation.</p>
+ *
+ * @since 6.0.0
+ */
+@Context
+@Requires(beans = PinningMonitorConfiguration.class)
+public final class PinningMonitor implements ApplicationEventListener<StartupEvent>, BeanCreatedEventListener<DataSource>, AutoCloseable {
+
+    /**
+     * The data source of the pinnings that could not be attributed.
+     */
+    public static final String UNATTRIBUTED = "<unattributed>";
+
+    static final String OTHER_FRAMES = "<other>";
+
+    private static final Logger LOG = LoggerFactory.getLogger(PinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Map<String, List<String>> POOL_PACKAGES = Map.of(
+        "com.zaxxer.hikari.", List.of("com.zaxxer.hikari."),
+        "org.apache.tomcat.jdbc.", List.of("org.apache.tomcat.jdbc."),
+        "org.apache.commons.dbcp2.", List.of("org.apache.commons.dbcp2.", "org.apache.commons.pool2."),
+        "oracle.ucp.", List.of("oracle.ucp."),
+        "io.micronaut.configuration.jdbc.vt.", List.of("io.micronaut.configuration.jdbc.vt.")
+    );
+
+    private final BeanContext beanContext;
+    private final Duration threshold;
+    private final int maxFrames;
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Pending> pending = new ArrayList<>();
+    private volatile List<Target> targets = Collections.emptyList();
+    private volatile RecordingStream recordingStream;
+    private boolean correlating;
+
+    /**
+     * @param beanContext   The bean context
+     * @param configuration The configuration
+     */
+    PinningMonitor(BeanContext beanContext, PinningMonitorConfiguration configuration) {
+        this.beanContext = beanContext;
+        this.threshold = configuration.getThreshold();
+        this.maxFrames = configuration.getMaxFrames();
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        for (BeanRegistration<DataSource> registration : beanContext.getActiveBeanRegistrations(DataSource.class)) {
+            addTarget(registration.getBeanDefinition(), registration.bean());
+        }
+        synchronized (this) {
+            if (recordingStream == null) {
+                recordingStream = start();
+            }
+        }
+    }
+
+    @Override
+    public DataSource onCreated(@NonNull BeanCreatedEvent<DataSource> event) {
+        addTarget(event.getBeanDefinition(), event.getBean());
+        return event.getBean();
+    }
+
+    /**
+     * @return Whether the JFR events are streamed. They are not before Java 21.
+     */
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    /**
+     * @return The pinnings by data source name, including the {@link #UNATTRIBUTED} ones
+     */
+    @NonNull
+    public Map<String, Statistics> getStatistics() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(statistics));
+    }
+
+    /**
+     * @param dataSource The name of the data source
+     * @return The pinnings of the data source, or {@code null} if none was recorded
+     */
+    @Nullable
+    public Statistics findStatistics(@NonNull String dataSource) {
+        return statistics.get(dataSource);
+    }
+
+    /**
+     * @param listener A listener notified of each recorded pinning
+     */
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    /**
+     * @param targets The data sources to attribute the pinnings to
+     */
+    void setTargets(List<Target> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * @return The data sources the pinnings are attributed to
+     */
+    List<Target> getTargets() {
+        return targets;
+    }
+
+    /**
+     * Records a pinning if the pinned thread was in the pool or the driver of a data source. A pinning that matches
+     * several data sources is kept until the event of the data source the thread was using is {@link #correlate seen}.
+     *
+     * @param threadId The id of the pinned thread
+     * @param start    The time the thread was pinned at
+     * @param frames   The stack of the pinned thread, top frame first
+     * @param duration The time the thread was pinned
+     * @return Whether the pinning involves a data source
+     */
+    synchronized boolean record(long threadId, Instant start, List<StackTraceElement> frames, Duration duration) {
+        List<Target> candidates = new ArrayList<>();
+        int best = 0;
+        for (Target target : targets) {
+            int score = target.score(frames);
+            if (score > best) {
+                best = score;
+                candidates.clear();
+            }
+            if (score > 0 && score == best) {
+                candidates.add(target);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return false;
+        }
+        String frame = OTHER_FRAMES;
+        Location location = Location.POOL;
+        for (StackTraceElement element : frames) {
+            Location found = locate(candidates, element.getClassName());
+            if (found != null) {
+                frame = element.getClassName() + "." + element.getMethodName() + (element.getLineNumber() > 0 ? ":" + element.getLineNumber() : "");
+                location = found;
+                break;
+            }
+        }
+        if (candidates.size() == 1) {
+            pinned(candidates.get(0).name, frame, location, duration);
+        } else {
+            List<String> names = new ArrayList<>(candidates.size());
+            for (Target candidate : candidates) {
+                names.add(candidate.name);
+            }
+            pending.add(new Pending(threadId, start, names, frame, location, duration));
+        }
+        return true;
+    }
+
+    /**
+     * Attributes the pending pinnings of a thread that happened while it was using a data source.
+     *
+     * @param threadId   The id of the thread
+     * @param start      The start of the data source event
+     * @param end        The end of the data source event
+     * @param dataSource The name of the data source
+     */
+    synchronized void correlate(long threadId, Instant start, Instant end, String dataSource) {
+        Iterator<Pending> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Pending pinning = iterator.next();
+            if (pinning.threadId == threadId && pinning.candidates.contains(dataSource)
+                && !pinning.start.isBefore(start) && !pinning.start.isAfter(end)) {
+                iterator.remove();
+                pinned(dataSource, pinning.frame, pinning.location, pinning.duration);
+            }
+        }
+    }
+
+    /**
+     * Called after each flush of the events. The pinnings that are still pending after a second flush are
+     * recorded as {@link #UNATTRIBUTED}.
+     */
+    synchronized void flush() {
+        Iterator<Pending> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Pending pinning = iterator.next();
+            if (pinning.flushes++ > 0) {
+                iterator.remove();
+                pinned(UNATTRIBUTED, pinning.frame, pinning.location, pinning.duration);
+            }
+        }
+    }
+
+    private void pinned(String dataSource, String frame, Location location, Duration duration) {
+        boolean first = statistics.computeIfAbsent(dataSource, k -> new Statistics()).record(frame, duration, maxFrames);
+        if (first && LOG.isWarnEnabled()) {
+            LOG.warn("Virtual thread pinned its carrier for {}ms in the {} of data source [{}] at {}",
+                duration.toMillis(), location == Location.POOL ? "pool" : "driver", dataSource, frame);
+        }
+        for (Listener listener : listeners) {
+            listener.onPinned(dataSource, location, duration);
+        }
+    }
+
+    private void addTarget(BeanDefinition<DataSource> definition, DataSource dataSource) {
+        if (!(definition.getDeclaredQualifier() instanceof Named named) || hasTarget(named.getName())) {
+            return;
+        }
+        String name = named.getName();
+        DataSourceResolver dataSourceResolver = beanContext.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT);
+        DataSource pool = DataSourceWrapper.unwrap(dataSourceResolver.resolve(dataSource));
+        String driverClassName = beanContext.findBean(BasicJdbcConfiguration.class, Qualifiers.byName(name))
+            .map(BasicJdbcConfiguration::getDriverClassName)
+            .orElse(null);
+        addTarget(new Target(name, poolPackages(pool.getClass()), driverPackage(driverClassName)));
+    }
+
+    private synchronized void addTarget(Target target) {
+        if (hasTarget(target.name)) {
+            return;
+        }
+        List<Target> resolved = new ArrayList<>(targets);
+        resolved.add(target);
+        targets = Collections.unmodifiableList(resolved);
+        if (recordingStream != null) {
+            enableCorrelation(recordingStream);
+        }
+    }
+
+    private boolean hasTarget(String name) {
+        for (Target target : targets) {
+            if (target.name.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RecordingStream start() {
+        if (Runtime.version().feature() < 21) {
+            LOG.warn("Virtual thread pinning monitor requires Java 21, running on Java {}", Runtime.version().feature());
+            return null;
+        }
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinnedEvent);
+        enableCorrelation(stream);
+        stream.onFlush(this::flush);
+        stream.startAsync();
+        return stream;
+    }
+
+    /**
+     * Streams the data source events once several data sources share the same pool and driver.
+     *
+     * @param stream The stream
+     */
+    private void enableCorrelation(RecordingStream stream) {
+        if (correlating || !isAmbiguous(targets)) {
+            return;
+        }
+        correlating = true;
+        for (String name : List.of(StatementEvent.NAME, ConnectionAcquireEvent.NAME)) {
+            stream.enable(name).withoutStackTrace();
+            stream.onEvent(name, this::onDataSourceEvent);
+        }
+    }
+
+    private void onPinnedEvent(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        RecordedThread thread = event.getThread();
+        if (stackTrace == null || thread == null) {
+            return;
+        }
+        List<StackTraceElement> frames = new ArrayList<>(stackTrace.getFrames().size());
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                frames.add(new StackTraceElement(frame.getMethod().getType().getName(), frame.getMethod().getName(), null, frame.getLineNumber()));
+            }
+        }
+        record(thread.getJavaThreadId(), event.getStartTime(), frames, event.getDuration());
+    }
+
+    private void onDataSourceEvent(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        String dataSource = event.getString("dataSource");
+        if (thread != null && dataSource != null) {
+            correlate(thread.getJavaThreadId(), event.getStartTime(), event.getEndTime(), dataSource);
+        }
+    }
+
+    private static Location locate(List<Target> candidates, String className) {
+        for (Target candidate : candidates) {
+            Location location = candidate.locate(className);
+            if (location != null) {
+                return location;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAmbiguous(List<Target> targets) {
+        for (int i = 0; i < targets.size(); i++) {
+            for (int j = i + 1; j < targets.size(); j++) {
+                if (targets.get(i).isAmbiguousWith(targets.get(j))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<String> poolPackages(Class<?> poolType) {
+        for (Class<?> type = poolType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Map.Entry<String, List<String>> entry : POOL_PACKAGES.entrySet()) {
+                if (type.getName().startsWith(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param driverClassName The class name of the driver
+     * @return The package prefix of the driver classes, such as {@code org.postgresql.}
+     */
+    static String driverPackage(@Nullable String driverClassName) {
+        if (driverClassName == null) {
+            return null;
+        }
+        String[] segments = driverClassName.split("\\.");
+        int length = segments.length > 2 && segments[0].equals("org") && segments[1].equals("apache") ? 3 : 2;
+        length = Math.min(length, segments.length - 1);
+        if (length <= 0) {
+            return null;
+        }
+        return String.join(".", List.of(segments).subList(0, length)) + ".";
+    }
+
+    /**
+     * Where the pinned thread was.
+     */
+    public enum Location {
+        /**
+         * In the connection pool.
+         */
+        POOL,
+        /**
+         * In the JDBC driver.
+         */
+        DRIVER
+    }
+
+    /**
+     * Notified of the pinnings.
+     */
+    public interface Listener {
+
+        /**
+         * @param dataSource The name of the data source, or {@link #UNATTRIBUTED}
+         * @param location   Where the thread was pinned
+         * @param duration   The time the thread was pinned
+         */
+        void onPinned(@NonNull String dataSource, @NonNull Location location, @NonNull Duration duration);
+    }
+
+    /**
+     * The pinnings of a data source.
+     */
+    public static final class Statistics {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final Map<String, AtomicLong> frames = new ConcurrentHashMap<>();
+
+        /**
+         * @return The number of times a virtual thread pinned its carrier
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return The total time virtual threads pinned their carrier
+         */
+        @NonNull
+        public Duration getTime() {
+            return Duration.ofNanos(nanos.sum());
+        }
+
+        /**
+         * @return The number of pinnings by frame, the frame being the top-most frame of the pool or the driver
+         */
+        @NonNull
+        public Map<String, Long> getFrames() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            frames.forEach((frame, frameCount) -> counts.put(frame, frameCount.get()));
+            return Collections.unmodifiableMap(counts);
+        }
+
+        private boolean record(String frame, Duration duration, int maxFrames) {
+            count.increment();
+            nanos.add(duration.toNanos());
+            if (frames.size() >= maxFrames && !frames.containsKey(frame)) {
+                frame = OTHER_FRAMES;
+            }
+            // only the pinning that takes the count of its frame from 0 to 1 is the first one
+            return frames.computeIfAbsent(frame, k -> new AtomicLong()).incrementAndGet() == 1;
+        }
+    }
+
+    /**
+     * A data source, with the packages of its pool and driver classes.
+     */
+    static final class Target {
+
+        private final String name;
+        private final List<String> poolPackages;
+        private final String driverPackage;
+
+        /**
+         * @param name          The name of the data source
+         * @param poolPackages  The package prefixes of the pool classes
+         * @param driverPackage The package prefix of the driver classes
+         */
+        Target(String name, List<String> poolPackages, @Nullable String driverPackage) {
+            this.name = name;
+            this.poolPackages = poolPackages;
+            this.driverPackage = driverPackage;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        List<String> getPoolPackages() {
+            return poolPackages;
+        }
+
+        String getDriverPackage() {
+            return driverPackage;
+        }
+
+        private Location locate(String className) {
+            for (String poolPackage : poolPackages) {
+                if (className.startsWith(poolPackage)) {
+                    return Location.POOL;
+                }
+            }
+            if (driverPackage != null && className.startsWith(driverPackage)) {
+                return Location.DRIVER;
+            }
+            return null;
+        }
+
+        private int score(List<StackTraceElement> frames) {
+            boolean inPool = false;
+            boolean inDriver = false;
+            for (StackTraceElement frame : frames) {
+                Location location = locate(frame.getClassName());
+                if (location == Location.POOL) {
+                    inPool = true;
+                } else if (location == Location.DRIVER) {
+                    inDriver = true;
+                }
+            }
+            return (inPool ? 1 : 0) + (inDriver ? 1 : 0);
+        }
+
+        private boolean isAmbiguousWith(Target other) {
+            return poolPackages.equals(other.poolPackages) && Objects.equals(driverPackage, other.driverPackage);
+        }
+    }
+
+    private static final class Pending {
+
+        private final long threadId;
+        private final Instant start;
+        private final List<String> candidates;
+        private final String frame;
+        private final Location location;
+        private final Duration duration;
+        private int flushes;
+
+        private Pending(long threadId, Instant start, List<String> candidates, String frame, Location location, Duration duration) {
+            this.threadId = threadId;
+            this.start = start;
+            this.candidates = candidates;
+            this.frame = frame;
+            this.location = location;
+            this.duration = duration;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.bind.annotation.Bindable;
+import io.micronaut.core.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link PinningMonitor}.
+ *
+ * @since 6.0.0
+ */
+@ConfigurationProperties(PinningMonitorConfiguration.PREFIX)
+@Requires(property = PinningMonitorConfiguration.PREFIX + ".enabled", value = StringUtils.TRUE)
+public interface PinningMonitorConfiguration {
+
+    String PREFIX = "jdbc.jfr.pinning-monitor";
+
+    /**
+     * Records the virtual threads that pin their carrier thread in the pools and drivers of the data sources.
+     *
+     * @return flag to enable the monitor. Defaults to <code>false</code>.
+     */
+    @Bindable(defaultValue = "false")
+    boolean isEnabled();
+
+    /**
+     * The minimum time a virtual thread is pinned for the pinning to be recorded.
+     *
+     * @return the threshold. Defaults to <code>20ms</code>.
+     */
+    @Bindable(defaultValue = "20ms")
+    Duration getThreshold();
+
+    /**
+     * The maximum number of distinct frames that are recorded per data source. Further frames are counted together.
+     *
+     * @return the maximum number of frames. Defaults to <code>100</code>.
+     */
+    @Bindable(defaultValue = "100")
+    int getMaxFrames();
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when a startup phase of the SQL stack completes, such as the creation of a connection pool or of a
+ * Hibernate {@code SessionFactory}.
+ *
+ * @since 6.0.0
+ */
+@Name(StartupPhaseEvent.NAME)
+@Label("SQL Startup Phase")
+@Description("A startup phase of the SQL stack")
+@Category({"Micronaut", "SQL"})
+@Internal
+public final class StartupPhaseEvent extends jdk.jfr.Event {
+
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "io.micronaut.jdbc.StartupPhase";
+
+    /**
+     * The creation of a connection pool.
+     */
+    public static final String POOL_CREATION = "pool-creation";
+
+    /**
+     * The detection of the SQL dialect of a data source.
+     */
+    public static final String DIALECT_DETECTION = "dialect-detection";
+
+    /**
+     * The creation of the Hibernate metadata, which scans and maps the entities.
+     */
+    public static final String HIBERNATE_METADATA = "hibernate-metadata";
+
+    /**
+     * The creation of the Hibernate {@code SessionFactory}.
+     */
+    public static final String HIBERNATE_SESSION_FACTORY = "hibernate-session-factory";
+
+    @Label("Phase")
+    private final String phase;
+
+    @Label("Name")
+    @Description("The name of the data source or of the persistence unit")
+    private final String name;
+
+    private StartupPhaseEvent(String phase, String name) {
+        this.phase = phase;
+        this.name = name;
+    }
+
+    /**
+     * Starts the event.
+     *
+     * @param phase The phase
+     * @param name  The name of the data source or of the persistence unit
+     * @return The started event, to {@link #commit()} at the end of the phase
+     */
+    @NonNull
+    public static StartupPhaseEvent start(@NonNull String phase, @Nullable String name) {
+        StartupPhaseEvent event = new StartupPhaseEvent(phase, name);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted when a statement executed through a profiled data source completes. The duration of a query includes
+ * reading its rows, up to the end or the close of its result set, the execution time does not.
+ *
+ * @since 6.0.0
+ */
+@Name(StatementEvent.NAME)
+@Label("Statement Execution")
+@Description("A statement executed through a profiled data source")
+@Category({"Micronaut", "SQL"})
+@Internal
+public final class StatementEvent extends jdk.jfr.Event {
+
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "io.micronaut.jdbc.Statement";
+
+    @Label("Data Source")
+    private String dataSource;
+
+    @Label("Statement")
+    @Description("The fingerprint of the statement")
+    private String fingerprint;
+
+    @Label("Execution Time")
+    @Timespan
+    private long executionTime;
+
+    @Label("Rows")
+    @Description("The rows read or updated, -1 if unknown")
+    private long rows = -1;
+
+    @Label("Failed")
+    private boolean failed;
+
+    private StatementEvent() {
+    }
+
+    /**
+     * Starts the event if it is enabled in a running recording.
+     *
+     * @param dataSource  The name of the data source
+     * @param fingerprint The fingerprint of the statement
+     * @return The started event or {@code null} if the event is not enabled
+     */
+    @Nullable
+    public static StatementEvent start(@Nullable String dataSource, String fingerprint) {
+        StatementEvent event = new StatementEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.dataSource = dataSource;
+        event.fingerprint = fingerprint;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param nanos The time taken by the driver to execute the statement
+     */
+    public void executed(long nanos) {
+        executionTime = nanos;
+    }
+
+    /**
+     * Commits the event of a statement that failed.
+     */
+    public void fail() {
+        failed = true;
+        commit();
+    }
+
+    /**
+     * Commits the event of a statement that completed.
+     *
+     * @param rows The rows read or updated, -1 if unknown
+     */
+    public void complete(long rows) {
+        this.rows = rows;
+        commit();
+    }
+}
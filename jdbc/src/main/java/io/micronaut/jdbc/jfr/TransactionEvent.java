@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a transaction started by the jOOQ or Jdbi integration is committed or rolled back. The event
+ * starts when the transaction begins.
+ *
+ * @since 6.0.0
+ */
+@Name(TransactionEvent.NAME)
+@Label("Transaction")
+@Description("A transaction from its beginning to its commit or rollback")
+@Category({"Micronaut", "SQL"})
+@StackTrace(false)
+@Internal
+public final class TransactionEvent extends jdk.jfr.Event {
+
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "io.micronaut.jdbc.Transaction";
+
+    /**
+     * The outcome of a committed transaction.
+     */
+    public static final String COMMIT = "commit";
+
+    /**
+     * The outcome of a rolled back transaction.
+     */
+    public static final String ROLLBACK = "rollback";
+
+    /**
+     * The outcome of a transaction whose commit failed.
+     */
+    public static final String COMMIT_FAILED = "commit-failed";
+
+    @Label("Integration")
+    private final String integration;
+
+    @Label("New Transaction")
+    @Description("Whether the transaction was started, rather than joined")
+    private boolean newTransaction;
+
+    @Label("Outcome")
+    private String outcome;
+
+    private TransactionEvent(String integration) {
+        this.integration = integration;
+    }
+
+    /**
+     * Starts the event if it is enabled in a running recording.
+     *
+     * @param integration    The integration starting the transaction, such as {@code jOOQ}
+     * @param newTransaction Whether the transaction was started, rather than joined
+     * @return The started event or {@code null} if the event is not enabled
+     */
+    @Nullable
+    public static TransactionEvent begin(@NonNull String integration, boolean newTransaction) {
+        TransactionEvent event = new TransactionEvent(integration);
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.newTransaction = newTransaction;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event.
+     *
+     * @param event   The started event or {@code null}
+     * @param outcome {@link #COMMIT}, {@link #ROLLBACK} or {@link #COMMIT_FAILED}
+     */
+    public static void end(@Nullable TransactionEvent event, @NonNull String outcome) {
+        if (event != null) {
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
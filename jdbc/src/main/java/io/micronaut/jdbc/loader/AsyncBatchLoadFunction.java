@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Loads the values of a batch of keys without blocking, for example with a Vert.x {@code Pool}:
+ *
+ * <pre>{@code
+ * keys -> pool.preparedQuery("select id, title from book where id = any($1)")
+ *     .execute(Tuple.of(keys.toArray(new Long[0])))
+ *     .map(rows -> ...)
+ *     .toCompletionStage()
+ * }</pre>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface AsyncBatchLoadFunction<K, V> {
+
+    /**
+     * Loads the values of the keys. The keys without a value are left out of the map.
+     *
+     * @param keys The distinct keys of the batch
+     * @return The values by key
+     */
+    @NonNull
+    CompletionStage<Map<K, V>> load(@NonNull List<K> keys);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the values of a batch of keys with a blocking query, for example with jOOQ:
+ *
+ * <pre>{@code
+ * keys -> dsl.selectFrom(BOOK).where(BOOK.ID.in(keys)).fetchMap(BOOK.ID)
+ * }</pre>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface BatchLoadFunction<K, V> {
+
+    /**
+     * Loads the values of the keys. The keys without a value are left out of the map.
+     *
+     * @param keys The distinct keys of the batch
+     * @return The values by key
+     * @throws Exception If the values cannot be loaded
+     */
+    @NonNull
+    Map<K, V> load(@NonNull List<K> keys) throws Exception;
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces the keys requested by concurrent callers within {@code batch-window} into a single call of its batch
+ * function, such as one {@code WHERE id IN (...)} query, and completes the future of each caller with the value of
+ * its key, or {@code null} when the key has no value.
+ *
+ * <p>A batch is dispatched {@code batch-window} after its first key, or as soon as it holds {@code max-batch-size}
+ * distinct keys. The callers requesting the same key in a batch share its query. The values are not cached: a key
+ * requested after its batch is dispatched goes to the next batch.</p>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @since 6.0.0
+ */
+public final class DataLoader<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataLoader.class);
+
+    private final String name;
+    private final AsyncBatchLoadFunction<K, V> function;
+    private final int maxBatchSize;
+    private final Duration batchWindow;
+    private final TaskScheduler taskScheduler;
+    private final Executor executor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private Batch<K, V> pending;
+
+    /**
+     * @param name          The name of the loader
+     * @param function      The batch function
+     * @param maxBatchSize  The maximum number of distinct keys of a batch
+     * @param batchWindow   The time a batch waits for keys after its first key
+     * @param taskScheduler The scheduler dispatching the batches at the end of their window
+     * @param executor      The executor calling the batch function
+     */
+    DataLoader(String name,
+               AsyncBatchLoadFunction<K, V> function,
+               int maxBatchSize,
+               Duration batchWindow,
+               TaskScheduler taskScheduler,
+               Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size must be at least 1: " + maxBatchSize);
+        }
+        if (batchWindow.isNegative()) {
+            throw new IllegalArgumentException("Batch window must not be negative: " + batchWindow);
+        }
+        this.name = name;
+        this.function = function;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindow = batchWindow;
+        this.taskScheduler = taskScheduler;
+        this.executor = executor;
+    }
+
+    /**
+     * @return The name of the loader
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The maximum number of distinct keys of a batch
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return The time a batch waits for keys after its first key
+     */
+    @NonNull
+    public Duration getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * @return The number of keys requested
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @return The number of distinct keys passed to the batch function
+     */
+    public long getKeyCount() {
+        return keys.sum();
+    }
+
+    /**
+     * @return The number of calls of the batch function
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return The number of calls of the batch function that failed
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * Requests the value of a key.
+     *
+     * @param key The key
+     * @return A future completed with the value, or {@code null} if the key has no value, or completed exceptionally
+     * with the error of the batch
+     */
+    @NonNull
+    public CompletableFuture<V> load(@NonNull K key) {
+        Objects.requireNonNull(key, "key");
+        loads.increment();
+        CompletableFuture<V> future;
+        Batch<K, V> opened = null;
+        Batch<K, V> full = null;
+        lock.lock();
+        try {
+            Batch<K, V> batch = pending;
+            if (batch == null) {
+                batch = new Batch<>();
+                pending = batch;
+                opened = batch;
+            }
+            future = batch.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxBatchSize) {
+                pending = null;
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            submit(full);
+        } else if (opened != null) {
+            schedule(opened);
+        }
+        // the callers of a key share its future, which none of them may complete
+        return future.copy();
+    }
+
+    /**
+     * Requests the values of several keys, which go to the same batches as the keys of the other callers.
+     *
+     * @param keys The keys
+     * @return A future completed with the values by key, without the keys that have no value
+     */
+    @NonNull
+    public CompletableFuture<Map<K, V>> loadMany(@NonNull Collection<? extends K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.computeIfAbsent(key, this::load);
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<K, V> values = new LinkedHashMap<>();
+            futures.forEach((key, future) -> {
+                V value = future.join();
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+            return values;
+        });
+    }
+
+    /**
+     * Dispatches the keys requested so far without waiting for the end of the batch window.
+     */
+    public void dispatch() {
+        Batch<K, V> batch;
+        lock.lock();
+        try {
+            batch = pending;
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            submit(batch);
+        }
+    }
+
+    private void schedule(Batch<K, V> batch) {
+        if (batchWindow.isZero()) {
+            // the keys requested until the executor runs the batch still join it
+            submitIfPending(batch);
+            return;
+        }
+        try {
+            taskScheduler.schedule(batchWindow, () -> submitIfPending(batch));
+        } catch (RejectedExecutionException e) {
+            submitIfPending(batch);
+        }
+    }
+
+    private void submitIfPending(Batch<K, V> batch) {
+        try {
+            executor.execute(() -> {
+                if (removePending(batch)) {
+                    load(batch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (removePending(batch)) {
+                fail(batch, e);
+            }
+        }
+    }
+
+    private void submit(Batch<K, V> batch) {
+        try {
+            executor.execute(() -> load(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private boolean removePending(Batch<K, V> batch) {
+        lock.lock();
+        try {
+            if (pending != batch) {
+                // already dispatched, because it was full
+                return false;
+            }
+            pending = null;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load(Batch<K, V> batch) {
+        List<K> batchKeys = Collections.unmodifiableList(new ArrayList<>(batch.futures.keySet()));
+        batches.increment();
+        keys.add(batchKeys.size());
+        CompletionStage<Map<K, V>> result;
+        try {
+            result = function.load(batchKeys);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((values, error) -> {
+            if (error != null) {
+                fail(batch, error);
+            } else {
+                batch.futures.forEach((key, future) -> future.complete(values == null ? null : values.get(key)));
+            }
+        });
+    }
+
+    private void fail(Batch<K, V> batch, Throwable error) {
+        failedBatches.increment();
+        if (LOG.isWarnEnabled()) {
+            LOG.warn("Error loading {} keys of data loader [{}]: {}", batch.futures.size(), name, error.getMessage(), error);
+        }
+        batch.futures.values().forEach(future -> future.completeExceptionally(error));
+    }
+
+    /**
+     * The futures of the keys of a batch, in request order.
+     *
+     * @param <K> The type of the keys
+     * @param <V> The type of the values
+     */
+    private static final class Batch<K, V> {
+
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader;
+
+import io.micronaut.context.BeanLocator;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Creates the {@link DataLoader data loaders}, configured under {@code jdbc.data-loaders.<name>}. The loaders are
+ * usually exposed as beans by a {@code @Singleton} method of a factory of the application:
+ *
+ * <pre>{@code
+ * DataLoader<Long, Book> bookLoader(DataLoaders loaders) {
+ *     return loaders.create("books", "select id, title from book where id in (?)",
+ *         resultSet -> new Book(resultSet.getLong(1), resultSet.getString(2)), Book::id);
+ * }
+ * }</pre>
+ *
+ * <p>The batch functions run on the {@link TaskExecutors#BLOCKING blocking} executor.</p>
+ *
+ * @since 6.0.0
+ */
+@Singleton
+public final class DataLoaders {
+
+    /**
+     * The prefix of the configuration of the loaders.
+     */
+    public static final String PREFIX = "jdbc.data-loaders";
+
+    /**
+     * The default maximum number of distinct keys of a batch.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /**
+     * The default time a batch waits for keys after its first key.
+     */
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ofMillis(2);
+
+    private final BeanLocator beanLocator;
+    private final PropertyResolver propertyResolver;
+    private final TaskScheduler taskScheduler;
+    private final ExecutorService executor;
+    private final Map<String, DataLoader<?, ?>> loaders = new ConcurrentHashMap<>();
+
+    /**
+     * @param beanLocator      The bean locator used to find the data sources
+     * @param propertyResolver The property resolver
+     * @param taskScheduler    The scheduler dispatching the batches at the end of their window
+     * @param executor         The executor calling the batch functions
+     */
+    DataLoaders(BeanLocator beanLocator,
+                PropertyResolver propertyResolver,
+                @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler,
+                @Named(TaskExecutors.BLOCKING) ExecutorService executor) {
+        this.beanLocator = beanLocator;
+        this.propertyResolver = propertyResolver;
+        this.taskScheduler = taskScheduler;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a loader querying the data source {@code jdbc.data-loaders.<name>.datasource}. The single parameter of
+     * the query, such as the one of {@code where id in (?)}, is expanded to the keys of each batch.
+     *
+     * @param name   The name of the loader
+     * @param sql    The query
+     * @param mapper The mapper of the rows
+     * @param keyOf  The function returning the key of a value, which must be equal to the requested key
+     * @param <K>    The type of the keys
+     * @param <V>    The type of the values
+     * @return The loader
+     */
+    @NonNull
+    public <K, V> DataLoader<K, V> create(@NonNull String name,
+                                          @NonNull String sql,
+                                          @NonNull RowMapper<V> mapper,
+                                          @NonNull Function<? super V, ? extends K> keyOf) {
+        String dataSourceName = propertyResolver.getProperty(prefix(name) + "datasource", String.class, "default");
+        DataSource dataSource = beanLocator.getBean(DataSource.class, Qualifiers.byName(dataSourceName));
+        DataSource resolved = beanLocator.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT).resolve(dataSource);
+        return create(name, new JdbcBatchQuery<>(resolved, sql, maxBatchSize(name), mapper, keyOf));
+    }
+
+    /**
+     * Creates a loader calling a blocking batch function, such as a jOOQ or JDBI query.
+     *
+     * @param name     The name of the loader
+     * @param function The batch function
+     * @param <K>      The type of the keys
+     * @param <V>      The type of the values
+     * @return The loader
+     */
+    @NonNull
+    public <K, V> DataLoader<K, V> create(@NonNull String name, @NonNull BatchLoadFunction<K, V> function) {
+        return createAsync(name, keys -> {
+            try {
+                return CompletableFuture.completedFuture(function.load(keys));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    /**
+     * Creates a loader calling a non-blocking batch function, such as a Vert.x {@code Pool} query.
+     *
+     * @param name     The name of the loader
+     * @param function The batch function
+     * @param <K>      The type of the keys
+     * @param <V>      The type of the values
+     * @return The loader
+     */
+    @NonNull
+    public <K, V> DataLoader<K, V> createAsync(@NonNull String name, @NonNull AsyncBatchLoadFunction<K, V> function) {
+        DataLoader<K, V> loader = new DataLoader<>(
+            name,
+            function,
+            maxBatchSize(name),
+            propertyResolver.getProperty(prefix(name) + "batch-window", Duration.class, DEFAULT_BATCH_WINDOW),
+            taskScheduler,
+            executor
+        );
+        if (loaders.putIfAbsent(name, loader) != null) {
+            throw new IllegalStateException("A data loader named [" + name + "] already exists");
+        }
+        return loader;
+    }
+
+    /**
+     * @return The loaders created, by name
+     */
+    @NonNull
+    public Map<String, DataLoader<?, ?>> getLoaders() {
+        return Collections.unmodifiableMap(loaders);
+    }
+
+    /**
+     * Dispatches the keys waiting for the end of their batch window.
+     */
+    @PreDestroy
+    void close() {
+        loaders.values().forEach(DataLoader::dispatch);
+    }
+
+    private int maxBatchSize(String name) {
+        return propertyResolver.getProperty(prefix(name) + "max-batch-size", Integer.class, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    private static String prefix(String name) {
+        return PREFIX + "." + name + ".";
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Loads the values of a batch of keys with a query whose single parameter, such as the one of
+ * {@code where id in (?)}, is expanded to the keys.
+ *
+ * <p>The number of parameters is rounded up to a power of two, and the extra parameters repeat the last key, so
+ * that a few statements serve all the batch sizes and stay in the statement caches.</p>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ * @since 6.0.0
+ */
+final class JdbcBatchQuery<K, V> implements BatchLoadFunction<K, V> {
+
+    private final DataSource dataSource;
+    private final String prefix;
+    private final String suffix;
+    private final int maxBatchSize;
+    private final RowMapper<V> mapper;
+    private final Function<? super V, ? extends K> keyOf;
+    private final Map<Integer, String> statements = new ConcurrentHashMap<>();
+
+    /**
+     * @param dataSource   The data source
+     * @param sql          The query, with a single parameter
+     * @param maxBatchSize The maximum number of keys of a batch
+     * @param mapper       The mapper of the rows
+     * @param keyOf        The function returning the key of a value
+     */
+    JdbcBatchQuery(DataSource dataSource,
+                   String sql,
+                   int maxBatchSize,
+                   RowMapper<V> mapper,
+                   Function<? super V, ? extends K> keyOf) {
+        int index = sql.indexOf('?');
+        if (index < 0 || sql.indexOf('?', index + 1) >= 0) {
+            throw new IllegalArgumentException("The query of a data loader must have a single parameter, which is expanded to the keys: " + sql);
+        }
+        this.dataSource = dataSource;
+        this.prefix = sql.substring(0, index);
+        this.suffix = sql.substring(index + 1);
+        this.maxBatchSize = maxBatchSize;
+        this.mapper = mapper;
+        this.keyOf = keyOf;
+    }
+
+    @Override
+    public Map<K, V> load(List<K> keys) throws SQLException {
+        int parameters = parameterCount(keys.size(), maxBatchSize);
+        String sql = statements.computeIfAbsent(parameters, this::sql);
+        Map<K, V> values = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters; i++) {
+                statement.setObject(i + 1, keys.get(Math.min(i, keys.size() - 1)));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    V value = mapper.map(resultSet);
+                    values.put(keyOf.apply(value), value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param keys         The number of keys
+     * @param maxBatchSize The maximum number of keys of a batch
+     * @return The number of parameters of the query of the keys
+     */
+    static int parameterCount(int keys, int maxBatchSize) {
+        int rounded = Integer.highestOneBit(keys);
+        if (rounded < keys) {
+            rounded <<= 1;
+        }
+        return Math.max(keys, Math.min(rounded, maxBatchSize));
+    }
+
+    private String sql(int parameters) {
+        StringBuilder sql = new StringBuilder(prefix.length() + suffix.length() + parameters * 3);
+        sql.append(prefix);
+        for (int i = 0; i < parameters; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append('?');
+        }
+        return sql.append(suffix).toString();
+    }
+}
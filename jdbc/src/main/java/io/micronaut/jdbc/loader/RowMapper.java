@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of the result of a batched query of a {@link DataLoader}, or of the query loading a
+ * {@link io.micronaut.jdbc.snapshot.ReferenceTable}, to a value.
+ *
+ * @param <V> The type of the values
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface RowMapper<V> {
+
+    /**
+     * @param resultSet The result set, positioned on the row
+     * @return The value of the row
+     * @throws SQLException If a column cannot be read
+     */
+    V map(ResultSet resultSet) throws SQLException;
+}
@@ -15,6 +15,8 @@
  */
 package io.micronaut.jdbc.metadata;
 
+import io.micronaut.jdbc.timing.ConnectionTimings;
+
 import javax.sql.DataSource;
 
 /**
@@ -28,6 +30,7 @@ import javax.sql.DataSource;
 public abstract class AbstractDataSourcePoolMetadata<T extends DataSource> implements DataSourcePoolMetadata<T> {
 
     private final T dataSource;
+    private final ConnectionTimings connectionTimings;
 
     /**
      * Create an instance with the data source to use.
@@ -35,7 +38,19 @@ public abstract class AbstractDataSourcePoolMetadata<T extends DataSource> imple
      * @param dataSource the data source
      */
     protected AbstractDataSourcePoolMetadata(T dataSource) {
+        this(dataSource, null);
+    }
+
+    /**
+     * Create an instance with the data source to use and the timings recorded for it.
+     *
+     * @param dataSource        the data source
+     * @param connectionTimings the connection timings or {@code null}
+     * @since 6.0.0
+     */
+    protected AbstractDataSourcePoolMetadata(T dataSource, ConnectionTimings connectionTimings) {
         this.dataSource = dataSource;
+        this.connectionTimings = connectionTimings;
     }
 
     @Override
@@ -60,4 +75,9 @@ public abstract class AbstractDataSourcePoolMetadata<T extends DataSource> imple
     public T getDataSource() {
         return this.dataSource;
     }
+
+    @Override
+    public ConnectionTimings getConnectionTimings() {
+        return connectionTimings;
+    }
 }
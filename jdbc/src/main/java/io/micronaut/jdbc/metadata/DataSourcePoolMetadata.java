@@ -15,6 +15,10 @@
  */
 package io.micronaut.jdbc.metadata;
 
+import io.micronaut.jdbc.timing.ConnectionTimings;
+
+import java.time.Duration;
+
 /**
  * Provides access meta-data that is commonly available from most pooled
  * {@link javax.sql.DataSource} implementations.
@@ -98,4 +102,103 @@ public interface DataSourcePoolMetadata<T extends javax.sql.DataSource> {
      */
     Boolean getDefaultAutoCommit();
 
+    /**
+     * Return the number of threads currently waiting for a connection or {@code null} if
+     * that information is not available.
+     *
+     * @return the number of pending connection requests or {@code null}
+     * @since 6.0.0
+     */
+    default Integer getPending() {
+        return null;
+    }
+
+    /**
+     * Return the total number of physical connections created by the pool or {@code null}
+     * if that information is not available.
+     *
+     * @return the number of created connections or {@code null}
+     * @since 6.0.0
+     */
+    default Long getCreatedCount() {
+        return null;
+    }
+
+    /**
+     * Return the total number of physical connections closed by the pool or {@code null}
+     * if that information is not available.
+     *
+     * @return the number of destroyed connections or {@code null}
+     * @since 6.0.0
+     */
+    default Long getDestroyedCount() {
+        return null;
+    }
+
+    /**
+     * Return the total number of connection requests that timed out waiting for a
+     * connection or {@code null} if that information is not available.
+     *
+     * @return the number of timed out connection requests or {@code null}
+     * @since 6.0.0
+     */
+    default Long getTimeoutCount() {
+        return null;
+    }
+
+    /**
+     * Return the mean time callers waited to acquire a connection or {@code null} if that
+     * information is not available.
+     *
+     * @return the mean acquire wait time or {@code null}
+     * @since 6.0.0
+     */
+    default Duration getMeanAcquireWait() {
+        return null;
+    }
+
+    /**
+     * Return the total number of connections acquired from the pool or {@code null} if that
+     * information is not available.
+     *
+     * @return the number of acquired connections or {@code null}
+     * @since 6.0.0
+     */
+    default Long getAcquireCount() {
+        return null;
+    }
+
+    /**
+     * Return the total time callers waited to acquire the connections counted by
+     * {@link #getAcquireCount()} or {@code null} if that information is not available.
+     *
+     * @return the total acquire wait time or {@code null}
+     * @since 6.0.0
+     */
+    default Duration getTotalAcquireWait() {
+        return null;
+    }
+
+    /**
+     * Return the longest time a caller waited to acquire a connection or {@code null} if
+     * that information is not available.
+     *
+     * @return the maximum acquire wait time or {@code null}
+     * @since 6.0.0
+     */
+    default Duration getMaxAcquireWait() {
+        return null;
+    }
+
+    /**
+     * Return the acquire and hold time histograms of the data source or {@code null} if
+     * {@code connection-timings} is not enabled for it.
+     *
+     * @return the connection timings or {@code null}
+     * @since 6.0.0
+     */
+    default ConnectionTimings getConnectionTimings() {
+        return null;
+    }
+
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metadata;
+
+/**
+ * {@link DataSourcePoolMetadata} of a pool whose maximum size can be changed at runtime.
+ *
+ * @param <T> datasource {@link javax.sql.DataSource}
+ * @since 6.0.0
+ */
+public interface ResizableDataSourcePoolMetadata<T extends javax.sql.DataSource> extends DataSourcePoolMetadata<T> {
+
+    /**
+     * Change the maximum number of connections of the pool. No new connection is opened while the
+     * pool is at or above the new maximum, and connections above it are closed by the pool as they are
+     * returned or evicted. If the minimum number of idle connections is above the new maximum, it is
+     * lowered to the maximum, and it is restored to its configured value as the maximum grows again.
+     *
+     * @param max the new maximum number of connections, at least {@code 1}
+     */
+    void setMax(int max);
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
+import io.micronaut.jdbc.timing.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Binds the {@link DataSourcePoolMetadata} of a connection pool to a {@link MeterRegistry}. The meters use the
+ * names and the {@code pool} tag of the meters HikariCP publishes under {@code hikaricp.connections}, so that
+ * dashboards and alerts can be shared between the pool implementations. Only the values that the pool provides
+ * are bound. When {@code connection-timings} are enabled for the data source, the acquire and usage timers
+ * and their percentiles are bound as well.
+ *
+ * @since 6.0.0
+ */
+public class DataSourcePoolMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.pool.connections";
+
+    /**
+     * The tag holding the name of the data source.
+     */
+    public static final String POOL_TAG = "pool";
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final DataSourcePoolMetadata<?> metadata;
+    private final Tags tags;
+
+    /**
+     * Creates a binder for the given pool.
+     *
+     * @param name     The name of the data source
+     * @param metadata The pool metadata
+     * @param tags     Additional tags
+     */
+    public DataSourcePoolMeterBinder(@NonNull String name, @NonNull DataSourcePoolMetadata<?> metadata, @NonNull Iterable<Tag> tags) {
+        this.metadata = metadata;
+        this.tags = Tags.concat(tags, POOL_TAG, name);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        bindGauge(registry, "active", "Active connections", DataSourcePoolMetadata::getActive);
+        bindGauge(registry, "idle", "Idle connections", DataSourcePoolMetadata::getIdle);
+        bindGauge(registry, "pending", "Pending threads", DataSourcePoolMetadata::getPending);
+        bindGauge(registry, "max", "Max connections", DataSourcePoolMetadata::getMax);
+        bindGauge(registry, "min", "Min connections", DataSourcePoolMetadata::getMin);
+        bindCounter(registry, "timeout", "Connection timeout total count", DataSourcePoolMetadata::getTimeoutCount);
+        bindCounter(registry, "created", "Connection creation total count", DataSourcePoolMetadata::getCreatedCount);
+        bindCounter(registry, "destroyed", "Connection destruction total count", DataSourcePoolMetadata::getDestroyedCount);
+        bindTimeGauge(registry, "acquire.mean", "Mean connection acquire time", DataSourcePoolMetadata::getMeanAcquireWait);
+        bindTimeGauge(registry, "acquire.max", "Max connection acquire time", DataSourcePoolMetadata::getMaxAcquireWait);
+        ConnectionTimings timings = metadata.getConnectionTimings();
+        if (timings != null) {
+            bindHistogram(registry, "acquire", "Connection acquire time", timings.getAcquireTime());
+            bindHistogram(registry, "usage", "Connection usage time", timings.getHoldTime());
+        }
+    }
+
+    private void bindGauge(MeterRegistry registry, String name, String description, Function<DataSourcePoolMetadata<?>, Number> value) {
+        if (value.apply(metadata) != null) {
+            Gauge.builder(METRIC_PREFIX + "." + name, metadata, m -> toDouble(value.apply(m)))
+                .description(description)
+                .baseUnit(BaseUnits.CONNECTIONS)
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+        }
+    }
+
+    private void bindCounter(MeterRegistry registry, String name, String description, Function<DataSourcePoolMetadata<?>, Number> value) {
+        if (value.apply(metadata) != null) {
+            FunctionCounter.builder(METRIC_PREFIX + "." + name, metadata, m -> toDouble(value.apply(m)))
+                .description(description)
+                .tags(tags)
+                .register(registry);
+        }
+    }
+
+    private void bindTimeGauge(MeterRegistry registry, String name, String description, Function<DataSourcePoolMetadata<?>, Duration> value) {
+        if (value.apply(metadata) != null) {
+            TimeGauge.builder(METRIC_PREFIX + "." + name, metadata, TimeUnit.NANOSECONDS, m -> {
+                    Duration duration = value.apply(m);
+                    return duration == null ? Double.NaN : duration.toNanos();
+                })
+                .description(description)
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+        }
+    }
+
+    private void bindHistogram(MeterRegistry registry, String name, String description, LatencyHistogram histogram) {
+        FunctionTimer.builder(METRIC_PREFIX + "." + name, histogram, LatencyHistogram::getCount, LatencyHistogram::getTotal, TimeUnit.NANOSECONDS)
+            .description(description)
+            .tags(tags)
+            .register(registry);
+        for (double percentile : PERCENTILES) {
+            TimeGauge.builder(METRIC_PREFIX + "." + name + ".percentile", histogram, TimeUnit.NANOSECONDS, h -> h.getValueAtPercentile(percentile))
+                .description(description)
+                .tags(tags)
+                .tag("phi", String.valueOf(percentile / 100))
+                .strongReference(true)
+                .register(registry);
+        }
+    }
+
+    private static double toDouble(Number number) {
+        return number == null ? Double.NaN : number.doubleValue();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.DisabledBeanException;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.cache.QueryResultCache;
+import io.micronaut.jdbc.cache.ResultCachingDataSource;
+import io.micronaut.jdbc.jfr.PinningMonitor;
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata;
+import io.micronaut.jdbc.profiling.ProfilingDataSource;
+import io.micronaut.jdbc.profiling.QueryBudget;
+import io.micronaut.jdbc.profiling.StatementProfiler;
+import io.micronaut.jdbc.session.SessionStateCache;
+import io.micronaut.jdbc.session.SessionStateCachingDataSource;
+import io.micronaut.jdbc.singleflight.SingleFlight;
+import io.micronaut.jdbc.singleflight.SingleFlightDataSource;
+import io.micronaut.jdbc.statement.StatementCache;
+import io.micronaut.jdbc.statement.StatementCachingDataSource;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+
+/**
+ * Creates a {@link DataSourcePoolMeterBinder} for the {@link DataSourcePoolMetadata} of each data source, a
+ * {@link StatementProfilerMeterBinder} for each data source with {@code statement-profiling} enabled, a
+ * {@link SessionStateCacheMeterBinder} for each data source with {@code session-state-cache} enabled, a
+ * {@link StatementCacheMeterBinder} for each data source with {@code statement-cache} enabled, a
+ * {@link SingleFlightMeterBinder} for each data source with {@code single-flight} enabled, a
+ * {@link QueryResultCacheMeterBinder} for each data source with {@code result-cache} enabled, a
+ * {@link QueryBudgetMeterBinder} when the {@link QueryBudget} is enabled, and a {@link PinningMonitorMeterBinder}
+ * when the {@link PinningMonitor} is enabled. The binders are enabled together with
+ * the other JDBC meter binders through {@code micronaut.metrics.binders.jdbc.enabled}.
+ *
+ * @since 6.0.0
+ */
+@Factory
+@RequiresMetrics
+@Requires(property = MICRONAUT_METRICS_BINDERS + ".jdbc.enabled", notEquals = StringUtils.FALSE)
+public class DataSourcePoolMeterBinderFactory {
+
+    /**
+     * Creates the binder for the pool of a data source.
+     *
+     * @param name     The name of the data source
+     * @param metadata The pool metadata
+     * @return The binder
+     */
+    @EachBean(DataSourcePoolMetadata.class)
+    public DataSourcePoolMeterBinder dataSourcePoolMeterBinder(@Parameter String name, DataSourcePoolMetadata<?> metadata) {
+        return new DataSourcePoolMeterBinder(name, metadata, Collections.emptyList());
+    }
+
+    /**
+     * Creates the binder for the statement profiler of a data source. The binder is disabled for the data sources
+     * that are not profiled.
+     *
+     * @param name               The name of the data source
+     * @param dataSource         The data source
+     * @param dataSourceResolver The data source resolver
+     * @return The binder
+     */
+    @EachBean(DataSource.class)
+    public StatementProfilerMeterBinder statementProfilerMeterBinder(@Parameter String name,
+                                                                     DataSource dataSource,
+                                                                     @Nullable DataSourceResolver dataSourceResolver) {
+        DataSource resolved = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+        StatementProfiler profiler = ProfilingDataSource.findStatementProfiler(resolved);
+        if (profiler == null) {
+            throw new DisabledBeanException("Statement profiling is not enabled for data source [" + name + "]");
+        }
+        return new StatementProfilerMeterBinder(name, profiler, Collections.emptyList());
+    }
+
+    /**
+     * Creates the binder for the session state cache of a data source. The binder is disabled for the data sources
+     * that do not cache the session state.
+     *
+     * @param name               The name of the data source
+     * @param dataSource         The data source
+     * @param dataSourceResolver The data source resolver
+     * @return The binder
+     */
+    @EachBean(DataSource.class)
+    public SessionStateCacheMeterBinder sessionStateCacheMeterBinder(@Parameter String name,
+                                                                     DataSource dataSource,
+                                                                     @Nullable DataSourceResolver dataSourceResolver) {
+        DataSource resolved = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+        SessionStateCache cache = SessionStateCachingDataSource.findSessionStateCache(resolved);
+        if (cache == null) {
+            throw new DisabledBeanException("Session state caching is not enabled for data source [" + name + "]");
+        }
+        return new SessionStateCacheMeterBinder(name, cache, Collections.emptyList());
+    }
+
+    /**
+     * Creates the binder for the statement cache of a data source. The binder is disabled for the data sources that
+     * do not cache statements.
+     *
+     * @param name               The name of the data source
+     * @param dataSource         The data source
+     * @param dataSourceResolver The data source resolver
+     * @return The binder
+     */
+    @EachBean(DataSource.class)
+    public StatementCacheMeterBinder statementCacheMeterBinder(@Parameter String name,
+                                                               DataSource dataSource,
+                                                               @Nullable DataSourceResolver dataSourceResolver) {
+        DataSource resolved = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+        StatementCache cache = StatementCachingDataSource.findStatementCache(resolved);
+        if (cache == null) {
+            throw new DisabledBeanException("Statement caching is not enabled for data source [" + name + "]");
+        }
+        return new StatementCacheMeterBinder(name, cache, Collections.emptyList());
+    }
+
+    /**
+     * Creates the binder for the queries in flight of a data source. The binder is disabled for the data sources
+     * that do not coalesce their queries.
+     *
+     * @param name               The name of the data source
+     * @param dataSource         The data source
+     * @param dataSourceResolver The data source resolver
+     * @return The binder
+     */
+    @EachBean(DataSource.class)
+    public SingleFlightMeterBinder singleFlightMeterBinder(@Parameter String name,
+                                                           DataSource dataSource,
+                                                           @Nullable DataSourceResolver dataSourceResolver) {
+        DataSource resolved = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+        SingleFlight singleFlight = SingleFlightDataSource.findSingleFlight(resolved);
+        if (singleFlight == null) {
+            throw new DisabledBeanException("Single-flight is not enabled for data source [" + name + "]");
+        }
+        return new SingleFlightMeterBinder(name, singleFlight, Collections.emptyList());
+    }
+
+    /**
+     * Creates the binder for the result cache of a data source. The binder is disabled for the data sources
+     * without {@code result-cache.enabled}.
+     *
+     * @param name               The name of the data source
+     * @param dataSource         The data source
+     * @param dataSourceResolver The data source resolver
+     * @return The binder
+     */
+    @EachBean(DataSource.class)
+    @Requires(classes = Caffeine.class)
+    public QueryResultCacheMeterBinder queryResultCacheMeterBinder(@Parameter String name,
+                                                                   DataSource dataSource,
+                                                                   @Nullable DataSourceResolver dataSourceResolver) {
+        DataSource resolved = (dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver).resolve(dataSource);
+        QueryResultCache resultCache = ResultCachingDataSource.findResultCache(resolved);
+        if (resultCache == null) {
+            throw new DisabledBeanException("The result cache is not enabled for data source [" + name + "]");
+        }
+        return new QueryResultCacheMeterBinder(name, resultCache, Collections.emptyList());
+    }
+
+    /**
+     * Creates the binder for the query budget.
+     *
+     * @param budget The query budget
+     * @return The binder
+     */
+    @Singleton
+    @Requires(beans = QueryBudget.class)
+    public QueryBudgetMeterBinder queryBudgetMeterBinder(QueryBudget budget) {
+        return new QueryBudgetMeterBinder(budget);
+    }
+
+    /**
+     * Creates the binder for the virtual thread pinning monitor.
+     *
+     * @param monitor The pinning monitor
+     * @return The binder
+     */
+    @Singleton
+    @Requires(beans = PinningMonitor.class)
+    public PinningMonitorMeterBinder pinningMonitorMeterBinder(PinningMonitor monitor) {
+        return new PinningMonitorMeterBinder(monitor);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.jfr.PinningMonitor;
+
+import java.util.Locale;
+
+/**
+ * Binds the pinnings recorded by the {@link PinningMonitor} to a {@link MeterRegistry}, as a timer per data source
+ * tagged with the name of the data source in {@code pool} and with where the thread was pinned in {@code location}.
+ *
+ * @since 6.0.0
+ */
+public class PinningMonitorMeterBinder implements MeterBinder {
+
+    /**
+     * The name of the timer.
+     */
+    public static final String METRIC_NAME = "jdbc.virtual-threads.pinned";
+
+    /**
+     * The tag holding where the thread was pinned, {@code pool} or {@code driver}.
+     */
+    public static final String LOCATION_TAG = "location";
+
+    private final PinningMonitor monitor;
+
+    /**
+     * @param monitor The pinning monitor
+     */
+    public PinningMonitorMeterBinder(PinningMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        monitor.addListener((dataSource, location, duration) -> Timer.builder(METRIC_NAME)
+            .description("Time virtual threads pinned their carrier thread in the pool or the driver of a data source")
+            .tag(DataSourcePoolMeterBinder.POOL_TAG, dataSource)
+            .tag(LOCATION_TAG, location.name().toLowerCase(Locale.ENGLISH))
+            .register(registry)
+            .record(duration));
+    }
+}
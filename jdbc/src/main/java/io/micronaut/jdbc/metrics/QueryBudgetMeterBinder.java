@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.profiling.QueryBudget;
+import io.micronaut.jdbc.profiling.StatementCounter;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds the units of work counted by a {@link QueryBudget}, usually the HTTP requests, to a {@link MeterRegistry}.
+ *
+ * @since 6.0.0
+ */
+public class QueryBudgetMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.requests";
+
+    private final QueryBudget budget;
+
+    /**
+     * @param budget The query budget
+     */
+    public QueryBudgetMeterBinder(QueryBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        DistributionSummary statements = DistributionSummary.builder(METRIC_PREFIX + ".statements")
+            .description("Statements executed per request")
+            .register(registry);
+        Timer time = Timer.builder(METRIC_PREFIX + ".time")
+            .description("Time spent executing statements per request")
+            .register(registry);
+        budget.addListener(new QueryBudget.Listener() {
+            @Override
+            public void onCompleted(StatementCounter counter) {
+                statements.record(counter.getStatementCount());
+                time.record(counter.getTotalTime().toNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void onExceeded(StatementCounter counter, QueryBudget.Limit limit) {
+                Counter.builder(METRIC_PREFIX + ".budget.exceeded")
+                    .description("Requests that exceeded their query budget")
+                    .tag("limit", limit.name().toLowerCase(Locale.ENGLISH))
+                    .register(registry)
+                    .increment();
+            }
+        });
+    }
+}
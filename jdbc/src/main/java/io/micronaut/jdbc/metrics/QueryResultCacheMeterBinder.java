@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.cache.QueryResultCache;
+
+/**
+ * Binds the {@link QueryResultCache} of a data source to a {@link MeterRegistry}: the hits, misses, evictions and
+ * invalidations, and the number and estimated size of the cached results. The meters are tagged with the name of
+ * the data source in {@code pool}.
+ *
+ * @since 6.0.0
+ */
+public class QueryResultCacheMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.result-cache";
+
+    private final QueryResultCache resultCache;
+    private final Tags tags;
+
+    /**
+     * @param name        The name of the data source
+     * @param resultCache The result cache of the data source
+     * @param tags        Additional tags
+     */
+    public QueryResultCacheMeterBinder(@NonNull String name, @NonNull QueryResultCache resultCache, @NonNull Iterable<Tag> tags) {
+        this.resultCache = resultCache;
+        this.tags = Tags.concat(tags, DataSourcePoolMeterBinder.POOL_TAG, name);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".hits", resultCache, QueryResultCache::getHitCount)
+            .description("Queries answered from the cache")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".misses", resultCache, QueryResultCache::getMissCount)
+            .description("Cacheable queries executed by the database")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", resultCache, QueryResultCache::getEvictionCount)
+            .description("Results dropped because they expired or the cache was full")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".invalidations", resultCache, QueryResultCache::getInvalidationCount)
+            .description("Results dropped because a statement changed one of their tables")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", resultCache, QueryResultCache::getSize)
+            .description("Cached results")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".weight", resultCache, QueryResultCache::getWeight)
+            .description("Estimated size of the cached results")
+            .baseUnit(BaseUnits.BYTES)
+            .tags(tags)
+            .register(registry);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.session.SessionProperty;
+import io.micronaut.jdbc.session.SessionStateCache;
+
+/**
+ * Binds the {@link SessionStateCache} of a data source to a {@link MeterRegistry}: the calls changing the session
+ * state that were skipped, by property, and the connections whose state was restored when they were closed. The
+ * meters are tagged with the name of the data source in {@code pool}.
+ *
+ * @since 6.0.0
+ */
+public class SessionStateCacheMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.session-state";
+
+    /**
+     * The tag holding the session property.
+     */
+    public static final String PROPERTY_TAG = "property";
+
+    private final SessionStateCache cache;
+    private final Tags tags;
+
+    /**
+     * @param name  The name of the data source
+     * @param cache The session state cache
+     * @param tags  Additional tags
+     */
+    public SessionStateCacheMeterBinder(@NonNull String name, @NonNull SessionStateCache cache, @NonNull Iterable<Tag> tags) {
+        this.cache = cache;
+        this.tags = Tags.concat(tags, DataSourcePoolMeterBinder.POOL_TAG, name);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (SessionProperty property : SessionProperty.values()) {
+            FunctionCounter.builder(METRIC_PREFIX + ".saved", cache, c -> c.getSavedCount(property))
+                .description("Calls changing the session state of a connection that were skipped, saving a round trip")
+                .tags(tags.and(PROPERTY_TAG, property.getPropertyName()))
+                .register(registry);
+        }
+        FunctionCounter.builder(METRIC_PREFIX + ".restored", cache, SessionStateCache::getRestoredCount)
+            .description("Connections whose session state was restored when they were closed")
+            .tags(tags)
+            .register(registry);
+    }
+}
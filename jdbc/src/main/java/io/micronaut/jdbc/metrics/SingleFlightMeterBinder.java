@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.singleflight.SingleFlight;
+
+/**
+ * Binds the {@link SingleFlight} of a data source to a {@link MeterRegistry}: the queries executed, the queries that
+ * waited for the same query in flight, and the number of queries in flight. The meters are tagged with the name of
+ * the data source in {@code pool}.
+ *
+ * @since 6.0.0
+ */
+public class SingleFlightMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.single-flight";
+
+    private final SingleFlight singleFlight;
+    private final Tags tags;
+
+    /**
+     * @param name         The name of the data source
+     * @param singleFlight The queries in flight of the data source
+     * @param tags         Additional tags
+     */
+    public SingleFlightMeterBinder(@NonNull String name, @NonNull SingleFlight singleFlight, @NonNull Iterable<Tag> tags) {
+        this.singleFlight = singleFlight;
+        this.tags = Tags.concat(tags, DataSourcePoolMeterBinder.POOL_TAG, name);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".executions", singleFlight, SingleFlight::getExecutionCount)
+            .description("Read queries executed by their first caller")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".coalesced", singleFlight, SingleFlight::getCoalescedCount)
+            .description("Read queries that waited for the same query in flight instead of being executed")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".in-flight", singleFlight, SingleFlight::getInFlightCount)
+            .description("Distinct read queries in flight")
+            .tags(tags)
+            .register(registry);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.statement.StatementCache;
+
+/**
+ * Binds the {@link StatementCache} of a data source to a {@link MeterRegistry}: the statements found in the cache,
+ * prepared because they were not, and evicted, with the number of statements cached. The meters are tagged with the
+ * name of the data source in {@code pool}.
+ *
+ * @since 6.0.0
+ */
+public class StatementCacheMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.statement-cache";
+
+    private final StatementCache cache;
+    private final Tags tags;
+
+    /**
+     * @param name  The name of the data source
+     * @param cache The statement cache
+     * @param tags  Additional tags
+     */
+    public StatementCacheMeterBinder(@NonNull String name, @NonNull StatementCache cache, @NonNull Iterable<Tag> tags) {
+        this.cache = cache;
+        this.tags = Tags.concat(tags, DataSourcePoolMeterBinder.POOL_TAG, name);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".hits", cache, StatementCache::getHitCount)
+            .description("Prepared statements found in the cache")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".misses", cache, StatementCache::getMissCount)
+            .description("Prepared statements prepared because they were not in the cache")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", cache, StatementCache::getEvictionCount)
+            .description("Prepared statements evicted from the cache")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", cache, StatementCache::getSize)
+            .description("Prepared statements cached for the connections of the pool")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".memory", cache, StatementCache::getEstimatedMemory)
+            .description("Estimated memory of the prepared statements cached for the connections of the pool")
+            .tags(tags)
+            .baseUnit("bytes")
+            .register(registry);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.profiling.StatementProfiler;
+import io.micronaut.jdbc.profiling.StatementStatistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds the statements tracked by the {@link StatementProfiler} of a data source to a {@link MeterRegistry}. Each
+ * tracked statement has its meters, tagged with the name of the data source in {@code pool} and with its
+ * fingerprint in {@code statement}. The meters are registered when a statement starts being tracked and removed
+ * when it is evicted, so the number of meters is bounded by the capacity of the profiler.
+ *
+ * @since 6.0.0
+ */
+public class StatementProfilerMeterBinder implements MeterBinder {
+
+    /**
+     * The prefix of the meter names.
+     */
+    public static final String METRIC_PREFIX = "jdbc.statements";
+
+    /**
+     * The tag holding the fingerprint of the statement.
+     */
+    public static final String STATEMENT_TAG = "statement";
+
+    private final StatementProfiler profiler;
+    private final Tags tags;
+
+    /**
+     * Creates a binder for the given profiler.
+     *
+     * @param name     The name of the data source
+     * @param profiler The statement profiler
+     * @param tags     Additional tags
+     */
+    public StatementProfilerMeterBinder(@NonNull String name, @NonNull StatementProfiler profiler, @NonNull Iterable<Tag> tags) {
+        this.profiler = profiler;
+        this.tags = Tags.concat(tags, DataSourcePoolMeterBinder.POOL_TAG, name);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Map<StatementStatistics, List<Meter>> meters = new ConcurrentHashMap<>();
+        profiler.addListener(new StatementProfiler.Listener() {
+            @Override
+            public void onTracked(StatementStatistics statistics) {
+                meters.computeIfAbsent(statistics, s -> register(registry, s));
+            }
+
+            @Override
+            public void onEvicted(StatementStatistics statistics) {
+                List<Meter> removed = meters.remove(statistics);
+                if (removed != null) {
+                    removed.forEach(registry::remove);
+                }
+            }
+        });
+        for (StatementStatistics statistics : profiler.getStatements()) {
+            if (!statistics.isEvicted()) {
+                meters.computeIfAbsent(statistics, s -> register(registry, s));
+            }
+        }
+    }
+
+    private List<Meter> register(MeterRegistry registry, StatementStatistics statistics) {
+        Tags statementTags = tags.and(STATEMENT_TAG, statistics.getFingerprint());
+        return List.of(
+            FunctionTimer.builder(METRIC_PREFIX, statistics, StatementStatistics::getExecutionCount, s -> s.getLatency().getTotal(), TimeUnit.NANOSECONDS)
+                .description("Statement execution time")
+                .tags(statementTags)
+                .register(registry),
+            TimeGauge.builder(METRIC_PREFIX + ".max", statistics, TimeUnit.NANOSECONDS, s -> s.getLatency().getMax())
+                .description("Longest statement execution time")
+                .tags(statementTags)
+                .register(registry),
+            FunctionCounter.builder(METRIC_PREFIX + ".rows", statistics, StatementStatistics::getRowCount)
+                .description("Rows read or changed by the statement")
+                .tags(statementTags)
+                .register(registry),
+            FunctionCounter.builder(METRIC_PREFIX + ".errors", statistics, StatementStatistics::getErrorCount)
+                .description("Failed statement executions")
+                .tags(statementTags)
+                .register(registry)
+        );
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Contains the Micrometer binder for the connection pool metrics of JDBC data sources.
+ *
+ * @since 6.0.0
+ */
+@Configuration
+@Requires(classes = MeterBinder.class)
+package io.micronaut.jdbc.metrics;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Configuration;
+import io.micronaut.context.annotation.Requires;
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.pinning;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+/**
+ * Pins a connection of each data source to each HTTP request, or to any unit of work started with {@link #start()}.
+ * The connection is borrowed when the unit of work first needs it, and held until the unit of work completes, so
+ * that a sequence of statements executed outside a transaction borrows, validates and returns a single connection.
+ * The connections are found in the {@link PinnedConnections} of the
+ * {@link io.micronaut.core.propagation.PropagatedContext}.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Requires(beans = ConnectionPinningConfiguration.class)
+public final class ConnectionPinning {
+
+    private final Duration maxHoldTime;
+    private final TaskScheduler taskScheduler;
+
+    /**
+     * @param configuration The configuration
+     * @param taskScheduler The scheduler returning the connections held too long
+     */
+    @Inject
+    ConnectionPinning(ConnectionPinningConfiguration configuration,
+                      @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler) {
+        this(configuration.getMaxHoldTime(), taskScheduler);
+    }
+
+    /**
+     * @param maxHoldTime   The maximum time a connection is held by a unit of work
+     * @param taskScheduler The scheduler returning the connections held too long
+     */
+    public ConnectionPinning(@NonNull Duration maxHoldTime, @NonNull TaskScheduler taskScheduler) {
+        this.maxHoldTime = maxHoldTime;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Starts pinning the connections of a unit of work. The connections must be added to the propagated context of
+     * the unit of work and {@link PinnedConnections#close() closed} at its end.
+     *
+     * @return The connections of the unit of work
+     */
+    @NonNull
+    public PinnedConnections start() {
+        return new PinnedConnections(maxHoldTime, taskScheduler);
+    }
+
+    /**
+     * @return The maximum time a connection is held by a unit of work
+     */
+    @NonNull
+    public Duration getMaxHoldTime() {
+        return maxHoldTime;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.pinning;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.bind.annotation.Bindable;
+import io.micronaut.core.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link ConnectionPinning} of the HTTP requests.
+ *
+ * @since 6.0.0
+ */
+@ConfigurationProperties(ConnectionPinningConfiguration.PREFIX)
+@Requires(property = ConnectionPinningConfiguration.PREFIX + ".enabled", value = StringUtils.TRUE)
+public interface ConnectionPinningConfiguration {
+
+    String PREFIX = "jdbc.connection-pinning";
+
+    /**
+     * Holds the connections borrowed by jOOQ and Jdbi during each HTTP request until the request completes.
+     *
+     * @return flag to enable the connection pinning. Defaults to <code>false</code>.
+     */
+    @Bindable(defaultValue = "false")
+    boolean isEnabled();
+
+    /**
+     * The maximum time a connection is held by a request. The connection is then returned to the pool as soon as
+     * it is not in use, and the following statements of the request borrow their own connections.
+     *
+     * @return the maximum hold time. Defaults to <code>5s</code>.
+     */
+    @Bindable(defaultValue = "5s")
+    Duration getMaxHoldTime();
+}
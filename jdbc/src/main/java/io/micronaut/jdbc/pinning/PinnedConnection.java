@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.pinning;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A connection lent by the {@link PinnedConnections} to a borrower. Closing it hands the connection back to the unit
+ * of work, after restoring the state changed by the borrower.
+ *
+ * @since 6.0.0
+ */
+@Internal
+final class PinnedConnection extends ConnectionWrapper {
+
+    private final PinnedConnections.Pin pin;
+    private Boolean autoCommit;
+    private Boolean readOnly;
+    private Integer transactionIsolation;
+    private boolean closed;
+
+    PinnedConnection(Connection connection, PinnedConnections.Pin pin) {
+        super(connection);
+        this.pin = pin;
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (this.autoCommit == null) {
+            this.autoCommit = getTargetConnection().getAutoCommit();
+        }
+        super.setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        if (this.readOnly == null) {
+            this.readOnly = getTargetConnection().isReadOnly();
+        }
+        super.setReadOnly(readOnly);
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        if (transactionIsolation == null) {
+            transactionIsolation = getTargetConnection().getTransactionIsolation();
+        }
+        super.setTransactionIsolation(level);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || super.isClosed();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean reset = false;
+        try {
+            reset();
+            reset = true;
+        } finally {
+            pin.returned(reset);
+        }
+    }
+
+    private void reset() throws SQLException {
+        Connection connection = getTargetConnection();
+        if (!connection.getAutoCommit()) {
+            connection.rollback();
+        }
+        if (autoCommit != null && connection.getAutoCommit() != autoCommit) {
+            connection.setAutoCommit(autoCommit);
+        }
+        if (readOnly != null && connection.isReadOnly() != readOnly) {
+            connection.setReadOnly(readOnly);
+        }
+        if (transactionIsolation != null && connection.getTransactionIsolation() != transactionIsolation) {
+            connection.setTransactionIsolation(transactionIsolation);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.pinning;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.propagation.PropagatedContext;
+import io.micronaut.core.propagation.PropagatedContextElement;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The connections pinned to a unit of work, such as an HTTP request, one per data source. The connection of a data
+ * source is borrowed from the data source the first time the unit of work needs it, and each following borrower
+ * gets it back instead of borrowing another connection, until the unit of work completes. The connections are found
+ * in the {@link PropagatedContext} by the jOOQ and Jdbi integrations.
+ *
+ * <p>A pinned connection is lent to one borrower at a time: the borrowers that need a connection while it is in
+ * use, such as concurrent tasks of the unit of work, borrow their own connections from the data source. When
+ * a borrower returns a pinned connection, the auto-commit, read-only and transaction isolation it changed are
+ * restored, and an uncommitted transaction is rolled back. A connection is held at most the maximum hold time of the
+ * {@link ConnectionPinning}, after which it is returned to the data source as soon as it is not in use, and the
+ * unit of work borrows its connections from the data source.</p>
+ *
+ * @since 6.0.0
+ */
+public final class PinnedConnections implements PropagatedContextElement {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PinnedConnections.class);
+
+    private final Duration maxHoldTime;
+    private final TaskScheduler taskScheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<DataSource, Pin> pins = new IdentityHashMap<>();
+    private final Set<DataSource> expired = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final AtomicInteger pinnedCount = new AtomicInteger();
+    private final AtomicInteger reuseCount = new AtomicInteger();
+    private boolean closed;
+
+    /**
+     * @param maxHoldTime   The maximum time a connection is held
+     * @param taskScheduler The scheduler returning the connections held too long
+     */
+    PinnedConnections(Duration maxHoldTime, TaskScheduler taskScheduler) {
+        this.maxHoldTime = maxHoldTime;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * @return The connections pinned to the current unit of work or {@code null} if the connections are not pinned
+     */
+    @Nullable
+    public static PinnedConnections current() {
+        PropagatedContext context = PropagatedContext.find().orElse(null);
+        return context == null ? null : context.find(PinnedConnections.class).orElse(null);
+    }
+
+    /**
+     * Borrows a connection of a data source, the connection pinned to the current unit of work if there is one.
+     *
+     * @param dataSource The data source
+     * @return The connection, to close when it is no longer used
+     * @throws SQLException if a connection cannot be borrowed
+     */
+    @NonNull
+    public static Connection getConnection(@NonNull DataSource dataSource) throws SQLException {
+        PinnedConnections connections = current();
+        return connections == null ? dataSource.getConnection() : connections.borrow(dataSource);
+    }
+
+    /**
+     * Borrows the connection of a data source pinned to the unit of work, and pins one if there is none yet. A
+     * connection is borrowed from the data source if the pinned connection is in use, if it has been held longer
+     * than the maximum hold time, or if the unit of work is completed.
+     *
+     * @param dataSource The data source
+     * @return The connection, to close when it is no longer used
+     * @throws SQLException if a connection cannot be borrowed
+     */
+    @NonNull
+    public Connection borrow(@NonNull DataSource dataSource) throws SQLException {
+        lock.lock();
+        try {
+            Pin pin = pins.get(dataSource);
+            if (pin != null && !pin.leased && !closed && !expired.contains(dataSource)) {
+                reuseCount.incrementAndGet();
+                return pin.lease();
+            }
+        } finally {
+            lock.unlock();
+        }
+        // the connection is borrowed outside the lock, so that a slow data source does not hold up the other borrowers
+        Connection connection = dataSource.getConnection();
+        Connection lent;
+        lock.lock();
+        try {
+            if (closed || expired.contains(dataSource)) {
+                return connection;
+            }
+            Pin pin = pins.get(dataSource);
+            if (pin == null) {
+                pin = new Pin(dataSource, connection);
+                pins.put(dataSource, pin);
+                pinnedCount.incrementAndGet();
+                pin.expiry = taskScheduler.schedule(maxHoldTime, pin::expire);
+                return pin.lease();
+            }
+            if (pin.leased) {
+                return connection;
+            }
+            // another borrower pinned a connection meanwhile
+            reuseCount.incrementAndGet();
+            lent = pin.lease();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Failed to return a connection of data source [{}]: {}", dataSource, e.getMessage());
+            }
+        }
+        return lent;
+    }
+
+    /**
+     * @return The number of connections pinned to the unit of work
+     */
+    public int getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    /**
+     * @return The number of times a pinned connection has been borrowed again instead of borrowing a connection from
+     * its data source
+     */
+    public int getReuseCount() {
+        return reuseCount.get();
+    }
+
+    /**
+     * @return Whether the unit of work is completed
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Completes the unit of work and returns its pinned connections to their data sources. The connections in use
+     * are returned when they are closed by their borrowers.
+     */
+    public void close() {
+        List<Pin> released = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pins.values().removeIf(pin -> {
+                pin.expiry.cancel(false);
+                if (pin.leased) {
+                    return false;
+                }
+                released.add(pin);
+                return true;
+            });
+        } finally {
+            lock.unlock();
+        }
+        released.forEach(Pin::release);
+    }
+
+    @Override
+    public String toString() {
+        return "PinnedConnections[pinned=" + pinnedCount.get() + ", reused=" + reuseCount.get() + "]";
+    }
+
+    /**
+     * A connection pinned to the unit of work.
+     */
+    final class Pin {
+
+        private final DataSource dataSource;
+        private final Connection connection;
+        private ScheduledFuture<?> expiry;
+        private boolean leased;
+        private boolean expiredWhileLeased;
+
+        private Pin(DataSource dataSource, Connection connection) {
+            this.dataSource = dataSource;
+            this.connection = connection;
+        }
+
+        /**
+         * Takes the connection back from its borrower, and returns it to its data source if the unit of work is
+         * completed, if it has been held too long, or if it could not be reset.
+         *
+         * @param reset Whether the state changed by the borrower has been restored
+         */
+        void returned(boolean reset) {
+            boolean release;
+            lock.lock();
+            try {
+                leased = false;
+                release = closed || expiredWhileLeased || !reset;
+                if (release) {
+                    pins.remove(dataSource, this);
+                    expiry.cancel(false);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (release) {
+                release();
+            }
+        }
+
+        private void expire() {
+            lock.lock();
+            try {
+                if (pins.get(dataSource) != this) {
+                    return;
+                }
+                expired.add(dataSource);
+                if (leased) {
+                    expiredWhileLeased = true;
+                    return;
+                }
+                pins.remove(dataSource);
+            } finally {
+                lock.unlock();
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Connection of data source [{}] held longer than {}, returning it", dataSource, maxHoldTime);
+            }
+            release();
+        }
+
+        private Connection lease() {
+            leased = true;
+            return new PinnedConnection(connection, this);
+        }
+
+        private void release() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Failed to return a pinned connection of data source [{}]: {}", dataSource, e.getMessage());
+                }
+            }
+        }
+    }
+}
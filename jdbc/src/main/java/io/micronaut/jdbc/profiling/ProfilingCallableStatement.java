@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.jdbc.CallableStatementWrapper;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Records the executions of a {@link CallableStatement} under the fingerprint of its SQL, computed once when the
+ * call is prepared.
+ *
+ * @since 6.0.0
+ */
+final class ProfilingCallableStatement extends CallableStatementWrapper {
+
+    private final Connection connection;
+    private final StatementProfiler profiler;
+    private final String fingerprint;
+    private StatementStatistics statistics;
+    private ProfilingResultSet resultSet;
+
+    ProfilingCallableStatement(Connection connection, CallableStatement statement, StatementProfiler profiler, String fingerprint) {
+        super(statement);
+        this.connection = connection;
+        this.profiler = profiler;
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        StatementStatistics statistics = statistics();
+        resultSet = StatementExecution.query(this, statistics, super::executeQuery);
+        return resultSet;
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        StatementStatistics statistics = statistics();
+        int count = StatementExecution.record(statistics, super::executeUpdate);
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        StatementStatistics statistics = statistics();
+        long count = StatementExecution.record(statistics, super::executeLargeUpdate);
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return StatementExecution.record(statistics(), super::execute);
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        StatementStatistics statistics = statistics();
+        return StatementExecution.recordRows(statistics, StatementExecution.record(statistics, super::executeBatch));
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        StatementStatistics statistics = statistics();
+        return StatementExecution.recordRows(statistics, StatementExecution.record(statistics, super::executeLargeBatch));
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        resultSet = ProfilingResultSet.wrap(this, resultSet, super.getResultSet(), statistics());
+        return resultSet;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    private StatementStatistics statistics() {
+        StatementStatistics current = statistics;
+        if (current == null || current.isEvicted()) {
+            current = profiler.getStatistics(fingerprint);
+            statistics = current;
+        }
+        return current;
+    }
+}
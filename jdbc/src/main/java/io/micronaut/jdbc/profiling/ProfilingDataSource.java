@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} that records the executions of the statements of a target data source in a
+ * {@link StatementProfiler}. It only wraps the connections, statements and result sets, so it works with any pool
+ * and with any library executing statements through JDBC.
+ *
+ * @since 6.0.0
+ */
+public final class ProfilingDataSource extends DataSourceWrapper {
+
+    private final StatementProfiler statementProfiler;
+
+    /**
+     * @param targetDataSource  The data source to profile
+     * @param statementProfiler The profiler to record to
+     */
+    public ProfilingDataSource(@NonNull DataSource targetDataSource, @NonNull StatementProfiler statementProfiler) {
+        super(targetDataSource);
+        this.statementProfiler = statementProfiler;
+    }
+
+    /**
+     * @return The profiler of the statements of the target data source
+     */
+    @NonNull
+    public StatementProfiler getStatementProfiler() {
+        return statementProfiler;
+    }
+
+    /**
+     * Finds the profiler of a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The profiler or {@code null} if the data source is not profiled
+     */
+    @Nullable
+    public static StatementProfiler findStatementProfiler(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof ProfilingDataSource profiling) {
+                return profiling.statementProfiler;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new ProfilingConnection(super.getConnection(), statementProfiler);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new ProfilingConnection(super.getConnection(username, password), statementProfiler);
+    }
+}
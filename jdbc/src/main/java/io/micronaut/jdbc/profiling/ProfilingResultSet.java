@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.ResultSetWrapper;
+import io.micronaut.jdbc.jfr.StatementEvent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the rows read from the result set of a profiled query. The rows are recorded, and the
+ * {@link StatementEvent} of the query emitted, when the result set is exhausted or closed.
+ *
+ * @since 6.0.0
+ */
+final class ProfilingResultSet extends ResultSetWrapper {
+
+    private final Statement statement;
+    private final StatementStatistics statistics;
+    private final StatementEvent event;
+    private long rows;
+    private boolean recorded;
+
+    ProfilingResultSet(Statement statement, ResultSet resultSet, StatementStatistics statistics, @Nullable StatementEvent event) {
+        super(resultSet);
+        this.statement = statement;
+        this.statistics = statistics;
+        this.event = event;
+    }
+
+    /**
+     * Wraps the current result set of a statement, unless it is the result set of the previous wrapper, so that the
+     * rows of a result set are counted once however many times it is requested.
+     *
+     * @param statement  The profiled statement
+     * @param previous   The previous wrapper returned by the statement, if any
+     * @param resultSet  The current result set of the statement
+     * @param statistics The statistics to record to
+     * @return The wrapper or {@code null} if there is no current result set
+     */
+    static ProfilingResultSet wrap(Statement statement, @Nullable ProfilingResultSet previous, @Nullable ResultSet resultSet, StatementStatistics statistics) {
+        if (resultSet == null) {
+            return null;
+        }
+        if (previous != null && previous.getTargetResultSet() == resultSet) {
+            return previous;
+        }
+        return new ProfilingResultSet(statement, resultSet, statistics, null);
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        boolean next = super.next();
+        if (next) {
+            rows++;
+        } else {
+            recordRows();
+        }
+        return next;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        recordRows();
+        super.close();
+    }
+
+    @Override
+    public Statement getStatement() {
+        return statement;
+    }
+
+    private void recordRows() {
+        if (!recorded) {
+            recorded = true;
+            statistics.recordRows(rows);
+            if (event != null) {
+                event.complete(rows);
+            }
+        }
+    }
+}
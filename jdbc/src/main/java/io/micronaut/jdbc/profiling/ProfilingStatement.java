@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.jdbc.StatementWrapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Records the executions of a {@link Statement}. Each SQL string is fingerprinted when it is executed, unless it is
+ * the SQL of the previous execution, and a batch is recorded under the fingerprint of its first statement.
+ *
+ * @since 6.0.0
+ */
+final class ProfilingStatement extends StatementWrapper {
+
+    private final Connection connection;
+    private final StatementProfiler profiler;
+    private StatementStatistics statistics;
+    private String sql;
+    private ProfilingResultSet resultSet;
+    private String batchSql;
+
+    ProfilingStatement(Connection connection, Statement statement, StatementProfiler profiler) {
+        super(statement);
+        this.connection = connection;
+        this.profiler = profiler;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        resultSet = StatementExecution.query(this, statistics, () -> super.executeQuery(sql));
+        return resultSet;
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        int count = StatementExecution.record(statistics, () -> super.executeUpdate(sql));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        int count = StatementExecution.record(statistics, () -> super.executeUpdate(sql, autoGeneratedKeys));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        int count = StatementExecution.record(statistics, () -> super.executeUpdate(sql, columnIndexes));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        int count = StatementExecution.record(statistics, () -> super.executeUpdate(sql, columnNames));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        long count = StatementExecution.record(statistics, () -> super.executeLargeUpdate(sql));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        long count = StatementExecution.record(statistics, () -> super.executeLargeUpdate(sql, autoGeneratedKeys));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        long count = StatementExecution.record(statistics, () -> super.executeLargeUpdate(sql, columnIndexes));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        StatementStatistics statistics = statistics(sql);
+        long count = StatementExecution.record(statistics, () -> super.executeLargeUpdate(sql, columnNames));
+        statistics.recordRows(count);
+        return count;
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return StatementExecution.record(statistics(sql), () -> super.execute(sql));
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return StatementExecution.record(statistics(sql), () -> super.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return StatementExecution.record(statistics(sql), () -> super.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return StatementExecution.record(statistics(sql), () -> super.execute(sql, columnNames));
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        super.addBatch(sql);
+        if (batchSql == null) {
+            batchSql = sql;
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        super.clearBatch();
+        batchSql = null;
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        if (batchSql == null) {
+            return super.executeBatch();
+        }
+        StatementStatistics statistics = statistics(batchSql);
+        batchSql = null;
+        return StatementExecution.recordRows(statistics, StatementExecution.record(statistics, super::executeBatch));
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        if (batchSql == null) {
+            return super.executeLargeBatch();
+        }
+        StatementStatistics statistics = statistics(batchSql);
+        batchSql = null;
+        return StatementExecution.recordRows(statistics, StatementExecution.record(statistics, super::executeLargeBatch));
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        if (statistics == null) {
+            return super.getResultSet();
+        }
+        resultSet = ProfilingResultSet.wrap(this, resultSet, super.getResultSet(), statistics);
+        return resultSet;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    private StatementStatistics statistics(String sql) {
+        StatementStatistics current = statistics;
+        if (current == null || current.isEvicted() || !sql.equals(this.sql)) {
+            // a statement usually executes the same SQL again, which is then not fingerprinted again
+            current = profiler.getStatistics(profiler.fingerprint(sql));
+            statistics = current;
+            this.sql = sql;
+        }
+        return current;
+    }
+}
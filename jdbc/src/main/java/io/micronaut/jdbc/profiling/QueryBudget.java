@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.env.Environment;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Limits the statements executed during each HTTP request, or during any unit of work started with
+ * {@link #start(String)}. The statements are counted by the {@link StatementCounter} found in the
+ * {@link io.micronaut.core.propagation.PropagatedContext}, so the statements executed by Hibernate, jOOQ, Jdbi or
+ * plain JDBC on any thread the context is propagated to are counted alike.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Requires(beans = QueryBudgetConfiguration.class)
+public final class QueryBudget {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryBudget.class);
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final long maxTimeNanos;
+    private final QueryBudgetAction action;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param configuration The configuration
+     * @param environment   The environment
+     */
+    @Inject
+    QueryBudget(QueryBudgetConfiguration configuration, Environment environment) {
+        this(configuration.getMaxStatements(), configuration.getMaxRepeats(), configuration.getMaxTime(),
+            configuration.getAction() != null ? configuration.getAction()
+                : environment.getActiveNames().contains(Environment.TEST) ? QueryBudgetAction.FAIL : QueryBudgetAction.LOG);
+    }
+
+    /**
+     * @param maxStatements The maximum number of statements, 0 for no limit
+     * @param maxRepeats    The maximum number of executions of a statement, 0 for no limit
+     * @param maxTime       The maximum time spent executing statements, {@code null} for no limit
+     * @param action        What to do when the budget is exceeded
+     */
+    public QueryBudget(int maxStatements, int maxRepeats, @Nullable Duration maxTime, @NonNull QueryBudgetAction action) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.maxTimeNanos = maxTime == null ? 0 : maxTime.toNanos();
+        this.action = action;
+    }
+
+    /**
+     * Starts counting the statements of a unit of work. The counter must be added to the propagated context of the
+     * unit of work and {@link StatementCounter#complete() completed} at its end.
+     *
+     * @param name The name of the unit of work, such as the method and path of a request
+     * @return The counter
+     */
+    @NonNull
+    public StatementCounter start(@NonNull String name) {
+        return new StatementCounter(this, name);
+    }
+
+    /**
+     * @return The maximum number of statements, 0 for no limit
+     */
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * @return The maximum number of executions of the statements sharing a fingerprint, 0 for no limit
+     */
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+
+    /**
+     * @return The maximum time spent executing statements or {@code null} for no limit
+     */
+    @Nullable
+    public Duration getMaxTime() {
+        return maxTimeNanos == 0 ? null : Duration.ofNanos(maxTimeNanos);
+    }
+
+    /**
+     * @return What to do when the budget is exceeded
+     */
+    @NonNull
+    public QueryBudgetAction getAction() {
+        return action;
+    }
+
+    /**
+     * Adds a listener notified when the units of work complete and exceed their budget.
+     *
+     * @param listener The listener
+     */
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Checks the budget after a statement has been counted.
+     *
+     * @param counter     The counter
+     * @param fingerprint The fingerprint of the statement
+     * @param executions  The executions of the statement during the unit of work
+     * @throws QueryBudgetExceededException if a limit is exceeded for the first time and the action is to fail
+     */
+    void check(StatementCounter counter, String fingerprint, int executions) throws QueryBudgetExceededException {
+        if (maxRepeats > 0 && executions == maxRepeats + 1) {
+            exceeded(counter, Limit.REPEATS, "Statement executed more than " + maxRepeats + " times during ["
+                + counter.getName() + "], this may be an N+1 select: " + fingerprint);
+        }
+        if (maxStatements > 0 && counter.getStatementCount() == maxStatements + 1) {
+            exceeded(counter, Limit.STATEMENTS, "More than " + maxStatements + " statements executed during ["
+                + counter.getName() + "]");
+        }
+        if (maxTimeNanos > 0 && counter.getTotalNanos() > maxTimeNanos && !counter.hasExceeded(Limit.TIME)) {
+            exceeded(counter, Limit.TIME, "Statements executed during [" + counter.getName() + "] took "
+                + Duration.ofNanos(counter.getTotalNanos()).toMillis() + "ms, more than " + Duration.ofNanos(maxTimeNanos).toMillis() + "ms");
+        }
+    }
+
+    /**
+     * @param counter The counter of a completed unit of work
+     */
+    void completed(StatementCounter counter) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{}", counter);
+        }
+        for (Listener listener : listeners) {
+            listener.onCompleted(counter);
+        }
+    }
+
+    private void exceeded(StatementCounter counter, Limit limit, String message) throws QueryBudgetExceededException {
+        if (!counter.exceeded(limit)) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.onExceeded(counter, limit);
+        }
+        if (action == QueryBudgetAction.FAIL) {
+            throw new QueryBudgetExceededException(message, counter, limit);
+        }
+        if (LOG.isWarnEnabled()) {
+            LOG.warn(message);
+        }
+    }
+
+    /**
+     * The limits of the budget.
+     */
+    public enum Limit {
+
+        /**
+         * The number of statements.
+         */
+        STATEMENTS,
+
+        /**
+         * The number of executions of the statements sharing a fingerprint.
+         */
+        REPEATS,
+
+        /**
+         * The time spent executing statements.
+         */
+        TIME
+    }
+
+    /**
+     * Notified when the units of work complete and exceed their budget, for example to publish them as meters.
+     */
+    public interface Listener {
+
+        /**
+         * @param counter The counter of a completed unit of work
+         */
+        void onCompleted(@NonNull StatementCounter counter);
+
+        /**
+         * @param counter The counter of the unit of work
+         * @param limit   The limit exceeded for the first time by the unit of work
+         */
+        void onExceeded(@NonNull StatementCounter counter, @NonNull Limit limit);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.bind.annotation.Bindable;
+import io.micronaut.core.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link QueryBudget} of the HTTP requests. Only the statements executed through the
+ * data sources with statement profiling enabled are counted.
+ *
+ * @since 6.0.0
+ */
+@ConfigurationProperties(QueryBudgetConfiguration.PREFIX)
+@Requires(property = QueryBudgetConfiguration.PREFIX + ".enabled", value = StringUtils.TRUE)
+public interface QueryBudgetConfiguration {
+
+    String PREFIX = "jdbc.query-budget";
+
+    /**
+     * Counts the statements executed during each HTTP request.
+     *
+     * @return flag to enable the query budget. Defaults to <code>false</code>.
+     */
+    @Bindable(defaultValue = "false")
+    boolean isEnabled();
+
+    /**
+     * The maximum number of statements executed during a request.
+     *
+     * @return the maximum number of statements. Defaults to <code>100</code>, <code>0</code> for no limit.
+     */
+    @Bindable(defaultValue = "100")
+    int getMaxStatements();
+
+    /**
+     * The maximum number of executions of the statements sharing a fingerprint during a request. A statement
+     * executed again and again, typically once per row of a previous query, is the signature of an N+1 select.
+     *
+     * @return the maximum number of executions. Defaults to <code>10</code>, <code>0</code> for no limit.
+     */
+    @Bindable(defaultValue = "10")
+    int getMaxRepeats();
+
+    /**
+     * The maximum time spent executing statements during a request.
+     *
+     * @return the maximum time. Defaults to no limit.
+     */
+    @Nullable
+    Duration getMaxTime();
+
+    /**
+     * What to do when a request exceeds its budget.
+     *
+     * @return the action. Defaults to {@link QueryBudgetAction#FAIL} when the <code>test</code> environment is
+     * active and to {@link QueryBudgetAction#LOG} otherwise.
+     */
+    @Nullable
+    QueryBudgetAction getAction();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown by a statement that exceeds the {@link QueryBudget} of the request executing it, when the action is
+ * {@link QueryBudgetAction#FAIL}.
+ *
+ * @since 6.0.0
+ */
+public final class QueryBudgetExceededException extends SQLException {
+
+    private final transient StatementCounter counter;
+    private final QueryBudget.Limit limit;
+
+    /**
+     * @param message The message
+     * @param counter The counter of the request
+     * @param limit   The exceeded limit
+     */
+    QueryBudgetExceededException(String message, StatementCounter counter, QueryBudget.Limit limit) {
+        super(message);
+        this.counter = counter;
+        this.limit = limit;
+    }
+
+    /**
+     * @return The counter of the request
+     */
+    @NonNull
+    public StatementCounter getCounter() {
+        return counter;
+    }
+
+    /**
+     * @return The exceeded limit
+     */
+    @NonNull
+    public QueryBudget.Limit getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.propagation.MutablePropagatedContext;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.annotation.RequestFilter;
+import io.micronaut.http.annotation.ResponseFilter;
+import io.micronaut.http.annotation.ServerFilter;
+
+/**
+ * Counts the statements executed during each HTTP request with the {@link QueryBudget}.
+ *
+ * @since 6.0.0
+ */
+@ServerFilter(ServerFilter.MATCH_ALL_PATTERN)
+@Requires(classes = ServerFilter.class)
+@Requires(beans = QueryBudget.class)
+@Internal
+final class QueryBudgetFilter {
+
+    private static final String ATTRIBUTE = StatementCounter.class.getName();
+
+    private final QueryBudget budget;
+
+    QueryBudgetFilter(QueryBudget budget) {
+        this.budget = budget;
+    }
+
+    @RequestFilter
+    void start(HttpRequest<?> request, MutablePropagatedContext propagatedContext) {
+        StatementCounter counter = budget.start(request.getMethodName() + " " + request.getPath());
+        request.setAttribute(ATTRIBUTE, counter);
+        propagatedContext.add(counter);
+    }
+
+    @ResponseFilter
+    void complete(HttpRequest<?> request) {
+        request.getAttribute(ATTRIBUTE, StatementCounter.class).ifPresent(StatementCounter::complete);
+    }
+}
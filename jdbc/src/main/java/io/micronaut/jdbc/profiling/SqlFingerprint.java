@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL into a fingerprint that is the same for every execution of a statement, whatever its literal
+ * values. String and numeric literals are replaced with {@code ?}, comments are removed, whitespace is collapsed
+ * and lists of parameters, such as the values of an {@code IN} clause or the rows of a multi-row insert, are
+ * reduced to a single entry. Identifiers, including quoted ones, and keywords are kept as they are.
+ *
+ * @since 6.0.0
+ */
+public final class SqlFingerprint {
+
+    /**
+     * The maximum length of a fingerprint. Longer fingerprints are truncated.
+     */
+    public static final int MAX_LENGTH = 2048;
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\b(IN) \\(\\?(?:, \\?)+\\)");
+    private static final Pattern REPEATED_ROWS = Pattern.compile("(\\(\\?(?:, \\?)*\\))(?:, \\1)+");
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of a SQL statement.
+     *
+     * @param sql The SQL
+     * @return The fingerprint
+     */
+    @NonNull
+    public static String of(@NonNull String sql) {
+        int length = sql.length();
+        StringBuilder fingerprint = new StringBuilder(Math.min(length, MAX_LENGTH));
+        boolean parameters = false;
+        int i = 0;
+        while (i < length && fingerprint.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                fingerprint.append('?');
+                parameters = true;
+            } else if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i, c);
+                fingerprint.append(sql, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = sql.indexOf('\n', i);
+                i = i < 0 ? length : i;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = sql.indexOf("*/", i + 2);
+                i = i < 0 ? length : i + 2;
+                appendSpace(fingerprint);
+            } else if (Character.isWhitespace(c)) {
+                appendSpace(fingerprint);
+                i++;
+            } else if (isDigit(c) && !isIdentifierPart(fingerprint)) {
+                i = skipNumber(sql, i);
+                fingerprint.append('?');
+                parameters = true;
+            } else if (c == ',') {
+                trimSpace(fingerprint);
+                fingerprint.append(", ");
+                i++;
+            } else if (c == ')') {
+                trimSpace(fingerprint);
+                fingerprint.append(')');
+                i++;
+            } else {
+                if (c == '?') {
+                    parameters = true;
+                }
+                fingerprint.append(c);
+                i++;
+            }
+        }
+        trimSpace(fingerprint);
+        String result = fingerprint.toString();
+        if (parameters && result.indexOf("?, ?") >= 0) {
+            result = IN_LIST.matcher(result).replaceAll("$1 (?)");
+            result = REPEATED_ROWS.matcher(result).replaceAll("$1");
+        }
+        return result;
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        int length = sql.length();
+        while (i < length) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        int length = sql.length();
+        if (i + 1 < length && sql.charAt(i) == '0' && (sql.charAt(i + 1) == 'x' || sql.charAt(i + 1) == 'X')) {
+            i += 2;
+            while (i < length && Character.digit(sql.charAt(i), 16) >= 0) {
+                i++;
+            }
+            return i;
+        }
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < length
+                && (isDigit(sql.charAt(i + 1)) || ((sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+') && i + 2 < length && isDigit(sql.charAt(i + 2))))) {
+                i += 2;
+            } else {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(StringBuilder fingerprint) {
+        if (fingerprint.length() == 0) {
+            return false;
+        }
+        char last = fingerprint.charAt(fingerprint.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$' || last == '"' || last == '`';
+    }
+
+    private static void appendSpace(StringBuilder fingerprint) {
+        int length = fingerprint.length();
+        if (length > 0) {
+            char last = fingerprint.charAt(length - 1);
+            if (last != ' ' && last != '(') {
+                fingerprint.append(' ');
+            }
+        }
+    }
+
+    private static void trimSpace(StringBuilder fingerprint) {
+        int length = fingerprint.length();
+        if (length > 0 && fingerprint.charAt(length - 1) == ' ') {
+            fingerprint.setLength(length - 1);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.propagation.PropagatedContext;
+import io.micronaut.core.propagation.PropagatedContextElement;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements executed during a unit of work, such as an HTTP request, and checks them against a
+ * {@link QueryBudget}. The counter is found in the {@link PropagatedContext} by the profiled statements.
+ *
+ * @since 6.0.0
+ */
+public final class StatementCounter implements PropagatedContextElement {
+
+    private final QueryBudget budget;
+    private final String name;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+    private final Set<QueryBudget.Limit> exceeded = EnumSet.noneOf(QueryBudget.Limit.class);
+    private volatile boolean completed;
+
+    /**
+     * @param budget The budget
+     * @param name   The name of the unit of work
+     */
+    StatementCounter(QueryBudget budget, String name) {
+        this.budget = budget;
+        this.name = name;
+    }
+
+    /**
+     * @return The counter of the current unit of work or {@code null} if the statements are not counted
+     */
+    @Nullable
+    public static StatementCounter current() {
+        PropagatedContext context = PropagatedContext.find().orElse(null);
+        return context == null ? null : context.find(StatementCounter.class).orElse(null);
+    }
+
+    /**
+     * @return The name of the unit of work
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of statements executed
+     */
+    public int getStatementCount() {
+        return statements.get();
+    }
+
+    /**
+     * @return The time spent executing statements
+     */
+    @NonNull
+    public Duration getTotalTime() {
+        return Duration.ofNanos(totalNanos.get());
+    }
+
+    /**
+     * @return The number of executions by statement fingerprint
+     */
+    @NonNull
+    public Map<String, Integer> getExecutionCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        executions.forEach((fingerprint, count) -> counts.put(fingerprint, count.get()));
+        return counts;
+    }
+
+    /**
+     * @return The limits of the budget exceeded by the unit of work
+     */
+    @NonNull
+    public synchronized Set<QueryBudget.Limit> getExceededLimits() {
+        return exceeded.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(exceeded));
+    }
+
+    /**
+     * @return Whether the unit of work is completed
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Completes the unit of work. The statements executed afterward are not counted.
+     */
+    public void complete() {
+        if (!completed) {
+            completed = true;
+            budget.completed(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCounter[" + name + ", statements=" + statements.get() + ", time=" + getTotalTime().toMillis()
+            + "ms, exceeded=" + getExceededLimits() + "]";
+    }
+
+    /**
+     * Counts an executed statement.
+     *
+     * @param fingerprint The fingerprint of the statement
+     * @param nanos       The execution time
+     * @throws QueryBudgetExceededException if the statement exceeds the budget and the action is to fail
+     */
+    void record(String fingerprint, long nanos) throws QueryBudgetExceededException {
+        if (completed) {
+            return;
+        }
+        statements.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        int count = executions.computeIfAbsent(fingerprint, ignored -> new AtomicInteger()).incrementAndGet();
+        budget.check(this, fingerprint, count);
+    }
+
+    long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    synchronized boolean hasExceeded(QueryBudget.Limit limit) {
+        return exceeded.contains(limit);
+    }
+
+    /**
+     * @param limit The exceeded limit
+     * @return Whether the limit is exceeded for the first time
+     */
+    synchronized boolean exceeded(QueryBudget.Limit limit) {
+        return exceeded.add(limit);
+    }
+}
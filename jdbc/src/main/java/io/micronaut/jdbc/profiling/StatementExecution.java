@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.jfr.StatementEvent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times the executions of the profiled statements.
+ *
+ * @since 6.0.0
+ */
+final class StatementExecution {
+
+    private StatementExecution() {
+    }
+
+    /**
+     * Executes a statement and records its execution time, and whether it failed. The statement is also counted
+     * by the {@link StatementCounter} of the current unit of work, if any, and emitted as a {@link StatementEvent}
+     * when the event is enabled in a running recording.
+     *
+     * @param statistics The statistics to record to
+     * @param execution  The execution
+     * @param <T>        The result type
+     * @return The result of the execution
+     * @throws SQLException if the execution fails or exceeds the {@link QueryBudget}
+     */
+    static <T> T record(StatementStatistics statistics, Execution<T> execution) throws SQLException {
+        StatementEvent event = StatementEvent.start(statistics.getDataSourceName(), statistics.getFingerprint());
+        T result = execute(statistics, execution, event);
+        if (event != null) {
+            event.complete(rows(result));
+        }
+        return result;
+    }
+
+    /**
+     * Executes a query like {@link #record(StatementStatistics, Execution)} and wraps its result set to count the
+     * rows read. The {@link StatementEvent} of the query is emitted when the result set is exhausted or closed.
+     *
+     * @param statement  The profiled statement
+     * @param statistics The statistics to record to
+     * @param execution  The execution
+     * @return The result set
+     * @throws SQLException if the execution fails or exceeds the {@link QueryBudget}
+     */
+    static ProfilingResultSet query(Statement statement, StatementStatistics statistics, Execution<ResultSet> execution) throws SQLException {
+        StatementEvent event = StatementEvent.start(statistics.getDataSourceName(), statistics.getFingerprint());
+        ResultSet resultSet = execute(statistics, execution, event);
+        if (resultSet == null) {
+            if (event != null) {
+                event.complete(-1);
+            }
+            return null;
+        }
+        return new ProfilingResultSet(statement, resultSet, statistics, event);
+    }
+
+    /**
+     * @param statistics The statistics to record to
+     * @param counts     The update counts of a batch
+     * @return The update counts
+     */
+    static int[] recordRows(StatementStatistics statistics, int[] counts) {
+        long rows = 0;
+        for (int count : counts) {
+            rows += Math.max(count, 0);
+        }
+        statistics.recordRows(rows);
+        return counts;
+    }
+
+    /**
+     * @param statistics The statistics to record to
+     * @param counts     The update counts of a batch
+     * @return The update counts
+     */
+    static long[] recordRows(StatementStatistics statistics, long[] counts) {
+        long rows = 0;
+        for (long count : counts) {
+            rows += Math.max(count, 0);
+        }
+        statistics.recordRows(rows);
+        return counts;
+    }
+
+    private static <T> T execute(StatementStatistics statistics, Execution<T> execution, @Nullable StatementEvent event) throws SQLException {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = execution.execute();
+        } catch (SQLException | RuntimeException e) {
+            long nanos = System.nanoTime() - start;
+            statistics.recordExecution(nanos, true);
+            if (event != null) {
+                event.executed(nanos);
+                event.fail();
+            }
+            try {
+                count(statistics, nanos);
+            } catch (QueryBudgetExceededException budgetExceeded) {
+                e.addSuppressed(budgetExceeded);
+            }
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        statistics.recordExecution(nanos, false);
+        if (event != null) {
+            event.executed(nanos);
+        }
+        try {
+            count(statistics, nanos);
+        } catch (QueryBudgetExceededException e) {
+            if (event != null) {
+                event.fail();
+            }
+            if (result instanceof ResultSet resultSet) {
+                // the caller never gets the result set to close
+                try {
+                    resultSet.close();
+                } catch (SQLException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long rows = -1;
+        if (result instanceof int[] counts) {
+            rows = 0;
+            for (int count : counts) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            rows = 0;
+            for (long count : counts) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    private static void count(StatementStatistics statistics, long nanos) throws QueryBudgetExceededException {
+        StatementCounter counter = StatementCounter.current();
+        if (counter != null) {
+            counter.record(statistics.getFingerprint(), nanos);
+        }
+    }
+
+    /**
+     * An execution of a statement.
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    interface Execution<T> {
+
+        /**
+         * @return The result
+         * @throws SQLException if the execution fails
+         */
+        T execute() throws SQLException;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the {@link StatementStatistics} of the most executed statements of a data source, by
+ * {@link SqlFingerprint fingerprint}, in fixed memory. The statements are tracked with a sampled variant of the
+ * space-saving algorithm: when the profiler is full, a statement that is not tracked yet replaces the statement
+ * with the lowest estimated number of executions among a few tracked statements picked at random. A statement
+ * executed much more often than {@code 1 / capacity} of all executions is therefore tracked.
+ *
+ * <p>Recording the execution of a tracked statement only reads a concurrent map and updates striped counters.
+ * Replacing a statement compares the sampled statements and swaps the slot of the replaced one, without a
+ * lock.</p>
+ *
+ * @since 6.0.0
+ */
+public final class StatementProfiler {
+
+    /**
+     * The default number of tracked statements.
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final int FINGERPRINT_CACHE_SIZE = 1024;
+
+    /**
+     * The number of tracked statements compared to pick the one a new statement replaces.
+     */
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final String dataSourceName;
+    private final int capacity;
+    private final Map<String, StatementStatistics> statements;
+    private final AtomicReferenceArray<StatementStatistics> slots;
+    private final AtomicInteger filledSlots = new AtomicInteger();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity The number of tracked statements
+     */
+    public StatementProfiler(int capacity) {
+        this(null, capacity);
+    }
+
+    /**
+     * @param dataSourceName The name of the profiled data source
+     * @param capacity       The number of tracked statements
+     */
+    public StatementProfiler(@Nullable String dataSourceName, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.dataSourceName = dataSourceName;
+        this.capacity = capacity;
+        this.statements = new ConcurrentHashMap<>(capacity * 2);
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return The name of the profiled data source or {@code null} if it is not known
+     */
+    @Nullable
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    /**
+     * @return The number of tracked statements
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The tracked statements, the longest total execution time first
+     */
+    @NonNull
+    public List<StatementStatistics> getStatements() {
+        List<StatementStatistics> result = new ArrayList<>(statements.values());
+        result.sort(Comparator.comparing(StatementStatistics::getTotalTime).reversed());
+        return result;
+    }
+
+    /**
+     * @param fingerprint The fingerprint
+     * @return The statistics of the statement or {@code null} if it is not tracked
+     */
+    @Nullable
+    public StatementStatistics findStatistics(@NonNull String fingerprint) {
+        return statements.get(fingerprint);
+    }
+
+    /**
+     * Returns the statistics to record an execution of a statement to, starting to track the statement if needed.
+     *
+     * @param fingerprint The fingerprint of the statement
+     * @return The statistics
+     */
+    @NonNull
+    public StatementStatistics getStatistics(@NonNull String fingerprint) {
+        StatementStatistics statistics = statements.get(fingerprint);
+        return statistics != null ? statistics : track(fingerprint);
+    }
+
+    /**
+     * Stops tracking every statement.
+     */
+    public void reset() {
+        for (int i = 0; i < capacity; i++) {
+            StatementStatistics statistics = slots.getAndSet(i, null);
+            if (statistics != null) {
+                evicted(statistics);
+            }
+        }
+        filledSlots.set(0);
+    }
+
+    /**
+     * Adds a listener notified when statements start and stop being tracked. The listener is not notified of the
+     * statements tracked before it is added.
+     *
+     * @param listener The listener
+     */
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public String toString() {
+        return "StatementProfiler[" + statements.size() + "/" + capacity + "]";
+    }
+
+    /**
+     * Computes the fingerprint of the SQL of a statement. The same SQL is usually prepared again and again, so the
+     * fingerprints are cached. An arbitrary fingerprint is dropped when the cache is full.
+     *
+     * @param sql The SQL
+     * @return The fingerprint
+     */
+    String fingerprint(String sql) {
+        String fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = SqlFingerprint.of(sql);
+            if (fingerprints.size() >= FINGERPRINT_CACHE_SIZE) {
+                Iterator<String> iterator = fingerprints.keySet().iterator();
+                if (iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            fingerprints.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private StatementStatistics track(String fingerprint) {
+        int free = filledSlots.get() < capacity ? filledSlots.getAndIncrement() : capacity;
+        if (free < capacity) {
+            StatementStatistics statistics = new StatementStatistics(dataSourceName, fingerprint, 0);
+            StatementStatistics tracked = statements.putIfAbsent(fingerprint, statistics);
+            if (tracked != null) {
+                // the slot is left empty, and replaced first once the profiler is full
+                return tracked;
+            }
+            slots.set(free, statistics);
+            tracked(statistics);
+            return statistics;
+        }
+        int index = lowestSample();
+        StatementStatistics lowest = slots.get(index);
+        StatementStatistics statistics = new StatementStatistics(dataSourceName, fingerprint, lowest == null ? 0 : lowest.getEstimatedCount());
+        StatementStatistics tracked = statements.putIfAbsent(fingerprint, statistics);
+        if (tracked != null) {
+            return tracked;
+        }
+        while (!slots.compareAndSet(index, lowest, statistics)) {
+            // another statement replaced the sampled one first
+            index = lowestSample();
+            lowest = slots.get(index);
+        }
+        if (lowest != null) {
+            evicted(lowest);
+        }
+        tracked(statistics);
+        return statistics;
+    }
+
+    private int lowestSample() {
+        // a small profiler compares all its statements
+        boolean sampled = capacity > EVICTION_SAMPLES;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int lowestIndex = 0;
+        long lowestCount = Long.MAX_VALUE;
+        for (int i = 0; i < Math.min(EVICTION_SAMPLES, capacity); i++) {
+            int index = sampled ? random.nextInt(capacity) : i;
+            StatementStatistics candidate = slots.get(index);
+            if (candidate == null) {
+                return index;
+            }
+            long count = candidate.getEstimatedCount();
+            if (count < lowestCount) {
+                lowestIndex = index;
+                lowestCount = count;
+            }
+        }
+        return lowestIndex;
+    }
+
+    private void tracked(StatementStatistics statistics) {
+        for (Listener listener : listeners) {
+            listener.onTracked(statistics);
+        }
+    }
+
+    private void evicted(StatementStatistics statistics) {
+        statements.remove(statistics.getFingerprint(), statistics);
+        statistics.evict();
+        for (Listener listener : listeners) {
+            listener.onEvicted(statistics);
+        }
+    }
+
+    /**
+     * Notified when statements start and stop being tracked, for example to publish them as meters.
+     */
+    public interface Listener {
+
+        /**
+         * @param statistics The statistics of a statement that started being tracked
+         */
+        void onTracked(@NonNull StatementStatistics statistics);
+
+        /**
+         * @param statistics The statistics of a statement that stopped being tracked
+         */
+        void onEvicted(@NonNull StatementStatistics statistics);
+    }
+}
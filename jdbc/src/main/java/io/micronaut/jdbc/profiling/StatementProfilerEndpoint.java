@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.naming.Named;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.timing.LatencyHistogram;
+import io.micronaut.management.endpoint.annotation.Delete;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Selector;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the statements tracked by the {@link StatementProfiler} of each profiled data source, the longest total
+ * execution time first. Times are in milliseconds.
+ *
+ * @since 6.0.0
+ */
+@Endpoint(StatementProfilerEndpoint.NAME)
+@Requires(classes = Endpoint.class)
+public class StatementProfilerEndpoint {
+
+    /**
+     * The endpoint id.
+     */
+    public static final String NAME = "statements";
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final BeanContext beanContext;
+    private final DataSourceResolver dataSourceResolver;
+
+    /**
+     * @param beanContext        The bean context
+     * @param dataSourceResolver The data source resolver
+     */
+    public StatementProfilerEndpoint(BeanContext beanContext, @Nullable DataSourceResolver dataSourceResolver) {
+        this.beanContext = beanContext;
+        this.dataSourceResolver = dataSourceResolver == null ? DataSourceResolver.DEFAULT : dataSourceResolver;
+    }
+
+    /**
+     * @return The tracked statements by data source name
+     */
+    @Read
+    @NonNull
+    public Map<String, List<Map<String, Object>>> statements() {
+        Map<String, List<Map<String, Object>>> statements = new LinkedHashMap<>();
+        profilers().forEach((name, profiler) -> statements.put(name, describe(profiler)));
+        return statements;
+    }
+
+    /**
+     * @param name The data source name
+     * @return The tracked statements of the data source or {@code null} if it is not profiled
+     */
+    @Read
+    @Nullable
+    public List<Map<String, Object>> statements(@Selector String name) {
+        StatementProfiler profiler = profilers().get(name);
+        return profiler == null ? null : describe(profiler);
+    }
+
+    /**
+     * Stops tracking the statements of every data source.
+     */
+    @Delete
+    public void reset() {
+        profilers().values().forEach(StatementProfiler::reset);
+    }
+
+    /**
+     * Stops tracking the statements of a data source.
+     *
+     * @param name The data source name
+     */
+    @Delete
+    public void reset(@Selector String name) {
+        StatementProfiler profiler = profilers().get(name);
+        if (profiler != null) {
+            profiler.reset();
+        }
+    }
+
+    private Map<String, StatementProfiler> profilers() {
+        Map<String, StatementProfiler> profilers = new LinkedHashMap<>();
+        for (BeanDefinition<DataSource> definition : beanContext.getBeanDefinitions(DataSource.class)) {
+            if (definition.getDeclaredQualifier() instanceof Named named) {
+                StatementProfiler profiler = ProfilingDataSource.findStatementProfiler(dataSourceResolver.resolve(beanContext.getBean(definition)));
+                if (profiler != null) {
+                    profilers.put(named.getName(), profiler);
+                }
+            }
+        }
+        return profilers;
+    }
+
+    private static List<Map<String, Object>> describe(StatementProfiler profiler) {
+        List<Map<String, Object>> statements = new ArrayList<>();
+        for (StatementStatistics statistics : profiler.getStatements()) {
+            LatencyHistogram latency = statistics.getLatency();
+            Map<String, Object> statement = new LinkedHashMap<>();
+            statement.put("fingerprint", statistics.getFingerprint());
+            statement.put("executions", statistics.getExecutionCount());
+            statement.put("errors", statistics.getErrorCount());
+            statement.put("rows", statistics.getRowCount());
+            statement.put("total", latency.getTotal() / NANOS_PER_MILLI);
+            statement.put("mean", latency.getMean() / NANOS_PER_MILLI);
+            statement.put("p50", latency.getValueAtPercentile(50) / NANOS_PER_MILLI);
+            statement.put("p95", latency.getValueAtPercentile(95) / NANOS_PER_MILLI);
+            statement.put("p99", latency.getValueAtPercentile(99) / NANOS_PER_MILLI);
+            statement.put("max", latency.getMax() / NANOS_PER_MILLI);
+            statements.add(statement);
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.statement-profiling.enabled} set in a
+ * {@link ProfilingDataSource}. The listener runs after the connection timings and the read/write routing, so the
+ * statements sent to the replicas are profiled as well.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class StatementProfilingDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    StatementProfilingDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String prefix = "datasources." + event.getBeanIdentifier().getName() + ".statement-profiling.";
+        if (dataSource instanceof ProfilingDataSource || !propertyResolver.getProperty(prefix + "enabled", Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "statement profiling")) {
+            return dataSource;
+        }
+        StatementProfiler profiler = new StatementProfiler(
+            event.getBeanIdentifier().getName(),
+            propertyResolver.getProperty(prefix + "capacity", Integer.class, StatementProfiler.DEFAULT_CAPACITY)
+        );
+        return new ProfilingDataSource(dataSource, profiler);
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.STATEMENT_PROFILING;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.jdbc.timing.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The executions of the statements sharing a {@link SqlFingerprint fingerprint}, as recorded by a
+ * {@link StatementProfiler}. The latency is the time the driver took to execute the statement, it does not include
+ * reading the rows of a query.
+ *
+ * @since 6.0.0
+ */
+public final class StatementStatistics {
+
+    private final String dataSourceName;
+    private final String fingerprint;
+    private final long overestimation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean evicted;
+
+    /**
+     * @param dataSourceName The name of the profiled data source
+     * @param fingerprint    The fingerprint
+     * @param overestimation The executions inherited from the evicted statement
+     */
+    StatementStatistics(String dataSourceName, String fingerprint, long overestimation) {
+        this.dataSourceName = dataSourceName;
+        this.fingerprint = fingerprint;
+        this.overestimation = overestimation;
+    }
+
+    /**
+     * @return The fingerprint of the statements
+     */
+    @NonNull
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return The number of executions recorded since the statement entered the profiler
+     */
+    public long getExecutionCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * The estimated number of executions, used to rank the statements. When the profiler is full, a new statement
+     * replaces the statement with the lowest estimate and inherits its estimate, because its earlier executions
+     * may have been counted for evicted statements. The estimate is at most {@link #getOverestimation()} above the
+     * actual number of executions.
+     *
+     * @return The estimated number of executions
+     */
+    public long getEstimatedCount() {
+        return overestimation + latency.getCount();
+    }
+
+    /**
+     * @return The maximum number of executions the estimated count may be above the actual count
+     */
+    public long getOverestimation() {
+        return overestimation;
+    }
+
+    /**
+     * @return The execution times
+     */
+    @NonNull
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return The total execution time
+     */
+    @NonNull
+    public Duration getTotalTime() {
+        return Duration.ofNanos(latency.getTotal());
+    }
+
+    /**
+     * @return The number of rows read by queries and changed by updates
+     */
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    /**
+     * @return The number of executions that failed
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Whether the statement was evicted from the profiler, in which case nothing is recorded anymore
+     */
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementStatistics[" + fingerprint + ", executions=" + getExecutionCount() + ", errors=" + getErrorCount()
+            + ", rows=" + getRowCount() + ", total=" + getTotalTime().toMillis() + "ms]";
+    }
+
+    void recordExecution(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    void recordRows(long count) {
+        if (count > 0) {
+            rows.add(count);
+        }
+    }
+
+    void evict() {
+        evicted = true;
+    }
+
+    String getDataSourceName() {
+        return dataSourceName;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.routing;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A {@link DataSource} that sends read-only connections to replicas and every other connection to the primary
+ * data source it wraps. The connections it returns are only opened when they are first used, so that
+ * {@link Connection#setReadOnly(boolean)}, as called by a read-only transaction, can still decide where they go.
+ * When the replica cannot provide a connection the primary is used instead.
+ *
+ * @since 6.0.0
+ */
+public final class ReadWriteRoutingDataSource extends DataSourceWrapper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final Supplier<List<Replica>> replicaSupplier;
+    private final ReplicaSelection replicaSelection;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Replica> replicas;
+
+    /**
+     * @param primary          The data source for connections that are not read-only
+     * @param replicas         The data sources for read-only connections
+     * @param replicaSelection How to pick the replica for a connection
+     */
+    public ReadWriteRoutingDataSource(@NonNull DataSource primary,
+                                      @NonNull List<DataSource> replicas,
+                                      @NonNull ReplicaSelection replicaSelection) {
+        this(primary, () -> {
+            List<Replica> list = new ArrayList<>(replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                list.add(new Replica("replica-" + i, replicas.get(i), null));
+            }
+            return list;
+        }, replicaSelection);
+    }
+
+    /**
+     * @param primary          The data source for connections that are not read-only
+     * @param replicaSupplier  Resolves the replicas on the first read-only connection
+     * @param replicaSelection How to pick the replica for a connection
+     */
+    ReadWriteRoutingDataSource(@NonNull DataSource primary,
+                               @NonNull Supplier<List<Replica>> replicaSupplier,
+                               @NonNull ReplicaSelection replicaSelection) {
+        super(primary);
+        this.replicaSupplier = replicaSupplier;
+        this.replicaSelection = replicaSelection;
+    }
+
+    /**
+     * @return The data source for connections that are not read-only
+     */
+    @NonNull
+    public DataSource getPrimary() {
+        return getTargetDataSource();
+    }
+
+    /**
+     * @return The data sources for read-only connections
+     */
+    @NonNull
+    public List<DataSource> getReplicas() {
+        return getReplicaList().stream().map(Replica::getDataSource).toList();
+    }
+
+    /**
+     * @return How the replica for a connection is picked
+     */
+    @NonNull
+    public ReplicaSelection getReplicaSelection() {
+        return replicaSelection;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new RoutingConnection(this, null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new RoutingConnection(this, username, password);
+    }
+
+    /**
+     * Opens the target of a {@link RoutingConnection}.
+     *
+     * @param connection The routing connection
+     * @param readOnly   Whether the connection is read-only
+     * @return The target connection
+     * @throws SQLException if no connection can be opened
+     */
+    Connection open(RoutingConnection connection, boolean readOnly) throws SQLException {
+        Replica replica = readOnly ? selectReplica() : null;
+        if (replica != null) {
+            try {
+                Connection target = openConnection(replica.getDataSource(), connection);
+                replica.opened();
+                connection.setReplica(replica);
+                return target;
+            } catch (SQLException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Replica [" + replica + "] failed to provide a connection, using the primary: " + e.getMessage(), e);
+                }
+            }
+        }
+        return openConnection(getTargetDataSource(), connection);
+    }
+
+    @Nullable
+    private Replica selectReplica() {
+        List<Replica> list = getReplicaList();
+        int size = list.size();
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return list.get(0);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        if (replicaSelection == ReplicaSelection.ROUND_ROBIN) {
+            return list.get(start);
+        }
+        // least active, starting the scan at the round robin position to spread ties
+        Replica selected = null;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = list.get((start + i) % size);
+            int active = replica.getActive();
+            if (active < fewest) {
+                fewest = active;
+                selected = replica;
+            }
+        }
+        return selected;
+    }
+
+    private List<Replica> getReplicaList() {
+        List<Replica> list = replicas;
+        if (list == null) {
+            synchronized (this) {
+                list = replicas;
+                if (list == null) {
+                    list = List.copyOf(replicaSupplier.get());
+                    replicas = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    private static Connection openConnection(DataSource dataSource, RoutingConnection connection) throws SQLException {
+        String username = connection.getUsername();
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, connection.getPassword());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.routing;
+
+import io.micronaut.context.BeanLocator;
+import io.micronaut.context.Qualifier;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.replicas} set in a
+ * {@link ReadWriteRoutingDataSource}. The listener runs after the connection timings, so the routing data source
+ * sits below the Micronaut Data proxies and is what {@link DataSourceResolver} returns.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class ReadWriteRoutingDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final BeanLocator beanLocator;
+    private final PropertyResolver propertyResolver;
+
+    ReadWriteRoutingDataSourceListener(BeanLocator beanLocator, PropertyResolver propertyResolver) {
+        this.beanLocator = beanLocator;
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String name = event.getBeanIdentifier().getName();
+        String prefix = "datasources." + name + ".";
+        List<String> replicaNames = propertyResolver.getProperty(prefix + "replicas", Argument.listOf(String.class)).orElse(List.of());
+        if (replicaNames.isEmpty() || dataSource instanceof ReadWriteRoutingDataSource || !DataSourceBeans.isWrappable(event, "read/write routing")) {
+            return dataSource;
+        }
+        for (String replicaName : replicaNames) {
+            if (replicaName.equals(name) || !propertyResolver.containsProperties("datasources." + replicaName)) {
+                throw new ConfigurationException("Replica [" + replicaName + "] of data source [" + name + "] must be another configured data source");
+            }
+        }
+        ReplicaSelection replicaSelection = propertyResolver.getProperty(prefix + "replica-selection", ReplicaSelection.class, ReplicaSelection.ROUND_ROBIN);
+        return new ReadWriteRoutingDataSource(dataSource, () -> resolveReplicas(replicaNames), replicaSelection);
+    }
+
+    private List<Replica> resolveReplicas(List<String> replicaNames) {
+        DataSourceResolver dataSourceResolver = beanLocator.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT);
+        List<Replica> replicas = new ArrayList<>(replicaNames.size());
+        for (String replicaName : replicaNames) {
+            Qualifier<DataSource> qualifier = Qualifiers.byName(replicaName);
+            DataSource replica = dataSourceResolver.resolve(beanLocator.getBean(DataSource.class, qualifier));
+            DataSourcePoolMetadata<?> metadata = beanLocator.findBean(DataSourcePoolMetadata.class, Qualifiers.byName(replicaName)).orElse(null);
+            replicas.add(new Replica(replicaName, replica, metadata));
+        }
+        return replicas;
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.READ_WRITE_ROUTING;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.routing;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.metadata.DataSourcePoolMetadata;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A replica of a {@link ReadWriteRoutingDataSource} with the number of connections routed to it.
+ *
+ * @since 6.0.0
+ */
+final class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final DataSourcePoolMetadata<?> metadata;
+    private final AtomicInteger open = new AtomicInteger();
+
+    Replica(@NonNull String name, @NonNull DataSource dataSource, @Nullable DataSourcePoolMetadata<?> metadata) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.metadata = metadata;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return The active connections reported by the pool, or else the connections currently routed to the replica
+     */
+    int getActive() {
+        Integer active = metadata == null ? null : metadata.getActive();
+        return active == null ? open.get() : active;
+    }
+
+    void opened() {
+        open.incrementAndGet();
+    }
+
+    void closed() {
+        open.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.routing;
+
+/**
+ * How a {@link ReadWriteRoutingDataSource} picks the replica for a read-only connection.
+ *
+ * @since 6.0.0
+ */
+public enum ReplicaSelection {
+
+    /**
+     * Use the replicas in turn.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Use the replica with the fewest active connections, as reported by its
+     * {@link io.micronaut.jdbc.metadata.DataSourcePoolMetadata}, or else by the routing data source itself.
+     */
+    LEAST_ACTIVE
+}
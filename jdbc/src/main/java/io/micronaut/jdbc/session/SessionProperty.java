@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.session;
+
+import io.micronaut.core.annotation.NonNull;
+
+/**
+ * The session properties of a connection cached by the {@link SessionStateCachingDataSource}, in the order they
+ * are restored.
+ *
+ * @since 6.0.0
+ */
+public enum SessionProperty {
+
+    /**
+     * {@link java.sql.Connection#setAutoCommit(boolean)}.
+     */
+    AUTO_COMMIT("auto-commit"),
+
+    /**
+     * {@link java.sql.Connection#setReadOnly(boolean)}.
+     */
+    READ_ONLY("read-only"),
+
+    /**
+     * {@link java.sql.Connection#setTransactionIsolation(int)}.
+     */
+    TRANSACTION_ISOLATION("transaction-isolation"),
+
+    /**
+     * {@link java.sql.Connection#setCatalog(String)}.
+     */
+    CATALOG("catalog"),
+
+    /**
+     * {@link java.sql.Connection#setSchema(String)}.
+     */
+    SCHEMA("schema");
+
+    private final String propertyName;
+
+    SessionProperty(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return The name of the property, as used in the meter tags
+     */
+    @NonNull
+    public String getPropertyName() {
+        return propertyName;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.session;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The session state the connections of a data source have when they are borrowed, and the number of calls changing
+ * the session state that were skipped because they changed nothing.
+ *
+ * <p>The borrow state is learned from the first connection that reads each property, and is valid for all the
+ * connections because the {@link SessionStateCachingDataSource} restores the state of a connection when it is
+ * closed. If a connection cannot be restored, the borrow state is no longer trusted and each connection reads it
+ * again.</p>
+ *
+ * @since 6.0.0
+ */
+public final class SessionStateCache {
+
+    static final Object UNKNOWN = new Object();
+
+    private static final SessionProperty[] PROPERTIES = SessionProperty.values();
+
+    private final AtomicReferenceArray<Object> borrowState = new AtomicReferenceArray<>(PROPERTIES.length);
+    private final LongAdder[] saved = new LongAdder[PROPERTIES.length];
+    private final LongAdder restored = new LongAdder();
+    private volatile boolean trusted = true;
+
+    /**
+     * Default constructor.
+     */
+    public SessionStateCache() {
+        for (int i = 0; i < PROPERTIES.length; i++) {
+            borrowState.set(i, UNKNOWN);
+            saved[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return The number of calls changing the session state that were skipped
+     */
+    public long getSavedCount() {
+        long count = 0;
+        for (LongAdder adder : saved) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @param property The session property
+     * @return The number of calls changing the property that were skipped
+     */
+    public long getSavedCount(@NonNull SessionProperty property) {
+        return saved[property.ordinal()].sum();
+    }
+
+    /**
+     * @return The number of calls changing the session state that were skipped, by property
+     */
+    @NonNull
+    public Map<SessionProperty, Long> getSavedCounts() {
+        Map<SessionProperty, Long> counts = new EnumMap<>(SessionProperty.class);
+        for (SessionProperty property : PROPERTIES) {
+            counts.put(property, saved[property.ordinal()].sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @return The number of connections whose session state was restored when they were closed
+     */
+    public long getRestoredCount() {
+        return restored.sum();
+    }
+
+    /**
+     * @return Whether the borrow state learned from the connections is trusted
+     */
+    public boolean isTrusted() {
+        return trusted;
+    }
+
+    /**
+     * @return A copy of the borrow state, with {@link #UNKNOWN} for the properties that are not known yet
+     */
+    Object[] borrowState() {
+        Object[] state = new Object[PROPERTIES.length];
+        for (int i = 0; i < state.length; i++) {
+            state[i] = trusted ? borrowState.get(i) : UNKNOWN;
+        }
+        return state;
+    }
+
+    void learn(SessionProperty property, Object value) {
+        if (trusted) {
+            borrowState.compareAndSet(property.ordinal(), UNKNOWN, value);
+        }
+    }
+
+    void saved(SessionProperty property) {
+        saved[property.ordinal()].increment();
+    }
+
+    void restored() {
+        restored.increment();
+    }
+
+    void distrust() {
+        trusted = false;
+    }
+}
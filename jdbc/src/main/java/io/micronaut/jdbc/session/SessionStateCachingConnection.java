@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.session;
+
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Tracks the session state of a borrowed connection, skips the calls that would not change it, and restores the
+ * properties that were changed when the connection is closed.
+ *
+ * @since 6.0.0
+ */
+final class SessionStateCachingConnection extends ConnectionWrapper {
+
+    private final SessionStateCache cache;
+    private final Object[] borrowState;
+    private final Object[] state;
+    private boolean closed;
+
+    SessionStateCachingConnection(Connection connection, SessionStateCache cache) {
+        super(connection);
+        this.cache = cache;
+        this.borrowState = cache.borrowState();
+        this.state = borrowState.clone();
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (changes(SessionProperty.AUTO_COMMIT, autoCommit)) {
+            super.setAutoCommit(autoCommit);
+            state[SessionProperty.AUTO_COMMIT.ordinal()] = autoCommit;
+        }
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return (Boolean) get(SessionProperty.AUTO_COMMIT);
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        if (changes(SessionProperty.READ_ONLY, readOnly)) {
+            super.setReadOnly(readOnly);
+            state[SessionProperty.READ_ONLY.ordinal()] = readOnly;
+        }
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return (Boolean) get(SessionProperty.READ_ONLY);
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        if (changes(SessionProperty.TRANSACTION_ISOLATION, level)) {
+            super.setTransactionIsolation(level);
+            state[SessionProperty.TRANSACTION_ISOLATION.ordinal()] = level;
+        }
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        return (Integer) get(SessionProperty.TRANSACTION_ISOLATION);
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        if (changes(SessionProperty.CATALOG, catalog)) {
+            super.setCatalog(catalog);
+            state[SessionProperty.CATALOG.ordinal()] = catalog;
+        }
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return (String) get(SessionProperty.CATALOG);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        if (changes(SessionProperty.SCHEMA, schema)) {
+            super.setSchema(schema);
+            state[SessionProperty.SCHEMA.ordinal()] = schema;
+        }
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return (String) get(SessionProperty.SCHEMA);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            super.close();
+            return;
+        }
+        closed = true;
+        try {
+            restore();
+        } catch (SQLException | RuntimeException e) {
+            cache.distrust();
+            try {
+                super.close();
+            } catch (SQLException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+        super.close();
+    }
+
+    private boolean changes(SessionProperty property, Object value) throws SQLException {
+        if (Objects.equals(get(property), value)) {
+            cache.saved(property);
+            return false;
+        }
+        return true;
+    }
+
+    private Object get(SessionProperty property) throws SQLException {
+        int index = property.ordinal();
+        Object value = state[index];
+        if (value == SessionStateCache.UNKNOWN) {
+            // the property is read before any change, so this is its borrow state
+            value = read(property);
+            state[index] = value;
+            borrowState[index] = value;
+            cache.learn(property, value);
+        }
+        return value;
+    }
+
+    private Object read(SessionProperty property) throws SQLException {
+        return switch (property) {
+            case AUTO_COMMIT -> super.getAutoCommit();
+            case READ_ONLY -> super.isReadOnly();
+            case TRANSACTION_ISOLATION -> super.getTransactionIsolation();
+            case CATALOG -> super.getCatalog();
+            case SCHEMA -> super.getSchema();
+        };
+    }
+
+    private void restore() throws SQLException {
+        boolean changed = false;
+        for (int i = 0; i < state.length; i++) {
+            changed |= !Objects.equals(state[i], borrowState[i]);
+        }
+        if (!changed) {
+            return;
+        }
+        if (Boolean.FALSE.equals(get(SessionProperty.AUTO_COMMIT))) {
+            // changing the auto-commit mode, or the read-only state of some drivers, would commit the transaction
+            super.rollback();
+        }
+        for (SessionProperty property : SessionProperty.values()) {
+            Object value = borrowState[property.ordinal()];
+            if (!Objects.equals(state[property.ordinal()], value)) {
+                switch (property) {
+                    case AUTO_COMMIT -> super.setAutoCommit((Boolean) value);
+                    case READ_ONLY -> super.setReadOnly((Boolean) value);
+                    case TRANSACTION_ISOLATION -> super.setTransactionIsolation((Integer) value);
+                    case CATALOG -> super.setCatalog((String) value);
+                    case SCHEMA -> super.setSchema((String) value);
+                }
+                state[property.ordinal()] = value;
+            }
+        }
+        cache.restored();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.session;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} whose connections track their session state: the auto-commit mode, the read-only state,
+ * the transaction isolation, the catalog and the schema. A call that would not change the state is skipped, since
+ * several drivers send it to the database even so, and the properties that were changed are restored when the
+ * connection is closed, so that every connection is borrowed in the same state.
+ *
+ * <p>Only the changes made through the JDBC API are tracked. A statement changing the session state, such as
+ * {@code SET search_path}, or a change made on an unwrapped connection, is not seen.</p>
+ *
+ * @since 6.0.0
+ */
+public final class SessionStateCachingDataSource extends DataSourceWrapper {
+
+    private final SessionStateCache sessionStateCache;
+
+    /**
+     * @param targetDataSource  The data source whose connections are tracked
+     * @param sessionStateCache The session state cache of the data source
+     */
+    public SessionStateCachingDataSource(@NonNull DataSource targetDataSource, @NonNull SessionStateCache sessionStateCache) {
+        super(targetDataSource);
+        this.sessionStateCache = sessionStateCache;
+    }
+
+    /**
+     * @return The session state cache of the data source
+     */
+    @NonNull
+    public SessionStateCache getSessionStateCache() {
+        return sessionStateCache;
+    }
+
+    /**
+     * Finds the session state cache of a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The cache or {@code null} if the data source does not cache the session state
+     */
+    @Nullable
+    public static SessionStateCache findSessionStateCache(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof SessionStateCachingDataSource caching) {
+                return caching.sessionStateCache;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new SessionStateCachingConnection(super.getConnection(), sessionStateCache);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new SessionStateCachingConnection(super.getConnection(username, password), sessionStateCache);
+    }
+}
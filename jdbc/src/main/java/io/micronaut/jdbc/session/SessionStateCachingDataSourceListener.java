@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.session;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.session-state-cache.enabled} set in a
+ * {@link SessionStateCachingDataSource}. The listener runs right after the connection timings, before the
+ * read/write routing, so the cached state is the state of the connections of the pool.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class SessionStateCachingDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    SessionStateCachingDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String property = "datasources." + event.getBeanIdentifier().getName() + ".session-state-cache.enabled";
+        if (dataSource instanceof SessionStateCachingDataSource || !propertyResolver.getProperty(property, Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "session state cache")) {
+            return dataSource;
+        }
+        return new SessionStateCachingDataSource(dataSource, new SessionStateCache());
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.SESSION_STATE_CACHE;
+    }
+}
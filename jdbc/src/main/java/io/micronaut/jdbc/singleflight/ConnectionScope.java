@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * The catalog, schema and user of a borrowed connection, which are part of the {@link QueryKey key} of its queries,
+ * so that the connections of different tenants never share rows. The catalog and the schema are read on the first
+ * query of the borrow, and again after the borrower changes them.
+ *
+ * @since 6.0.0
+ */
+@Internal
+public final class ConnectionScope {
+
+    private final Connection connection;
+    private final String user;
+    private String catalog;
+    private String schema;
+    private boolean resolved;
+
+    /**
+     * @param connection The connection
+     * @param user       The user the connection was borrowed for, or {@code null} for the user of the data source
+     */
+    public ConnectionScope(Connection connection, @Nullable String user) {
+        this.connection = connection;
+        this.user = user;
+    }
+
+    /**
+     * Reads the catalog and the schema again on the next query, after the borrower changed them.
+     */
+    public void changed() {
+        resolved = false;
+    }
+
+    /**
+     * @param sql          The SQL of the query
+     * @param values       The keys of the bind values, by parameter index
+     * @param maxRows      The maximum number of rows of the statement
+     * @param maxFieldSize The maximum field size of the statement
+     * @return The key of the query on this connection
+     * @throws SQLException if the catalog or the schema cannot be read
+     */
+    QueryKey key(String sql, Object[] values, int maxRows, int maxFieldSize) throws SQLException {
+        if (!resolved) {
+            catalog = connection.getCatalog();
+            try {
+                schema = connection.getSchema();
+            } catch (SQLFeatureNotSupportedException e) {
+                schema = null;
+            }
+            resolved = true;
+        }
+        return new QueryKey(catalog, schema, user, sql, values, maxRows, maxFieldSize);
+    }
+}
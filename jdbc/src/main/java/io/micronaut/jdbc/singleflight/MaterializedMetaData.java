@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * A copy of the metadata of a result, read once when the result is materialized.
+ *
+ * @since 6.0.0
+ */
+final class MaterializedMetaData implements ResultSetMetaData {
+
+    private final int columnCount;
+    private final boolean[] autoIncrement;
+    private final boolean[] caseSensitive;
+    private final boolean[] searchable;
+    private final boolean[] currency;
+    private final int[] nullable;
+    private final boolean[] signed;
+    private final int[] columnDisplaySize;
+    private final String[] columnLabel;
+    private final String[] columnName;
+    private final String[] schemaName;
+    private final int[] precision;
+    private final int[] scale;
+    private final String[] tableName;
+    private final String[] catalogName;
+    private final int[] columnType;
+    private final String[] columnTypeName;
+    private final String[] columnClassName;
+
+    MaterializedMetaData(ResultSetMetaData metaData) throws SQLException {
+        this.columnCount = metaData.getColumnCount();
+        this.autoIncrement = new boolean[columnCount];
+        this.caseSensitive = new boolean[columnCount];
+        this.searchable = new boolean[columnCount];
+        this.currency = new boolean[columnCount];
+        this.nullable = new int[columnCount];
+        this.signed = new boolean[columnCount];
+        this.columnDisplaySize = new int[columnCount];
+        this.columnLabel = new String[columnCount];
+        this.columnName = new String[columnCount];
+        this.schemaName = new String[columnCount];
+        this.precision = new int[columnCount];
+        this.scale = new int[columnCount];
+        this.tableName = new String[columnCount];
+        this.catalogName = new String[columnCount];
+        this.columnType = new int[columnCount];
+        this.columnTypeName = new String[columnCount];
+        this.columnClassName = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            int column = i + 1;
+            autoIncrement[i] = metaData.isAutoIncrement(column);
+            caseSensitive[i] = metaData.isCaseSensitive(column);
+            searchable[i] = metaData.isSearchable(column);
+            currency[i] = metaData.isCurrency(column);
+            nullable[i] = metaData.isNullable(column);
+            signed[i] = metaData.isSigned(column);
+            columnDisplaySize[i] = metaData.getColumnDisplaySize(column);
+            columnLabel[i] = metaData.getColumnLabel(column);
+            columnName[i] = metaData.getColumnName(column);
+            schemaName[i] = metaData.getSchemaName(column);
+            precision[i] = metaData.getPrecision(column);
+            scale[i] = metaData.getScale(column);
+            tableName[i] = metaData.getTableName(column);
+            catalogName[i] = metaData.getCatalogName(column);
+            columnType[i] = metaData.getColumnType(column);
+            columnTypeName[i] = metaData.getColumnTypeName(column);
+            columnClassName[i] = metaData.getColumnClassName(column);
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+        return autoIncrement[index(column)];
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+        return caseSensitive[index(column)];
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+        return searchable[index(column)];
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+        return currency[index(column)];
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+        return nullable[index(column)];
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        return signed[index(column)];
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        return columnDisplaySize[index(column)];
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        return columnLabel[index(column)];
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        return columnName[index(column)];
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+        return schemaName[index(column)];
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        return precision[index(column)];
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        return scale[index(column)];
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+        return tableName[index(column)];
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+        return catalogName[index(column)];
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        return columnType[index(column)];
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        return columnTypeName[index(column)];
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+        index(column);
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+        index(column);
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+        index(column);
+        return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        return columnClassName[index(column)];
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private int index(int column) throws SQLException {
+        if (column < 1 || column > columnCount) {
+            throw new SQLException("Invalid column index: " + column);
+        }
+        return column - 1;
+    }
+}
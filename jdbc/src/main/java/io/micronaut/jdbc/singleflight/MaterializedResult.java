@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.Internal;
+
+import javax.sql.rowset.serial.SerialArray;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The rows of a result read into memory, shared by the callers of a query. The large objects are read into byte
+ * arrays and strings, and the arrays into {@link SerialArray serial arrays}, so that the rows do not depend on the
+ * connection that read them.
+ *
+ * @since 6.0.0
+ */
+@Internal
+public final class MaterializedResult {
+
+    private final MaterializedMetaData metaData;
+    private final List<Object[]> rows;
+    private final Map<String, Integer> columns;
+
+    private MaterializedResult(MaterializedMetaData metaData, List<Object[]> rows) throws SQLException {
+        this.metaData = metaData;
+        this.rows = Collections.unmodifiableList(rows);
+        Map<String, Integer> labels = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int column = metaData.getColumnCount(); column > 0; column--) {
+            // the first column of a label wins
+            labels.put(metaData.getColumnLabel(column), column);
+        }
+        this.columns = labels;
+    }
+
+    /**
+     * Reads the rows of a result set.
+     *
+     * @param resultSet The result set, which is not closed
+     * @return The materialized result
+     * @throws SQLException If the result set cannot be read
+     */
+    public static MaterializedResult of(ResultSet resultSet) throws SQLException {
+        MaterializedMetaData metaData = new MaterializedMetaData(resultSet.getMetaData());
+        int columnCount = metaData.getColumnCount();
+        List<Object[]> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = read(resultSet, i + 1);
+            }
+            rows.add(row);
+        }
+        return new MaterializedResult(metaData, rows);
+    }
+
+    /**
+     * @param statement The statement returning the result set
+     * @return A new cursor over the rows
+     */
+    MaterializedResultSet open(Statement statement) {
+        return new MaterializedResultSet(this, statement);
+    }
+
+    /**
+     * Estimates the memory retained by the rows, counting the headers of the rows and the sizes of their values.
+     *
+     * @return The estimated size in bytes
+     */
+    public long estimateSize() {
+        long size = 64 + 16L * metaData.getColumnCount();
+        for (Object[] row : rows) {
+            size += 16 + 4L * row.length;
+            for (Object value : row) {
+                size += estimateSize(value);
+            }
+        }
+        return size;
+    }
+
+    MaterializedMetaData getMetaData() {
+        return metaData;
+    }
+
+    List<Object[]> getRows() {
+        return rows;
+    }
+
+    /**
+     * @param label The label of a column, ignoring case
+     * @return The index of the column, or {@code null}
+     */
+    Integer findColumn(String label) {
+        return columns.get(label);
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            return 40 + 2L * string.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return 64;
+        }
+        if (value instanceof SerialArray) {
+            return 256;
+        }
+        return 24;
+    }
+
+    private static Object read(ResultSet resultSet, int column) throws SQLException {
+        Object value = resultSet.getObject(column);
+        if (value instanceof Blob blob) {
+            return blob.getBytes(1, (int) blob.length());
+        }
+        if (value instanceof Clob clob) {
+            return clob.getSubString(1, (int) clob.length());
+        }
+        if (value instanceof SQLXML xml) {
+            return xml.getString();
+        }
+        if (value instanceof Array array) {
+            return new SerialArray(array);
+        }
+        return value;
+    }
+}
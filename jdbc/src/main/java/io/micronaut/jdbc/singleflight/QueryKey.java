@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.Internal;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Identifies the executions of a query that return the same rows: the same SQL, bind values and row limits, on a
+ * connection with the same catalog, schema and user.
+ *
+ * @since 6.0.0
+ */
+@Internal
+public final class QueryKey {
+
+    private final String catalog;
+    private final String schema;
+    private final String user;
+    private final String sql;
+    private final Object[] values;
+    private final int maxRows;
+    private final int maxFieldSize;
+    private final int hash;
+
+    /**
+     * @param catalog      The catalog of the connection
+     * @param schema       The schema of the connection
+     * @param user         The user the connection was borrowed for
+     * @param sql          The SQL of the query
+     * @param values       The keys of the bind values, by parameter index
+     * @param maxRows      The maximum number of rows of the statement
+     * @param maxFieldSize The maximum field size of the statement
+     */
+    QueryKey(String catalog, String schema, String user, String sql, Object[] values, int maxRows, int maxFieldSize) {
+        this.catalog = catalog;
+        this.schema = schema;
+        this.user = user;
+        this.sql = sql;
+        this.values = values;
+        this.maxRows = maxRows;
+        this.maxFieldSize = maxFieldSize;
+        this.hash = 31 * (31 * (31 * (31 * sql.hashCode() + Arrays.hashCode(values)) + maxRows) + maxFieldSize)
+            + Objects.hash(catalog, schema, user);
+    }
+
+    /**
+     * @return The SQL of the query
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof QueryKey other
+            && hash == other.hash
+            && maxRows == other.maxRows
+            && maxFieldSize == other.maxFieldSize
+            && sql.equals(other.sql)
+            && Arrays.equals(values, other.values)
+            && Objects.equals(catalog, other.catalog)
+            && Objects.equals(schema, other.schema)
+            && Objects.equals(user, other.user);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + Arrays.toString(values);
+    }
+}
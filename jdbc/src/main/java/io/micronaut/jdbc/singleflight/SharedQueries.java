@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.Internal;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Executes the read queries whose rows are read into memory and shared between their callers, such as the queries
+ * in flight of a {@link SingleFlight}.
+ *
+ * @since 6.0.0
+ */
+@Internal
+@FunctionalInterface
+public interface SharedQueries {
+
+    /**
+     * Executes a query, or returns the rows of the same query executed by another caller.
+     *
+     * @param key            The key of the query
+     * @param query          The execution of the query
+     * @param timeoutSeconds The maximum time to wait for the execution of another caller, or {@code 0} to wait without limit
+     * @return The rows of the query
+     * @throws SQLException If the query fails
+     */
+    MaterializedResult execute(QueryKey key, Query query, int timeoutSeconds) throws SQLException;
+
+    /**
+     * The execution of a query by its first caller.
+     */
+    @FunctionalInterface
+    interface Query {
+
+        /**
+         * @return The result set of the query
+         * @throws SQLException If the query fails
+         */
+        ResultSet execute() throws SQLException;
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.PreparedStatementWrapper;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.UUID;
+
+/**
+ * A read statement whose executions return rows shared with the other callers of the same query, such as the rows
+ * of the same query in flight on the other connections of the data source. The bind values are recorded as keys,
+ * and the executions with a value whose key cannot be compared, such as a stream or a large object, or outside of
+ * auto-commit mode, go to the database as usual.
+ *
+ * @since 6.0.0
+ */
+@Internal
+public final class SharedQueryStatement extends PreparedStatementWrapper {
+
+    private static final Object NULL = new Object() {
+        @Override
+        public String toString() {
+            return "NULL";
+        }
+    };
+    private static final Object OPAQUE = new Object();
+
+    private final Connection connection;
+    private final ConnectionScope scope;
+    private final SharedQueries queries;
+    private final String sql;
+    private Object[] values = new Object[8];
+    private int parameterCount;
+    private boolean shared;
+    private MaterializedResultSet result;
+
+    /**
+     * @param statement  The statement
+     * @param connection The connection that prepared the statement
+     * @param scope      The catalog, schema and user of the connection
+     * @param queries    The executions of the queries
+     * @param sql        The SQL of the statement
+     */
+    public SharedQueryStatement(PreparedStatement statement, Connection connection, ConnectionScope scope, SharedQueries queries, String sql) {
+        super(statement);
+        this.connection = connection;
+        this.scope = scope;
+        this.queries = queries;
+        this.sql = sql;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        closeResult();
+        shared = false;
+        QueryKey key = key();
+        if (key == null) {
+            return super.executeQuery();
+        }
+        result = queries.execute(key, super::executeQuery, getQueryTimeout()).open(this);
+        shared = true;
+        return result;
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        closeResult();
+        shared = false;
+        QueryKey key = key();
+        if (key == null) {
+            return super.execute();
+        }
+        result = queries.execute(key, () -> {
+            if (!super.execute()) {
+                throw new SQLException("The query did not return a result set: " + sql);
+            }
+            return getTargetStatement().getResultSet();
+        }, getQueryTimeout()).open(this);
+        shared = true;
+        return true;
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        closeResult();
+        shared = false;
+        return super.executeUpdate();
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        closeResult();
+        shared = false;
+        return super.executeLargeUpdate();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return shared ? result : super.getResultSet();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return shared ? -1 : super.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        if (!shared) {
+            return super.getMoreResults();
+        }
+        closeResult();
+        return false;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        if (!shared) {
+            return super.getMoreResults(current);
+        }
+        if (current == KEEP_CURRENT_RESULT) {
+            result = null;
+        } else {
+            closeResult();
+        }
+        return false;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closeResult();
+        super.close();
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        super.clearParameters();
+        Arrays.fill(values, 0, parameterCount, null);
+        parameterCount = 0;
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        super.setNull(parameterIndex, sqlType);
+        record(parameterIndex, Arrays.asList(NULL, sqlType));
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        super.setBoolean(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        super.setByte(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        super.setShort(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        super.setInt(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        super.setLong(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        super.setFloat(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        super.setDouble(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        super.setBigDecimal(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        super.setString(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        super.setBytes(parameterIndex, x);
+        record(parameterIndex, keyOf(x));
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        super.setDate(parameterIndex, x);
+        record(parameterIndex, keyOf(x));
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        super.setTime(parameterIndex, x);
+        record(parameterIndex, keyOf(x));
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        super.setTimestamp(parameterIndex, x);
+        record(parameterIndex, keyOf(x));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        super.setAsciiStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Deprecated
+    @Override
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        super.setUnicodeStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        super.setBinaryStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        super.setObject(parameterIndex, x, targetSqlType);
+        record(parameterIndex, keyOf(x, targetSqlType));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        super.setObject(parameterIndex, x);
+        record(parameterIndex, keyOf(x));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+        super.setCharacterStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        super.setRef(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        super.setBlob(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        super.setClob(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        super.setArray(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        super.setDate(parameterIndex, x, cal);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        super.setTime(parameterIndex, x, cal);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        super.setTimestamp(parameterIndex, x, cal);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        super.setNull(parameterIndex, sqlType, typeName);
+        record(parameterIndex, Arrays.asList(NULL, sqlType, typeName));
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        super.setURL(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        super.setRowId(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String x) throws SQLException {
+        super.setNString(parameterIndex, x);
+        record(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        super.setNCharacterStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob x) throws SQLException {
+        super.setNClob(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+        super.setClob(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+        super.setBlob(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+        super.setNClob(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+        super.setSQLXML(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        super.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        record(parameterIndex, keyOf(x, targetSqlType, scaleOrLength));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        super.setAsciiStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        super.setBinaryStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        super.setCharacterStream(parameterIndex, x, length);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        super.setAsciiStream(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        super.setBinaryStream(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        super.setCharacterStream(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        super.setNCharacterStream(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x) throws SQLException {
+        super.setClob(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+        super.setBlob(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x) throws SQLException {
+        super.setNClob(parameterIndex, x);
+        record(parameterIndex, OPAQUE);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        super.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        record(parameterIndex, keyOf(x, targetSqlType, scaleOrLength));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        super.setObject(parameterIndex, x, targetSqlType);
+        record(parameterIndex, keyOf(x, targetSqlType));
+    }
+
+    private void record(int parameterIndex, Object key) {
+        if (parameterIndex > values.length) {
+            values = Arrays.copyOf(values, Math.max(parameterIndex, values.length * 2));
+        }
+        values[parameterIndex - 1] = key;
+        parameterCount = Math.max(parameterCount, parameterIndex);
+    }
+
+    /**
+     * @return The key of the execution, or {@code null} if it cannot be shared
+     */
+    private QueryKey key() throws SQLException {
+        for (int i = 0; i < parameterCount; i++) {
+            if (values[i] == OPAQUE) {
+                return null;
+            }
+        }
+        // a transaction must see its own changes
+        if (!connection.getAutoCommit()) {
+            return null;
+        }
+        return scope.key(sql, Arrays.copyOf(values, parameterCount), getMaxRows(), getMaxFieldSize());
+    }
+
+    private void closeResult() {
+        if (result != null) {
+            result.close();
+            result = null;
+        }
+    }
+
+    private static Object keyOf(Object x, Object... options) {
+        Object key = keyOf(x);
+        if (key == OPAQUE) {
+            return OPAQUE;
+        }
+        Object[] keys = new Object[options.length + 1];
+        keys[0] = key;
+        System.arraycopy(options, 0, keys, 1, options.length);
+        return Arrays.asList(keys);
+    }
+
+    private static Object keyOf(Object x) {
+        if (x == null || x instanceof String || x instanceof Boolean || x instanceof Character
+            || x instanceof Integer || x instanceof Long || x instanceof Short || x instanceof Byte
+            || x instanceof Double || x instanceof Float || x instanceof BigDecimal || x instanceof BigInteger
+            || x instanceof UUID || x instanceof Enum<?>
+            || x instanceof LocalDate || x instanceof LocalTime || x instanceof LocalDateTime || x instanceof OffsetDateTime
+            || x instanceof OffsetTime || x instanceof ZonedDateTime || x instanceof Instant) {
+            return x;
+        }
+        if (x instanceof byte[] bytes) {
+            return ByteBuffer.wrap(bytes.clone());
+        }
+        if (x instanceof java.util.Date date) {
+            // the dates are mutable, and a date and a timestamp of the same instant are equal
+            return Arrays.asList(date.getClass(), date.clone());
+        }
+        return OPAQUE;
+    }
+}
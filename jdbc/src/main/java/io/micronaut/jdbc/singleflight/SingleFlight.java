@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The queries in flight on the connections of a data source. The first caller of a query executes it and reads its
+ * rows into memory, and the callers of the same query while it runs wait for these rows instead of executing it
+ * again. A query that fails fails for all its callers.
+ *
+ * <p>Only the queries that look like plain reads are coalesced: a {@code SELECT} or {@code WITH} whose SQL names no
+ * data change ({@code INSERT}, {@code UPDATE}, {@code DELETE}, {@code MERGE}, {@code SELECT ... INTO}), no lock
+ * ({@code FOR UPDATE}, {@code FOR SHARE}, lock functions), no sequence, random or identifier generator, no identity
+ * of the session's last insert and no session variable or temporary table ({@code @name}, {@code #name}).</p>
+ *
+ * @since 6.0.0
+ */
+public final class SingleFlight {
+
+    private static final int MAX_PARSED_STATEMENTS = 1000;
+    private static final Set<String> EXCLUDED_WORDS = Set.of(
+        "insert", "update", "delete", "merge", "into", "next", "share", "nowait", "rand", "newid", "currval", "lastval", "setval"
+    );
+    private static final String[] EXCLUDED_PARTS = {
+        "nextval", "random", "uuid", "guid", "lock", "identity", "last_insert", "connection_id", "backend_pid", "sys_context", "userenv"
+    };
+
+    private final String name;
+    private final Map<QueryKey, CompletableFuture<MaterializedResult>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> statements = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param name The name of the data source
+     */
+    public SingleFlight(@NonNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the data source
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The number of queries executed by their first caller
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * @return The number of queries that waited for the execution of their first caller
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return The number of distinct queries in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return Whether the executions of the statement can be coalesced
+     */
+    boolean isCoalescable(String sql) {
+        Boolean coalescable = statements.get(sql);
+        if (coalescable == null) {
+            if (statements.size() >= MAX_PARSED_STATEMENTS) {
+                statements.clear();
+            }
+            coalescable = isRead(sql);
+            statements.put(sql, coalescable);
+        }
+        return coalescable;
+    }
+
+    /**
+     * Executes a query, or waits for the execution of the same query in flight.
+     *
+     * @param key            The key of the query
+     * @param query          The execution of the query
+     * @param timeoutSeconds The maximum time to wait for the execution in flight, or {@code 0} to wait without limit
+     * @return The rows of the query
+     * @throws SQLException If the query fails
+     */
+    MaterializedResult execute(QueryKey key, SharedQueries.Query query, int timeoutSeconds) throws SQLException {
+        CompletableFuture<MaterializedResult> flight = new CompletableFuture<>();
+        CompletableFuture<MaterializedResult> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing, timeoutSeconds);
+        }
+        executions.increment();
+        try (ResultSet resultSet = query.execute()) {
+            MaterializedResult result = MaterializedResult.of(resultSet);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static MaterializedResult await(CompletableFuture<MaterializedResult> flight, int timeoutSeconds) throws SQLException {
+        try {
+            return timeoutSeconds > 0 ? flight.get(timeoutSeconds, TimeUnit.SECONDS) : flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                // a copy, so that the callers do not share the suppressed exceptions of the first caller
+                throw new SQLException(sqlException.getMessage(), sqlException.getSQLState(), sqlException.getErrorCode(), sqlException);
+            }
+            throw new SQLException("Error executing the query: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException("Timed out waiting for the same query in flight after " + timeoutSeconds + " seconds", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the same query in flight", e);
+        }
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return Whether the statement looks like a plain read
+     */
+    public static boolean isRead(@NonNull String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        boolean first = true;
+        int i = 0;
+        while (i < length) {
+            char c = lower.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                // literals and quoted identifiers
+                int end = lower.indexOf(c, i + 1);
+                while (end > 0 && end + 1 < length && lower.charAt(end + 1) == c) {
+                    end = lower.indexOf(c, end + 2);
+                }
+                if (end < 0) {
+                    return false;
+                }
+                i = end + 1;
+            } else if (c == '-' && lower.startsWith("--", i)) {
+                int end = lower.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && lower.startsWith("/*", i)) {
+                int end = lower.indexOf("*/", i + 2);
+                if (end < 0) {
+                    return false;
+                }
+                i = end + 2;
+            } else if (isWordPart(c)) {
+                int start = i;
+                while (i < length && isWordPart(lower.charAt(i))) {
+                    i++;
+                }
+                String word = lower.substring(start, i);
+                if (first && !word.equals("select") && !word.equals("with")) {
+                    return false;
+                }
+                first = false;
+                if (isExcluded(word)) {
+                    return false;
+                }
+            } else {
+                i++;
+            }
+        }
+        return !first;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '@' || c == '#';
+    }
+
+    private static boolean isExcluded(String word) {
+        char start = word.charAt(0);
+        if (start == '@' || start == '#' || EXCLUDED_WORDS.contains(word)) {
+            return true;
+        }
+        for (String part : EXCLUDED_PARTS) {
+            if (word.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A connection whose read statements, prepared with {@link Connection#prepareStatement(String)} or a forward-only,
+ * read-only result, coalesce their executions with the same queries in flight on a connection with the same catalog,
+ * schema and user.
+ *
+ * @since 6.0.0
+ */
+final class SingleFlightConnection extends ConnectionWrapper {
+
+    private final SingleFlight singleFlight;
+    private final ConnectionScope scope;
+
+    SingleFlightConnection(Connection connection, SingleFlight singleFlight, String user) {
+        super(connection);
+        this.singleFlight = singleFlight;
+        this.scope = new ConnectionScope(connection, user);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement statement = super.prepareStatement(sql);
+        return singleFlight.isCoalescable(sql) ? new SharedQueryStatement(statement, this, scope, singleFlight::execute, sql) : statement;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        if (resultSetType != ResultSet.TYPE_FORWARD_ONLY || resultSetConcurrency != ResultSet.CONCUR_READ_ONLY) {
+            return super.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return prepareStatement(sql);
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        super.setCatalog(catalog);
+        scope.changed();
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        super.setSchema(schema);
+        scope.changed();
+    }
+}
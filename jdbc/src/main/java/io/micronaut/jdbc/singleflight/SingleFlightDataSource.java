@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} whose identical read queries, with identical bind values, are not sent to the database
+ * twice while they are in flight: the later callers wait for the execution of the first one, and each caller reads
+ * the same rows from memory through its own read-only {@link java.sql.ResultSet}.
+ *
+ * <p>Only the prepared statements executed in auto-commit mode, whose SQL is a plain read as described by
+ * {@link SingleFlight}, and whose bind values are simple values, such as numbers, strings, byte arrays and dates,
+ * are coalesced. The connections of the data source must see the same data: statements that read the state of a
+ * session, such as its schema or temporary tables, must not go through such a data source.</p>
+ *
+ * @since 6.0.0
+ */
+public final class SingleFlightDataSource extends DataSourceWrapper {
+
+    private final SingleFlight singleFlight;
+
+    /**
+     * @param targetDataSource The data source whose queries are coalesced
+     * @param singleFlight     The queries in flight of the data source
+     */
+    public SingleFlightDataSource(@NonNull DataSource targetDataSource, @NonNull SingleFlight singleFlight) {
+        super(targetDataSource);
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * @return The queries in flight of the data source
+     */
+    @NonNull
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Finds the queries in flight of a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The queries in flight or {@code null} if the data source does not coalesce its queries
+     */
+    @Nullable
+    public static SingleFlight findSingleFlight(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof SingleFlightDataSource singleFlightDataSource) {
+                return singleFlightDataSource.singleFlight;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new SingleFlightConnection(super.getConnection(), singleFlight, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new SingleFlightConnection(super.getConnection(username, password), singleFlight, username);
+    }
+}
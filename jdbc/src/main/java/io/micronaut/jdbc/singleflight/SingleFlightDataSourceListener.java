@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.single-flight.enabled} set in a
+ * {@link SingleFlightDataSource}. The listener runs after the batch rewriting and the statement cache, so that the
+ * first caller of a query uses the cached statements, and before the profiling, which sees each caller's execution.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class SingleFlightDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    SingleFlightDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String name = event.getBeanIdentifier().getName();
+        if (dataSource instanceof SingleFlightDataSource
+            || !propertyResolver.getProperty("datasources." + name + ".single-flight.enabled", Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "single-flight execution")) {
+            return dataSource;
+        }
+        return new SingleFlightDataSource(dataSource, new SingleFlight(name));
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.SINGLE_FLIGHT;
+    }
+}
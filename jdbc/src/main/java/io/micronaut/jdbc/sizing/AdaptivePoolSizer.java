@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing;
+
+import io.micronaut.context.BeanLocator;
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata;
+import io.micronaut.jdbc.timing.ConnectionTimings;
+import io.micronaut.jdbc.timing.LatencyHistogram;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Periodically samples the {@link ResizableDataSourcePoolMetadata} of a data source that has
+ * {@code datasources.<name>.adaptive-sizing.enabled} set, asks a {@link PoolSizingPolicy} for the next maximum
+ * pool size and applies it within the configured bounds.
+ *
+ * @since 6.0.0
+ */
+@Context
+@EachBean(ResizableDataSourcePoolMetadata.class)
+@Requires(condition = AdaptivePoolSizingEnabled.class)
+public final class AdaptivePoolSizer implements AutoCloseable {
+
+    /**
+     * The default interval between two runs.
+     */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+
+    static final String PREFIX = "datasources.";
+    static final String SUFFIX = ".adaptive-sizing.";
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    private final String name;
+    private final ResizableDataSourcePoolMetadata<?> metadata;
+    private final PoolSizingPolicy policy;
+    private final int lowerBound;
+    private final int upperBound;
+    private final ScheduledFuture<?> schedule;
+
+    private long lastTimeouts;
+    private long lastAcquireCount;
+    private long lastAcquireTotal;
+
+    /**
+     * @param name             The name of the data source
+     * @param metadata         The metadata of the pool
+     * @param beanLocator      The bean locator used to find a custom {@link PoolSizingPolicy}
+     * @param propertyResolver The property resolver
+     * @param taskScheduler    The scheduler running the control loop
+     */
+    AdaptivePoolSizer(@Parameter String name,
+                      @Parameter ResizableDataSourcePoolMetadata<?> metadata,
+                      BeanLocator beanLocator,
+                      PropertyResolver propertyResolver,
+                      @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler) {
+        this.name = name;
+        this.metadata = metadata;
+        String prefix = PREFIX + name + SUFFIX;
+        Integer max = metadata.getMax();
+        int initialMax = max == null || max < 1 ? 1 : max;
+        this.lowerBound = propertyResolver.getProperty(prefix + "min-pool-size", Integer.class, 1);
+        this.upperBound = propertyResolver.getProperty(prefix + "max-pool-size", Integer.class, initialMax);
+        if (lowerBound < 1 || lowerBound > upperBound) {
+            throw new ConfigurationException("Invalid adaptive sizing bounds for data source [" + name + "]: "
+                + prefix + "min-pool-size must be between 1 and " + prefix + "max-pool-size");
+        }
+        this.policy = beanLocator.findBean(PoolSizingPolicy.class, Qualifiers.byName(name))
+            .or(() -> beanLocator.findBean(PoolSizingPolicy.class))
+            .orElseGet(() -> new UtilizationPoolSizingPolicy(
+                propertyResolver.getProperty(prefix + "scale-up-usage", Double.class, UtilizationPoolSizingPolicy.DEFAULT_SCALE_UP_USAGE),
+                propertyResolver.getProperty(prefix + "scale-down-usage", Double.class, UtilizationPoolSizingPolicy.DEFAULT_SCALE_DOWN_USAGE),
+                propertyResolver.getProperty(prefix + "max-acquire-wait", Duration.class, UtilizationPoolSizingPolicy.DEFAULT_MAX_ACQUIRE_WAIT)
+            ));
+        Long timeouts = metadata.getTimeoutCount();
+        this.lastTimeouts = timeouts == null ? 0 : timeouts;
+        // so that the first run only sees the acquire wait of its own interval
+        acquireWait();
+        Duration interval = propertyResolver.getProperty(prefix + "interval", Duration.class, DEFAULT_INTERVAL);
+        this.schedule = taskScheduler.scheduleWithFixedDelay(interval, interval, this::run);
+    }
+
+    /**
+     * @return The smallest maximum pool size the sizer applies
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return The largest maximum pool size the sizer applies
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return The policy deciding the pool size
+     */
+    @NonNull
+    public PoolSizingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Stops resizing the pool.
+     */
+    @Override
+    @PreDestroy
+    public void close() {
+        schedule.cancel(false);
+    }
+
+    private void run() {
+        try {
+            resize();
+        } catch (Exception e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Error resizing the pool of data source [" + name + "]: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Samples the pool once and applies the size the policy returns.
+     *
+     * @return The maximum pool size after the run
+     */
+    synchronized int resize() {
+        PoolSizingSample sample = sample();
+        int next = Math.max(lowerBound, Math.min(upperBound, policy.nextMaxPoolSize(sample)));
+        if (next != sample.getMaxPoolSize()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Resizing the pool of data source [{}] from {} to {} connections: {}", name, sample.getMaxPoolSize(), next, sample);
+            }
+            metadata.setMax(next);
+        }
+        return next;
+    }
+
+    private PoolSizingSample sample() {
+        Integer max = metadata.getMax();
+        Long timeouts = metadata.getTimeoutCount();
+        long currentTimeouts = timeouts == null ? 0 : timeouts;
+        long newTimeouts = Math.max(0, currentTimeouts - lastTimeouts);
+        lastTimeouts = currentTimeouts;
+        return new PoolSizingSample(
+            name,
+            max == null ? upperBound : max,
+            lowerBound,
+            upperBound,
+            valueOf(metadata.getActive()),
+            valueOf(metadata.getIdle()),
+            valueOf(metadata.getPending()),
+            newTimeouts,
+            acquireWait()
+        );
+    }
+
+    @Nullable
+    private Duration acquireWait() {
+        long count;
+        long total;
+        ConnectionTimings timings = metadata.getConnectionTimings();
+        if (timings != null) {
+            LatencyHistogram acquireTime = timings.getAcquireTime();
+            count = acquireTime.getCount();
+            total = acquireTime.getTotal();
+        } else {
+            Long acquireCount = metadata.getAcquireCount();
+            Duration totalAcquireWait = metadata.getTotalAcquireWait();
+            if (acquireCount == null || totalAcquireWait == null) {
+                // a mean over the life of the pool hides a recent rise, so the acquire wait does not grow the pool
+                return null;
+            }
+            count = acquireCount;
+            total = totalAcquireWait.toNanos();
+        }
+        long deltaCount = count - lastAcquireCount;
+        long deltaTotal = total - lastAcquireTotal;
+        lastAcquireCount = count;
+        lastAcquireTotal = total;
+        if (deltaCount <= 0 || deltaTotal < 0) {
+            // no borrow since the last run or the totals were reset
+            return deltaCount < 0 || deltaTotal < 0 ? null : Duration.ZERO;
+        }
+        return Duration.ofNanos(deltaTotal / deltaCount);
+    }
+
+    private static int valueOf(@Nullable Integer value) {
+        return value == null || value < 0 ? 0 : value;
+    }
+}
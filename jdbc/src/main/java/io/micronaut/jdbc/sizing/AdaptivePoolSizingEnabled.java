@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing;
+
+import io.micronaut.context.BeanResolutionContext;
+import io.micronaut.context.Qualifier;
+import io.micronaut.context.condition.Condition;
+import io.micronaut.context.condition.ConditionContext;
+import io.micronaut.core.naming.Named;
+import io.micronaut.inject.BeanDefinition;
+
+/**
+ * Condition checking whether adaptive pool sizing is enabled for a datasource.
+ * It is satisfied when the property datasources.datasource-name.adaptive-sizing.enabled
+ * is set to true for the datasource with given datasource-name.
+ *
+ * @since 6.0.0
+ */
+public final class AdaptivePoolSizingEnabled implements Condition {
+    @Override
+    public boolean matches(ConditionContext context) {
+        BeanResolutionContext beanResolutionContext = context.getBeanResolutionContext();
+        Qualifier<?> currentQualifier = beanResolutionContext == null ? null : beanResolutionContext.getCurrentQualifier();
+        if (currentQualifier == null && context.getComponent() instanceof BeanDefinition<?> definition) {
+            currentQualifier = definition.getDeclaredQualifier();
+        }
+        String dataSourceName = currentQualifier instanceof Named named ? named.getName() : "default";
+        String property = AdaptivePoolSizer.PREFIX + dataSourceName + AdaptivePoolSizer.SUFFIX + "enabled";
+        return context.getProperty(property, Boolean.class, false);
+    }
+}
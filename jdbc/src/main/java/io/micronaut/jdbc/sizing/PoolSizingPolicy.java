@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing;
+
+import io.micronaut.core.annotation.NonNull;
+
+/**
+ * Decides the maximum size of a connection pool from its current state. A bean of this type named after a
+ * data source, or else an unqualified bean, replaces the {@link UtilizationPoolSizingPolicy} for the
+ * {@link AdaptivePoolSizer} of that data source.
+ *
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface PoolSizingPolicy {
+
+    /**
+     * Computes the maximum pool size to use until the next run. The result is clamped to the bounds of the
+     * sample.
+     *
+     * @param sample The current state of the pool
+     * @return The new maximum pool size
+     */
+    int nextMaxPoolSize(@NonNull PoolSizingSample sample);
+}
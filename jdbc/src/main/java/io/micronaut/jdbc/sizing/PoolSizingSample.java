@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Duration;
+
+/**
+ * The state of a connection pool as read by the {@link AdaptivePoolSizer} on each run.
+ *
+ * @since 6.0.0
+ */
+public final class PoolSizingSample {
+
+    private final String name;
+    private final int maxPoolSize;
+    private final int lowerBound;
+    private final int upperBound;
+    private final int active;
+    private final int idle;
+    private final int pending;
+    private final long timeouts;
+    private final Duration acquireWait;
+
+    /**
+     * @param name        The name of the data source
+     * @param maxPoolSize The current maximum pool size
+     * @param lowerBound  The smallest maximum pool size allowed
+     * @param upperBound  The largest maximum pool size allowed
+     * @param active      The number of active connections
+     * @param idle        The number of idle connections
+     * @param pending     The number of threads waiting for a connection
+     * @param timeouts    The number of connection requests that timed out since the previous sample
+     * @param acquireWait The mean time waited for a connection since the previous sample if known
+     */
+    public PoolSizingSample(@NonNull String name, int maxPoolSize, int lowerBound, int upperBound,
+                            int active, int idle, int pending, long timeouts, @Nullable Duration acquireWait) {
+        this.name = name;
+        this.maxPoolSize = maxPoolSize;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.timeouts = timeouts;
+        this.acquireWait = acquireWait;
+    }
+
+    /**
+     * @return The name of the data source
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The current maximum pool size
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * @return The smallest maximum pool size allowed
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return The largest maximum pool size allowed
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return The number of active connections
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return The number of idle connections
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return The number of threads waiting for a connection
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return The number of connection requests that timed out since the previous sample
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return The mean time waited for a connection since the previous sample or {@code null} if the pool
+     * does not provide it and {@code connection-timings} are not enabled
+     */
+    @Nullable
+    public Duration getAcquireWait() {
+        return acquireWait;
+    }
+
+    /**
+     * @return The share of the maximum pool size that is in use, between {@code 0} and {@code 1}
+     */
+    public double getUsage() {
+        return maxPoolSize <= 0 ? 0 : Math.min(1, (double) active / maxPoolSize);
+    }
+
+    @Override
+    public String toString() {
+        return "PoolSizingSample{name=" + name + ", maxPoolSize=" + maxPoolSize + ", active=" + active
+            + ", idle=" + idle + ", pending=" + pending + ", timeouts=" + timeouts + ", acquireWait=" + acquireWait + '}';
+    }
+}
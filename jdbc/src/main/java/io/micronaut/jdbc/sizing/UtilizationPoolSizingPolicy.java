@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.time.Duration;
+
+/**
+ * The default {@link PoolSizingPolicy}. The pool grows by a quarter, or by the number of waiting threads if
+ * larger, when callers wait for connections, requests time out, the mean acquire time is above
+ * {@code max-acquire-wait} or the usage reaches {@code scale-up-usage}. The pool shrinks by half the
+ * distance to the size that would put the usage between the two thresholds when the usage is below
+ * {@code scale-down-usage}.
+ *
+ * @since 6.0.0
+ */
+public class UtilizationPoolSizingPolicy implements PoolSizingPolicy {
+
+    /**
+     * The default usage at or above which the pool grows.
+     */
+    public static final double DEFAULT_SCALE_UP_USAGE = 0.9;
+
+    /**
+     * The default usage below which the pool shrinks.
+     */
+    public static final double DEFAULT_SCALE_DOWN_USAGE = 0.5;
+
+    /**
+     * The default mean acquire time above which the pool grows.
+     */
+    public static final Duration DEFAULT_MAX_ACQUIRE_WAIT = Duration.ofMillis(50);
+
+    private final double scaleUpUsage;
+    private final double scaleDownUsage;
+    private final Duration maxAcquireWait;
+
+    /**
+     * Creates a policy with the default thresholds.
+     */
+    public UtilizationPoolSizingPolicy() {
+        this(DEFAULT_SCALE_UP_USAGE, DEFAULT_SCALE_DOWN_USAGE, DEFAULT_MAX_ACQUIRE_WAIT);
+    }
+
+    /**
+     * @param scaleUpUsage   The usage at or above which the pool grows
+     * @param scaleDownUsage The usage below which the pool shrinks
+     * @param maxAcquireWait The mean acquire time above which the pool grows
+     */
+    public UtilizationPoolSizingPolicy(double scaleUpUsage, double scaleDownUsage, @NonNull Duration maxAcquireWait) {
+        if (scaleDownUsage < 0 || scaleDownUsage >= scaleUpUsage || scaleUpUsage > 1) {
+            throw new IllegalArgumentException("Usage thresholds must satisfy 0 <= scale-down-usage < scale-up-usage <= 1: "
+                + scaleDownUsage + ", " + scaleUpUsage);
+        }
+        this.scaleUpUsage = scaleUpUsage;
+        this.scaleDownUsage = scaleDownUsage;
+        this.maxAcquireWait = maxAcquireWait;
+    }
+
+    @Override
+    public int nextMaxPoolSize(@NonNull PoolSizingSample sample) {
+        int max = sample.getMaxPoolSize();
+        Duration acquireWait = sample.getAcquireWait();
+        boolean starved = sample.getPending() > 0
+            || sample.getTimeouts() > 0
+            || (acquireWait != null && acquireWait.compareTo(maxAcquireWait) > 0);
+        if (starved || sample.getUsage() >= scaleUpUsage) {
+            return max + Math.max(sample.getPending(), Math.max(1, max / 4));
+        }
+        if (sample.getUsage() < scaleDownUsage) {
+            double targetUsage = (scaleUpUsage + scaleDownUsage) / 2;
+            int target = (int) Math.ceil(sample.getActive() / targetUsage);
+            return max - Math.max(1, (max - target) / 2);
+        }
+        return max;
+    }
+}
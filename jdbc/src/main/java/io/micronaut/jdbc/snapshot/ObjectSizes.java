@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.snapshot;
+
+import io.micronaut.core.beans.BeanIntrospection;
+import io.micronaut.core.beans.BeanIntrospector;
+import io.micronaut.core.beans.BeanProperty;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Optional;
+
+/**
+ * Estimates the shallow size of the rows of a snapshot, with the strings, byte arrays and boxed values of their
+ * properties, assuming compressed references. The properties are read through the {@link BeanIntrospection} of the
+ * rows, which are annotated with {@code @Introspected}, and the other rows count as a fixed size.
+ *
+ * @since 6.0.0
+ */
+final class ObjectSizes {
+
+    /**
+     * The estimated size of a row that is not introspected: a header and a few fields.
+     */
+    static final long UNKNOWN_ROW = 64;
+
+    private static final int HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private ObjectSizes() {
+    }
+
+    /**
+     * @param row A row
+     * @return The estimated size of the row in bytes
+     */
+    @SuppressWarnings("unchecked")
+    static long estimate(Object row) {
+        long leaf = leaf(row);
+        if (leaf >= 0) {
+            return leaf;
+        }
+        Optional<BeanIntrospection<Object>> introspection = BeanIntrospector.SHARED.findIntrospection((Class<Object>) row.getClass());
+        if (introspection.isEmpty()) {
+            return UNKNOWN_ROW;
+        }
+        long size = HEADER;
+        for (BeanProperty<Object, Object> property : introspection.get().getBeanProperties()) {
+            Class<?> type = property.getType();
+            if (type.isPrimitive()) {
+                size += primitive(type);
+                continue;
+            }
+            size += REFERENCE;
+            if (!property.isWriteOnly()) {
+                Object value = property.get(row);
+                if (value != null) {
+                    size += Math.max(0, leaf(value));
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The size of a string, byte array or boxed value, or {@code -1} for any other object
+     */
+    private static long leaf(Object value) {
+        if (value instanceof String string) {
+            return 40 + 2L * string.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return HEADER + bytes.length;
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return 64;
+        }
+        if (value instanceof Enum<?>) {
+            // shared by all the rows
+            return 0;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return HEADER + 8;
+        }
+        return -1;
+    }
+
+    private static int primitive(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+}
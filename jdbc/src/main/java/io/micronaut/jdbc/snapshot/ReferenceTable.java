@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.snapshot;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * A small lookup table loaded whole into an immutable {@link TableSnapshot}, and served from memory without
+ * accessing the database. The table is refreshed every {@code refresh-interval}, when one is configured, and by
+ * {@link #refresh()}: the new snapshot is loaded while the lookups use the current one, and replaces it atomically
+ * once complete. A failed refresh keeps the current snapshot.
+ *
+ * @param <T> The type of the rows
+ * @since 6.0.0
+ */
+public final class ReferenceTable<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReferenceTable.class);
+
+    private final String name;
+    private final SnapshotLoadFunction<T> function;
+    private final ToLongFunction<? super T> keyOf;
+    private final ToLongFunction<? super T> sizeOf;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failedRefreshes = new LongAdder();
+    private volatile TableSnapshot<T> snapshot;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    /**
+     * @param name     The name of the table
+     * @param function The function loading the rows
+     * @param keyOf    The function returning the key of a row
+     * @param sizeOf   The function estimating the size of a row in bytes
+     */
+    ReferenceTable(String name, SnapshotLoadFunction<T> function, ToLongFunction<? super T> keyOf, ToLongFunction<? super T> sizeOf) {
+        this.name = name;
+        this.function = function;
+        this.keyOf = keyOf;
+        this.sizeOf = sizeOf;
+    }
+
+    /**
+     * @return The name of the table
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param key The key
+     * @return The row of the key in the current snapshot, or {@code null}
+     */
+    @Nullable
+    public T get(long key) {
+        return snapshot.get(key);
+    }
+
+    /**
+     * @param key The key
+     * @return The row of the key in the current snapshot
+     */
+    @NonNull
+    public Optional<T> find(long key) {
+        return Optional.ofNullable(snapshot.get(key));
+    }
+
+    /**
+     * @return The current snapshot, which does not change when the table is refreshed
+     */
+    @NonNull
+    public TableSnapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return The number of snapshots loaded, including the first one
+     */
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    /**
+     * @return The number of refreshes that failed
+     */
+    public long getFailedRefreshCount() {
+        return failedRefreshes.sum();
+    }
+
+    /**
+     * Loads a new snapshot and replaces the current one. The lookups use the current snapshot while the rows are
+     * loaded, and a refresh started while another one runs waits for it, then loads the rows again.
+     *
+     * @return The new snapshot
+     * @throws SQLException If the rows cannot be loaded, in which case the current snapshot is kept
+     */
+    @NonNull
+    public TableSnapshot<T> refresh() throws SQLException {
+        refreshLock.lock();
+        try {
+            Instant loadedAt = Instant.now();
+            long start = System.nanoTime();
+            TableSnapshot<T> loaded;
+            try {
+                Collection<? extends T> rows = function.load();
+                loaded = new TableSnapshot<>(rows, keyOf, sizeOf, loadedAt, Duration.ofNanos(System.nanoTime() - start));
+            } catch (SQLException | RuntimeException e) {
+                failedRefreshes.increment();
+                throw e;
+            } catch (Exception e) {
+                failedRefreshes.increment();
+                throw new SQLException("Error loading reference table [" + name + "]: " + e.getMessage(), e);
+            }
+            snapshot = loaded;
+            refreshes.increment();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Loaded {} rows of reference table [{}] in {}ms, estimated size {} bytes", loaded.size(), name,
+                    loaded.getLoadDuration().toMillis(), loaded.getEstimatedSize());
+            }
+            return loaded;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes the table every interval until {@link #close()}.
+     *
+     * @param taskScheduler The scheduler
+     * @param interval      The interval
+     */
+    void schedule(TaskScheduler taskScheduler, Duration interval) {
+        scheduledRefresh = taskScheduler.scheduleWithFixedDelay(interval, interval, () -> {
+            try {
+                refresh();
+            } catch (SQLException | RuntimeException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Error refreshing reference table [{}], keeping the snapshot loaded at {}: {}", name,
+                        snapshot.getLoadedAt(), e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops the scheduled refreshes.
+     */
+    void close() {
+        ScheduledFuture<?> refresh = scheduledRefresh;
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceTable[" + name + ", " + snapshot + "]";
+    }
+}
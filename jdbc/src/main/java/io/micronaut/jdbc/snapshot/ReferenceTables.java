@@ -0,0 +1,211 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.snapshot;
+
+import io.micronaut.context.BeanLocator;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.loader.RowMapper;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Creates the {@link ReferenceTable reference tables}, configured under {@code jdbc.reference-tables.<name>}. The
+ * tables are usually exposed as beans by a {@code @Singleton} method of a factory of the application, and replace
+ * the static caches of lookup tables:
+ *
+ * <pre>{@code
+ * ReferenceTable<Country> countries(ReferenceTables tables) throws SQLException {
+ *     return tables.create("countries", "select id, code, name from country",
+ *         resultSet -> new Country(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3)), Country::id);
+ * }
+ * }</pre>
+ *
+ * <p>The first snapshot of a table is loaded when it is created, and the scheduled refreshes run on the
+ * {@link TaskExecutors#SCHEDULED scheduled} executor.</p>
+ *
+ * @since 6.0.0
+ */
+@Singleton
+public final class ReferenceTables {
+
+    /**
+     * The prefix of the configuration of the tables.
+     */
+    public static final String PREFIX = "jdbc.reference-tables";
+
+    private final BeanLocator beanLocator;
+    private final PropertyResolver propertyResolver;
+    private final TaskScheduler taskScheduler;
+    private final Map<String, ReferenceTable<?>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @param beanLocator      The bean locator used to find the data sources
+     * @param propertyResolver The property resolver
+     * @param taskScheduler    The scheduler refreshing the tables
+     */
+    ReferenceTables(BeanLocator beanLocator,
+                    PropertyResolver propertyResolver,
+                    @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler) {
+        this.beanLocator = beanLocator;
+        this.propertyResolver = propertyResolver;
+        this.taskScheduler = taskScheduler;
+    }
+
+    /**
+     * Creates a table loaded by a query of the data source {@code jdbc.reference-tables.<name>.datasource}.
+     *
+     * @param name   The name of the table
+     * @param sql    The query returning all the rows of the table
+     * @param mapper The mapper of the rows
+     * @param keyOf  The function returning the key of a row
+     * @param <T>    The type of the rows
+     * @return The table, with its first snapshot loaded
+     * @throws SQLException If the first snapshot cannot be loaded
+     */
+    @NonNull
+    public <T> ReferenceTable<T> create(@NonNull String name,
+                                        @NonNull String sql,
+                                        @NonNull RowMapper<T> mapper,
+                                        @NonNull ToLongFunction<? super T> keyOf) throws SQLException {
+        return create(name, sql, mapper, keyOf, ObjectSizes::estimate);
+    }
+
+    /**
+     * Creates a table loaded by a query of the data source {@code jdbc.reference-tables.<name>.datasource}, whose
+     * rows have their size estimated by a function rather than from their introspected properties.
+     *
+     * @param name   The name of the table
+     * @param sql    The query returning all the rows of the table
+     * @param mapper The mapper of the rows
+     * @param keyOf  The function returning the key of a row
+     * @param sizeOf The function estimating the size of a row in bytes
+     * @param <T>    The type of the rows
+     * @return The table, with its first snapshot loaded
+     * @throws SQLException If the first snapshot cannot be loaded
+     */
+    @NonNull
+    public <T> ReferenceTable<T> create(@NonNull String name,
+                                        @NonNull String sql,
+                                        @NonNull RowMapper<T> mapper,
+                                        @NonNull ToLongFunction<? super T> keyOf,
+                                        @NonNull ToLongFunction<? super T> sizeOf) throws SQLException {
+        String dataSourceName = propertyResolver.getProperty(prefix(name) + "datasource", String.class, "default");
+        DataSource dataSource = beanLocator.getBean(DataSource.class, Qualifiers.byName(dataSourceName));
+        DataSource resolved = beanLocator.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT).resolve(dataSource);
+        return create(name, () -> query(resolved, sql, mapper), keyOf, sizeOf);
+    }
+
+    /**
+     * Creates a table loaded by a function, such as a jOOQ or JDBI query mapping the rows to their type.
+     *
+     * @param name     The name of the table
+     * @param function The function loading all the rows of the table
+     * @param keyOf    The function returning the key of a row
+     * @param <T>      The type of the rows
+     * @return The table, with its first snapshot loaded
+     * @throws SQLException If the first snapshot cannot be loaded
+     */
+    @NonNull
+    public <T> ReferenceTable<T> create(@NonNull String name,
+                                        @NonNull SnapshotLoadFunction<T> function,
+                                        @NonNull ToLongFunction<? super T> keyOf) throws SQLException {
+        return create(name, function, keyOf, ObjectSizes::estimate);
+    }
+
+    /**
+     * Creates a table loaded by a function, whose rows have their size estimated by a function rather than from
+     * their introspected properties.
+     *
+     * @param name     The name of the table
+     * @param function The function loading all the rows of the table
+     * @param keyOf    The function returning the key of a row
+     * @param sizeOf   The function estimating the size of a row in bytes
+     * @param <T>      The type of the rows
+     * @return The table, with its first snapshot loaded
+     * @throws SQLException If the first snapshot cannot be loaded
+     */
+    @NonNull
+    public <T> ReferenceTable<T> create(@NonNull String name,
+                                        @NonNull SnapshotLoadFunction<T> function,
+                                        @NonNull ToLongFunction<? super T> keyOf,
+                                        @NonNull ToLongFunction<? super T> sizeOf) throws SQLException {
+        ReferenceTable<T> table = new ReferenceTable<>(name, function, keyOf, sizeOf);
+        if (tables.putIfAbsent(name, table) != null) {
+            throw new IllegalStateException("A reference table named [" + name + "] already exists");
+        }
+        try {
+            table.refresh();
+        } catch (SQLException | RuntimeException e) {
+            tables.remove(name, table);
+            throw e;
+        }
+        propertyResolver.getProperty(prefix(name) + "refresh-interval", Duration.class)
+            .ifPresent(interval -> table.schedule(taskScheduler, interval));
+        return table;
+    }
+
+    /**
+     * @return The tables created, by name
+     */
+    @NonNull
+    public Map<String, ReferenceTable<?>> getTables() {
+        return Collections.unmodifiableMap(tables);
+    }
+
+    /**
+     * Stops the scheduled refreshes.
+     */
+    @PreDestroy
+    void close() {
+        tables.values().forEach(ReferenceTable::close);
+    }
+
+    private static <T> List<T> query(DataSource dataSource, String sql, RowMapper<T> mapper) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             // a form that neither the result cache nor the single-flight execution answer, with rows older than the table
+             PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, connection.getHoldability());
+             ResultSet resultSet = statement.executeQuery()) {
+            List<T> rows = new ArrayList<>();
+            while (resultSet.next()) {
+                rows.add(mapper.map(resultSet));
+            }
+            return rows;
+        }
+    }
+
+    private static String prefix(String name) {
+        return PREFIX + "." + name + ".";
+    }
+}
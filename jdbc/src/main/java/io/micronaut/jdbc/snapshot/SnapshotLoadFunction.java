@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.snapshot;
+
+import java.util.Collection;
+
+/**
+ * Loads all the rows of a {@link ReferenceTable}, such as a jOOQ query fetched into a type with the
+ * {@code RecordMapperProvider} of its configuration, or a JDBI query mapped by its registered row mappers. The
+ * function is called on the thread refreshing the table.
+ *
+ * @param <T> The type of the rows
+ * @since 6.0.0
+ */
+@FunctionalInterface
+public interface SnapshotLoadFunction<T> {
+
+    /**
+     * @return All the rows of the table
+     * @throws Exception If the rows cannot be loaded
+     */
+    Collection<? extends T> load() throws Exception;
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.snapshot;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * The rows of a {@link ReferenceTable} at a point in time, in an immutable map from {@code long} keys to rows. The
+ * keys are held in a {@code long[]} with open addressing and linear probing, so that the lookups neither box the
+ * keys nor allocate.
+ *
+ * @param <T> The type of the rows
+ * @since 6.0.0
+ */
+public final class TableSnapshot<T> {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final Object[] rows;
+    private final int shift;
+    private final List<T> values;
+    private final Instant loadedAt;
+    private final Duration loadDuration;
+    private final long estimatedSize;
+
+    /**
+     * @param values       The rows
+     * @param keyOf        The function returning the key of a row
+     * @param sizeOf       The function estimating the size of a row in bytes
+     * @param loadedAt     The time the load of the rows started
+     * @param loadDuration The time the load took
+     * @throws IllegalArgumentException If a row is {@code null} or two rows have the same key
+     */
+    TableSnapshot(Collection<? extends T> values, ToLongFunction<? super T> keyOf, ToLongFunction<? super T> sizeOf,
+                  Instant loadedAt, Duration loadDuration) {
+        // at most half full, so that the probes stay short
+        int capacity = Integer.highestOneBit(Math.max(2, values.size()) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.rows = new Object[capacity];
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        long size = 32 + 16 + 8L * capacity + 16 + 4L * capacity;
+        for (T value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("A row of a reference table is null");
+            }
+            long key = keyOf.applyAsLong(value);
+            int slot = slot(key);
+            while (rows[slot] != null) {
+                if (keys[slot] == key) {
+                    throw new IllegalArgumentException("Two rows of a reference table have the key " + key);
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = key;
+            rows[slot] = value;
+            size += 4 + sizeOf.applyAsLong(value);
+        }
+        this.values = List.copyOf(values);
+        this.loadedAt = loadedAt;
+        this.loadDuration = loadDuration;
+        this.estimatedSize = size;
+    }
+
+    /**
+     * @param key The key
+     * @return The row of the key, or {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T get(long key) {
+        int mask = rows.length - 1;
+        int slot = slot(key);
+        Object row;
+        while ((row = rows[slot]) != null) {
+            if (keys[slot] == key) {
+                return (T) row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @param key The key
+     * @return Whether the snapshot has a row for the key
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return The number of rows
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @return The rows, in the order they were loaded
+     */
+    @NonNull
+    public List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * @return The time the load of the rows started
+     */
+    @NonNull
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return The time the load of the rows took
+     */
+    @NonNull
+    public Duration getLoadDuration() {
+        return loadDuration;
+    }
+
+    /**
+     * Estimates the memory retained by the snapshot: its arrays and its rows, as estimated by the function given to
+     * {@link ReferenceTables}, or else from the properties of the {@code @Introspected} rows with their strings,
+     * byte arrays and boxed values. The other rows count as a fixed size, and the other objects referenced by the
+     * rows are not counted.
+     *
+     * @return The estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * GOLDEN_RATIO) >>> shift);
+    }
+
+    @Override
+    public String toString() {
+        return "TableSnapshot[rows=" + values.size() + ", loadedAt=" + loadedAt + ", estimatedSize=" + estimatedSize + "]";
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.startup;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.BeanContextException;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Order;
+import io.micronaut.core.naming.Named;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.BasicJdbcConfiguration;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.DataSourceWrapper;
+import io.micronaut.jdbc.LazyDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the configured data sources concurrently before the other {@link Context} beans are created. For each
+ * data source the initializer creates the {@link DataSource} bean, borrows a connection so that the pool is filled
+ * unless the data source is {@link BasicJdbcConfiguration#isLazy() lazy}, and creates the {@link Context} {@link EachBean} beans
+ * qualified with the data source name, such as its Hibernate {@code SessionFactory}, as well as the additional
+ * {@link ParallelStartupConfiguration#getBeanTypes() bean types}.
+ * The eager initialization of the context then finds these beans already created.
+ *
+ * @since 6.0.0
+ */
+@Context
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Requires(beans = ParallelStartupConfiguration.class)
+public final class ParallelDataSourceInitializer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelDataSourceInitializer.class);
+
+    private final Map<String, Duration> startupTimes;
+
+    /**
+     * @param beanContext   The bean context
+     * @param configuration The configuration
+     */
+    ParallelDataSourceInitializer(BeanContext beanContext, ParallelStartupConfiguration configuration) {
+        this.startupTimes = start(beanContext, configuration);
+    }
+
+    /**
+     * @return The time taken to start each data source and its beans, by data source name
+     */
+    @NonNull
+    public Map<String, Duration> getStartupTimes() {
+        return startupTimes;
+    }
+
+    private static Map<String, Duration> start(BeanContext beanContext, ParallelStartupConfiguration configuration) {
+        Collection<BeanDefinition<DataSource>> definitions = beanContext.getBeanDefinitions(DataSource.class);
+        if (definitions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        long start = System.nanoTime();
+        Set<Class<?>> eachBeanTypes = new LinkedHashSet<>();
+        for (BeanDefinition<?> definition : beanContext.getAllBeanDefinitions()) {
+            if (definition.isAnnotationPresent(Context.class) && definition.hasDeclaredStereotype(EachBean.class)
+                && !DataSource.class.isAssignableFrom(definition.getBeanType())) {
+                eachBeanTypes.add(definition.getBeanType());
+            }
+        }
+        int threads = configuration.getThreads() > 0 ? Math.min(configuration.getThreads(), definitions.size()) : definitions.size();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<String, Future<Duration>> futures = new LinkedHashMap<>();
+            for (BeanDefinition<DataSource> definition : definitions) {
+                String name = definition.getDeclaredQualifier() instanceof Named named ? named.getName() : definition.getBeanType().getName();
+                futures.put(name, executor.submit(() -> startDataSource(beanContext, configuration, eachBeanTypes, definition, name)));
+            }
+            Map<String, Duration> times = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<Duration>> entry : futures.entrySet()) {
+                times.put(entry.getKey(), await(entry.getKey(), entry.getValue()));
+            }
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Started {} data sources in {}ms: {}", times.size(), Duration.ofNanos(System.nanoTime() - start).toMillis(), times);
+            }
+            return Collections.unmodifiableMap(times);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Duration startDataSource(BeanContext beanContext,
+                                            ParallelStartupConfiguration configuration,
+                                            Set<Class<?>> eachBeanTypes,
+                                            BeanDefinition<DataSource> definition,
+                                            String name) throws SQLException {
+        long start = System.nanoTime();
+        DataSource dataSource = beanContext.getBean(definition);
+        long created = System.nanoTime();
+        if (configuration.isWarmUp() && !isLazy(beanContext, name)) {
+            DataSourceResolver dataSourceResolver = beanContext.findBean(DataSourceResolver.class).orElse(DataSourceResolver.DEFAULT);
+            DataSource resolved = dataSourceResolver.resolve(dataSource);
+            if (!(DataSourceWrapper.unwrap(resolved) instanceof LazyDataSource)) {
+                // the pool is filled
+                resolved.getConnection().close();
+            }
+        }
+        long connected = System.nanoTime();
+        List<Object> beans = new ArrayList<>();
+        if (definition.getDeclaredQualifier() instanceof Named) {
+            for (Class<?> eachBeanType : eachBeanTypes) {
+                for (BeanDefinition<?> dependent : beanContext.getBeanDefinitions(eachBeanType)) {
+                    if (dependent.getDeclaredQualifier() instanceof Named named && name.equals(named.getName())) {
+                        beans.add(beanContext.getBean(dependent));
+                    }
+                }
+            }
+            for (Class<?> beanType : configuration.getBeanTypes()) {
+                beanContext.findBean(beanType, Qualifiers.byName(name)).ifPresent(beans::add);
+            }
+        }
+        long end = System.nanoTime();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Started data source [{}] in {}ms: created in {}ms, connected in {}ms, {} beans created in {}ms", name,
+                Duration.ofNanos(end - start).toMillis(), Duration.ofNanos(created - start).toMillis(),
+                Duration.ofNanos(connected - created).toMillis(), beans.size(), Duration.ofNanos(end - connected).toMillis());
+        }
+        return Duration.ofNanos(end - start);
+    }
+
+    /**
+     * The pools that open no connection until one is requested have no {@link LazyDataSource} proxy, so the
+     * configuration of the data source tells whether it is lazy.
+     */
+    private static boolean isLazy(BeanContext beanContext, String name) {
+        return beanContext.getBeansOfType(BasicJdbcConfiguration.class, Qualifiers.byName(name)).stream()
+            .anyMatch(BasicJdbcConfiguration::isLazy);
+    }
+
+    private static Duration await(String name, Future<Duration> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanContextException("Interrupted while starting data source [" + name + "]", e);
+        } catch (ExecutionException e) {
+            throw new BeanContextException("Failed to start data source [" + name + "]: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
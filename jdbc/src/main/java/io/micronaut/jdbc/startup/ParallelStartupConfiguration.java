@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.startup;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.bind.annotation.Bindable;
+import io.micronaut.core.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Configuration of the parallel start of the data sources.
+ *
+ * @since 6.0.0
+ */
+@ConfigurationProperties(ParallelStartupConfiguration.PREFIX)
+@Requires(property = ParallelStartupConfiguration.PREFIX + ".enabled", value = StringUtils.TRUE)
+public interface ParallelStartupConfiguration {
+
+    String PREFIX = "jdbc.parallel-startup";
+
+    /**
+     * Starts the data sources, and the beans created for each of them, concurrently.
+     *
+     * @return flag to enable the parallel start. Defaults to <code>false</code>.
+     */
+    @Bindable(defaultValue = "false")
+    boolean isEnabled();
+
+    /**
+     * The number of threads starting data sources.
+     *
+     * @return the number of threads. Defaults to <code>0</code>, one thread per data source.
+     */
+    @Bindable(defaultValue = "0")
+    int getThreads();
+
+    /**
+     * Borrows a connection from each data source once it is created, so that the pool is filled and the
+     * database reached during the parallel start.
+     *
+     * @return flag to borrow a connection. Defaults to <code>true</code>.
+     */
+    @Bindable(defaultValue = "true")
+    boolean isWarmUp();
+
+    /**
+     * Additional bean types to create for each data source during the parallel start, for example
+     * <code>org.jooq.Configuration</code> or <code>org.jdbi.v3.core.Jdbi</code>. Beans of these types are
+     * otherwise created on first use. The {@link io.micronaut.context.annotation.Context} beans created for a
+     * data source, such as its Hibernate <code>SessionFactory</code>, are always included.
+     *
+     * @return the bean types. Defaults to none.
+     */
+    @Bindable(defaultValue = "")
+    List<Class<?>> getBeanTypes();
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement;
+
+import io.micronaut.jdbc.PreparedStatementWrapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A cached prepared statement lent to a connection. Closing it returns the statement to the cache, with its
+ * parameters and batch cleared, unless a setting of the statement was changed, the statement was evicted or its
+ * connection was broken.
+ *
+ * @since 6.0.0
+ */
+final class CachedPreparedStatement extends PreparedStatementWrapper {
+
+    private final StatementCachingConnection connection;
+    private final ConnectionStatements statements;
+    private final ConnectionStatements.Entry entry;
+    private ResultSet resultSet;
+    private boolean executed;
+    private boolean batched;
+    private boolean dirty;
+    private boolean closed;
+
+    CachedPreparedStatement(StatementCachingConnection connection, ConnectionStatements statements, ConnectionStatements.Entry entry) {
+        super(entry.getStatement());
+        this.connection = connection;
+        this.statements = statements;
+        this.entry = entry;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        executed = true;
+        try {
+            resultSet = super.executeQuery();
+        } catch (SQLException e) {
+            throw connection.failed(e);
+        }
+        return resultSet;
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        try {
+            return super.executeUpdate();
+        } catch (SQLException e) {
+            throw connection.failed(e);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        try {
+            return super.executeLargeUpdate();
+        } catch (SQLException e) {
+            throw connection.failed(e);
+        }
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        executed = true;
+        try {
+            return super.execute();
+        } catch (SQLException e) {
+            throw connection.failed(e);
+        }
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        batched = true;
+        super.addBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        batched = false;
+        try {
+            return super.executeBatch();
+        } catch (SQLException e) {
+            throw connection.failed(e);
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        batched = false;
+        try {
+            return super.executeLargeBatch();
+        } catch (SQLException e) {
+            throw connection.failed(e);
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        batched = false;
+        super.clearBatch();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        dirty = true;
+        super.setMaxFieldSize(max);
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        dirty = true;
+        super.setMaxRows(max);
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        dirty = true;
+        super.setLargeMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        dirty = true;
+        super.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        dirty = true;
+        super.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        dirty = true;
+        super.setCursorName(name);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        dirty = true;
+        super.setFetchDirection(direction);
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        dirty = true;
+        super.setFetchSize(rows);
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        dirty = true;
+        super.setPoolable(poolable);
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        dirty = true;
+        super.closeOnCompletion();
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        connection.returned(this);
+        if (dirty || connection.isBroken()) {
+            statements.remove(entry);
+        } else {
+            try {
+                reset();
+            } catch (SQLException | RuntimeException e) {
+                statements.remove(entry);
+                statements.release(entry);
+                super.close();
+                throw e;
+            }
+        }
+        if (!statements.release(entry)) {
+            super.close();
+        }
+    }
+
+    private void reset() throws SQLException {
+        if (executed) {
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            ResultSet current = getTargetStatement().getResultSet();
+            if (current != null) {
+                current.close();
+            }
+        }
+        if (batched) {
+            super.clearBatch();
+        }
+        clearParameters();
+        clearWarnings();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The least recently used prepared statements of a physical connection. A statement is lent to one caller at a
+ * time, and a statement evicted while it is lent is closed when it is returned.
+ *
+ * @since 6.0.0
+ */
+final class ConnectionStatements {
+
+    /**
+     * A rough estimate of the memory a prepared statement holds in the driver, beside its SQL.
+     */
+    static final long STATEMENT_OVERHEAD = 1024;
+
+    private final StatementCache cache;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memory;
+
+    ConnectionStatements(StatementCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @param key The key of the statement
+     * @return The cached statement, lent to the caller, or {@code null} if it is not cached or already lent
+     */
+    synchronized Entry acquire(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.lent) {
+            return null;
+        }
+        if (isClosed(entry.statement)) {
+            remove(entry, false);
+            return null;
+        }
+        entry.lent = true;
+        return entry;
+    }
+
+    /**
+     * @param key The key of the statement
+     * @return Whether the statement is cached and lent to a caller
+     */
+    synchronized boolean isLent(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.lent;
+    }
+
+    /**
+     * Caches a statement, lent to the caller, and evicts the least recently used statements over the limits.
+     *
+     * @param key       The key of the statement
+     * @param statement The prepared statement
+     * @return The entry, or {@code null} if a statement is already cached for the key
+     */
+    synchronized Entry add(String key, PreparedStatement statement) {
+        if (entries.containsKey(key)) {
+            return null;
+        }
+        Entry entry = new Entry(key, statement);
+        entry.lent = true;
+        entries.put(key, entry);
+        memory += entry.estimatedSize;
+        cache.added(entry.estimatedSize);
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > cache.getMaxStatements() || memory > cache.getMaxMemory()) && iterator.hasNext()) {
+            // a statement larger than the memory limit is evicted as well, and closed when it is returned
+            Entry eldest = iterator.next();
+            iterator.remove();
+            removed(eldest, true);
+            evicted.add(eldest);
+        }
+        for (Entry eldest : evicted) {
+            if (!eldest.lent) {
+                close(eldest.statement);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a lent statement.
+     *
+     * @param entry The entry
+     * @return Whether the statement is still cached, otherwise it must be closed
+     */
+    synchronized boolean release(Entry entry) {
+        entry.lent = false;
+        return !entry.removed;
+    }
+
+    /**
+     * Removes a statement that cannot be reused.
+     *
+     * @param entry The entry
+     */
+    synchronized void remove(Entry entry) {
+        remove(entry, false);
+    }
+
+    /**
+     * Drops the statements of a connection that was closed.
+     */
+    synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            removed(entry, false);
+        }
+        entries.clear();
+    }
+
+    /**
+     * Drops the statements of a connection that is broken, closing those that are not lent. The lent statements are
+     * closed when they are returned.
+     */
+    synchronized void discard() {
+        for (Entry entry : entries.values()) {
+            removed(entry, false);
+            if (!entry.lent) {
+                close(entry.statement);
+            }
+        }
+        entries.clear();
+    }
+
+    private void remove(Entry entry, boolean evicted) {
+        if (!entry.removed && entries.remove(entry.key, entry)) {
+            removed(entry, evicted);
+        }
+    }
+
+    private void removed(Entry entry, boolean evicted) {
+        entry.removed = true;
+        memory -= entry.estimatedSize;
+        cache.removed(entry.estimatedSize, evicted);
+    }
+
+    private static boolean isClosed(PreparedStatement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // the statement is dropped anyway
+        }
+    }
+
+    /**
+     * A cached statement.
+     */
+    static final class Entry {
+
+        private final String key;
+        private final PreparedStatement statement;
+        private final long estimatedSize;
+        private boolean lent;
+        private boolean removed;
+
+        private Entry(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+            this.estimatedSize = STATEMENT_OVERHEAD + 2L * key.length();
+        }
+
+        PreparedStatement getStatement() {
+            return statement;
+        }
+    }
+}
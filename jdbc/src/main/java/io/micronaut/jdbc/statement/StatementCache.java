@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The prepared statements cached for the connections of a data source, with the number of statements found in the
+ * cache, prepared because they were not, and evicted to keep each connection within its limits.
+ *
+ * <p>The statements are cached for the physical connections of the pool, so that they are reused by the following
+ * borrows of the same connection. The statements of a connection closed by the pool are dropped when the pool opens
+ * a new connection, and those of a connection that failed with a connection exception are closed at once.</p>
+ *
+ * @since 6.0.0
+ */
+public final class StatementCache {
+
+    /**
+     * The default maximum number of statements cached per connection.
+     */
+    public static final int DEFAULT_MAX_STATEMENTS = 100;
+
+    /**
+     * The default maximum estimated memory of the statements cached per connection, in bytes.
+     */
+    public static final long DEFAULT_MAX_MEMORY = 1024 * 1024;
+
+    private final int maxStatements;
+    private final long maxMemory;
+    private final Map<Connection, ConnectionStatements> connections = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder memory = new LongAdder();
+
+    /**
+     * @param maxStatements The maximum number of statements cached per connection
+     * @param maxMemory     The maximum estimated memory of the statements cached per connection, in bytes
+     */
+    public StatementCache(int maxStatements, long maxMemory) {
+        if (maxStatements < 1) {
+            throw new IllegalArgumentException("The maximum number of statements must be positive: " + maxStatements);
+        }
+        this.maxStatements = maxStatements;
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * @return The maximum number of statements cached per connection
+     */
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    /**
+     * @return The maximum estimated memory of the statements cached per connection, in bytes
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * @return The number of statements found in the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of statements prepared because they were not in the cache
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of statements evicted from the cache
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of statements cached for all the connections
+     */
+    public long getSize() {
+        return size.sum();
+    }
+
+    /**
+     * @return The estimated memory of the statements cached for all the connections, in bytes
+     */
+    public long getEstimatedMemory() {
+        return memory.sum();
+    }
+
+    /**
+     * @return The number of connections with cached statements
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Finds the statements of a physical connection, dropping the statements of the connections that were closed
+     * when a new connection is seen.
+     *
+     * @param connection The physical connection
+     * @return The statements of the connection
+     */
+    ConnectionStatements forConnection(Connection connection) {
+        ConnectionStatements statements = connections.get(connection);
+        if (statements == null) {
+            prune();
+            statements = connections.computeIfAbsent(connection, c -> new ConnectionStatements(this));
+        }
+        return statements;
+    }
+
+    /**
+     * Drops the statements of a physical connection that is broken.
+     *
+     * @param connection The physical connection
+     */
+    void discard(Connection connection) {
+        ConnectionStatements statements = connections.remove(connection);
+        if (statements != null) {
+            statements.discard();
+        }
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void added(long estimatedSize) {
+        size.increment();
+        memory.add(estimatedSize);
+    }
+
+    void removed(long estimatedSize, boolean evicted) {
+        size.decrement();
+        memory.add(-estimatedSize);
+        if (evicted) {
+            evictions.increment();
+        }
+    }
+
+    private void prune() {
+        Iterator<Map.Entry<Connection, ConnectionStatements>> iterator = connections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Connection, ConnectionStatements> entry = iterator.next();
+            if (isClosed(entry.getKey())) {
+                iterator.remove();
+                entry.getValue().clear();
+            }
+        }
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement;
+
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A borrowed connection that prepares its statements from the cache of its physical connection. The statements
+ * that are still open when the connection is closed are returned to the cache.
+ *
+ * <p>The statements are prepared on the physical connection, reached through the proxy of the pool, so that the pool
+ * does not close them when the connection is returned. The pool therefore does not see the failures of these
+ * statements: a statement that fails with a connection exception, of the SQL state class {@code 08}, drops the cached
+ * statements of the physical connection and aborts it through the proxy of the pool, so that the pool discards it
+ * when it validates it instead of lending it again.</p>
+ *
+ * @since 6.0.0
+ */
+final class StatementCachingConnection extends ConnectionWrapper {
+
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+
+    private final StatementCache cache;
+    private final List<CachedPreparedStatement> open = new ArrayList<>(4);
+    private Connection physicalConnection;
+    private ConnectionStatements statements;
+    private boolean closed;
+    private boolean used;
+    private boolean broken;
+
+    StatementCachingConnection(Connection connection, StatementCache cache) {
+        super(connection);
+        this.cache = cache;
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return prepare(sql, sql, -1, -1, -1);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return prepare("keys=" + autoGeneratedKeys + ":" + sql, sql, autoGeneratedKeys, -1, -1);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return prepare("type=" + resultSetType + "," + resultSetConcurrency + ":" + sql, sql, -1, resultSetType, resultSetConcurrency);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            super.close();
+            return;
+        }
+        closed = true;
+        SQLException failure = null;
+        for (CachedPreparedStatement statement : new ArrayList<>(open)) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                failure = add(failure, e);
+            }
+        }
+        try {
+            if (used && !broken && !getAutoCommit()) {
+                // the pool no longer sees these statements, so roll back what they did before it resets the connection
+                rollback();
+            }
+        } catch (SQLException e) {
+            failure = add(failure, e);
+        }
+        try {
+            super.close();
+        } catch (SQLException e) {
+            if (!broken) {
+                // the pool fails to reset a connection that was aborted, but it is no longer lent either way
+                failure = add(failure, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @param statement The statement returned to the cache
+     */
+    void returned(CachedPreparedStatement statement) {
+        open.remove(statement);
+    }
+
+    /**
+     * @return Whether a statement of the connection failed with a connection exception
+     */
+    boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * Drops the cached statements of the physical connection and aborts it when a statement fails with a connection
+     * exception.
+     *
+     * @param e The failure of a statement
+     * @return The failure
+     */
+    SQLException failed(SQLException e) {
+        if (broken || !isConnectionException(e)) {
+            return e;
+        }
+        broken = true;
+        cache.discard(physicalConnection);
+        try {
+            getTargetConnection().abort(Runnable::run);
+            if (!physicalConnection.isClosed()) {
+                // a driver may not implement abort
+                physicalConnection.close();
+            }
+        } catch (SQLException | RuntimeException abortFailure) {
+            e.addSuppressed(abortFailure);
+        }
+        return e;
+    }
+
+    private PreparedStatement prepare(String key, String sql, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        if (broken) {
+            // the statements of a broken connection are not cached, and the pool reports its failure
+            return prepare(getTargetConnection(), sql, autoGeneratedKeys, resultSetType, resultSetConcurrency);
+        }
+        ConnectionStatements statements = statements();
+        ConnectionStatements.Entry entry = statements.acquire(key);
+        if (entry != null) {
+            cache.hit();
+        } else {
+            cache.miss();
+            if (statements.isLent(key)) {
+                // the statement is open for another caller of this connection, so this one is prepared without caching
+                return prepare(getTargetConnection(), sql, autoGeneratedKeys, resultSetType, resultSetConcurrency);
+            }
+            PreparedStatement statement = prepare(physicalConnection, sql, autoGeneratedKeys, resultSetType, resultSetConcurrency);
+            entry = statements.add(key, statement);
+            if (entry == null) {
+                statement.close();
+                return prepare(getTargetConnection(), sql, autoGeneratedKeys, resultSetType, resultSetConcurrency);
+            }
+        }
+        CachedPreparedStatement cached = new CachedPreparedStatement(this, statements, entry);
+        open.add(cached);
+        used = true;
+        return cached;
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency) throws SQLException {
+        if (autoGeneratedKeys != -1) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        if (resultSetType != -1) {
+            return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return connection.prepareStatement(sql);
+    }
+
+    private ConnectionStatements statements() throws SQLException {
+        if (statements == null) {
+            Connection target = getTargetConnection();
+            while (target instanceof ConnectionWrapper wrapper) {
+                target = wrapper.getTargetConnection();
+            }
+            if (target.isWrapperFor(Connection.class)) {
+                target = target.unwrap(Connection.class);
+            }
+            physicalConnection = target;
+            statements = cache.forConnection(target);
+        }
+        return statements;
+    }
+
+    private static boolean isConnectionException(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                String sqlState = sqlException.getSQLState();
+                if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static SQLException add(SQLException failure, SQLException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} whose connections reuse the prepared statements of their physical connection. The least
+ * recently used statements of a connection are closed when it holds more statements, or more estimated memory, than
+ * the limits of the {@link StatementCache}.
+ *
+ * <p>Only the statements prepared with {@link Connection#prepareStatement(String)},
+ * {@link Connection#prepareStatement(String, int)} and {@link Connection#prepareStatement(String, int, int)} are
+ * cached. A statement whose settings, such as the fetch size or the query timeout, are changed is closed instead of
+ * being returned to the cache.</p>
+ *
+ * @since 6.0.0
+ */
+public final class StatementCachingDataSource extends DataSourceWrapper {
+
+    private final StatementCache statementCache;
+
+    /**
+     * @param targetDataSource The data source whose statements are cached
+     * @param statementCache   The statement cache of the data source
+     */
+    public StatementCachingDataSource(@NonNull DataSource targetDataSource, @NonNull StatementCache statementCache) {
+        super(targetDataSource);
+        this.statementCache = statementCache;
+    }
+
+    /**
+     * @return The statement cache of the data source
+     */
+    @NonNull
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Finds the statement cache of a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The cache or {@code null} if the data source does not cache statements
+     */
+    @Nullable
+    public static StatementCache findStatementCache(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof StatementCachingDataSource caching) {
+                return caching.statementCache;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new StatementCachingConnection(super.getConnection(), statementCache);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new StatementCachingConnection(super.getConnection(username, password), statementCache);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.statement-cache.enabled} set in a
+ * {@link StatementCachingDataSource}, limited by {@code max-statements} and {@code max-memory}. The listener runs
+ * after the connection timings and the session state cache, so the statements are cached below the profiling and
+ * the read/write routing.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class StatementCachingDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    StatementCachingDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String prefix = "datasources." + event.getBeanIdentifier().getName() + ".statement-cache.";
+        if (dataSource instanceof StatementCachingDataSource || !propertyResolver.getProperty(prefix + "enabled", Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "statement cache")) {
+            return dataSource;
+        }
+        StatementCache cache = new StatementCache(
+            propertyResolver.getProperty(prefix + "max-statements", Integer.class, StatementCache.DEFAULT_MAX_STATEMENTS),
+            propertyResolver.getProperty(prefix + "max-memory", Long.class, StatementCache.DEFAULT_MAX_MEMORY)
+        );
+        return new StatementCachingDataSource(dataSource, cache);
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.STATEMENT_CACHE;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.time.Duration;
+
+/**
+ * A sampled connection borrow together with where the connection was borrowed from.
+ *
+ * @since 6.0.0
+ */
+public final class ConnectionHold {
+
+    private final Duration duration;
+    private final String threadName;
+    private final StackTraceElement[] stackTrace;
+
+    /**
+     * @param duration   How long the connection was held
+     * @param threadName The name of the thread that borrowed the connection
+     * @param stackTrace The stack of the caller that borrowed the connection
+     */
+    ConnectionHold(Duration duration, String threadName, StackTraceElement[] stackTrace) {
+        this.duration = duration;
+        this.threadName = threadName;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * @return How long the connection was held
+     */
+    @NonNull
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return The name of the thread that borrowed the connection
+     */
+    @NonNull
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * @return The stack of the caller that borrowed the connection, starting at the frame that called
+     * {@link javax.sql.DataSource#getConnection()}
+     */
+    @NonNull
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionHold{duration=" + duration + ", threadName=" + threadName
+            + ", callSite=" + (stackTrace.length == 0 ? "unknown" : stackTrace[0]) + '}';
+    }
+}
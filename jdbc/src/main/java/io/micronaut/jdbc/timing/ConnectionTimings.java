@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records how long connections of a data source are waited for and held, and samples where the longest held
+ * connections were borrowed from. A slow code path holding connections shows up as a long hold time here and
+ * as acquire time for every other caller of the pool. Recording takes no lock: the longest holds replace the
+ * shortest of them with a compare-and-set.
+ *
+ * @since 6.0.0
+ */
+public final class ConnectionTimings {
+
+    /**
+     * The default number of borrows per sampled call site.
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 100;
+
+    /**
+     * The default number of longest holds that are kept.
+     */
+    public static final int DEFAULT_LONGEST_HOLDS = 10;
+
+    private static final int MAX_STACK_DEPTH = 32;
+    private static final String PACKAGE_PREFIX = ConnectionTimings.class.getPackageName() + ".";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+    private final int sampleRate;
+    private final AtomicReferenceArray<ConnectionHold> longestHolds;
+
+    /**
+     * @param sampleRate   One in how many borrows the call site is captured, {@code 0} to disable sampling
+     * @param longestHolds The number of longest holds to keep
+     */
+    public ConnectionTimings(int sampleRate, int longestHolds) {
+        if (sampleRate < 0) {
+            throw new IllegalArgumentException("Sample rate must not be negative: " + sampleRate);
+        }
+        if (longestHolds < 0) {
+            throw new IllegalArgumentException("Number of longest holds must not be negative: " + longestHolds);
+        }
+        this.sampleRate = sampleRate;
+        this.longestHolds = new AtomicReferenceArray<>(longestHolds);
+    }
+
+    /**
+     * @return The time callers waited for the pool to hand out a connection
+     */
+    @NonNull
+    public LatencyHistogram getAcquireTime() {
+        return acquireTime;
+    }
+
+    /**
+     * @return The time from handing out a connection until it was closed
+     */
+    @NonNull
+    public LatencyHistogram getHoldTime() {
+        return holdTime;
+    }
+
+    /**
+     * @return The longest holds among the sampled borrows, longest first
+     */
+    @NonNull
+    public List<ConnectionHold> getLongestHolds() {
+        List<ConnectionHold> holds = new ArrayList<>(longestHolds.length());
+        for (int i = 0; i < longestHolds.length(); i++) {
+            ConnectionHold hold = longestHolds.get(i);
+            if (hold != null) {
+                holds.add(hold);
+            }
+        }
+        holds.sort(Comparator.comparing(ConnectionHold::getDuration).reversed());
+        return holds;
+    }
+
+    /**
+     * Clears the recorded timings and holds.
+     */
+    public void reset() {
+        acquireTime.reset();
+        holdTime.reset();
+        for (int i = 0; i < longestHolds.length(); i++) {
+            longestHolds.set(i, null);
+        }
+    }
+
+    /**
+     * Decides whether the current borrow is sampled and captures the call site if so.
+     *
+     * @return The stack of the caller or {@code null} if the borrow is not sampled
+     */
+    StackTraceElement[] sampleCallSite() {
+        if (sampleRate == 0 || longestHolds.length() == 0 || ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return null;
+        }
+        return STACK_WALKER.walk(frames -> frames
+            .dropWhile(frame -> frame.getClassName().startsWith(PACKAGE_PREFIX))
+            .limit(MAX_STACK_DEPTH)
+            .map(StackWalker.StackFrame::toStackTraceElement)
+            .toArray(StackTraceElement[]::new));
+    }
+
+    /**
+     * Records the hold time of a connection.
+     *
+     * @param nanos      The hold time
+     * @param threadName The borrowing thread if the borrow was sampled
+     * @param callSite   The call site if the borrow was sampled
+     */
+    void recordHold(long nanos, String threadName, StackTraceElement[] callSite) {
+        holdTime.record(nanos);
+        if (callSite != null) {
+            offerHold(nanos, threadName, callSite);
+        }
+    }
+
+    private void offerHold(long nanos, String threadName, StackTraceElement[] callSite) {
+        ConnectionHold hold = null;
+        while (true) {
+            int shortest = -1;
+            ConnectionHold shortestHold = null;
+            for (int i = 0; i < longestHolds.length(); i++) {
+                ConnectionHold longestHold = longestHolds.get(i);
+                if (longestHold == null) {
+                    shortest = i;
+                    shortestHold = null;
+                    break;
+                }
+                if (shortest < 0 || longestHold.getDuration().compareTo(shortestHold.getDuration()) < 0) {
+                    shortest = i;
+                    shortestHold = longestHold;
+                }
+            }
+            if (shortestHold != null && shortestHold.getDuration().toNanos() >= nanos) {
+                return;
+            }
+            if (hold == null) {
+                hold = new ConnectionHold(Duration.ofNanos(nanos), Objects.requireNonNullElse(threadName, ""), callSite);
+            }
+            if (longestHolds.compareAndSet(shortest, shortestHold, hold)) {
+                return;
+            }
+        }
+    }
+}
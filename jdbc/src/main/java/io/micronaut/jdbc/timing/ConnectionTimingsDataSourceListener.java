@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.jdbc.DataSourceBeans;
+import io.micronaut.jdbc.DataSourceListenerOrder;
+import jakarta.inject.Singleton;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data sources that have {@code datasources.<name>.connection-timings.enabled} set in a
+ * {@link TimedDataSource}. The listener runs before any other wrapping, so the timed data source sits right
+ * on top of the pool and times every connection borrowed from it.
+ *
+ * @since 6.0.0
+ */
+@Singleton
+@Internal
+final class ConnectionTimingsDataSourceListener implements BeanCreatedEventListener<DataSource>, Ordered {
+
+    private final PropertyResolver propertyResolver;
+
+    ConnectionTimingsDataSourceListener(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    @Override
+    public DataSource onCreated(BeanCreatedEvent<DataSource> event) {
+        DataSource dataSource = event.getBean();
+        String prefix = "datasources." + event.getBeanIdentifier().getName() + ".connection-timings.";
+        if (dataSource instanceof TimedDataSource || !propertyResolver.getProperty(prefix + "enabled", Boolean.class, false)
+            || !DataSourceBeans.isWrappable(event, "connection timings")) {
+            return dataSource;
+        }
+        ConnectionTimings timings = new ConnectionTimings(
+            propertyResolver.getProperty(prefix + "sample-rate", Integer.class, ConnectionTimings.DEFAULT_SAMPLE_RATE),
+            propertyResolver.getProperty(prefix + "longest-holds", Integer.class, ConnectionTimings.DEFAULT_LONGEST_HOLDS)
+        );
+        return new TimedDataSource(dataSource, timings);
+    }
+
+    @Override
+    public int getOrder() {
+        return DataSourceListenerOrder.CONNECTION_TIMINGS;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing;
+
+import io.micronaut.jdbc.ConnectionWrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A connection that records its hold time when it is closed.
+ *
+ * @since 6.0.0
+ */
+final class TimedConnection extends ConnectionWrapper {
+
+    private final ConnectionTimings timings;
+    private final long acquiredAt;
+    private final String threadName;
+    private final StackTraceElement[] callSite;
+    private boolean closed;
+
+    TimedConnection(Connection connection, ConnectionTimings timings, long acquiredAt, StackTraceElement[] callSite) {
+        super(connection);
+        this.timings = timings;
+        this.acquiredAt = acquiredAt;
+        this.callSite = callSite;
+        this.threadName = callSite == null ? null : Thread.currentThread().getName();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            timings.recordHold(System.nanoTime() - acquiredAt, threadName, callSite);
+        }
+        getTargetConnection().close();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.DataSourceWrapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A {@link DataSource} that records the acquire and hold time of the connections of a target data source in
+ * {@link ConnectionTimings}. Recording a borrow costs two {@link System#nanoTime()} calls and a connection
+ * wrapper, the call site is only captured for sampled borrows.
+ *
+ * @since 6.0.0
+ */
+public final class TimedDataSource extends DataSourceWrapper {
+
+    private final ConnectionTimings connectionTimings;
+
+    /**
+     * @param targetDataSource  The data source to time
+     * @param connectionTimings The timings to record to
+     */
+    public TimedDataSource(@NonNull DataSource targetDataSource, @NonNull ConnectionTimings connectionTimings) {
+        super(targetDataSource);
+        this.connectionTimings = connectionTimings;
+    }
+
+    /**
+     * @return The timings recorded for the target data source
+     */
+    @NonNull
+    public ConnectionTimings getConnectionTimings() {
+        return connectionTimings;
+    }
+
+    /**
+     * Finds the timings recorded for a data source, looking through any {@link DataSourceWrapper} layers.
+     *
+     * @param dataSource The data source
+     * @return The timings or {@code null} if the data source is not timed
+     */
+    @Nullable
+    public static ConnectionTimings findConnectionTimings(@NonNull DataSource dataSource) {
+        DataSource target = dataSource;
+        while (target instanceof DataSourceWrapper wrapper) {
+            if (wrapper instanceof TimedDataSource timed) {
+                return timed.connectionTimings;
+            }
+            target = wrapper.getTargetDataSource();
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return timed(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return timed(connection, start);
+    }
+
+    private Connection timed(Connection connection, long start) {
+        long acquiredAt = System.nanoTime();
+        connectionTimings.getAcquireTime().record(acquiredAt - start);
+        return new TimedConnection(connection, connectionTimings, acquiredAt, connectionTimings.sampleCallSite());
+    }
+}
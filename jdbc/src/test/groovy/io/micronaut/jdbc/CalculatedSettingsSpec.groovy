@@ -245,4 +245,51 @@ class CalculatedSettingsSpec extends Specification {
         "jdbc:mariadb:x" | "SELECT 1"
         "jdbc:oracle:x"  | "SELECT 1 FROM DUAL"
     }
+
+    void "test getDefaultDataSourceProperties leaves out properties set in the URL"() {
+        given:
+        BasicJdbcConfiguration basicConfiguration = Mock(BasicJdbcConfiguration) {
+            getConfiguredUrl() >> url
+        }
+        CalculatedSettings settings = new CalculatedSettings(basicConfiguration)
+
+        expect:
+        settings.getDefaultDataSourceProperties() == properties
+
+        where:
+        url                                                              | properties
+        "jdbc:postgresql://localhost/db"                                 | ["reWriteBatchedInserts": "true"]
+        "jdbc:postgresql://localhost/db?rewritebatchedinserts=false"     | [:]
+        "jdbc:sqlserver://localhost"                                     | [:]
+    }
+
+    void "test getDefaultDataSourceProperties is empty without a URL"() {
+        given:
+        BasicJdbcConfiguration basicConfiguration = Mock(BasicJdbcConfiguration)
+        CalculatedSettings settings = new CalculatedSettings(basicConfiguration, new URLClassLoader(new URL[0], (ClassLoader) null))
+
+        expect:
+        settings.getDefaultDataSourceProperties().isEmpty()
+    }
+
+    void "test getValidationStrategy"() {
+        given:
+        BasicJdbcConfiguration basicConfiguration = Mock(BasicJdbcConfiguration) {
+            getConfiguredValidationStrategy() >> configuredStrategy
+            getConfiguredValidationQuery() >> configuredQuery
+            getConfiguredUrl() >> url
+        }
+        CalculatedSettings settings = new CalculatedSettings(basicConfiguration)
+
+        expect:
+        settings.getValidationStrategy() == strategy
+
+        where:
+        configuredStrategy                       | configuredQuery | url                              | strategy
+        ValidationStrategy.SKIP_IF_RECENTLY_USED | "SELECT 1"      | "jdbc:postgresql://localhost/db" | ValidationStrategy.SKIP_IF_RECENTLY_USED
+        null                                     | "SELECT 1"      | "jdbc:postgresql://localhost/db" | ValidationStrategy.QUERY
+        null                                     | null            | "jdbc:postgresql://localhost/db" | ValidationStrategy.IS_VALID
+        null                                     | null            | "jdbc:jtds:sqlserver://localhost" | ValidationStrategy.QUERY
+        null                                     | null            | "jdbc:unknown://localhost"       | ValidationStrategy.QUERY
+    }
 }
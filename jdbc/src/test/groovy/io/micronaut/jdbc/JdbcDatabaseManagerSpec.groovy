@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class JdbcDatabaseManagerSpec extends Specification {
+
+    @Unroll
+    void "test findDatabase resolves #url to #driverClassName"() {
+        expect:
+        JdbcDatabaseManager.findDatabase(url).map { it.driverClassName }.orElse(null) == driverClassName
+
+        where:
+        url                                  | driverClassName
+        "jdbc:h2:mem:test"                   | "org.h2.Driver"
+        "jdbc:POSTGRESQL://localhost/test"   | "org.postgresql.Driver"
+        "jdbc:oracle:thin:@localhost:1521:x" | "oracle.jdbc.OracleDriver"
+        "jdbc:unknown://localhost/test"      | null
+        null                                 | null
+    }
+
+    void "test findDatabase rejects non JDBC URLs"() {
+        when:
+        JdbcDatabaseManager.findDatabase("http://localhost")
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    void "test isEmbedded"() {
+        expect:
+        JdbcDatabaseManager.isEmbedded("org.h2.Driver")
+        JdbcDatabaseManager.isEmbedded("org.hsqldb.jdbc.JDBCDriver")
+        !JdbcDatabaseManager.isEmbedded("org.postgresql.Driver")
+        !JdbcDatabaseManager.isEmbedded(null)
+    }
+
+    void "test the embedded database lookup is cached per classloader"() {
+        given:
+        URL h2Jar = this.class.classLoader.getResource("h2.jar")
+        ClassLoader h2ClassLoader = new URLClassLoader(h2Jar)
+        ClassLoader emptyClassLoader = new URLClassLoader(new URL[0], (ClassLoader) null)
+
+        expect:
+        JdbcDatabaseManager.get(h2ClassLoader).get().driverClassName == "org.h2.Driver"
+        JdbcDatabaseManager.get(h2ClassLoader).is(JdbcDatabaseManager.get(h2ClassLoader))
+        !JdbcDatabaseManager.get(emptyClassLoader).present
+    }
+
+    void "test databases can be registered with a provider"() {
+        when:
+        JdbcDatabaseManager.JdbcDatabase database = JdbcDatabaseManager.findDatabase("jdbc:testdb://localhost").get()
+
+        then:
+        database.driverClassName == "com.example.TestDriver"
+        database.validationQuery == "SELECT 42"
+        database.defaultDataSourceProperties == ["fetchSize": "500"]
+    }
+
+    void "test default data source properties"() {
+        expect:
+        JdbcDatabaseManager.findDatabase("jdbc:postgresql://localhost/db").get().defaultDataSourceProperties == ["reWriteBatchedInserts": "true"]
+        JdbcDatabaseManager.findDatabase("jdbc:mysql://localhost/db").get().defaultDataSourceProperties.get("rewriteBatchedStatements") == "true"
+        JdbcDatabaseManager.findDatabase("jdbc:h2:mem:test").get().defaultDataSourceProperties.isEmpty()
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.append
+
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.SQLException
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+class JdbcAppendBufferSpec extends Specification {
+
+    PreparedStatement statement = Mock(PreparedStatement)
+    Connection connection = Mock(Connection) {
+        getAutoCommit() >> true
+        prepareStatement("insert into events (id) values (?)") >> statement
+    }
+    DataSource dataSource = Mock(DataSource) {
+        getConnection() >> connection
+    }
+
+    @AutoCleanup("shutdownNow")
+    ExecutorService executor = Executors.newCachedThreadPool()
+
+    @AutoCleanup
+    JdbcAppendBuffer<Integer> buffer
+
+    void "test the appended rows are inserted in batches of one transaction"() {
+        given:
+        CountDownLatch started = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        buffer = buffer(16, 3, Duration.ofHours(1), { s, Integer row ->
+            if (row == 0) {
+                // holds the first transaction, so that the next rows are appended while it runs
+                started.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            }
+            s.setInt(1, row)
+        })
+
+        when:
+        CompletableFuture<Void> first = buffer.append(0)
+        buffer.flush()
+        started.await(10, TimeUnit.SECONDS)
+        List<CompletableFuture<Void>> futures = (1..7).collect { buffer.append(it) }
+        release.countDown()
+        buffer.flush().get(10, TimeUnit.SECONDS)
+        CompletableFuture.allOf(first, *futures).get(10, TimeUnit.SECONDS)
+
+        then:
+        8 * statement.addBatch()
+        4 * statement.executeBatch()
+        2 * connection.setAutoCommit(false)
+        2 * connection.commit()
+        2 * connection.setAutoCommit(true)
+        0 * connection.rollback()
+        buffer.capacity == 16
+        buffer.appendedCount == 8
+        buffer.writtenCount == 8
+        buffer.transactionCount == 2
+        buffer.size == 0
+    }
+
+    void "test the rows of a failed transaction fail and are rolled back"() {
+        given:
+        buffer = buffer(16, 10, Duration.ofHours(1), { s, Integer row ->
+            if (row == 2) {
+                throw new IllegalArgumentException("invalid row")
+            }
+            s.setInt(1, row)
+        })
+
+        when:
+        CompletableFuture<Void> first = buffer.append(1)
+        CompletableFuture<Void> invalid = buffer.append(2)
+        buffer.flush().get(10, TimeUnit.SECONDS)
+        first.get()
+
+        then:
+        1 * statement.executeBatch() >> { throw new SQLException("broken") }
+        1 * connection.rollback()
+        0 * connection.commit()
+        ExecutionException e = thrown()
+        e.cause instanceof SQLException
+        invalid.isCompletedExceptionally()
+        buffer.failedCount == 2
+        buffer.writtenCount == 0
+    }
+
+    void "test appending waits while the buffer is full"() {
+        given:
+        CountDownLatch flushing = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        DataSource blocking = Mock(DataSource) {
+            getConnection() >> {
+                flushing.countDown()
+                release.await()
+                connection
+            }
+        }
+        PollingConditions conditions = new PollingConditions(timeout: 10)
+        buffer = new JdbcAppendBuffer<>("events", "default", blocking, "insert into events (id) values (?)",
+                { s, Integer row -> s.setInt(1, row) } as RowBinder<Integer>, 2, 1, Duration.ofHours(1), Duration.ofMillis(50), executor)
+
+        when:
+        CompletableFuture<Void> first = buffer.append(1)
+        flushing.await(10, TimeUnit.SECONDS)
+        buffer.append(2)
+        buffer.append(3)
+        CompletableFuture<Void> rejected = buffer.append(4)
+        release.countDown()
+        first.get(10, TimeUnit.SECONDS)
+        rejected.get()
+
+        then:
+        ExecutionException e = thrown()
+        e.cause instanceof RejectedExecutionException
+        buffer.rejectedCount == 1
+
+        when:
+        buffer.close()
+
+        then:
+        buffer.writtenCount == 3
+        buffer.append(5).isCompletedExceptionally()
+    }
+
+    void "test a row appended while the buffer closes is flushed or rejected"() {
+        given:
+        CountDownLatch flushing = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        DataSource blocking = Mock(DataSource) {
+            getConnection() >> {
+                flushing.countDown()
+                release.await()
+                connection
+            }
+        }
+        PollingConditions conditions = new PollingConditions(timeout: 10)
+        buffer = new JdbcAppendBuffer<>("events", "default", blocking, "insert into events (id) values (?)",
+                { s, Integer row -> s.setInt(1, row) } as RowBinder<Integer>, 2, 1, Duration.ofHours(1), Duration.ofSeconds(10), executor)
+
+        when:
+        buffer.append(1)
+        flushing.await(10, TimeUnit.SECONDS)
+        buffer.append(2)
+        buffer.append(3)
+        // waits for a free slot while the buffer closes
+        CompletableFuture<Void> last = null
+        Thread appending = Thread.start { last = buffer.append(4) }
+        conditions.eventually {
+            assert appending.state == Thread.State.TIMED_WAITING
+        }
+        Thread closing = Thread.start { buffer.close() }
+        conditions.eventually {
+            assert closing.state == Thread.State.TIMED_WAITING
+        }
+        release.countDown()
+        closing.join(10_000)
+        appending.join(10_000)
+
+        then:
+        !closing.alive
+        last.isDone()
+        buffer.writtenCount + buffer.rejectedCount == 4
+        buffer.append(5).isCompletedExceptionally()
+    }
+
+    private JdbcAppendBuffer<Integer> buffer(int capacity, int batchSize, Duration flushInterval, RowBinder<Integer> binder) {
+        return new JdbcAppendBuffer<>("events", "default", dataSource, "insert into events (id) values (?)",
+                binder, capacity, batchSize, flushInterval, Duration.ofSeconds(10), executor)
+    }
+}
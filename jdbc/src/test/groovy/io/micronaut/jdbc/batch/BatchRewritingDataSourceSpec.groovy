@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.batch
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.BatchUpdateException
+import java.sql.Connection
+import java.sql.DatabaseMetaData
+import java.sql.PreparedStatement
+import java.sql.SQLException
+import java.sql.Statement
+
+class BatchRewritingDataSourceSpec extends Specification {
+
+    void "test the plain single-row inserts are rewritable"() {
+        expect:
+        InsertStatement.parse(sql)?.toSql(2) == rewritten
+
+        where:
+        sql                                                             | rewritten
+        "insert into book (id, title) values (?, ?)"                    | "insert into book (id, title) values (?, ?), (?, ?)"
+        "  INSERT INTO \"Book\" (\"id\", \"values\") VALUES(?, lower(?)) " | "INSERT INTO \"Book\" (\"id\", \"values\") VALUES(?, lower(?)), (?, lower(?))"
+        "insert into book (id, created) values (?, now())"              | "insert into book (id, created) values (?, now()), (?, now())"
+        "insert into book (id, title) values (?, 'untitled')"           | null
+        "insert into book (id) values (?) returning id"                 | null
+        "insert into book (id) values (?) on conflict do nothing"       | null
+        "insert into book (id) values (?), (?)"                         | null
+        "insert into book (id) select ? from dual"                      | null
+        "insert into book (id) values (1)"                              | null
+        "insert into book (id) values (?); delete from book"            | null
+        "insert /* hint */ into book (id) values (?)"                   | null
+        "update book set title = ? where id = ?"                        | null
+    }
+
+    void "test the batches are executed as multi-row inserts"() {
+        given:
+        BatchRewriter rewriter = new BatchRewriter("default", 2, 100)
+        PreparedStatement single = Mock(PreparedStatement)
+        PreparedStatement multi = Mock(PreparedStatement)
+        Connection connection = Mock(Connection) {
+            getMetaData() >> Mock(DatabaseMetaData) { getDatabaseProductName() >> "H2" }
+        }
+        DataSource dataSource = new BatchRewritingDataSource(Mock(DataSource) { getConnection() >> connection }, rewriter)
+
+        when:
+        Connection rewriting = dataSource.getConnection()
+        PreparedStatement statement = rewriting.prepareStatement("insert into book (id, title) values (?, ?)")
+        (1..3).each {
+            statement.setInt(1, it)
+            statement.setString(2, "title " + it)
+            statement.addBatch()
+        }
+        int[] counts = statement.executeBatch()
+
+        then:
+        1 * connection.prepareStatement("insert into book (id, title) values (?, ?)") >> single
+        1 * connection.prepareStatement("insert into book (id, title) values (?, ?), (?, ?)") >> multi
+        1 * multi.setInt(1, 1)
+        1 * multi.setString(2, "title 1")
+        1 * multi.setInt(3, 2)
+        1 * multi.setString(4, "title 2")
+        1 * multi.executeUpdate() >> 2
+        1 * single.setInt(1, 3)
+        1 * single.setString(2, "title 3")
+        1 * single.executeUpdate() >> 1
+        0 * single.addBatch()
+        0 * single.executeBatch()
+        counts == [1, 1, 1] as int[]
+        statement.connection.is(rewriting)
+        rewriter.batchCount == 1
+        rewriter.rowCount == 3
+        rewriter.executionCount == 2
+        BatchRewritingDataSource.findBatchRewriter(new DataSourceWrapper(dataSource) {}).is(rewriter)
+        BatchRewritingDataSource.findBatchRewriter(Mock(DataSource)) == null
+
+        when: "a multi-row insert fails"
+        statement.addBatch()
+        statement.addBatch()
+        statement.executeBatch()
+
+        then:
+        1 * multi.executeUpdate() >> { throw new SQLException("duplicate key", "23505") }
+        BatchUpdateException e = thrown()
+        e.SQLState == "23505"
+        e.updateCounts.length == 0
+
+        when: "a statement is executed on its own"
+        statement.executeUpdate()
+        statement.close()
+
+        then:
+        1 * single.setInt(1, 3)
+        1 * single.executeUpdate() >> 1
+        1 * multi.close()
+        1 * single.close()
+    }
+
+    void "test a parameter missing from a row does not keep the value of a previous batch"() {
+        given:
+        PreparedStatement multi = Mock(PreparedStatement)
+        Connection connection = Mock(Connection) {
+            getMetaData() >> Mock(DatabaseMetaData) { getDatabaseProductName() >> "H2" }
+            prepareStatement("insert into book (id, title) values (?, ?)") >> Mock(PreparedStatement)
+            prepareStatement("insert into book (id, title) values (?, ?), (?, ?)") >> multi
+        }
+        DataSource dataSource = new BatchRewritingDataSource(Mock(DataSource) { getConnection() >> connection }, new BatchRewriter("default", 2, 100))
+        PreparedStatement statement = dataSource.getConnection().prepareStatement("insert into book (id, title) values (?, ?)")
+        (1..2).each {
+            statement.setInt(1, it)
+            statement.setString(2, "title " + it)
+            statement.addBatch()
+        }
+        statement.executeBatch()
+
+        when:
+        statement.clearParameters()
+        (3..4).each {
+            statement.setInt(1, it)
+            statement.addBatch()
+        }
+        statement.executeBatch()
+
+        then:
+        1 * multi.clearParameters()
+
+        then:
+        1 * multi.setInt(1, 3)
+        1 * multi.setInt(3, 4)
+        0 * multi.setString(_, _)
+        1 * multi.executeUpdate() >> 2
+    }
+
+    void "test the statements are not rewritten for the databases without multi-row inserts"() {
+        given:
+        PreparedStatement single = Mock(PreparedStatement)
+        Connection connection = Mock(Connection) {
+            getMetaData() >> Mock(DatabaseMetaData) {
+                getDatabaseProductName() >> "Oracle"
+                getDatabaseMajorVersion() >> 19
+            }
+            prepareStatement(_) >> single
+        }
+        DataSource dataSource = new BatchRewritingDataSource(Mock(DataSource) { getConnection() >> connection }, new BatchRewriter("default", 100, 2000))
+
+        expect:
+        dataSource.getConnection().prepareStatement("insert into book (id) values (?)").is(single)
+        dataSource.getConnection().prepareStatement("insert into book (id) values (?)", Statement.RETURN_GENERATED_KEYS) == null
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.bulk
+
+import io.micronaut.context.BeanLocator
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.JdbcDatabaseManager
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.nio.charset.StandardCharsets
+import java.sql.Connection
+import java.sql.DatabaseMetaData
+import java.sql.PreparedStatement
+import java.sql.Timestamp
+
+class BulkLoadersSpec extends Specification {
+
+    void "test the loader is chosen by the database"() {
+        given:
+        BulkLoaders loaders = new BulkLoaders(null, [new MultiRowInsertBulkLoader(), new OracleBatchBulkLoader(), new PostgresCopyBulkLoader()])
+
+        expect:
+        loaders.loaders*.name == ["oracle-array-binding", "postgres-copy", "multi-row-insert"]
+        loaders.findLoader(database(url)).name == loader
+
+        where:
+        url                                       | loader
+        "jdbc:postgresql://localhost:5432/db"     | "postgres-copy"
+        "jdbc:oracle:thin:@localhost:1521/XEPDB1" | "oracle-array-binding"
+        "jdbc:h2:mem:db"                          | "multi-row-insert"
+        null                                      | "multi-row-insert"
+    }
+
+    void "test a loader disabled on the connection lets the next loader load the rows"() {
+        given:
+        BulkLoader disabled = new BulkLoader() {
+            String getName() { "disabled" }
+
+            boolean supports(JdbcDatabaseManager.JdbcDatabase database) { true }
+
+            boolean supports(Connection connection) { false }
+
+            long load(Connection connection, BulkTable table, Iterator<Object[]> rows) {
+                throw new UnsupportedOperationException()
+            }
+        }
+        Connection connection = Stub {
+            getMetaData() >> Stub(DatabaseMetaData) { getURL() >> "jdbc:h2:mem:db" }
+            getAutoCommit() >> true
+            prepareStatement(_) >> Stub(PreparedStatement)
+        }
+        BeanLocator beanLocator = Stub {
+            findBean(DataSourceResolver) >> Optional.empty()
+        }
+        BulkLoaders loaders = new BulkLoaders(beanLocator, [new MultiRowInsertBulkLoader(), disabled])
+
+        when:
+        BulkLoadResult result = loaders.load(Stub(DataSource) { getConnection() >> connection }, BulkTable.of("book", "id"),
+                [1, 2].iterator(), { Integer row, Object[] values -> values[0] = row } as BulkRowMapper<Integer>)
+
+        then:
+        result.loader == "multi-row-insert"
+        result.rows == 2
+    }
+
+    void "test a row without one value per column is rejected with its index"() {
+        when:
+        new MultiRowInsertBulkLoader().load(Stub(Connection), BulkTable.of("book", "id", "title"),
+                [[1, "first"] as Object[], [2] as Object[]].iterator())
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "Row 1 has 1 values but table [book] has 2 columns"
+    }
+
+    void "test the rows are encoded in the text format of #format"() {
+        given:
+        List<Object[]> rows = [
+                ["tab\there", null, true, new BigDecimal("1E+3")] as Object[],
+                ["new\nline\\é", 42, false, [1, 9] as byte[]] as Object[]
+        ]
+        TextRowInputStream input = new TextRowInputStream(rows.iterator(), postgres)
+
+        expect:
+        new String(input.readAllBytes(), StandardCharsets.UTF_8) == text
+        input.count == 2
+
+        where:
+        format       | postgres | text
+        "PostgreSQL" | true     | "tab\\there\t\\N\tt\t1000\nnew\\nline\\\\é\t42\tf\t\\\\x0109\n"
+        "MySQL"      | false    | "tab\\there\t\\N\t1\t1000\nnew\\nline\\\\é\t42\t0\t\u0001\\t\n"
+    }
+
+    void "test the publisher is read with a bounded demand"() {
+        given:
+        List<Long> requests = []
+        Publisher<Integer> publisher = { Subscriber<Integer> subscriber ->
+            int next = 0
+            subscriber.onSubscribe(new Subscription() {
+                void request(long n) {
+                    requests << n
+                    for (long i = 0; i < n && next < 10; i++) {
+                        subscriber.onNext(next++)
+                    }
+                    if (next == 10) {
+                        next++
+                        subscriber.onComplete()
+                    }
+                }
+
+                void cancel() {
+                }
+            })
+        } as Publisher<Integer>
+        PublisherIterator<Integer> iterator = new PublisherIterator<>(publisher, 4)
+
+        expect:
+        iterator.collect() == (0..<10)
+        requests == [4, 2, 2, 2, 2, 2]
+    }
+
+    private static JdbcDatabaseManager.JdbcDatabase database(String url) {
+        return url == null ? null : JdbcDatabaseManager.findDatabase(url).orElse(null)
+    }
+}
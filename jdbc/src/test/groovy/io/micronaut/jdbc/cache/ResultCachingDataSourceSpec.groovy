@@ -0,0 +1,288 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.cache
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import javax.sql.DataSource
+import java.sql.CallableStatement
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.ResultSetMetaData
+import java.sql.Statement
+import java.time.Duration
+
+class ResultCachingDataSourceSpec extends Specification {
+
+    static final String BOOKS = "select id, title from book where author = ?"
+    static final String COUNTRIES = "select code, name from country where code = ?"
+
+    Map<String, Integer> executions = [:].withDefault { 0 }
+    Closure<Void> onExecute = {}
+    boolean autoCommit = true
+    Connection target = Mock(Connection) {
+        getAutoCommit() >> { autoCommit }
+        setAutoCommit(_) >> { boolean value -> autoCommit = value }
+        prepareStatement(_ as String) >> { String sql -> statement(sql) }
+        createStatement() >> Mock(Statement)
+        prepareCall(_ as String) >> Mock(CallableStatement)
+    }
+    QueryResultCache resultCache = cache(true, [:], [] as Set)
+    DataSource dataSource = cachingDataSource(resultCache)
+
+    @Unroll
+    void "test '#sql' reads #tables"() {
+        expect:
+        SqlTables.read(sql) == tables as Set
+
+        where:
+        sql                                                                    | tables
+        "select * from book"                                                   | ["book"]
+        "select * from PUBLIC.\"Book\" b where b.id = ?"                       | ["book"]
+        "select * from book b, author as a where b.author_id = a.id"           | ["book", "author"]
+        "select * from book join author on book.author_id = author.id"         | ["book", "author"]
+        "select * from book left outer join \"author\" a on a.id = ?"          | ["book", "author"]
+        "select * from book where author_id in (select id from author)"        | ["book", "author"]
+        "select * from book where title = 'from shelf'"                        | ["book"]
+        "with recent as (select * from book) select * from recent"             | ["book", "recent"]
+        "select 1"                                                             | []
+    }
+
+    @Unroll
+    void "test '#sql' writes #tables"() {
+        expect:
+        SqlTables.written(sql) == (tables == null ? SqlTables.ALL : tables as Set)
+
+        where:
+        sql                                                                    | tables
+        "insert into book (id, title) values (?, ?)"                           | ["book"]
+        "INSERT INTO \"PUBLIC\".\"BOOK\" (\"ID\") VALUES (?)"                    | ["book"]
+        "update book set title = ? where id = ?"                               | ["book"]
+        "update book b, author a set b.title = a.name"                         | ["book", "author"]
+        "delete from book where id = ?"                                        | ["book"]
+        "delete from only book"                                                | ["book"]
+        "merge into book using staging on book.id = staging.id when matched then update set title = staging.title" | ["book", "staging"]
+        "truncate table book"                                                  | ["book"]
+        "insert into archive select * from book"                               | ["archive", "book"]
+        "select * from book for update"                                        | ["book"]
+        "select * from book"                                                   | ["book"]
+        "set search_path to app"                                               | []
+        "commit"                                                               | []
+        "begin"                                                                | []
+        "begin update book set title = null; end;"                             | null
+        "call refresh_books()"                                                 | null
+        "{call refresh_books(?)}"                                              | null
+        "create table book (id int)"                                           | null
+        "drop table book"                                                      | null
+    }
+
+    void "test the results of a query are cached by bind values"() {
+        when:
+        List<List<Object>> first = read(BOOKS, "Tolkien")
+        List<List<Object>> second = read(BOOKS, "Tolkien")
+        read(BOOKS, "Pratchett")
+
+        then:
+        first == [[1L, "The Hobbit"], [2L, null]]
+        second == first
+        executions[BOOKS] == 2
+        resultCache.hitCount == 1
+        resultCache.missCount == 2
+        resultCache.size == 2
+        resultCache.weight > 0
+        ResultCachingDataSource.findResultCache(new DataSourceWrapper(dataSource) {}).is(resultCache)
+    }
+
+    void "test a change to a table drops the results of its queries"() {
+        given:
+        read(BOOKS, "Tolkien")
+        read(COUNTRIES, "FR")
+
+        when:
+        Connection connection = dataSource.getConnection()
+        connection.prepareStatement("update book set title = ? where id = ?").executeUpdate()
+        read(BOOKS, "Tolkien")
+        read(COUNTRIES, "FR")
+
+        then:
+        executions[BOOKS] == 2
+        executions[COUNTRIES] == 1
+        resultCache.invalidationCount == 1
+
+        when:
+        connection.createStatement().executeUpdate("delete from country")
+        read(COUNTRIES, "FR")
+
+        then:
+        executions[COUNTRIES] == 2
+
+        when:
+        Statement batch = connection.createStatement()
+        batch.addBatch("insert into book values (3, 'Mort')")
+        batch.executeBatch()
+        read(BOOKS, "Tolkien")
+        read(COUNTRIES, "FR")
+
+        then:
+        executions[BOOKS] == 3
+        executions[COUNTRIES] == 2
+    }
+
+    void "test a procedure call drops all the results"() {
+        given:
+        read(BOOKS, "Tolkien")
+        read(COUNTRIES, "FR")
+
+        when:
+        dataSource.getConnection().prepareCall("{call refresh()}").execute()
+        read(BOOKS, "Tolkien")
+        read(COUNTRIES, "FR")
+
+        then:
+        executions[BOOKS] == 2
+        executions[COUNTRIES] == 2
+    }
+
+    void "test a transaction bypasses the cache and drops the results of its changes when it commits"() {
+        given:
+        read(BOOKS, "Tolkien")
+        Connection connection = dataSource.getConnection()
+        connection.setAutoCommit(false)
+
+        when:
+        connection.prepareStatement("update book set title = ?").executeUpdate()
+        read(BOOKS, "Tolkien", connection)
+        read(BOOKS, "Tolkien", connection)
+
+        then:
+        executions[BOOKS] == 3
+        resultCache.size == 0
+
+        when: "another connection caches the rows before the commit"
+        autoCommit = true
+        read(BOOKS, "Tolkien")
+        autoCommit = false
+        connection.commit()
+        autoCommit = true
+        read(BOOKS, "Tolkien")
+
+        then:
+        executions[BOOKS] == 5
+        resultCache.size == 1
+    }
+
+    void "test the rows of a query that runs while its table changes are not cached"() {
+        given:
+        onExecute = { resultCache.invalidate("BOOK") }
+
+        when:
+        read(BOOKS, "Tolkien")
+        onExecute = {}
+        read(BOOKS, "Tolkien")
+        read(BOOKS, "Tolkien")
+
+        then:
+        executions[BOOKS] == 2
+        resultCache.hitCount == 1
+    }
+
+    void "test the statements are cached by fingerprint"() {
+        given:
+        QueryResultCache resultCache = cache(false, [(COUNTRIES.replace("code = ?", "code = 'FR'")): Duration.ofHours(1)], [] as Set)
+        DataSource dataSource = cachingDataSource(resultCache)
+
+        when:
+        2.times {
+            read(BOOKS, "Tolkien", dataSource.getConnection())
+            read(COUNTRIES, "FR", dataSource.getConnection())
+        }
+
+        then:
+        executions[BOOKS] == 2
+        executions[COUNTRIES] == 1
+
+        when:
+        resultCache = cache(true, [:], [BOOKS] as Set)
+        dataSource = cachingDataSource(resultCache)
+        2.times {
+            read(BOOKS, "Tolkien", dataSource.getConnection())
+            read(COUNTRIES, "FR", dataSource.getConnection())
+        }
+
+        then:
+        executions[BOOKS] == 4
+        executions[COUNTRIES] == 2
+    }
+
+    void "test the writes do not wrap the queries that are not cached"() {
+        given:
+        Connection connection = dataSource.getConnection()
+
+        expect:
+        !(connection.prepareStatement("select nextval('book_seq')") instanceof InvalidatingPreparedStatement)
+        connection.prepareStatement("insert into book values (?)") instanceof InvalidatingPreparedStatement
+        connection.prepareStatement("insert into book values (?)").connection.is(connection)
+    }
+
+    private QueryResultCache cache(boolean allStatements, Map<String, Duration> expiries, Set<String> excluded) {
+        new QueryResultCache("default", QueryResultCache.DEFAULT_MAXIMUM_WEIGHT, Duration.ofMinutes(10), allStatements, expiries, excluded)
+    }
+
+    private DataSource cachingDataSource(QueryResultCache resultCache) {
+        new ResultCachingDataSource(Mock(DataSource) {
+            getConnection() >> target
+        }, resultCache)
+    }
+
+    private PreparedStatement statement(String sql) {
+        Mock(PreparedStatement) {
+            executeQuery() >> {
+                executions[sql]++
+                onExecute.call()
+                resultSet()
+            }
+        }
+    }
+
+    private List<List<Object>> read(String sql, String value, Connection connection = dataSource.getConnection()) {
+        PreparedStatement statement = connection.prepareStatement(sql)
+        statement.setString(1, value)
+        ResultSet resultSet = statement.executeQuery()
+        List<List<Object>> rows = []
+        while (resultSet.next()) {
+            rows.add([resultSet.getObject(1), resultSet.getObject(2)])
+        }
+        resultSet.close()
+        return rows
+    }
+
+    private ResultSet resultSet() {
+        ResultSetMetaData metaData = Mock(ResultSetMetaData) {
+            getColumnCount() >> 2
+            getColumnLabel(1) >> "ID"
+            getColumnLabel(2) >> "TITLE"
+        }
+        Mock(ResultSet) {
+            getMetaData() >> metaData
+            next() >>> [true, true, false]
+            getObject(1) >>> [1L, 2L]
+            getObject(2) >>> ["The Hobbit", null]
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr
+
+import io.micronaut.jdbc.profiling.ProfilingDataSource
+import io.micronaut.jdbc.profiling.StatementProfiler
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import javax.sql.DataSource
+import java.nio.file.Path
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+
+class FlightRecorderEventsSpec extends Specification {
+
+    @TempDir
+    Path directory
+
+    void "test connection acquisitions are recorded"() {
+        given:
+        Connection connection = Mock(Connection)
+        DataSource target = Mock(DataSource)
+        target.getConnection() >>> [connection] >> { throw new SQLException("timeout") }
+        DataSource dataSource = new FlightRecorderDataSource("default", target)
+
+        when:
+        List<RecordedEvent> events = record(ConnectionAcquireEvent) {
+            dataSource.getConnection()
+            try {
+                dataSource.getConnection()
+            } catch (SQLException ignored) {
+            }
+        }
+
+        then:
+        events.size() == 2
+        events.every { it.getString("dataSource") == "default" }
+        !events[0].getBoolean("failed")
+        events[1].getBoolean("failed")
+    }
+
+    void "test statement executions are recorded"() {
+        given:
+        ResultSet resultSet = Mock(ResultSet) {
+            next() >>> [true, true, false]
+        }
+        PreparedStatement query = Mock(PreparedStatement) {
+            executeQuery() >> resultSet
+        }
+        PreparedStatement update = Mock(PreparedStatement) {
+            executeUpdate() >> 3
+        }
+        Connection connection = Mock(Connection) {
+            prepareStatement({ it.startsWith("select") }) >> query
+            prepareStatement({ it.startsWith("update") }) >> update
+        }
+        DataSource dataSource = new ProfilingDataSource(Mock(DataSource) { getConnection() >> connection }, new StatementProfiler("default", 10))
+
+        when:
+        List<RecordedEvent> events = record(StatementEvent) {
+            Connection profiled = dataSource.getConnection()
+            ResultSet rows = profiled.prepareStatement("select * from book where id = 1").executeQuery()
+            while (rows.next()) {
+            }
+            rows.close()
+            profiled.prepareStatement("update book set title = 'a' where author = 'b'").executeUpdate()
+        }
+
+        then:
+        events.size() == 2
+        events.every { it.getString("dataSource") == "default" && !it.getBoolean("failed") }
+        events[0].getString("fingerprint") == "select * from book where id = ?"
+        events[0].getLong("rows") == 2
+        events[1].getString("fingerprint") == "update book set title = ? where author = ?"
+        events[1].getLong("rows") == 3
+    }
+
+    void "test transactions and startup phases are recorded"() {
+        when:
+        List<RecordedEvent> transactions = record(TransactionEvent) {
+            TransactionEvent.end(TransactionEvent.begin("jOOQ", true), TransactionEvent.COMMIT)
+            TransactionEvent.end(TransactionEvent.begin("Jdbi", false), TransactionEvent.ROLLBACK)
+            TransactionEvent.end(TransactionEvent.begin("jOOQ", true), TransactionEvent.COMMIT_FAILED)
+        }
+
+        then:
+        transactions*.getString("integration") == ["jOOQ", "Jdbi", "jOOQ"]
+        transactions*.getBoolean("newTransaction") == [true, false, true]
+        transactions*.getString("outcome") == [TransactionEvent.COMMIT, TransactionEvent.ROLLBACK, TransactionEvent.COMMIT_FAILED]
+
+        when:
+        List<RecordedEvent> phases = record(StartupPhaseEvent) {
+            StartupPhaseEvent.start(StartupPhaseEvent.POOL_CREATION, "default").commit()
+        }
+
+        then:
+        phases.size() == 1
+        phases[0].getString("phase") == StartupPhaseEvent.POOL_CREATION
+        phases[0].getString("name") == "default"
+    }
+
+    void "test no event is created when the events are disabled"() {
+        expect:
+        StatementEvent.start("default", "select ?") == null
+        TransactionEvent.begin("jOOQ", true) == null
+    }
+
+    private List<RecordedEvent> record(Class<? extends jdk.jfr.Event> eventType, Closure<?> closure) {
+        Path file = directory.resolve(eventType.simpleName + ".jfr")
+        Recording recording = new Recording()
+        try {
+            recording.enable(eventType).withoutThreshold()
+            recording.start()
+            closure.call()
+            recording.stop()
+            recording.dump(file)
+        } finally {
+            recording.close()
+        }
+        return RecordingFile.readAllEvents(file).sort { it.startTime }
+    }
+}
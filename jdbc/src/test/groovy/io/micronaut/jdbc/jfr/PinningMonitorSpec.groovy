@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.jfr
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.BeanRegistration
+import io.micronaut.context.event.BeanCreatedEvent
+import io.micronaut.inject.qualifiers.Qualifiers
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.time.Duration
+import java.time.Instant
+
+class PinningMonitorSpec extends Specification {
+
+    void "test the monitor is disabled by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run()
+
+        expect:
+        !context.containsBean(PinningMonitor)
+
+        cleanup:
+        context.close()
+    }
+
+    void "test pinnings are attributed to the data source whose pool or driver is on the stack"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'jdbc.jfr.pinning-monitor.enabled': true,
+                'jdbc.jfr.pinning-monitor.max-frames': 1)
+        PinningMonitor monitor = context.getBean(PinningMonitor)
+        List<PinningMonitor.Location> locations = []
+        monitor.addListener { dataSource, location, duration -> locations << location }
+        monitor.targets = [
+                new PinningMonitor.Target("orders", ["com.zaxxer.hikari."], "org.postgresql."),
+                new PinningMonitor.Target("audit", ["org.apache.tomcat.jdbc."], "org.h2.")]
+        Instant now = Instant.now()
+
+        expect:
+        monitor.record(1, now, [
+                frame('java.lang.VirtualThread', 'park'),
+                frame('org.postgresql.core.PGStream', 'receiveChar'),
+                frame('com.zaxxer.hikari.pool.HikariProxyPreparedStatement', 'executeQuery'),
+                frame('com.example.Repository', 'find')], Duration.ofMillis(30))
+        monitor.record(2, now, [
+                frame('org.postgresql.core.PGStream', 'receiveChar'),
+                frame('com.example.Repository', 'find')], Duration.ofMillis(20))
+        monitor.record(3, now, [
+                frame('org.apache.tomcat.jdbc.pool.ConnectionPool', 'borrowConnection'),
+                frame('com.example.Repository', 'find')], Duration.ofMillis(50))
+        !monitor.record(4, now, [frame('com.example.Repository', 'find')], Duration.ofMillis(50))
+        monitor.findStatistics("orders").count == 2
+        monitor.findStatistics("orders").time == Duration.ofMillis(50)
+        monitor.findStatistics("orders").frames == ['org.postgresql.core.PGStream.receiveChar:10': 2L]
+        monitor.findStatistics("audit").frames == ['org.apache.tomcat.jdbc.pool.ConnectionPool.borrowConnection:10': 1L]
+        monitor.statistics.keySet() == ['orders', 'audit'] as Set
+        locations == [PinningMonitor.Location.DRIVER, PinningMonitor.Location.DRIVER, PinningMonitor.Location.POOL]
+
+        cleanup:
+        context.close()
+    }
+
+    void "test pinnings of data sources sharing a pool and a driver are attributed by their events"() {
+        given:
+        ApplicationContext context = ApplicationContext.run('jdbc.jfr.pinning-monitor.enabled': true)
+        PinningMonitor monitor = context.getBean(PinningMonitor)
+        monitor.targets = [
+                new PinningMonitor.Target("orders", ["com.zaxxer.hikari."], "org.postgresql."),
+                new PinningMonitor.Target("audit", ["com.zaxxer.hikari."], "org.postgresql.")]
+        Instant now = Instant.now()
+        List<StackTraceElement> frames = [frame('org.postgresql.core.PGStream', 'receiveChar'), frame('com.zaxxer.hikari.pool.HikariProxyStatement', 'execute')]
+
+        when:
+        monitor.record(1, now, frames, Duration.ofMillis(30))
+        monitor.record(2, now, frames, Duration.ofMillis(40))
+        monitor.flush()
+        monitor.correlate(1, now.minusMillis(10), now.plusMillis(50), "audit")
+        monitor.correlate(2, now.plusMillis(10), now.plusMillis(50), "audit")
+
+        then:
+        monitor.findStatistics("audit").count == 1
+        monitor.findStatistics("audit").time == Duration.ofMillis(30)
+        monitor.findStatistics(PinningMonitor.UNATTRIBUTED) == null
+
+        when:
+        monitor.flush()
+
+        then:
+        monitor.findStatistics(PinningMonitor.UNATTRIBUTED).count == 1
+        monitor.findStatistics("orders") == null
+
+        cleanup:
+        context.close()
+    }
+
+    void "test only the data sources created are monitored"() {
+        given:
+        ApplicationContext context = ApplicationContext.builder('jdbc.jfr.pinning-monitor.enabled': true).build()
+        context.registerSingleton(DataSource, Mock(DataSource), Qualifiers.byName("early"))
+        context.start()
+        PinningMonitor monitor = context.getBean(PinningMonitor)
+
+        expect:
+        monitor.targets*.name == ["early"]
+
+        when:
+        context.registerSingleton(DataSource, Mock(DataSource), Qualifiers.byName("late"))
+        BeanRegistration<DataSource> late = context.getBeanRegistration(DataSource, Qualifiers.byName("late"))
+        monitor.onCreated(new BeanCreatedEvent<DataSource>(context, late.beanDefinition, late.identifier, late.bean))
+        monitor.onCreated(new BeanCreatedEvent<DataSource>(context, late.beanDefinition, late.identifier, late.bean))
+
+        then:
+        monitor.targets*.name == ["early", "late"]
+
+        cleanup:
+        context.close()
+    }
+
+    void "test the driver package is derived from the driver class"() {
+        expect:
+        PinningMonitor.driverPackage(driverClassName) == driverPackage
+
+        where:
+        driverClassName                                | driverPackage
+        'org.postgresql.Driver'                        | 'org.postgresql.'
+        'com.mysql.cj.jdbc.Driver'                     | 'com.mysql.'
+        'org.apache.derby.jdbc.EmbeddedDriver'         | 'org.apache.derby.'
+        'org.h2.Driver'                                | 'org.h2.'
+        'Driver'                                       | null
+        null                                           | null
+    }
+
+    private static StackTraceElement frame(String className, String methodName) {
+        return new StackTraceElement(className, methodName, null, 10)
+    }
+}
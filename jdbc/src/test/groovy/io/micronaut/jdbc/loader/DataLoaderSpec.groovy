@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.loader
+
+import io.micronaut.scheduling.ScheduledExecutorTaskScheduler
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.sql.SQLException
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class DataLoaderSpec extends Specification {
+
+    ExecutorService scheduled = Executors.newSingleThreadScheduledExecutor()
+    ExecutorService executor = Executors.newCachedThreadPool()
+    List<List<Integer>> batches = new CopyOnWriteArrayList<>()
+
+    void cleanup() {
+        scheduled.shutdownNow()
+        executor.shutdownNow()
+    }
+
+    void "test the keys requested within the window are loaded in one batch"() {
+        given:
+        DataLoader<Integer, String> loader = loader(100, Duration.ofMillis(200)) { List<Integer> keys ->
+            keys.findAll { it != 3 }.collectEntries { [(it): "value " + it] }
+        }
+
+        when:
+        List<CompletableFuture<String>> futures = [1, 2, 2, 3].collect { loader.load(it) }
+        CompletableFuture<Map<Integer, String>> many = loader.loadMany([2, 3, 4])
+
+        then:
+        futures*.get(10, TimeUnit.SECONDS) == ["value 1", "value 2", "value 2", null]
+        many.get(10, TimeUnit.SECONDS) == [2: "value 2", 4: "value 4"]
+        batches == [[1, 2, 3, 4]]
+        loader.loadCount == 7
+        loader.keyCount == 4
+        loader.batchCount == 1
+    }
+
+    void "test a full batch is dispatched without waiting for the window"() {
+        given:
+        DataLoader<Integer, String> loader = loader(2, Duration.ofHours(1)) { List<Integer> keys ->
+            keys.collectEntries { [(it): "value " + it] }
+        }
+
+        when:
+        List<CompletableFuture<String>> futures = (1..5).collect { loader.load(it) }
+
+        then:
+        futures.take(4)*.get(10, TimeUnit.SECONDS) == ["value 1", "value 2", "value 3", "value 4"]
+        !futures[4].isDone()
+        batches == [[1, 2], [3, 4]]
+
+        when:
+        loader.dispatch()
+
+        then:
+        futures[4].get(10, TimeUnit.SECONDS) == "value 5"
+        batches.last() == [5]
+    }
+
+    void "test the keys of a failed batch fail"() {
+        given:
+        DataLoader<Integer, String> loader = loader(100, Duration.ZERO) { List<Integer> keys ->
+            throw new SQLException("broken")
+        }
+
+        when:
+        loader.load(1).get(10, TimeUnit.SECONDS)
+
+        then:
+        ExecutionException e = thrown()
+        e.cause instanceof SQLException
+        loader.failedBatchCount == 1
+
+        when:
+        loader.loadMany([2, 3]).get(10, TimeUnit.SECONDS)
+
+        then:
+        e = thrown()
+        e.cause instanceof SQLException
+    }
+
+    void "test a future returned to a caller does not complete the other callers of its key"() {
+        given:
+        DataLoader<Integer, String> loader = loader(100, Duration.ofMillis(200)) { List<Integer> keys ->
+            keys.collectEntries { [(it): "value " + it] }
+        }
+
+        when:
+        CompletableFuture<String> cancelled = loader.load(1)
+        CompletableFuture<String> other = loader.load(1)
+        cancelled.cancel(false)
+
+        then:
+        other.get(10, TimeUnit.SECONDS) == "value 1"
+    }
+
+    @Unroll
+    void "test #keys keys are queried with #parameters parameters"() {
+        expect:
+        JdbcBatchQuery.parameterCount(keys, 100) == parameters
+
+        where:
+        keys | parameters
+        1    | 1
+        2    | 2
+        3    | 4
+        5    | 8
+        33   | 64
+        65   | 100
+        100  | 100
+    }
+
+    private DataLoader<Integer, String> loader(int maxBatchSize, Duration window, Closure<Map<Integer, String>> function) {
+        new DataLoader<Integer, String>("test", { List<Integer> keys ->
+            batches.add(new ArrayList<>(keys))
+            try {
+                CompletableFuture.completedFuture(function.call(keys))
+            } catch (Exception e) {
+                CompletableFuture.failedFuture(e)
+            }
+        } as AsyncBatchLoadFunction<Integer, String>, maxBatchSize, window, new ScheduledExecutorTaskScheduler(scheduled), executor)
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.pinning
+
+import io.micronaut.core.propagation.PropagatedContext
+import io.micronaut.scheduling.TaskScheduler
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.SQLException
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+class PinnedConnectionsSpec extends Specification {
+
+    List<Map<String, Object>> opened = []
+    List<Runnable> expiries = []
+    TaskScheduler taskScheduler = Mock(TaskScheduler) {
+        schedule(Duration.ofSeconds(5), _ as Runnable) >> { Duration delay, Runnable task ->
+            expiries << task
+            Mock(ScheduledFuture)
+        }
+    }
+    DataSource dataSource = Mock(DataSource) {
+        getConnection() >> { connection() }
+    }
+    ConnectionPinning pinning = new ConnectionPinning(Duration.ofSeconds(5), taskScheduler)
+    PinnedConnections connections = pinning.start()
+
+    void "test a connection is borrowed once and reused until the unit of work completes"() {
+        when:
+        Connection first = connections.borrow(dataSource)
+        first.close()
+        Connection second = connections.borrow(dataSource)
+        second.close()
+
+        then:
+        opened.size() == 1
+        first.targetConnection.is(second.targetConnection)
+        first.isClosed()
+        connections.pinnedCount == 1
+        connections.reuseCount == 1
+        opened[0].calls == []
+
+        when:
+        connections.close()
+
+        then:
+        connections.closed
+        opened[0].calls == ["close"]
+
+        when:
+        Connection afterwards = connections.borrow(dataSource)
+
+        then:
+        opened.size() == 2
+        !(afterwards instanceof PinnedConnection)
+    }
+
+    void "test a connection in use is not lent to another borrower"() {
+        when:
+        Connection first = connections.borrow(dataSource)
+        Connection second = connections.borrow(dataSource)
+
+        then:
+        opened.size() == 2
+        first instanceof PinnedConnection
+        !(second instanceof PinnedConnection)
+        connections.pinnedCount == 1
+        connections.reuseCount == 0
+
+        when:
+        second.close()
+        first.close()
+        connections.borrow(dataSource).close()
+
+        then:
+        opened.size() == 2
+        opened[1].calls == ["close"]
+        connections.reuseCount == 1
+    }
+
+    void "test a connection borrowed while another borrower pinned one is returned to its data source"() {
+        given:
+        CountDownLatch borrowing = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        AtomicBoolean slow = new AtomicBoolean(true)
+        DataSource slowDataSource = [getConnection: { ->
+            if (slow.getAndSet(false)) {
+                borrowing.countDown()
+                release.await(10, TimeUnit.SECONDS)
+            }
+            connection()
+        }] as DataSource
+
+        when:
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync { connections.borrow(slowDataSource) }
+        borrowing.await(10, TimeUnit.SECONDS)
+        Connection pinned = connections.borrow(slowDataSource)
+        pinned.close()
+        release.countDown()
+        Connection lent = waiting.get(10, TimeUnit.SECONDS)
+
+        then:
+        opened.size() == 2
+        lent instanceof PinnedConnection
+        lent.targetConnection.is(pinned.targetConnection)
+        connections.pinnedCount == 1
+        connections.reuseCount == 1
+        opened[0].calls == []
+        opened[1].calls == ["close"]
+    }
+
+    void "test the connections of the current unit of work are borrowed from the propagated context"() {
+        when:
+        Connection outside = PinnedConnections.getConnection(dataSource)
+        Connection inside
+        Connection again
+        try (PropagatedContext.Scope ignore = PropagatedContext.getOrEmpty().plus(connections).propagate()) {
+            assert PinnedConnections.current().is(connections)
+            inside = PinnedConnections.getConnection(dataSource)
+            inside.close()
+            again = PinnedConnections.getConnection(dataSource)
+        }
+
+        then:
+        PinnedConnections.current() == null
+        !(outside instanceof PinnedConnection)
+        inside instanceof PinnedConnection
+        again.targetConnection.is(inside.targetConnection)
+        opened.size() == 2
+    }
+
+    void "test the state changed by a borrower is restored"() {
+        given:
+        Connection first = connections.borrow(dataSource)
+
+        when:
+        first.autoCommit = false
+        first.readOnly = true
+        first.transactionIsolation = Connection.TRANSACTION_SERIALIZABLE
+        first.close()
+
+        then:
+        opened[0].calls == ["setAutoCommit(false)", "setReadOnly(true)", "setTransactionIsolation(8)", "rollback",
+                            "setAutoCommit(true)", "setReadOnly(false)", "setTransactionIsolation(2)"]
+
+        when:
+        opened[0].calls.clear()
+        Connection second = connections.borrow(dataSource)
+        second.autoCommit = false
+        second.commit()
+        second.autoCommit = true
+        second.close()
+
+        then:
+        opened[0].calls == ["setAutoCommit(false)", "commit", "setAutoCommit(true)"]
+        opened[0].autoCommit
+    }
+
+    void "test a connection that cannot be reset is returned to its data source"() {
+        given:
+        Connection first = connections.borrow(dataSource)
+        first.autoCommit = false
+        opened[0].failRollback = true
+
+        when:
+        first.close()
+
+        then:
+        thrown(SQLException)
+        opened[0].calls.last() == "close"
+
+        when:
+        connections.borrow(dataSource)
+
+        then:
+        opened.size() == 2
+        connections.pinnedCount == 2
+    }
+
+    void "test a connection held too long is returned to its data source"() {
+        given:
+        connections.borrow(dataSource).close()
+
+        when:
+        expiries[0].run()
+
+        then:
+        opened[0].calls == ["close"]
+
+        when:
+        Connection next = connections.borrow(dataSource)
+
+        then:
+        opened.size() == 2
+        !(next instanceof PinnedConnection)
+        connections.pinnedCount == 1
+    }
+
+    void "test a connection held too long while in use is returned when it is closed"() {
+        given:
+        Connection first = connections.borrow(dataSource)
+
+        when:
+        expiries[0].run()
+
+        then:
+        opened[0].calls == []
+
+        when:
+        first.close()
+
+        then:
+        opened[0].calls == ["close"]
+    }
+
+    void "test a connection in use when the unit of work completes is returned when it is closed"() {
+        given:
+        Connection first = connections.borrow(dataSource)
+
+        when:
+        connections.close()
+
+        then:
+        opened[0].calls == []
+
+        when:
+        first.close()
+        first.close()
+
+        then:
+        opened[0].calls == ["close"]
+    }
+
+    private Connection connection() {
+        Map<String, Object> state = [autoCommit: true, readOnly: false, isolation: Connection.TRANSACTION_READ_COMMITTED,
+                                     calls: [], failRollback: false]
+        opened << state
+        return [
+            getAutoCommit          : { -> state.autoCommit },
+            setAutoCommit          : { boolean value -> state.calls << "setAutoCommit(" + value + ")"; state.autoCommit = value },
+            isReadOnly             : { -> state.readOnly },
+            setReadOnly            : { boolean value -> state.calls << "setReadOnly(" + value + ")"; state.readOnly = value },
+            getTransactionIsolation: { -> state.isolation },
+            setTransactionIsolation: { int value -> state.calls << "setTransactionIsolation(" + value + ")"; state.isolation = value },
+            commit                 : { -> state.calls << "commit" },
+            rollback               : { ->
+                if (state.failRollback) {
+                    throw new SQLException("broken")
+                }
+                state.calls << "rollback"
+            },
+            isClosed               : { -> state.calls.contains("close") },
+            close                  : { -> state.calls << "close" }
+        ] as Connection
+    }
+}
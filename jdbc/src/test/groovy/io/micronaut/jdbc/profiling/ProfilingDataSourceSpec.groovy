@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+import java.sql.Statement
+
+class ProfilingDataSourceSpec extends Specification {
+
+    void "test prepared statements are profiled by fingerprint"() {
+        given:
+        ResultSet resultSet = Mock(ResultSet) {
+            next() >>> [true, true, false, true, true, false]
+        }
+        PreparedStatement preparedStatement = Mock(PreparedStatement) {
+            executeQuery() >> resultSet
+        }
+        Connection connection = Mock(Connection) {
+            prepareStatement(_ as String) >> preparedStatement
+        }
+        StatementProfiler profiler = new StatementProfiler(10)
+        DataSource dataSource = new ProfilingDataSource(Mock(DataSource) { getConnection() >> connection }, profiler)
+
+        when:
+        Connection profiled = dataSource.getConnection()
+        [1, 2].each { id ->
+            PreparedStatement statement = profiled.prepareStatement("select * from book where id = $id")
+            ResultSet rows = statement.executeQuery()
+            while (rows.next()) {
+            }
+            rows.close()
+        }
+        StatementStatistics statistics = profiler.findStatistics("select * from book where id = ?")
+
+        then:
+        statistics.executionCount == 2
+        statistics.rowCount == 4
+        statistics.errorCount == 0
+        ProfilingDataSource.findStatementProfiler(new DataSourceWrapper(dataSource) {}).is(profiler)
+        ProfilingDataSource.findStatementProfiler(Mock(DataSource)) == null
+    }
+
+    void "test the result set of a query is wrapped and counted once"() {
+        given:
+        ResultSet resultSet = Mock(ResultSet) {
+            next() >>> [true, true, false]
+        }
+        PreparedStatement preparedStatement = Mock(PreparedStatement) {
+            executeQuery() >> resultSet
+            getResultSet() >> resultSet
+        }
+        Statement plainStatement = Mock(Statement) {
+            execute(_ as String) >> true
+            getResultSet() >> Mock(ResultSet)
+        }
+        Connection connection = Mock(Connection) {
+            prepareStatement(_ as String) >> preparedStatement
+            createStatement() >> plainStatement
+        }
+        StatementProfiler profiler = new StatementProfiler(10)
+        Connection profiled = new ProfilingDataSource(Mock(DataSource) { getConnection() >> connection }, profiler).getConnection()
+
+        when:
+        PreparedStatement statement = profiled.prepareStatement("select * from book where id = 1")
+        ResultSet rows = statement.executeQuery()
+        ResultSet current = statement.getResultSet()
+        while (current.next()) {
+        }
+        rows.close()
+        current.close()
+        Statement plain = profiled.createStatement()
+        plain.execute("select * from author")
+
+        then:
+        current.is(rows)
+        profiler.findStatistics("select * from book where id = ?").rowCount == 2
+        plain.getResultSet().is(plain.getResultSet())
+    }
+
+    void "test failed statements and batches are profiled"() {
+        given:
+        Statement statement = Mock(Statement) {
+            executeUpdate(_ as String) >> { throw new SQLException("boom") }
+            executeBatch() >> ([1, 1] as int[])
+        }
+        Connection connection = Mock(Connection) {
+            createStatement() >> statement
+        }
+        StatementProfiler profiler = new StatementProfiler(10)
+        DataSource dataSource = new ProfilingDataSource(Mock(DataSource) { getConnection() >> connection }, profiler)
+        Statement profiled = dataSource.getConnection().createStatement()
+
+        when:
+        profiled.executeUpdate("delete from book where id = 1")
+
+        then:
+        thrown(SQLException)
+        profiler.findStatistics("delete from book where id = ?").errorCount == 1
+
+        when:
+        profiled.addBatch("insert into book values (1)")
+        profiled.addBatch("insert into book values (2)")
+        profiled.executeBatch()
+        StatementStatistics statistics = profiler.findStatistics("insert into book values (?)")
+
+        then:
+        statistics.executionCount == 1
+        statistics.rowCount == 2
+    }
+}
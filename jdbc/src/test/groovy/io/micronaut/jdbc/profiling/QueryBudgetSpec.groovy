@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.core.propagation.PropagatedContext
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+import java.sql.Statement
+import java.time.Duration
+
+class QueryBudgetSpec extends Specification {
+
+    DataSource dataSource = new ProfilingDataSource(Mock(DataSource) {
+        getConnection() >> Mock(Connection) {
+            prepareStatement(_ as String) >> Mock(PreparedStatement)
+            createStatement() >> Mock(Statement) {
+                executeUpdate(_ as String) >> { throw new SQLException("boom") }
+            }
+        }
+    }, new StatementProfiler(10))
+
+    void "test repeated statements fail the unit of work"() {
+        given:
+        QueryBudget budget = new QueryBudget(0, 3, null, QueryBudgetAction.FAIL)
+        StatementCounter counter = budget.start("GET /books")
+        Connection connection = dataSource.getConnection()
+
+        when:
+        count(counter) {
+            5.times { id -> connection.prepareStatement("select * from author where id = " + id).executeQuery() }
+        }
+
+        then:
+        QueryBudgetExceededException e = thrown()
+        e.limit == QueryBudget.Limit.REPEATS
+        e.counter.is(counter)
+        e.message == "Statement executed more than 3 times during [GET /books], this may be an N+1 select: select * from author where id = ?"
+        counter.statementCount == 4
+        counter.executionCounts == ["select * from author where id = ?": 4]
+        counter.exceededLimits == [QueryBudget.Limit.REPEATS] as Set
+    }
+
+    void "test the result set of a query exceeding the budget is closed"() {
+        given:
+        ResultSet resultSet = Mock(ResultSet)
+        DataSource querying = new ProfilingDataSource(Mock(DataSource) {
+            getConnection() >> Mock(Connection) {
+                prepareStatement(_ as String) >> Mock(PreparedStatement) {
+                    executeQuery() >> resultSet
+                }
+            }
+        }, new StatementProfiler(10))
+        StatementCounter counter = new QueryBudget(1, 0, null, QueryBudgetAction.FAIL).start("job")
+        Connection connection = querying.getConnection()
+
+        when:
+        count(counter) {
+            connection.prepareStatement("select * from book").executeQuery()
+        }
+
+        then:
+        0 * resultSet.close()
+
+        when:
+        count(counter) {
+            connection.prepareStatement("select * from book").executeQuery()
+        }
+
+        then:
+        thrown(QueryBudgetExceededException)
+        1 * resultSet.close()
+    }
+
+    void "test exceeded limits are logged and reported once"() {
+        given:
+        QueryBudget budget = new QueryBudget(3, 0, Duration.ofNanos(1), QueryBudgetAction.LOG)
+        List<QueryBudget.Limit> exceeded = []
+        List<StatementCounter> completed = []
+        budget.addListener(new QueryBudget.Listener() {
+            @Override
+            void onCompleted(StatementCounter counter) {
+                completed << counter
+            }
+
+            @Override
+            void onExceeded(StatementCounter counter, QueryBudget.Limit limit) {
+                exceeded << limit
+            }
+        })
+        StatementCounter counter = budget.start("job")
+        Connection connection = dataSource.getConnection()
+
+        when:
+        count(counter) {
+            assert StatementCounter.current().is(counter)
+            5.times { id -> connection.prepareStatement("select * from book where id = " + id).executeQuery() }
+        }
+        counter.complete()
+        counter.complete()
+
+        then:
+        counter.statementCount == 5
+        exceeded == [QueryBudget.Limit.TIME, QueryBudget.Limit.STATEMENTS]
+        completed == [counter]
+        StatementCounter.current() == null
+    }
+
+    void "test failed statements are counted without hiding their failure"() {
+        given:
+        StatementCounter counter = new QueryBudget(1, 0, null, QueryBudgetAction.FAIL).start("job")
+        Statement statement = dataSource.getConnection().createStatement()
+
+        when:
+        count(counter) {
+            2.times { statement.executeUpdate("delete from book") }
+        }
+
+        then:
+        SQLException e = thrown()
+        e.message == "boom"
+        counter.statementCount == 1
+
+        when:
+        count(counter) {
+            statement.executeUpdate("delete from book")
+        }
+
+        then:
+        e = thrown()
+        e.message == "boom"
+        e.suppressed[0] instanceof QueryBudgetExceededException
+        counter.statementCount == 2
+    }
+
+    void "test the statements of a completed unit of work are not counted"() {
+        given:
+        StatementCounter counter = new QueryBudget(1, 1, null, QueryBudgetAction.FAIL).start("job")
+        counter.complete()
+
+        when:
+        count(counter) {
+            2.times { dataSource.getConnection().prepareStatement("select 1").executeQuery() }
+        }
+
+        then:
+        counter.statementCount == 0
+        counter.exceededLimits.isEmpty()
+    }
+
+    void "test the budget fails in the test environment by default"() {
+        given:
+        ApplicationContext context = ApplicationContext.run(
+                'jdbc.query-budget.enabled'     : true,
+                'jdbc.query-budget.max-time'    : '1s'
+        )
+        ApplicationContext logging = ApplicationContext.run(
+                'jdbc.query-budget.enabled': true,
+                'jdbc.query-budget.action' : 'log'
+        )
+
+        expect:
+        context.getBean(QueryBudget).action == QueryBudgetAction.FAIL
+        context.getBean(QueryBudget).maxStatements == 100
+        context.getBean(QueryBudget).maxRepeats == 10
+        context.getBean(QueryBudget).maxTime == Duration.ofSeconds(1)
+        logging.getBean(QueryBudget).action == QueryBudgetAction.LOG
+        logging.getBean(QueryBudget).maxTime == null
+        !ApplicationContext.run().withCloseable { it.containsBean(QueryBudget) }
+
+        cleanup:
+        context.close()
+        logging.close()
+    }
+
+    private static void count(StatementCounter counter, Closure<?> work) {
+        PropagatedContext.Scope scope = PropagatedContext.getOrEmpty().plus(counter).propagate()
+        try {
+            work.call()
+        } finally {
+            scope.close()
+        }
+    }
+}
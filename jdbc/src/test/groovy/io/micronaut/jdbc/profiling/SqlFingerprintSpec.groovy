@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SqlFingerprintSpec extends Specification {
+
+    @Unroll
+    void "test the fingerprint of #sql"() {
+        expect:
+        SqlFingerprint.of(sql) == fingerprint
+
+        where:
+        sql                                                            | fingerprint
+        "select * from book where id = 1"                              | "select * from book where id = ?"
+        "SELECT *\n  FROM book\tWHERE title = 'It''s'"                 | "SELECT * FROM book WHERE title = ?"
+        "select * from book where price > 1.5e3 and id = 0x1F"         | "select * from book where price > ? and id = ?"
+        "select * from t1 where c2 = -3"                               | "select * from t1 where c2 = -?"
+        'select "col 1" from `tab 2` where a = 1'                      | 'select "col 1" from `tab 2` where a = ?'
+        "select 1 -- comment\nfrom dual /* other 2 */"                 | "select ? from dual"
+        "select * from book where id in (1, 2,3 ,4)"                   | "select * from book where id in (?)"
+        "select * from book where id IN (?,?,?)"                       | "select * from book where id IN (?)"
+        "insert into book (id, title) values (1, 'a'), (2, 'b')"       | "insert into book (id, title) values (?, ?)"
+        "insert into book values ( ? , ? )"                            | "insert into book values (?, ?)"
+    }
+
+    void "test long statements are truncated"() {
+        expect:
+        SqlFingerprint.of("select " + "a, " * 2000 + "b from t").length() == SqlFingerprint.MAX_LENGTH
+    }
+}
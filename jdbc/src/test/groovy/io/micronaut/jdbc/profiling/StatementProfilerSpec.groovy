@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.profiling
+
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+class StatementProfilerSpec extends Specification {
+
+    void "test the least executed statement is evicted when the profiler is full"() {
+        given:
+        StatementProfiler profiler = new StatementProfiler(2)
+        List<String> tracked = []
+        List<String> evicted = []
+        profiler.addListener(new StatementProfiler.Listener() {
+            @Override
+            void onTracked(StatementStatistics statistics) {
+                tracked << statistics.fingerprint
+            }
+
+            @Override
+            void onEvicted(StatementStatistics statistics) {
+                evicted << statistics.fingerprint
+            }
+        })
+
+        when:
+        3.times { profiler.getStatistics("a").recordExecution(1_000_000, false) }
+        profiler.getStatistics("b").recordExecution(2_000_000, true)
+        StatementStatistics b = profiler.findStatistics("b")
+        StatementStatistics c = profiler.getStatistics("c")
+        c.recordExecution(1_000_000, false)
+
+        then:
+        tracked == ["a", "b", "c"]
+        evicted == ["b"]
+        b.evicted
+        b.errorCount == 1
+        profiler.findStatistics("b") == null
+        profiler.statements*.fingerprint == ["a", "c"]
+        c.executionCount == 1
+        c.overestimation == 1
+        c.estimatedCount == 2
+        profiler.findStatistics("a").totalTime.toMillis() == 3
+    }
+
+    void "test concurrent statements are tracked within the capacity"() {
+        given:
+        StatementProfiler profiler = new StatementProfiler(16)
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        when:
+        List<Future<?>> futures = (0..<8).collect { thread ->
+            executor.submit {
+                1000.times { i ->
+                    profiler.getStatistics("hot").recordExecution(1, false)
+                    profiler.getStatistics("cold-" + thread + "-" + i).recordExecution(1, false)
+                }
+            }
+        }
+        futures*.get()
+
+        then:
+        profiler.statements.size() <= 16
+        profiler.findStatistics("hot").estimatedCount >= 8000
+        profiler.statements.every { !it.evicted }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    void "test rows are recorded"() {
+        given:
+        StatementStatistics statistics = new StatementProfiler(1).getStatistics("a")
+
+        when:
+        statistics.recordRows(5)
+        statistics.recordRows(-1)
+        StatementExecution.recordRows(statistics, [1, 2, -2] as int[])
+
+        then:
+        statistics.rowCount == 8
+    }
+
+    void "test reset stops tracking every statement"() {
+        given:
+        StatementProfiler profiler = new StatementProfiler(10)
+        StatementStatistics statistics = profiler.getStatistics("a")
+
+        when:
+        profiler.reset()
+
+        then:
+        statistics.evicted
+        profiler.statements.isEmpty()
+        !profiler.getStatistics("a").is(statistics)
+    }
+
+    void "test the capacity must be positive"() {
+        when:
+        new StatementProfiler(0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.session
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.SQLException
+
+class SessionStateCachingDataSourceSpec extends Specification {
+
+    SessionStateCache cache = new SessionStateCache()
+
+    void "test the calls that change nothing are skipped"() {
+        given:
+        Connection connection = Mock(Connection)
+        DataSource dataSource = new SessionStateCachingDataSource(Mock(DataSource) { getConnection() >> connection }, cache)
+
+        when:
+        Connection cached = dataSource.getConnection()
+        cached.setAutoCommit(true)
+        cached.setReadOnly(false)
+        cached.setAutoCommit(false)
+        cached.commit()
+        cached.setAutoCommit(true)
+        cached.close()
+
+        then:
+        1 * connection.getAutoCommit() >> true
+        1 * connection.isReadOnly() >> false
+        1 * connection.setAutoCommit(false)
+        1 * connection.commit()
+        1 * connection.setAutoCommit(true)
+        1 * connection.close()
+        0 * connection._
+        cache.savedCount == 2
+        cache.getSavedCount(SessionProperty.AUTO_COMMIT) == 1
+        cache.getSavedCount(SessionProperty.READ_ONLY) == 1
+        cache.restoredCount == 0
+        SessionStateCachingDataSource.findSessionStateCache(new DataSourceWrapper(dataSource) {}).is(cache)
+        SessionStateCachingDataSource.findSessionStateCache(Mock(DataSource)) == null
+    }
+
+    void "test the borrow state is learned and the changed properties are restored on close"() {
+        given:
+        Connection first = Mock(Connection)
+        Connection second = Mock(Connection)
+        DataSource dataSource = new SessionStateCachingDataSource(Mock(DataSource) { getConnection() >>> [first, second] }, cache)
+
+        when:
+        Connection cached = dataSource.getConnection()
+        cached.getAutoCommit()
+        cached.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE)
+        cached.close()
+
+        then:
+        1 * first.getAutoCommit() >> true
+        1 * first.getTransactionIsolation() >> Connection.TRANSACTION_READ_COMMITTED
+        1 * first.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE)
+        1 * first.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED)
+        1 * first.close()
+        0 * first._
+        cache.restoredCount == 1
+
+        when:
+        cached = dataSource.getConnection()
+        cached.setAutoCommit(true)
+        cached.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED)
+        cached.setAutoCommit(false)
+        cached.close()
+
+        then:
+        1 * second.setAutoCommit(false)
+
+        then:
+        1 * second.rollback()
+
+        then:
+        1 * second.setAutoCommit(true)
+        1 * second.close()
+        0 * second._
+        cache.savedCount == 2
+        cache.restoredCount == 2
+    }
+
+    void "test the borrow state is no longer trusted when a connection cannot be restored"() {
+        given:
+        Connection first = Mock(Connection)
+        Connection second = Mock(Connection)
+        DataSource dataSource = new SessionStateCachingDataSource(Mock(DataSource) { getConnection() >>> [first, second] }, cache)
+
+        when:
+        Connection cached = dataSource.getConnection()
+        cached.setReadOnly(true)
+        cached.close()
+
+        then:
+        1 * first.isReadOnly() >> false
+        1 * first.getAutoCommit() >> true
+        1 * first.setReadOnly(false) >> { throw new SQLException("broken") }
+        1 * first.close()
+        thrown(SQLException)
+        !cache.trusted
+
+        when:
+        dataSource.getConnection().setReadOnly(false)
+
+        then:
+        1 * second.isReadOnly() >> false
+        0 * second.setReadOnly(_)
+    }
+}
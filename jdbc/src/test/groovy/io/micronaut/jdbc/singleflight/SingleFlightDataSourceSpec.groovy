@@ -0,0 +1,344 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.singleflight
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+import spock.lang.Unroll
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.io.ByteArrayInputStream
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.ResultSetMetaData
+import java.sql.SQLException
+import java.sql.Types
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class SingleFlightDataSourceSpec extends Specification {
+
+    static final String SQL = "select id, title from book where author = ?"
+
+    ExecutorService executor = Executors.newCachedThreadPool()
+    SingleFlight singleFlight = new SingleFlight("default")
+    AtomicInteger executions = new AtomicInteger()
+    CountDownLatch started = new CountDownLatch(1)
+    CountDownLatch release = new CountDownLatch(1)
+    boolean autoCommit = true
+    Closure<ResultSet> query = { ->
+        executions.incrementAndGet()
+        started.countDown()
+        release.await(10, TimeUnit.SECONDS)
+        resultSet()
+    }
+    Connection target = Mock(Connection) {
+        getAutoCommit() >> { autoCommit }
+        prepareStatement(_ as String) >> { statement() }
+    }
+    DataSource dataSource = new SingleFlightDataSource(Mock(DataSource) {
+        getConnection() >> target
+    }, singleFlight)
+
+    void cleanup() {
+        executor.shutdownNow()
+    }
+
+    @Unroll
+    void "test '#sql' is coalescable: #expected"() {
+        expect:
+        SingleFlight.isRead(sql) == expected
+
+        where:
+        sql                                                          | expected
+        "select id, title from book where id = ?"                    | true
+        "SELECT * FROM book"                                         | true
+        "(select 1) union (select 2)"                                | true
+        "with recent as (select * from book) select * from recent"   | true
+        "-- titles\nselect title from book"                          | true
+        "select * from book where status = 'delete'"                 | true
+        "select * from book /* update */"                            | true
+        "select * from \"update\""                                   | true
+        "insert into book values (?)"                                | false
+        "update book set title = ?"                                  | false
+        "select * from book for update"                              | false
+        "select * from book for share"                               | false
+        "select * from book lock in share mode"                      | false
+        "select * into archive from book"                            | false
+        "with gone as (delete from book returning *) select * from gone" | false
+        "select nextval('book_seq')"                                 | false
+        "select book_seq.nextval from dual"                          | false
+        "select next value for book_seq"                             | false
+        "select random()"                                            | false
+        "select gen_random_uuid()"                                   | false
+        "select pg_advisory_lock(1)"                                 | false
+        "select last_insert_id()"                                    | false
+        "select @@identity"                                          | false
+        "select * from #books"                                       | false
+        "select * from book where title = 'unterminated"             | false
+        "call refresh()"                                             | false
+    }
+
+    void "test the callers of a query in flight wait for its rows"() {
+        when:
+        CompletableFuture<List<List<Object>>> first = async { read("Tolkien") }
+        started.await(10, TimeUnit.SECONDS)
+        CompletableFuture<List<List<Object>>> second = async { read("Tolkien") }
+        waitFor { singleFlight.coalescedCount == 1 }
+        release.countDown()
+
+        then:
+        first.get(10, TimeUnit.SECONDS) == [[1L, "The Hobbit"], [2L, null]]
+        second.get(10, TimeUnit.SECONDS) == [[1L, "The Hobbit"], [2L, null]]
+        executions.get() == 1
+        singleFlight.executionCount == 1
+        singleFlight.inFlightCount == 0
+        SingleFlightDataSource.findSingleFlight(new DataSourceWrapper(dataSource) {}).is(singleFlight)
+    }
+
+    void "test the queries of connections with other schemas are not coalesced"() {
+        given:
+        Connection first = tenant("a")
+        Connection second = tenant("b")
+        DataSource tenants = new SingleFlightDataSource(Mock(DataSource) {
+            getConnection() >>> [first, second]
+        }, singleFlight)
+
+        when:
+        CompletableFuture<List<List<Object>>> a = async { read("Tolkien", tenants) }
+        started.await(10, TimeUnit.SECONDS)
+        CompletableFuture<List<List<Object>>> b = async { read("Tolkien", tenants) }
+        new PollingConditions(timeout: 10).eventually {
+            assert executions.get() == 2
+        }
+        release.countDown()
+
+        then:
+        a.get(10, TimeUnit.SECONDS) == [[1L, "The Hobbit"], [2L, null]]
+        b.get(10, TimeUnit.SECONDS) == [[1L, "The Hobbit"], [2L, null]]
+        singleFlight.executionCount == 2
+        singleFlight.coalescedCount == 0
+    }
+
+    void "test the schema is read again after the borrower changes it"() {
+        given:
+        release.countDown()
+        Connection connection = dataSource.getConnection()
+
+        when:
+        2.times { execute(connection) }
+
+        then:
+        1 * target.getSchema() >> "a"
+
+        when:
+        connection.setSchema("b")
+        execute(connection)
+
+        then:
+        1 * target.setSchema("b")
+        1 * target.getSchema() >> "b"
+    }
+
+    void "test the queries with other values or outside auto-commit are executed"() {
+        given:
+        release.countDown()
+
+        when:
+        read("Tolkien")
+        read("Pratchett")
+        autoCommit = false
+        read("Tolkien")
+
+        then:
+        executions.get() == 3
+        singleFlight.executionCount == 2
+        singleFlight.coalescedCount == 0
+    }
+
+    void "test the queries with a stream parameter are executed"() {
+        given:
+        release.countDown()
+        Connection connection = dataSource.getConnection()
+        PreparedStatement statement = connection.prepareStatement(SQL)
+
+        when:
+        statement.setBinaryStream(1, new ByteArrayInputStream(new byte[1]))
+        ResultSet resultSet = statement.executeQuery()
+
+        then:
+        !(resultSet instanceof MaterializedResultSet)
+        singleFlight.executionCount == 0
+
+        when:
+        statement.clearParameters()
+        statement.setString(1, "Tolkien")
+
+        then:
+        statement.executeQuery() instanceof MaterializedResultSet
+        singleFlight.executionCount == 1
+    }
+
+    void "test an execution is read through getResultSet"() {
+        given:
+        release.countDown()
+        PreparedStatement statement = dataSource.getConnection().prepareStatement(SQL)
+        statement.setObject(1, "Tolkien", Types.VARCHAR)
+
+        when:
+        boolean hasResultSet = statement.execute()
+        ResultSet resultSet = statement.getResultSet()
+
+        then:
+        hasResultSet
+        resultSet.statement.is(statement)
+        resultSet.next()
+        resultSet.getString("TITLE") == "The Hobbit"
+        resultSet.getInt(1) == 1
+        resultSet.getBigDecimal("id") == 1G
+        !resultSet.wasNull()
+        resultSet.getObject(1, Integer) == 1
+        resultSet.next()
+        resultSet.getString(2) == null
+        resultSet.wasNull()
+        !resultSet.next()
+        !statement.getMoreResults()
+        resultSet.isClosed()
+        statement.updateCount == -1
+        statement.getResultSet() == null
+    }
+
+    void "test the failure of a query fails its callers"() {
+        given:
+        query = { ->
+            executions.incrementAndGet()
+            started.countDown()
+            release.await(10, TimeUnit.SECONDS)
+            throw new SQLException("broken", "08000", 42)
+        }
+
+        when:
+        CompletableFuture<List<List<Object>>> first = async { read("Tolkien") }
+        started.await(10, TimeUnit.SECONDS)
+        CompletableFuture<List<List<Object>>> second = async { read("Tolkien") }
+        waitFor { singleFlight.coalescedCount == 1 }
+        release.countDown()
+        second.get(10, TimeUnit.SECONDS)
+
+        then:
+        ExecutionException e = thrown()
+        e.cause instanceof SQLException
+        e.cause.SQLState == "08000"
+        e.cause.errorCode == 42
+
+        when:
+        first.get(10, TimeUnit.SECONDS)
+
+        then:
+        e = thrown()
+        e.cause.message == "broken"
+        executions.get() == 1
+    }
+
+    private <T> CompletableFuture<T> async(Closure<T> closure) {
+        CompletableFuture<T> future = new CompletableFuture<>()
+        executor.execute {
+            try {
+                future.complete(closure.call())
+            } catch (Throwable e) {
+                future.completeExceptionally(e)
+            }
+        }
+        return future
+    }
+
+    private PreparedStatement statement() {
+        ResultSet executed = null
+        // not a Spock mock: the invocations of the mocks are handled under a lock, which a blocked query would hold
+        InvocationHandler handler = { Object proxy, Method method, Object[] args ->
+            switch (method.name) {
+                case "executeQuery":
+                    return query.call()
+                case "execute":
+                    executed = query.call()
+                    return true
+                case "getResultSet":
+                    return executed
+                default:
+                    return method.returnType == boolean ? false : method.returnType == long ? 0L : method.returnType == int ? 0 : null
+            }
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().classLoader, [PreparedStatement] as Class[], handler)
+    }
+
+    private Connection tenant(String schema) {
+        Mock(Connection) {
+            getAutoCommit() >> true
+            getSchema() >> schema
+            prepareStatement(_ as String) >> { statement() }
+        }
+    }
+
+    private static void execute(Connection connection) {
+        PreparedStatement statement = connection.prepareStatement(SQL)
+        statement.setString(1, "Tolkien")
+        statement.executeQuery().close()
+    }
+
+    private List<List<Object>> read(String author, DataSource from = dataSource) {
+        Connection connection = from.getConnection()
+        PreparedStatement statement = connection.prepareStatement(SQL)
+        statement.setString(1, author)
+        ResultSet resultSet = statement.executeQuery()
+        List<List<Object>> rows = []
+        while (resultSet.next()) {
+            rows.add([resultSet.getLong(1), resultSet.getString("title")])
+        }
+        resultSet.close()
+        return rows
+    }
+
+    private ResultSet resultSet() {
+        ResultSetMetaData metaData = Mock(ResultSetMetaData) {
+            getColumnCount() >> 2
+            getColumnLabel(1) >> "ID"
+            getColumnLabel(2) >> "TITLE"
+        }
+        Mock(ResultSet) {
+            getMetaData() >> metaData
+            next() >>> [true, true, false]
+            getObject(1) >>> [1L, 2L]
+            getObject(2) >>> ["The Hobbit", null]
+        }
+    }
+
+    private static void waitFor(Closure<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 10000
+        while (!condition.call() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing
+
+import io.micronaut.context.BeanLocator
+import io.micronaut.core.value.PropertyResolver
+import io.micronaut.jdbc.metadata.ResizableDataSourcePoolMetadata
+import io.micronaut.scheduling.TaskScheduler
+import spock.lang.Specification
+
+import java.time.Duration
+
+class AdaptivePoolSizerSpec extends Specification {
+
+    List<PoolSizingSample> samples = []
+    PoolSizingPolicy policy = { PoolSizingSample sample ->
+        samples << sample
+        sample.maxPoolSize
+    } as PoolSizingPolicy
+
+    void "test the acquire wait is the mean over the last run of the pool totals"() {
+        given:
+        long count = 1000
+        Duration total = Duration.ofSeconds(1000)
+        ResizableDataSourcePoolMetadata metadata = Stub {
+            getMax() >> 10
+            getMeanAcquireWait() >> Duration.ofSeconds(1)
+            getConnectionTimings() >> null
+            getAcquireCount() >> { count }
+            getTotalAcquireWait() >> { total }
+        }
+        AdaptivePoolSizer sizer = sizer(metadata)
+
+        when:
+        count += 10
+        total += Duration.ofMillis(100)
+        sizer.resize()
+        sizer.resize()
+
+        then:
+        samples*.acquireWait == [Duration.ofMillis(10), Duration.ZERO]
+    }
+
+    void "test the acquire wait is unknown when the pool only reports a mean over its life"() {
+        given:
+        ResizableDataSourcePoolMetadata metadata = Stub {
+            getMax() >> 10
+            getMeanAcquireWait() >> Duration.ofSeconds(1)
+            getConnectionTimings() >> null
+            getAcquireCount() >> null
+            getTotalAcquireWait() >> null
+        }
+
+        when:
+        sizer(metadata).resize()
+
+        then:
+        samples*.acquireWait == [null]
+    }
+
+    private AdaptivePoolSizer sizer(ResizableDataSourcePoolMetadata metadata) {
+        BeanLocator beanLocator = Stub {
+            findBean(PoolSizingPolicy, _) >> Optional.of(policy)
+        }
+        PropertyResolver propertyResolver = Stub {
+            getProperty(_, _, _) >> { args -> args[2] }
+        }
+        return new AdaptivePoolSizer("default", metadata, beanLocator, propertyResolver, Stub(TaskScheduler))
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.sizing
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+
+class UtilizationPoolSizingPolicySpec extends Specification {
+
+    PoolSizingPolicy policy = new UtilizationPoolSizingPolicy()
+
+    @Unroll
+    void "test a pool of #max with #active active, #pending pending and #timeouts timeouts is resized to #expected"() {
+        given:
+        PoolSizingSample sample = new PoolSizingSample("default", max, 1, 100, active, max - active, pending, timeouts, wait)
+
+        expect:
+        policy.nextMaxPoolSize(sample) == expected
+
+        where:
+        max | active | pending | timeouts | wait                   | expected
+        10  | 10     | 6       | 0        | null                   | 16
+        10  | 10     | 0       | 0        | null                   | 12
+        10  | 5      | 0       | 2        | null                   | 12
+        10  | 5      | 0       | 0        | Duration.ofMillis(100) | 12
+        3   | 3      | 0       | 0        | null                   | 4
+        10  | 6      | 0       | 0        | Duration.ofMillis(1)   | 10
+        10  | 0      | 0       | 0        | null                   | 5
+        10  | 3      | 0       | 0        | null                   | 8
+        2   | 0      | 0       | 0        | null                   | 1
+    }
+
+    void "test thresholds are validated"() {
+        when:
+        new UtilizationPoolSizingPolicy(0.5, 0.9, Duration.ZERO)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.snapshot
+
+import io.micronaut.context.BeanLocator
+import io.micronaut.core.value.PropertyResolver
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.scheduling.TaskScheduler
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+import java.sql.ResultSet
+import java.sql.SQLException
+import java.time.Duration
+import java.time.Instant
+import java.util.function.ToLongFunction
+
+class ReferenceTableSpec extends Specification {
+
+    static class Country {
+        final long id
+        final String code
+
+        Country(long id, String code) {
+            this.id = id
+            this.code = code
+        }
+    }
+
+    List<Country> rows = [new Country(1, "FR"), new Country(2, "DE")]
+    PropertyResolver propertyResolver = Mock(PropertyResolver) {
+        getProperty(_ as String, Duration) >> Optional.empty()
+        getProperty(_ as String, String, _ as String) >> { String name, Class type, String defaultValue -> defaultValue }
+    }
+    TaskScheduler taskScheduler = Mock(TaskScheduler)
+    ReferenceTables tables = new ReferenceTables(Mock(BeanLocator), propertyResolver, taskScheduler)
+
+    void "test a snapshot maps long keys to rows"() {
+        given:
+        List<Country> countries = keys.collect { new Country(it, "C" + it) }
+
+        when:
+        TableSnapshot<Country> snapshot = snapshot(countries)
+
+        then:
+        snapshot.size() == keys.size()
+        keys.every { snapshot.get(it).code == "C" + it }
+        keys.every { snapshot.containsKey(it) }
+        snapshot.get(42L) == null
+        !snapshot.containsKey(42L)
+        snapshot.values*.id == keys
+        snapshot.estimatedSize > 0
+
+        where:
+        keys << [
+            [],
+            [0L],
+            [1L, 2L, 3L],
+            [Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE],
+            (1L..1000L).collect { it * 1024 }
+        ]
+    }
+
+    void "test the estimated size of a snapshot counts its rows with the size function"() {
+        given:
+        ToLongFunction<Country> sizeOf = { Country country -> 40 + 2L * country.code.length() }
+
+        expect:
+        snapshot([new Country(1, "x" * 1000)], sizeOf).estimatedSize == snapshot([new Country(1, "x")], sizeOf).estimatedSize + 1998
+    }
+
+    void "test the rows that are not introspected count as a fixed size"() {
+        expect:
+        snapshot([new Country(1, "x" * 1000)]).estimatedSize == snapshot([new Country(1, "x")]).estimatedSize
+        snapshot([new Country(1, "x"), new Country(2, "y")]).estimatedSize - snapshot([new Country(1, "x")]).estimatedSize >= ObjectSizes.UNKNOWN_ROW
+    }
+
+    void "test a table estimates the size of its rows with the size function"() {
+        when:
+        ReferenceTable<Country> table = tables.create("countries", { rows }, { Country country -> country.id }, { Country country -> 1000L })
+
+        then:
+        table.snapshot.estimatedSize >= 2000
+    }
+
+    void "test a snapshot rejects two rows with the same key"() {
+        when:
+        snapshot([new Country(1, "FR"), new Country(1, "DE")])
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.contains("key 1")
+    }
+
+    void "test a refresh replaces the snapshot atomically"() {
+        given:
+        ReferenceTable<Country> table = tables.create("countries", { rows }, { Country country -> country.id })
+        TableSnapshot<Country> first = table.snapshot
+
+        when:
+        rows = [new Country(1, "FX"), new Country(3, "IT")]
+        TableSnapshot<Country> second = table.refresh()
+
+        then:
+        first.get(1).code == "FR"
+        first.get(3) == null
+        table.snapshot.is(second)
+        table.get(1).code == "FX"
+        table.get(2) == null
+        table.find(3).get().code == "IT"
+        table.refreshCount == 2
+        tables.tables == [countries: table]
+    }
+
+    void "test a failed refresh keeps the current snapshot"() {
+        given:
+        Exception failure = null
+        ReferenceTable<Country> table = tables.create("countries", {
+            if (failure != null) {
+                throw failure
+            }
+            rows
+        }, { Country country -> country.id })
+
+        when:
+        failure = new IOException("Connection reset")
+        table.refresh()
+
+        then:
+        SQLException e = thrown()
+        e.message.contains("countries")
+        e.cause.is(failure)
+        table.get(1).code == "FR"
+        table.failedRefreshCount == 1
+
+        when:
+        failure = new SQLException("Timeout")
+        table.refresh()
+
+        then:
+        thrown(SQLException)
+        table.failedRefreshCount == 2
+        table.refreshCount == 1
+    }
+
+    void "test a table whose first snapshot fails is not created"() {
+        when:
+        tables.create("countries", { throw new SQLException("No such table") }, { Country country -> country.id })
+
+        then:
+        thrown(SQLException)
+        tables.tables.isEmpty()
+
+        when:
+        tables.create("countries", { rows }, { Country country -> country.id })
+        tables.create("countries", { rows }, { Country country -> country.id })
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    void "test a table is refreshed every refresh interval"() {
+        given:
+        Runnable refresh = null
+
+        when:
+        ReferenceTable<Country> table = tables.create("countries", { rows }, { Country country -> country.id })
+        rows = [new Country(5, "ES")]
+        refresh.run()
+
+        then:
+        1 * propertyResolver.getProperty("jdbc.reference-tables.countries.refresh-interval", Duration) >> Optional.of(Duration.ofMinutes(5))
+        1 * taskScheduler.scheduleWithFixedDelay(Duration.ofMinutes(5), Duration.ofMinutes(5), _ as Runnable) >> { Duration delay, Duration interval, Runnable runnable ->
+            refresh = runnable
+            null
+        }
+        table.get(5).code == "ES"
+        table.refreshCount == 2
+    }
+
+    void "test a table is loaded by a query of its data source"() {
+        given:
+        ResultSet resultSet = Mock(ResultSet) {
+            next() >>> [true, true, false]
+            getLong(1) >>> [1L, 2L]
+            getString(2) >>> ["FR", "DE"]
+        }
+        PreparedStatement statement = Mock(PreparedStatement) {
+            executeQuery() >> resultSet
+        }
+        Connection connection = Mock(Connection) {
+            getHoldability() >> ResultSet.HOLD_CURSORS_OVER_COMMIT
+        }
+        DataSource dataSource = Mock(DataSource) {
+            getConnection() >> connection
+        }
+        BeanLocator beanLocator = Mock(BeanLocator) {
+            getBean(DataSource, _) >> dataSource
+            findBean(DataSourceResolver) >> Optional.empty()
+        }
+        ReferenceTables tables = new ReferenceTables(beanLocator, propertyResolver, taskScheduler)
+
+        when:
+        ReferenceTable<Country> table = tables.create("countries", "select id, code from country",
+                { ResultSet rs -> new Country(rs.getLong(1), rs.getString(2)) }, { Country country -> country.id })
+
+        then:
+        1 * connection.prepareStatement("select id, code from country", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT) >> statement
+        table.get(1).code == "FR"
+        table.get(2).code == "DE"
+        1 * connection.close()
+    }
+
+    private static TableSnapshot<Country> snapshot(List<Country> countries, ToLongFunction<Country> sizeOf = ObjectSizes::estimate) {
+        new TableSnapshot<Country>(countries, { Country country -> country.id }, sizeOf, Instant.now(), Duration.ZERO)
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.statement
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+import java.sql.PreparedStatement
+
+class StatementCachingDataSourceSpec extends Specification {
+
+    void "test the statements are reused by the following borrows of a connection"() {
+        given:
+        StatementCache cache = new StatementCache(10, StatementCache.DEFAULT_MAX_MEMORY)
+        PreparedStatement statement = Mock(PreparedStatement)
+        Connection connection = Mock(Connection)
+        DataSource dataSource = new StatementCachingDataSource(Mock(DataSource) { getConnection() >> connection }, cache)
+
+        when:
+        Connection borrowed = dataSource.getConnection()
+        PreparedStatement first = borrowed.prepareStatement("select ?")
+        first.setInt(1, 1)
+        first.executeQuery()
+        first.close()
+        borrowed.close()
+        borrowed = dataSource.getConnection()
+        PreparedStatement second = borrowed.prepareStatement("select ?")
+
+        then:
+        1 * connection.prepareStatement("select ?") >> statement
+        1 * statement.setInt(1, 1)
+        1 * statement.executeQuery()
+        1 * statement.clearParameters()
+        0 * statement.close()
+        1 * connection.close()
+        first.closed
+        !second.closed
+        second.connection.is(borrowed)
+        cache.hitCount == 1
+        cache.missCount == 1
+        cache.size == 1
+        StatementCachingDataSource.findStatementCache(new DataSourceWrapper(dataSource) {}).is(cache)
+        StatementCachingDataSource.findStatementCache(Mock(DataSource)) == null
+
+        when: "the statement is still open when the connection is closed"
+        borrowed.close()
+
+        then:
+        1 * statement.clearParameters()
+        0 * statement.close()
+        second.closed
+    }
+
+    void "test the least recently used statements are evicted"() {
+        given:
+        StatementCache cache = new StatementCache(2, StatementCache.DEFAULT_MAX_MEMORY)
+        PreparedStatement first = Mock(PreparedStatement)
+        PreparedStatement second = Mock(PreparedStatement)
+        PreparedStatement third = Mock(PreparedStatement)
+        Connection connection = Mock(Connection) {
+            prepareStatement("select 1") >> first
+            prepareStatement("select 2") >> second
+            prepareStatement("select 3") >> third
+        }
+        Connection borrowed = new StatementCachingDataSource(Mock(DataSource) { getConnection() >> connection }, cache).getConnection()
+
+        when:
+        borrowed.prepareStatement("select 1").close()
+        borrowed.prepareStatement("select 2").close()
+        borrowed.prepareStatement("select 1").close()
+        PreparedStatement open = borrowed.prepareStatement("select 3")
+
+        then:
+        1 * second.close()
+        0 * first.close()
+        cache.hitCount == 1
+        cache.missCount == 3
+        cache.evictionCount == 1
+        cache.size == 2
+
+        when: "a statement evicted while it is open is closed when it is returned"
+        borrowed.prepareStatement("select 1").close()
+        borrowed.prepareStatement("select 2").close()
+        open.close()
+
+        then:
+        1 * third.close()
+        0 * first.close()
+        cache.evictionCount == 2
+        cache.size == 2
+    }
+
+    void "test the statements that cannot be reused are closed"() {
+        given:
+        StatementCache cache = new StatementCache(10, ConnectionStatements.STATEMENT_OVERHEAD + 100)
+        PreparedStatement statement = Mock(PreparedStatement)
+        PreparedStatement other = Mock(PreparedStatement)
+        Connection first = Mock(Connection)
+        Connection second = Mock(Connection)
+        DataSource dataSource = new StatementCachingDataSource(Mock(DataSource) { getConnection() >>> [first, second] }, cache)
+
+        when: "the settings of the statement are changed"
+        Connection borrowed = dataSource.getConnection()
+        PreparedStatement prepared = borrowed.prepareStatement("select 1")
+        prepared.setFetchSize(10)
+        prepared.close()
+        borrowed.prepareStatement("select 2").close()
+
+        then:
+        1 * first.prepareStatement("select 1") >> statement
+        1 * statement.close()
+        1 * first.prepareStatement("select 2") >> other
+        cache.size == 1
+
+        when: "the statement is over the memory limit"
+        borrowed.prepareStatement("select " + "1" * 100).close()
+
+        then:
+        1 * first.prepareStatement(_) >> statement
+        1 * other.close()
+        1 * statement.close()
+        cache.evictionCount == 2
+        cache.size == 0
+
+        when: "the connection was closed by the pool"
+        borrowed.prepareStatement("select 2").close()
+        borrowed.close()
+        dataSource.getConnection().prepareStatement("select 2")
+
+        then:
+        1 * first.prepareStatement("select 2") >> other
+        1 * first.isClosed() >> true
+        1 * second.prepareStatement("select 2") >> Mock(PreparedStatement)
+        cache.connectionCount == 1
+        cache.size == 1
+    }
+}
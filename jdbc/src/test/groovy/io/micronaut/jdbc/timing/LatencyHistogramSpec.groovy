@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class LatencyHistogramSpec extends Specification {
+
+    @Unroll
+    void "test value #value is counted in a bucket bounding it"() {
+        when:
+        int index = LatencyHistogram.bucketIndex(value)
+
+        then:
+        LatencyHistogram.bucketUpperBound(index) >= value
+        index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value
+
+        where:
+        value << [0L, 1L, 15L, 16L, 17L, 31L, 32L, 1000L, 1_000_000L, 123_456_789L, Long.MAX_VALUE]
+    }
+
+    void "test percentiles are within the bucket precision"() {
+        given:
+        LatencyHistogram histogram = new LatencyHistogram()
+
+        when:
+        (1..1000).each { histogram.record(it * 1000L) }
+
+        then:
+        histogram.count == 1000
+        histogram.max == 1_000_000
+        histogram.mean == 500_500_000 / 1000
+        Math.abs(histogram.getValueAtPercentile(50) - 500_000) <= 500_000 * 0.07
+        Math.abs(histogram.getValueAtPercentile(99) - 990_000) <= 990_000 * 0.07
+        histogram.getValueAtPercentile(100) == 1_000_000
+    }
+
+    void "test an empty histogram"() {
+        given:
+        LatencyHistogram histogram = new LatencyHistogram()
+
+        expect:
+        histogram.count == 0
+        histogram.mean == 0
+        histogram.getValueAtPercentile(99) == 0
+    }
+
+    void "test negative durations are recorded as zero and reset clears the histogram"() {
+        given:
+        LatencyHistogram histogram = new LatencyHistogram()
+
+        when:
+        histogram.record(-5)
+
+        then:
+        histogram.count == 1
+        histogram.max == 0
+
+        when:
+        histogram.reset()
+
+        then:
+        histogram.count == 0
+        histogram.total == 0
+    }
+}
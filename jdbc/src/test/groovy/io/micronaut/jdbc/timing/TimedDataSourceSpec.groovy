@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.jdbc.timing
+
+import io.micronaut.jdbc.DataSourceWrapper
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.Connection
+
+class TimedDataSourceSpec extends Specification {
+
+    void "test acquire and hold times are recorded"() {
+        given:
+        Connection connection = Mock(Connection)
+        DataSource target = Mock(DataSource) {
+            getConnection() >> connection
+        }
+        ConnectionTimings timings = new ConnectionTimings(0, 10)
+        TimedDataSource dataSource = new TimedDataSource(target, timings)
+
+        when:
+        Connection borrowed = dataSource.getConnection()
+        Thread.sleep(5)
+        borrowed.close()
+        borrowed.close()
+
+        then:
+        borrowed.unwrap(Connection) == borrowed
+        timings.acquireTime.count == 1
+        timings.holdTime.count == 1
+        timings.holdTime.max >= 5_000_000
+        timings.longestHolds.isEmpty()
+        2 * connection.close()
+    }
+
+    void "test the longest sampled holds are kept with their call site"() {
+        given:
+        DataSource target = Mock(DataSource) {
+            getConnection() >> Mock(Connection)
+        }
+        ConnectionTimings timings = new ConnectionTimings(1, 2)
+        TimedDataSource dataSource = new TimedDataSource(target, timings)
+
+        when:
+        [1, 200, 100].each { millis ->
+            Connection connection = dataSource.getConnection()
+            Thread.sleep(millis)
+            connection.close()
+        }
+        List<ConnectionHold> holds = timings.longestHolds
+
+        then:
+        holds.size() == 2
+        holds[0].duration.toMillis() >= 200
+        holds[1].duration.toMillis() >= 100
+        holds[1].duration.toMillis() < holds[0].duration.toMillis()
+        holds[0].threadName == Thread.currentThread().name
+        holds[0].stackTrace.length > 0
+        !holds[0].stackTrace[0].className.startsWith(TimedDataSource.package.name)
+
+        when:
+        timings.reset()
+
+        then:
+        timings.longestHolds.isEmpty()
+        timings.holdTime.count == 0
+    }
+
+    void "test the timings are found through wrappers"() {
+        given:
+        DataSource pool = Mock(DataSource)
+        ConnectionTimings timings = new ConnectionTimings(0, 0)
+        DataSource wrapped = new DataSourceWrapper(new TimedDataSource(pool, timings)) {}
+
+        expect:
+        TimedDataSource.findConnectionTimings(wrapped).is(timings)
+        TimedDataSource.findConnectionTimings(pool) == null
+        DataSourceWrapper.unwrap(wrapped).is(pool)
+    }
+}
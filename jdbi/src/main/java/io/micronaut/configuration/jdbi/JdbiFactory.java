@@ -20,6 +20,9 @@ import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Parameter;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.reflect.ClassUtils;
+import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.pinning.ConnectionPinning;
+import io.micronaut.jdbc.pinning.PinnedConnections;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.h2.H2DatabasePlugin;
 import org.jdbi.v3.core.statement.StatementBuilderFactory;
@@ -48,14 +51,48 @@ public class JdbiFactory {
      * @param jdbiCustomizer          The {@link JdbiCustomizer}
      * @return The {@link Jdbi} instance
      */
+    public Jdbi jdbi(
+            DataSource dataSource,
+            @Nullable TransactionHandler transactionHandler,
+            @Nullable StatementBuilderFactory statementBuilderFactory,
+            @Nullable JdbiCustomizer jdbiCustomizer
+    ) {
+        return jdbi(dataSource, transactionHandler, statementBuilderFactory, jdbiCustomizer, null, null);
+    }
+
+    /**
+     * Creates a Jdbi {@link Jdbi} instance.
+     * It will configure it with available Jdbi provider beans with the same qualifier.
+     * When the {@link ConnectionPinning} is enabled and no transaction handler is configured, the connections are
+     * borrowed from the unit of work they are pinned to.
+     * <p>
+     * Plugins will be installed automatically from the classpath using the {@link java.util.ServiceLoader} mechanism
+     *
+     * @param dataSource              The {@link DataSource}
+     * @param transactionHandler      The {@link TransactionHandler}
+     * @param statementBuilderFactory The {@link StatementBuilderFactory}
+     * @param jdbiCustomizer          The {@link JdbiCustomizer}
+     * @param dataSourceResolver      The {@link DataSourceResolver}
+     * @param connectionPinning       The {@link ConnectionPinning}
+     * @return The {@link Jdbi} instance
+     * @since 6.0.0
+     */
     @EachBean(DataSource.class)
     public Jdbi jdbi(
             DataSource dataSource,
             @Parameter @Nullable TransactionHandler transactionHandler,
             @Parameter @Nullable StatementBuilderFactory statementBuilderFactory,
-            @Parameter @Nullable JdbiCustomizer jdbiCustomizer
+            @Parameter @Nullable JdbiCustomizer jdbiCustomizer,
+            @Nullable DataSourceResolver dataSourceResolver,
+            @Nullable ConnectionPinning connectionPinning
     ) {
-        Jdbi jdbi = Jdbi.create(dataSource);
+        if (dataSourceResolver == null) {
+            dataSourceResolver = DataSourceResolver.DEFAULT;
+        }
+        // the connections of a data source managed by a transaction manager are bound by the manager
+        Jdbi jdbi = connectionPinning != null && transactionHandler == null && dataSourceResolver.resolve(dataSource) == dataSource
+            ? Jdbi.create(() -> PinnedConnections.getConnection(dataSource))
+            : Jdbi.create(dataSource);
 
         // install all plugins with ServiceLoaders that are found on the classpath
         jdbi.installPlugins();
@@ -18,6 +18,7 @@ package io.micronaut.configuration.jdbi.transaction.micronaut;
 import io.micronaut.configuration.jdbi.transaction.AbstractTransactionHandler;
 import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.jdbc.jfr.TransactionEvent;
 import io.micronaut.transaction.TransactionDefinition;
 import io.micronaut.transaction.TransactionStatus;
 import io.micronaut.transaction.jdbc.DataSourceTransactionManager;
@@ -57,15 +58,18 @@ public class MicronautDataTransactionHandler extends AbstractTransactionHandler
     public void begin(Handle handle) {
         TransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.Propagation.NESTED);
         TransactionStatus<Connection> status = this.transactionManager.getTransaction(definition);
-        this.localTransactions.putIfAbsent(handle, new LocalStuff(status));
+        this.localTransactions.computeIfAbsent(handle, h -> new LocalStuff(status, TransactionEvent.begin("Jdbi", status.isNewTransaction())));
     }
 
     @Override
     public void commit(Handle handle) {
         withLocalStuff(handle, localStuff -> {
+            boolean committed = false;
             try {
                 this.transactionManager.commit(localStuff.getTransactionStatus());
+                committed = true;
             } finally {
+                TransactionEvent.end(localStuff.getEvent(), committed ? TransactionEvent.COMMIT : TransactionEvent.COMMIT_FAILED);
                 restore(handle);
             }
         });
@@ -78,6 +82,7 @@ public class MicronautDataTransactionHandler extends AbstractTransactionHandler
             try {
                 this.transactionManager.rollback(localStuff.getTransactionStatus());
             } finally {
+                TransactionEvent.end(localStuff.getEvent(), TransactionEvent.ROLLBACK);
                 restore(handle);
             }
         });
@@ -137,8 +142,11 @@ public class MicronautDataTransactionHandler extends AbstractTransactionHandler
 
         private final TransactionStatus<Connection> transactionStatus;
 
-        LocalStuff(TransactionStatus<Connection> transactionStatus) {
+        private final TransactionEvent event;
+
+        LocalStuff(TransactionStatus<Connection> transactionStatus, TransactionEvent event) {
             this.transactionStatus = transactionStatus;
+            this.event = event;
         }
 
         Map<String, Object> getSavepoints() {
@@ -149,6 +157,10 @@ public class MicronautDataTransactionHandler extends AbstractTransactionHandler
             return transactionStatus;
         }
 
+        TransactionEvent getEvent() {
+            return event;
+        }
+
     }
 
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jdbi
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.core.propagation.PropagatedContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.pinning.ConnectionPinning
+import io.micronaut.jdbc.pinning.PinnedConnections
+import org.jdbi.v3.core.Handle
+import org.jdbi.v3.core.Jdbi
+import org.jdbi.v3.core.transaction.LocalTransactionHandler
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.sql.DataSource
+
+class ConnectionPinningSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    ApplicationContext applicationContext = ApplicationContext.run(
+            'datasources.default.url': 'jdbc:h2:mem:jdbiPinning;DB_CLOSE_DELAY=-1',
+            'jdbc.connection-pinning.enabled': true,
+            'micronaut.metrics.enabled': false)
+
+    @Shared
+    DataSource dataSource = targetDataSource()
+
+    void setupSpec() {
+        Jdbi.create(dataSource).useHandle { Handle handle ->
+            handle.execute("create table if not exists book (id int primary key, title varchar(100))")
+        }
+    }
+
+    void "test the statements of a unit of work share a pinned connection"() {
+        given:
+        Jdbi jdbi = new JdbiFactory().jdbi(dataSource, null, null, null, null, applicationContext.getBean(ConnectionPinning))
+        PinnedConnections connections = applicationContext.getBean(ConnectionPinning).start()
+
+        when:
+        try (PropagatedContext.Scope ignore = PropagatedContext.getOrEmpty().plus(connections).propagate()) {
+            jdbi.useTransaction { Handle handle -> handle.execute("insert into book values (1, 'The Hobbit')") }
+            8.times {
+                jdbi.withHandle { Handle handle -> handle.createQuery("select count(*) from book").mapTo(Integer).one() }
+            }
+        }
+        connections.close()
+
+        then:
+        connections.pinnedCount == 1
+        connections.reuseCount == 8
+        jdbi.withHandle { Handle handle -> handle.createQuery("select count(*) from book").mapTo(Integer).one() } == 1
+    }
+
+    void "test the connections of a data source managed by a transaction manager are not pinned"() {
+        given:
+        ConnectionPinning connectionPinning = applicationContext.getBean(ConnectionPinning)
+        PinnedConnections connections = connectionPinning.start()
+        List<Jdbi> jdbis = [
+                new JdbiFactory().jdbi(dataSource, LocalTransactionHandler.binding(), null, null, null, connectionPinning),
+                new JdbiFactory().jdbi(dataSource, null, null, null, null, null),
+                new JdbiFactory().jdbi(dataSource, null, null, null)
+        ]
+
+        when:
+        try (PropagatedContext.Scope ignore = PropagatedContext.getOrEmpty().plus(connections).propagate()) {
+            jdbis.each { Jdbi jdbi -> jdbi.useHandle { Handle handle -> handle.execute("select 1") } }
+        }
+        connections.close()
+
+        then:
+        connections.pinnedCount == 0
+    }
+
+    private DataSource targetDataSource() {
+        DataSource dataSource = applicationContext.getBean(DataSource, Qualifiers.byName("default"))
+        if (dataSource instanceof TransactionAwareDataSourceProxy) {
+            dataSource = dataSource.targetDataSource
+        }
+        return applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(dataSource)
+    }
+}
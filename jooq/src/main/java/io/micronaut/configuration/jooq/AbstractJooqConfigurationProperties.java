@@ -16,6 +16,9 @@
 package io.micronaut.configuration.jooq;
 
 import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.BasicJdbcConfiguration;
+import io.micronaut.jdbc.jfr.StartupPhaseEvent;
 import org.jooq.SQLDialect;
 import org.jooq.tools.jdbc.JDBCUtils;
 
@@ -81,16 +84,40 @@ abstract class AbstractJooqConfigurationProperties {
      * @return Effective SQL dialect
      */
     public SQLDialect determineSqlDialect(DataSource dataSource) {
+        return determineSqlDialect(dataSource, (String) null);
+    }
+
+    /**
+     * Resolve {@link SQLDialect} to be used for the data source.
+     * If SQL dialect is not set explicitly and the data source is {@link BasicJdbcConfiguration#isLazy() lazy},
+     * it is detected from the JDBC URL so that no connection is opened. Otherwise it is detected from a connection.
+     *
+     * @param dataSource        data source for automatic detection
+     * @param jdbcConfiguration the configuration of the data source, if any
+     * @return Effective SQL dialect
+     * @since 6.0.0
+     */
+    public SQLDialect determineSqlDialect(DataSource dataSource, @Nullable BasicJdbcConfiguration jdbcConfiguration) {
+        if (this.sqlDialect == null && jdbcConfiguration != null && jdbcConfiguration.isLazy()) {
+            return JDBCUtils.dialect(jdbcConfiguration.getUrl());
+        }
+        return determineSqlDialect(dataSource, jdbcConfiguration != null ? jdbcConfiguration.getName() : null);
+    }
+
+    private SQLDialect determineSqlDialect(DataSource dataSource, @Nullable String name) {
         if (this.sqlDialect != null) {
             return this.sqlDialect;
         }
         if (dataSource == null) {
             return SQLDialect.DEFAULT;
         }
+        StartupPhaseEvent event = StartupPhaseEvent.start(StartupPhaseEvent.DIALECT_DETECTION, name);
         try (Connection connection = dataSource.getConnection()) {
             return JDBCUtils.dialect(connection);
         } catch (SQLException e) {
             throw new RuntimeException(e);
+        } finally {
+            event.commit();
         }
     }
 
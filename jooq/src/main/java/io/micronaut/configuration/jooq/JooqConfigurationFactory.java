@@ -21,7 +21,10 @@ import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Parameter;
 import io.micronaut.core.annotation.Internal;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.jdbc.BasicJdbcConfiguration;
 import io.micronaut.jdbc.DataSourceResolver;
+import io.micronaut.jdbc.pinning.ConnectionPinning;
 import org.jooq.Configuration;
 import org.jooq.ConnectionProvider;
 import org.jooq.ConverterProvider;
@@ -48,6 +51,8 @@ final class JooqConfigurationFactory extends AbstractJooqConfigurationFactory {
     /**
      * Creates jOOQ {@link Configuration}.
      * It will configure it with available jOOQ provider beans with the same qualifier.
+     * When the {@link ConnectionPinning} is enabled and neither a connection provider nor a transaction provider is
+     * configured, the connections are borrowed from the unit of work they are pinned to.
      *
      * @param name                   The data source name
      * @param dataSource             The {@link DataSource}
@@ -61,6 +66,7 @@ final class JooqConfigurationFactory extends AbstractJooqConfigurationFactory {
      * @param connectionProvider     The connection provider
      * @param properties             The properties
      * @param dataSourceResolver     The dataSourceResolver
+     * @param connectionPinning      The connection pinning
      * @param ctx                    The context
      * @return A {@link Configuration}
      */
@@ -79,6 +85,7 @@ final class JooqConfigurationFactory extends AbstractJooqConfigurationFactory {
         @Parameter @Nullable ConnectionProvider connectionProvider,
         @Parameter @Nullable JooqConfigurationProperties properties,
         @Nullable DataSourceResolver dataSourceResolver,
+        @Nullable ConnectionPinning connectionPinning,
         @Nullable ApplicationContext ctx
     ) {
 
@@ -96,13 +103,21 @@ final class JooqConfigurationFactory extends AbstractJooqConfigurationFactory {
             configuration.setConnectionProvider(connectionProvider);
         }
 
-        configuration.setSQLDialect(properties.determineSqlDialect(dataSourceResolver.resolve(dataSource)));
+        BasicJdbcConfiguration jdbcConfiguration = ctx == null ? null
+            : ctx.findBean(BasicJdbcConfiguration.class, Qualifiers.byName(name)).orElse(null);
+        DataSource targetDataSource = dataSourceResolver.resolve(dataSource);
+        configuration.setSQLDialect(properties.determineSqlDialect(targetDataSource, jdbcConfiguration));
 
         if (transactionProvider != null) {
             configuration.setTransactionProvider(transactionProvider);
         }
         if (connectionProvider == null) {
-            configuration.setDataSource(dataSource);
+            // the connections of a data source managed by a transaction manager are bound by the manager
+            if (connectionPinning != null && transactionProvider == null && targetDataSource == dataSource) {
+                configuration.setConnectionProvider(new PinnedConnectionProvider(dataSource));
+            } else {
+                configuration.setDataSource(dataSource);
+            }
         }
 
         return configuration;
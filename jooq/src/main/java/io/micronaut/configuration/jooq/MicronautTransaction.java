@@ -15,6 +15,8 @@
  */
 package io.micronaut.configuration.jooq;
 
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.jdbc.jfr.TransactionEvent;
 import io.micronaut.transaction.TransactionStatus;
 import org.jooq.Transaction;
 
@@ -32,6 +34,7 @@ import java.sql.Connection;
 class MicronautTransaction implements Transaction {
 
     private final TransactionStatus<Connection> transactionStatus;
+    private final TransactionEvent event;
 
     /**
      * Wrap existing {@link TransactionStatus} object with jOOQ transaction.
@@ -39,7 +42,18 @@ class MicronautTransaction implements Transaction {
      * @param transactionStatus The transaction status object
      */
     MicronautTransaction(TransactionStatus<Connection> transactionStatus) {
+        this(transactionStatus, null);
+    }
+
+    /**
+     * Wrap existing {@link TransactionStatus} object with jOOQ transaction.
+     *
+     * @param transactionStatus The transaction status object
+     * @param event             The flight recorder event of the transaction, if enabled
+     */
+    MicronautTransaction(TransactionStatus<Connection> transactionStatus, @Nullable TransactionEvent event) {
         this.transactionStatus = transactionStatus;
+        this.event = event;
     }
 
     /**
@@ -51,4 +65,12 @@ class MicronautTransaction implements Transaction {
         return this.transactionStatus;
     }
 
+    /**
+     * @return The flight recorder event of the transaction, if enabled
+     */
+    @Nullable
+    TransactionEvent getEvent() {
+        return event;
+    }
+
 }
@@ -17,6 +17,7 @@ package io.micronaut.configuration.jooq;
 
 import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.jdbc.jfr.TransactionEvent;
 import io.micronaut.transaction.TransactionDefinition;
 import io.micronaut.transaction.TransactionStatus;
 import io.micronaut.transaction.jdbc.DataSourceTransactionManager;
@@ -54,22 +55,33 @@ public class MicronautTransactionProvider implements TransactionProvider {
     public void begin(TransactionContext context) throws DataAccessException {
         TransactionDefinition definition = TransactionDefinition.DEFAULT;
         TransactionStatus<Connection> status = transactionManager.getTransaction(definition);
-        context.transaction(new MicronautTransaction(status));
+        context.transaction(new MicronautTransaction(status, TransactionEvent.begin("jOOQ", status.isNewTransaction())));
     }
 
     @Override
     public void commit(TransactionContext ctx) throws DataAccessException {
-        transactionManager.commit(getTransactionStatus(ctx));
+        MicronautTransaction transaction = getTransaction(ctx);
+        boolean committed = false;
+        try {
+            transactionManager.commit(transaction.getTxStatus());
+            committed = true;
+        } finally {
+            TransactionEvent.end(transaction.getEvent(), committed ? TransactionEvent.COMMIT : TransactionEvent.COMMIT_FAILED);
+        }
     }
 
     @Override
     public void rollback(TransactionContext ctx) throws DataAccessException {
-        transactionManager.rollback(getTransactionStatus(ctx));
+        MicronautTransaction transaction = getTransaction(ctx);
+        try {
+            transactionManager.rollback(transaction.getTxStatus());
+        } finally {
+            TransactionEvent.end(transaction.getEvent(), TransactionEvent.ROLLBACK);
+        }
     }
 
-    private TransactionStatus<Connection> getTransactionStatus(TransactionContext ctx) {
-        MicronautTransaction transaction = (MicronautTransaction) ctx.transaction();
-        return transaction.getTxStatus();
+    private MicronautTransaction getTransaction(TransactionContext ctx) {
+        return (MicronautTransaction) ctx.transaction();
     }
 
 }
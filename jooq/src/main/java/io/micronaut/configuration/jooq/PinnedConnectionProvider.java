@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jooq;
+
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.jdbc.pinning.PinnedConnections;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Borrows the connection of a data source pinned to the current unit of work by the
+ * {@link io.micronaut.jdbc.pinning.ConnectionPinning}, or a connection of the data source outside a unit of work.
+ *
+ * @since 6.0.0
+ */
+@Internal
+final class PinnedConnectionProvider implements ConnectionProvider {
+
+    private final DataSource dataSource;
+
+    /**
+     * @param dataSource The data source
+     */
+    PinnedConnectionProvider(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Connection acquire() throws DataAccessException {
+        try {
+            return PinnedConnections.getConnection(dataSource);
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting connection from data source " + dataSource, e);
+        }
+    }
+
+    @Override
+    public void release(Connection connection) throws DataAccessException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error closing connection " + connection, e);
+        }
+    }
+}
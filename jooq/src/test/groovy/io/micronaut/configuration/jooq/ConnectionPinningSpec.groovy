@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jooq
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.core.propagation.PropagatedContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.pinning.ConnectionPinning
+import io.micronaut.jdbc.pinning.PinnedConnections
+import org.jooq.Configuration
+import org.jooq.DSLContext
+import org.jooq.TransactionProvider
+import org.jooq.impl.DSL
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.sql.DataSource
+
+class ConnectionPinningSpec extends Specification {
+
+    @Shared
+    @AutoCleanup
+    ApplicationContext applicationContext = ApplicationContext.run(
+            'datasources.default.url': 'jdbc:h2:mem:jooqPinning;DB_CLOSE_DELAY=-1',
+            'jdbc.connection-pinning.enabled': true,
+            'micronaut.metrics.enabled': false)
+
+    @Shared
+    DataSource dataSource = targetDataSource()
+
+    void setupSpec() {
+        DSL.using(dataSource.connection).execute("create table if not exists book (id int primary key, title varchar(100))")
+    }
+
+    void "test the statements of a unit of work share a pinned connection"() {
+        given:
+        DSLContext dsl = DSL.using(jooqConfiguration(dataSource))
+        PinnedConnections connections = applicationContext.getBean(ConnectionPinning).start()
+
+        when:
+        try (PropagatedContext.Scope ignore = PropagatedContext.getOrEmpty().plus(connections).propagate()) {
+            dsl.transaction { transaction -> transaction.dsl().execute("insert into book values (1, 'The Hobbit')") }
+            8.times { dsl.fetchCount(DSL.table("book")) }
+        }
+        connections.close()
+
+        then:
+        connections.pinnedCount == 1
+        connections.reuseCount == 8
+        dsl.fetchCount(DSL.table("book")) == 1
+    }
+
+    void "test the connections of a data source managed by a transaction manager are not pinned"() {
+        given:
+        DataSource target = Mock(DataSource)
+        DataSourceResolver dataSourceResolver = new DataSourceResolver() {
+            @Override
+            DataSource resolve(DataSource dataSource) {
+                return target
+            }
+        }
+
+        expect:
+        jooqConfiguration(dataSource).connectionProvider() instanceof PinnedConnectionProvider
+        !(jooqConfiguration(dataSource, Mock(TransactionProvider)).connectionProvider() instanceof PinnedConnectionProvider)
+        !(jooqConfiguration(dataSource, null, dataSourceResolver).connectionProvider() instanceof PinnedConnectionProvider)
+        !(jooqConfiguration(dataSource, null, null, null).connectionProvider() instanceof PinnedConnectionProvider)
+    }
+
+    private Configuration jooqConfiguration(DataSource dataSource,
+                                            TransactionProvider transactionProvider = null,
+                                            DataSourceResolver dataSourceResolver = null,
+                                            ConnectionPinning connectionPinning = applicationContext.getBean(ConnectionPinning)) {
+        return new JooqConfigurationFactory().jooqConfiguration("default", dataSource, transactionProvider, null, null,
+                null, null, null, null, null, null, dataSourceResolver, connectionPinning, applicationContext)
+    }
+
+    private DataSource targetDataSource() {
+        DataSource dataSource = applicationContext.getBean(DataSource, Qualifiers.byName("default"))
+        if (dataSource instanceof TransactionAwareDataSourceProxy) {
+            dataSource = dataSource.targetDataSource
+        }
+        return applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT).resolve(dataSource)
+    }
+}
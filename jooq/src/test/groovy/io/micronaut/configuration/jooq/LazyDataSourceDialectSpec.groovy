@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.configuration.jooq
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.jdbc.DataSourceResolver
+import io.micronaut.jdbc.LazyDataSource
+import org.jooq.DSLContext
+import org.jooq.SQLDialect
+import spock.lang.Specification
+
+import javax.sql.DataSource
+
+class LazyDataSourceDialectSpec extends Specification {
+
+    void "test the dialect of a lazy data source is detected without a connection"() {
+        given:
+        ApplicationContext applicationContext = ApplicationContext.run(
+                'datasources.default.url': 'jdbc:h2:mem:lazyJooq;DB_CLOSE_DELAY=-1',
+                'datasources.default.lazy': true)
+
+        when:
+        DSLContext context = applicationContext.getBean(DSLContext)
+        LazyDataSource dataSource = applicationContext.findBean(DataSourceResolver).orElse(DataSourceResolver.DEFAULT)
+                .resolve(applicationContext.getBean(DataSource, Qualifiers.byName("default"))) as LazyDataSource
+
+        then:
+        context.dialect() == SQLDialect.H2
+        !dataSource.initialized
+
+        cleanup:
+        applicationContext.close()
+    }
+}